@@ -0,0 +1,184 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.eventbus.EventBus;
+
+import io.github.astrapi69.design.pattern.eventbus.annotation.Subscribe;
+
+/**
+ * The class {@link AnnotatedSubscriberBenchmark} measures the post latency to annotated subscriber
+ * objects. The implementation {@code invoker} is a {@link BaseEventBus} with subscribers
+ * registered by {@link BaseEventBus#register(Object)}, whose handler methods are called by
+ * generated invokers. The implementation {@code reflection} is the same event bus with listeners
+ * that call the handler methods with {@link Method#invoke(Object, Object...)}, and {@code guava}
+ * is the Guava {@link EventBus} with its reflection based subscribers
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AnnotatedSubscriberBenchmark
+{
+
+	/** The event bus implementation */
+	@Param({ "invoker", "reflection", "guava" })
+	public String implementation;
+
+	/** The number of subscriber objects */
+	@Param({ "1", "10" })
+	public int subscribers;
+
+	/** The post method of the event bus implementation */
+	private Consumer<Object> post;
+
+	/** The posted event */
+	private final BenchmarkEvent event = new BenchmarkEvent();
+
+	/**
+	 * Creates the event bus implementation and registers the subscriber objects
+	 *
+	 * @throws NoSuchMethodException
+	 *             is thrown if the handler method is not found
+	 */
+	@Setup
+	public void setUp() throws NoSuchMethodException
+	{
+		switch (implementation)
+		{
+			case "invoker" :
+				BaseEventBus invokerEventBus = new BaseEventBus("invoker");
+				for (int i = 0; i < subscribers; i++)
+				{
+					invokerEventBus.register(new CountingSubscriber());
+				}
+				post = invokerEventBus::post;
+				break;
+			case "reflection" :
+				BaseEventBus reflectionEventBus = new BaseEventBus("reflection");
+				Method handler = CountingSubscriber.class.getMethod("onEvent",
+					BenchmarkEvent.class);
+				for (int i = 0; i < subscribers; i++)
+				{
+					CountingSubscriber subscriber = new CountingSubscriber();
+					reflectionEventBus.subscribe(payload -> invoke(handler, subscriber, payload),
+						BenchmarkEvent.class);
+				}
+				post = reflectionEventBus::post;
+				break;
+			case "guava" :
+				EventBus guavaEventBus = new EventBus();
+				for (int i = 0; i < subscribers; i++)
+				{
+					guavaEventBus.register(new CountingSubscriber());
+				}
+				post = guavaEventBus::post;
+				break;
+			default :
+				throw new IllegalArgumentException("Unknown implementation " + implementation);
+		}
+	}
+
+	/**
+	 * Posts one event
+	 */
+	@Benchmark
+	public void post()
+	{
+		post.accept(event);
+	}
+
+	/**
+	 * Invokes the given handler method reflectively
+	 *
+	 * @param handler
+	 *            the handler method
+	 * @param subscriber
+	 *            the subscriber object
+	 * @param payload
+	 *            the event
+	 */
+	private static void invoke(final Method handler, final Object subscriber,
+		final Object payload)
+	{
+		try
+		{
+			handler.invoke(subscriber, payload);
+		}
+		catch (IllegalAccessException | InvocationTargetException exception)
+		{
+			throw new IllegalStateException(exception);
+		}
+	}
+
+	/**
+	 * The event type of this benchmark
+	 */
+	public static class BenchmarkEvent
+	{
+	}
+
+	/**
+	 * A subscriber that counts the received events, its handler method is annotated for this
+	 * library and for Guava
+	 */
+	public static class CountingSubscriber
+	{
+		/** The count of the received events */
+		long count;
+
+		/**
+		 * Counts the received event
+		 *
+		 * @param event
+		 *            the received event
+		 */
+		@Subscribe
+		@com.google.common.eventbus.Subscribe
+		public void onEvent(final BenchmarkEvent event)
+		{
+			count++;
+		}
+	}
+}
@@ -0,0 +1,77 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The class {@link EventBusBenchmarkRunner} runs the {@link EventBusPostBenchmark} once for every
+ * number of producer threads from 1 to 32 and writes the results of every run to its own json file
+ * in the directory {@code build/results/jmh}. Additional jmh command line options are passed
+ * through to every run
+ */
+public final class EventBusBenchmarkRunner
+{
+
+	/** The numbers of producer threads */
+	private static final int[] PRODUCER_THREADS = { 1, 2, 4, 8, 16, 32 };
+
+	/**
+	 * Private constructor to prevent instantiation
+	 */
+	private EventBusBenchmarkRunner()
+	{
+	}
+
+	/**
+	 * The main method that runs the benchmark with every number of producer threads
+	 *
+	 * @param args
+	 *            additional jmh command line options
+	 * @throws RunnerException
+	 *             is thrown if a benchmark run fails
+	 * @throws CommandLineOptionException
+	 *             is thrown if the command line options are invalid
+	 */
+	public static void main(final String[] args)
+		throws RunnerException, CommandLineOptionException
+	{
+		Options commandLineOptions = new CommandLineOptions(args);
+		for (int threads : PRODUCER_THREADS)
+		{
+			Options options = new OptionsBuilder().parent(commandLineOptions)
+				.include(EventBusPostBenchmark.class.getSimpleName()).threads(threads)
+				.resultFormat(ResultFormatType.JSON)
+				.result("build/results/jmh/post-threads-" + threads + ".json").build();
+			new Runner(options).run();
+		}
+	}
+}
@@ -0,0 +1,445 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.eventbus.AllowConcurrentEvents;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+
+import io.github.astrapi69.design.pattern.eventbus.api.ApplicationEventBus;
+import io.github.astrapi69.design.pattern.observer.event.EventListener;
+import io.github.astrapi69.design.pattern.observer.event.EventObject;
+
+/**
+ * The class {@link EventBusPostBenchmark} measures the post throughput and the post latency of the
+ * {@link BaseEventBus}, the {@link GenericEventBus}, the {@link ApplicationEventBus} as the
+ * reference implementation of the {@link io.github.astrapi69.design.pattern.eventbus.api.EventBus}
+ * api and the Guava {@link EventBus}. Every implementation is measured with 0, 1, 10 and 1000
+ * listeners per event type and with 1 and 4 event types. The number of producer threads is set
+ * with the jmh option {@code -t}, the {@link EventBusBenchmarkRunner} runs this benchmark with 1
+ * to 32 producer threads
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventBusPostBenchmark
+{
+
+	/** All event types of this benchmark */
+	private static final List<Class<?>> EVENT_TYPES = List.of(EventA.class, EventB.class,
+		EventC.class, EventD.class);
+
+	/** The event bus implementation */
+	@Param({ "base", "generic", "application", "guava" })
+	public String implementation;
+
+	/** The number of listeners per event type */
+	@Param({ "0", "1", "10", "1000" })
+	public int listeners;
+
+	/** The number of event types */
+	@Param({ "1", "4" })
+	public int eventTypes;
+
+	/** The post method of the event bus implementation */
+	private Consumer<Object> post;
+
+	/** The actions that unregister all listeners */
+	private final List<Runnable> unregisterActions = new ArrayList<>();
+
+	/** The events that are posted in turn */
+	private Object[] events;
+
+	/**
+	 * Creates the event bus implementation and registers the listeners
+	 */
+	@Setup
+	public void setUp()
+	{
+		events = new Object[] { new EventA(), new EventB(), new EventC(), new EventD() };
+		List<Class<?>> types = EVENT_TYPES.subList(0, eventTypes);
+		switch (implementation)
+		{
+			case "base" :
+				BaseEventBus baseEventBus = new BaseEventBus("benchmark");
+				for (Class<?> type : types)
+				{
+					for (int i = 0; i < listeners; i++)
+					{
+						register(baseEventBus, type);
+					}
+				}
+				post = baseEventBus::post;
+				break;
+			case "generic" :
+				for (Class<?> type : types)
+				{
+					for (int i = 0; i < listeners; i++)
+					{
+						registerGeneric(type);
+					}
+				}
+				post = GenericEventBus::post;
+				break;
+			case "application" :
+				BenchmarkApplicationEventBus applicationEventBus = new BenchmarkApplicationEventBus();
+				for (Class<?> type : types)
+				{
+					for (int i = 0; i < listeners; i++)
+					{
+						applicationEventBus.register(new TypedSubscriber(type));
+					}
+				}
+				post = applicationEventBus::post;
+				break;
+			case "guava" :
+				EventBus guavaEventBus = new EventBus();
+				for (Class<?> type : types)
+				{
+					for (int i = 0; i < listeners; i++)
+					{
+						guavaEventBus.register(newGuavaSubscriber(type));
+					}
+				}
+				post = guavaEventBus::post;
+				break;
+			default :
+				throw new IllegalArgumentException("Unknown implementation " + implementation);
+		}
+	}
+
+	/**
+	 * Unregisters the listeners of the application wide {@link GenericEventBus}
+	 */
+	@TearDown
+	public void tearDown()
+	{
+		unregisterActions.forEach(Runnable::run);
+		unregisterActions.clear();
+	}
+
+	/**
+	 * Measures the post throughput
+	 *
+	 * @param producer
+	 *            the state of the producer thread
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public void postThroughput(final Producer producer)
+	{
+		post.accept(events[producer.next(eventTypes)]);
+	}
+
+	/**
+	 * Measures the distribution of the post latency
+	 *
+	 * @param producer
+	 *            the state of the producer thread
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SampleTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public void postLatency(final Producer producer)
+	{
+		post.accept(events[producer.next(eventTypes)]);
+	}
+
+	/**
+	 * Registers a new counting listener for the given event type to the given event bus
+	 *
+	 * @param <T>
+	 *            the event type
+	 * @param eventBus
+	 *            the event bus
+	 * @param type
+	 *            the event type
+	 */
+	private static <T> void register(final BaseEventBus eventBus, final Class<T> type)
+	{
+		eventBus.register(new CountingListener<>(), type);
+	}
+
+	/**
+	 * Registers a new counting listener for the given event type to the {@link GenericEventBus}
+	 *
+	 * @param <T>
+	 *            the event type
+	 * @param type
+	 *            the event type
+	 */
+	private <T> void registerGeneric(final Class<T> type)
+	{
+		CountingListener<T> listener = new CountingListener<>();
+		GenericEventBus.register(listener, type);
+		unregisterActions.add(() -> GenericEventBus.unregister(listener, type));
+	}
+
+	/**
+	 * Creates a new Guava subscriber for the given event type
+	 *
+	 * @param type
+	 *            the event type
+	 * @return the new Guava subscriber
+	 */
+	private static Object newGuavaSubscriber(final Class<?> type)
+	{
+		if (type == EventA.class)
+		{
+			return new GuavaSubscriberA();
+		}
+		if (type == EventB.class)
+		{
+			return new GuavaSubscriberB();
+		}
+		if (type == EventC.class)
+		{
+			return new GuavaSubscriberC();
+		}
+		return new GuavaSubscriberD();
+	}
+
+	/**
+	 * The state of a producer thread that selects the next event type in turn
+	 */
+	@State(Scope.Thread)
+	public static class Producer
+	{
+		/** The index of the next event */
+		private int index;
+
+		/**
+		 * Gets the index of the next event
+		 *
+		 * @param eventTypes
+		 *            the number of event types
+		 * @return the index of the next event
+		 */
+		int next(final int eventTypes)
+		{
+			int next = index;
+			index = next + 1 == eventTypes ? 0 : next + 1;
+			return next;
+		}
+	}
+
+	/**
+	 * The first event type
+	 */
+	public static class EventA
+	{
+	}
+
+	/**
+	 * The second event type
+	 */
+	public static class EventB
+	{
+	}
+
+	/**
+	 * The third event type
+	 */
+	public static class EventC
+	{
+	}
+
+	/**
+	 * The fourth event type
+	 */
+	public static class EventD
+	{
+	}
+
+	/**
+	 * A listener that counts the received events
+	 *
+	 * @param <T>
+	 *            the event type
+	 */
+	public static class CountingListener<T> implements EventListener<EventObject<T>>
+	{
+		/** The count of the received events */
+		long count;
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void onEvent(final EventObject<T> event)
+		{
+			count++;
+		}
+	}
+
+	/**
+	 * A subscriber of the {@link ApplicationEventBus} that counts the received events of its type
+	 */
+	public static class TypedSubscriber
+	{
+		/** The event type of this subscriber */
+		final Class<?> type;
+
+		/** The count of the received events */
+		long count;
+
+		/**
+		 * Instantiates a new {@code TypedSubscriber}
+		 *
+		 * @param type
+		 *            the event type of this subscriber
+		 */
+		TypedSubscriber(final Class<?> type)
+		{
+			this.type = type;
+		}
+	}
+
+	/**
+	 * The {@link ApplicationEventBus} that delivers an event to the subscribers of its type
+	 */
+	public static class BenchmarkApplicationEventBus extends ApplicationEventBus<TypedSubscriber, Object>
+	{
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void onPost(final TypedSubscriber subscriber, final Object event)
+		{
+			if (subscriber.type.isInstance(event))
+			{
+				subscriber.count++;
+			}
+		}
+	}
+
+	/**
+	 * A Guava subscriber of the first event type
+	 */
+	public static class GuavaSubscriberA
+	{
+		/** The count of the received events */
+		long count;
+
+		/**
+		 * Counts the received event
+		 *
+		 * @param event
+		 *            the received event
+		 */
+		@Subscribe
+		@AllowConcurrentEvents
+		public void onEvent(final EventA event)
+		{
+			count++;
+		}
+	}
+
+	/**
+	 * A Guava subscriber of the second event type
+	 */
+	public static class GuavaSubscriberB
+	{
+		/** The count of the received events */
+		long count;
+
+		/**
+		 * Counts the received event
+		 *
+		 * @param event
+		 *            the received event
+		 */
+		@Subscribe
+		@AllowConcurrentEvents
+		public void onEvent(final EventB event)
+		{
+			count++;
+		}
+	}
+
+	/**
+	 * A Guava subscriber of the third event type
+	 */
+	public static class GuavaSubscriberC
+	{
+		/** The count of the received events */
+		long count;
+
+		/**
+		 * Counts the received event
+		 *
+		 * @param event
+		 *            the received event
+		 */
+		@Subscribe
+		@AllowConcurrentEvents
+		public void onEvent(final EventC event)
+		{
+			count++;
+		}
+	}
+
+	/**
+	 * A Guava subscriber of the fourth event type
+	 */
+	public static class GuavaSubscriberD
+	{
+		/** The count of the received events */
+		long count;
+
+		/**
+		 * Counts the received event
+		 *
+		 * @param event
+		 *            the received event
+		 */
+		@Subscribe
+		@AllowConcurrentEvents
+		public void onEvent(final EventD event)
+		{
+			count++;
+		}
+	}
+}
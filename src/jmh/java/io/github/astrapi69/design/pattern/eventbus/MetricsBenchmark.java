@@ -0,0 +1,108 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The class {@link MetricsBenchmark} measures the cost of the metrics of a {@link BaseEventBus}
+ * on the post path. The mode {@code never} is an event bus that never recorded metrics, the mode
+ * {@code disabled} is an event bus whose metrics were enabled and disabled again and the mode
+ * {@code enabled} records all metrics. The scores of {@code never} and {@code disabled} are
+ * expected to be equal within the error
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MetricsBenchmark
+{
+
+	/** The metrics mode of the event bus */
+	@Param({ "never", "disabled", "enabled" })
+	public String mode;
+
+	/** The number of listeners of the event type */
+	@Param({ "0", "1", "10" })
+	public int listeners;
+
+	/** The event bus under test */
+	private BaseEventBus eventBus;
+
+	/** The posted event */
+	private final BenchmarkEvent event = new BenchmarkEvent();
+
+	/**
+	 * Creates the event bus, subscribes the listeners and applies the metrics mode
+	 *
+	 * @param blackhole
+	 *            the blackhole that consumes the delivered events
+	 */
+	@Setup
+	public void setUp(final Blackhole blackhole)
+	{
+		eventBus = new BaseEventBus("metrics");
+		for (int i = 0; i < listeners; i++)
+		{
+			eventBus.subscribe(blackhole::consume, BenchmarkEvent.class);
+		}
+		if (!"never".equals(mode))
+		{
+			eventBus.setMetricsEnabled(true);
+			eventBus.setMetricsEnabled("enabled".equals(mode));
+		}
+	}
+
+	/**
+	 * Posts one event
+	 */
+	@Benchmark
+	public void post()
+	{
+		eventBus.post(event);
+	}
+
+	/**
+	 * The event type of this benchmark
+	 */
+	public static class BenchmarkEvent
+	{
+	}
+}
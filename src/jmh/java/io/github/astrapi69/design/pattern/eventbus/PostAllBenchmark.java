@@ -0,0 +1,173 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.astrapi69.design.pattern.eventbus.listener.BatchListener;
+import io.github.astrapi69.design.pattern.observer.event.EventListener;
+import io.github.astrapi69.design.pattern.observer.event.EventObject;
+
+/**
+ * The class {@link PostAllBenchmark} compares posting a batch of events one by one in a loop with
+ * {@link BaseEventBus#postAll(java.util.Collection)} for per event listeners and for a
+ * {@link BatchListener}. The score is the time of one whole batch, the cost per event is the score
+ * divided by the batch size
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PostAllBenchmark
+{
+
+	/** The number of events per batch */
+	@Param({ "1", "16", "256", "4096" })
+	public int batchSize;
+
+	/** The event bus with a per event listener */
+	private BaseEventBus eventBus;
+
+	/** The event bus with a batch listener */
+	private BaseEventBus batchEventBus;
+
+	/** The batch of events */
+	private List<BenchmarkEvent> batch;
+
+	/**
+	 * Creates the event buses, registers the listeners and creates the batch
+	 *
+	 * @param blackhole
+	 *            the blackhole that consumes the delivered events
+	 */
+	@Setup
+	public void setUp(final Blackhole blackhole)
+	{
+		eventBus = new BaseEventBus("loop");
+		eventBus.register(event -> blackhole.consume(event.getSource()), BenchmarkEvent.class);
+		batchEventBus = new BaseEventBus("batch");
+		batchEventBus.register(new ConsumingBatchListener(blackhole), BenchmarkEvent.class);
+		batch = new ArrayList<>(batchSize);
+		for (int i = 0; i < batchSize; i++)
+		{
+			batch.add(new BenchmarkEvent());
+		}
+	}
+
+	/**
+	 * Posts the batch one event after another
+	 */
+	@Benchmark
+	public void postLoop()
+	{
+		for (BenchmarkEvent event : batch)
+		{
+			eventBus.post(event);
+		}
+	}
+
+	/**
+	 * Posts the batch at once to a per event listener
+	 */
+	@Benchmark
+	public void postAll()
+	{
+		eventBus.postAll(batch);
+	}
+
+	/**
+	 * Posts the batch at once to a batch listener
+	 */
+	@Benchmark
+	public void postAllToBatchListener()
+	{
+		batchEventBus.postAll(batch);
+	}
+
+	/**
+	 * The event type of this benchmark
+	 */
+	public static class BenchmarkEvent
+	{
+	}
+
+	/**
+	 * A batch listener that consumes the received batches
+	 */
+	public static class ConsumingBatchListener
+		implements
+			EventListener<EventObject<BenchmarkEvent>>,
+			BatchListener<BenchmarkEvent>
+	{
+		/** The blackhole that consumes the delivered events */
+		private final Blackhole blackhole;
+
+		/**
+		 * Instantiates a new {@code ConsumingBatchListener}
+		 *
+		 * @param blackhole
+		 *            the blackhole that consumes the delivered events
+		 */
+		public ConsumingBatchListener(final Blackhole blackhole)
+		{
+			this.blackhole = blackhole;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void onEvent(final EventObject<BenchmarkEvent> event)
+		{
+			blackhole.consume(event.getSource());
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void onBatch(final List<BenchmarkEvent> sources)
+		{
+			blackhole.consume(sources);
+		}
+	}
+}
@@ -0,0 +1,298 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.annotation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The class {@link SubscriberIndexBenchmark} measures the startup cost of resolving the handler
+ * methods of subscriber classes in a fresh JVM. The benchmark {@code reflection} scans the classes
+ * with reflection and links every handler method with the {@code LambdaMetafactory}, the benchmark
+ * {@code index} takes the handler methods from the {@link SubscriberIndex} classes that the
+ * {@code SubscriberIndexProcessor} generated for the jmh sources. Every fork measures exactly one
+ * cold invocation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class SubscriberIndexBenchmark
+{
+
+	/** The subscriber classes of this benchmark */
+	private static final List<Class<?>> SUBSCRIBER_CLASSES = List.of(SubscriberA.class,
+		SubscriberB.class, SubscriberC.class, SubscriberD.class, SubscriberE.class,
+		SubscriberF.class);
+
+	/**
+	 * Resolves the handler methods of all subscriber classes with reflection
+	 *
+	 * @return the resolved handler methods
+	 */
+	@Benchmark
+	public List<SubscriberMethod> reflection()
+	{
+		List<SubscriberMethod> methods = new ArrayList<>();
+		for (Class<?> subscriberClass : SUBSCRIBER_CLASSES)
+		{
+			methods.addAll(SubscriberMethods.scan(subscriberClass));
+		}
+		return methods;
+	}
+
+	/**
+	 * Resolves the handler methods of all subscriber classes from their generated indexes
+	 *
+	 * @return the resolved handler methods
+	 */
+	@Benchmark
+	public List<SubscriberMethod> index()
+	{
+		List<SubscriberMethod> methods = new ArrayList<>();
+		for (Class<?> subscriberClass : SUBSCRIBER_CLASSES)
+		{
+			List<SubscriberMethod> indexed = SubscriberMethods.indexed(subscriberClass);
+			if (indexed == null)
+			{
+				throw new IllegalStateException("No subscriber index was generated for "
+					+ subscriberClass.getName());
+			}
+			methods.addAll(indexed);
+		}
+		return methods;
+	}
+
+	/**
+	 * A subscriber with two handler methods
+	 */
+	public static class SubscriberA
+	{
+		/** The count of the received events */
+		long count;
+
+		/**
+		 * Counts a received text
+		 *
+		 * @param text
+		 *            the received text
+		 */
+		@Subscribe
+		public void onText(final String text)
+		{
+			count++;
+		}
+
+		/**
+		 * Counts a received number
+		 *
+		 * @param number
+		 *            the received number
+		 */
+		@Subscribe(priority = 1)
+		public void onNumber(final Number number)
+		{
+			count++;
+		}
+	}
+
+	/**
+	 * A subscriber with two handler methods
+	 */
+	public static class SubscriberB
+	{
+		/** The count of the received events */
+		long count;
+
+		/**
+		 * Counts a received text
+		 *
+		 * @param text
+		 *            the received text
+		 */
+		@Subscribe
+		public void onText(final String text)
+		{
+			count++;
+		}
+
+		/**
+		 * Counts a received number
+		 *
+		 * @param number
+		 *            the received number
+		 */
+		@Subscribe(priority = 1)
+		public void onNumber(final Number number)
+		{
+			count++;
+		}
+	}
+
+	/**
+	 * A subscriber with two handler methods
+	 */
+	public static class SubscriberC
+	{
+		/** The count of the received events */
+		long count;
+
+		/**
+		 * Counts a received text
+		 *
+		 * @param text
+		 *            the received text
+		 */
+		@Subscribe
+		public void onText(final String text)
+		{
+			count++;
+		}
+
+		/**
+		 * Counts a received number
+		 *
+		 * @param number
+		 *            the received number
+		 */
+		@Subscribe(priority = 1)
+		public void onNumber(final Number number)
+		{
+			count++;
+		}
+	}
+
+	/**
+	 * A subscriber with two handler methods
+	 */
+	public static class SubscriberD
+	{
+		/** The count of the received events */
+		long count;
+
+		/**
+		 * Counts a received text
+		 *
+		 * @param text
+		 *            the received text
+		 */
+		@Subscribe
+		public void onText(final String text)
+		{
+			count++;
+		}
+
+		/**
+		 * Counts a received number
+		 *
+		 * @param number
+		 *            the received number
+		 */
+		@Subscribe(priority = 1)
+		public void onNumber(final Number number)
+		{
+			count++;
+		}
+	}
+
+	/**
+	 * A subscriber with two handler methods
+	 */
+	public static class SubscriberE
+	{
+		/** The count of the received events */
+		long count;
+
+		/**
+		 * Counts a received text
+		 *
+		 * @param text
+		 *            the received text
+		 */
+		@Subscribe
+		public void onText(final String text)
+		{
+			count++;
+		}
+
+		/**
+		 * Counts a received number
+		 *
+		 * @param number
+		 *            the received number
+		 */
+		@Subscribe(priority = 1)
+		public void onNumber(final Number number)
+		{
+			count++;
+		}
+	}
+
+	/**
+	 * A subscriber with two handler methods
+	 */
+	public static class SubscriberF
+	{
+		/** The count of the received events */
+		long count;
+
+		/**
+		 * Counts a received text
+		 *
+		 * @param text
+		 *            the received text
+		 */
+		@Subscribe
+		public void onText(final String text)
+		{
+			count++;
+		}
+
+		/**
+		 * Counts a received number
+		 *
+		 * @param number
+		 *            the received number
+		 */
+		@Subscribe(priority = 1)
+		public void onNumber(final Number number)
+		{
+			count++;
+		}
+	}
+}
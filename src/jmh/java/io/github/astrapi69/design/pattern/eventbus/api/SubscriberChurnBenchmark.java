@@ -0,0 +1,133 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.api;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The class {@link SubscriberChurnBenchmark} measures the cost of registering and unregistering
+ * many transient subscribers with the {@link ApplicationEventBus} as the reference implementation
+ * of the {@link EventBus} api and with the {@link AbstractEventBus}. While the transient
+ * subscribers come and go a fixed number of subscribers stays registered
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SubscriberChurnBenchmark
+{
+
+	/** The event bus implementation */
+	@Param({ "application", "abstract" })
+	public String implementation;
+
+	/** The number of transient subscribers */
+	@Param({ "1000", "10000" })
+	public int subscribers;
+
+	/** The event bus under test */
+	private EventBus<CountingSubscriber, Object> eventBus;
+
+	/** The transient subscribers */
+	private CountingSubscriber[] transientSubscribers;
+
+	/**
+	 * Creates the event bus implementation and the transient subscribers
+	 */
+	@Setup
+	public void setUp()
+	{
+		eventBus = "application".equals(implementation)
+			? new ApplicationEventBus<>()
+			{
+				@Override
+				public void onPost(final CountingSubscriber subscriber, final Object event)
+				{
+					subscriber.count++;
+				}
+			}
+			: new AbstractEventBus<>()
+			{
+				@Override
+				protected void onPost(final CountingSubscriber subscriber, final Object event)
+				{
+					subscriber.count++;
+				}
+			};
+		for (int i = 0; i < 100; i++)
+		{
+			eventBus.register(new CountingSubscriber());
+		}
+		transientSubscribers = new CountingSubscriber[subscribers];
+		for (int i = 0; i < subscribers; i++)
+		{
+			transientSubscribers[i] = new CountingSubscriber();
+		}
+	}
+
+	/**
+	 * Registers all transient subscribers, posts one event and unregisters the transient
+	 * subscribers again in the order of their registration
+	 *
+	 * @return the event bus
+	 */
+	@Benchmark
+	public EventBus<CountingSubscriber, Object> churn()
+	{
+		for (CountingSubscriber subscriber : transientSubscribers)
+		{
+			eventBus.register(subscriber);
+		}
+		eventBus.post(new Object());
+		for (CountingSubscriber subscriber : transientSubscribers)
+		{
+			eventBus.unregister(subscriber);
+		}
+		return eventBus;
+	}
+
+	/**
+	 * A subscriber that counts the received events
+	 */
+	public static class CountingSubscriber
+	{
+		/** The count of the received events */
+		long count;
+	}
+}
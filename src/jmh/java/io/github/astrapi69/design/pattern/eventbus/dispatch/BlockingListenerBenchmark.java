@@ -0,0 +1,164 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.dispatch;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.astrapi69.design.pattern.eventbus.BaseEventBus;
+import io.github.astrapi69.design.pattern.observer.event.EventListener;
+import io.github.astrapi69.design.pattern.observer.event.EventObject;
+
+/**
+ * The class {@link BlockingListenerBenchmark} compares the time to deliver one event to 10000
+ * listeners that block for one millisecond each. The dispatcher modes are the
+ * {@link VirtualThreadDispatcher} with virtual threads if the runtime supports them, the
+ * {@link VirtualThreadDispatcher} with its bounded pool of platform threads and an
+ * {@link ExecutorDispatcher} on a fixed pool with one thread per available processor
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BlockingListenerBenchmark
+{
+
+	/** The dispatcher mode */
+	@Param({ "virtual", "bounded", "fixed" })
+	public String mode;
+
+	/** The number of blocking listeners */
+	@Param({ "10000" })
+	public int listeners;
+
+	/** The executor service of the fixed pool mode */
+	private ExecutorService fixedPool;
+
+	/** The dispatcher of the virtual and bounded mode */
+	private VirtualThreadDispatcher virtualThreadDispatcher;
+
+	/** The event bus with the blocking listeners */
+	private BaseEventBus eventBus;
+
+	/**
+	 * Creates the event bus of the configured mode and registers the blocking listeners
+	 */
+	@Setup
+	public void setUp()
+	{
+		Dispatcher dispatcher;
+		switch (mode)
+		{
+			case "virtual" :
+				virtualThreadDispatcher = new VirtualThreadDispatcher();
+				dispatcher = virtualThreadDispatcher;
+				break;
+			case "bounded" :
+				virtualThreadDispatcher = new VirtualThreadDispatcher(false,
+					VirtualThreadDispatcher.DEFAULT_MAX_PLATFORM_THREADS);
+				dispatcher = virtualThreadDispatcher;
+				break;
+			default :
+				fixedPool = Executors
+					.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+				dispatcher = new ExecutorDispatcher(fixedPool);
+		}
+		eventBus = new BaseEventBus("benchmark", dispatcher);
+		for (int i = 0; i < listeners; i++)
+		{
+			eventBus.register(new BlockingListener(), BenchmarkEvent.class);
+		}
+	}
+
+	/**
+	 * Shuts down the executors
+	 */
+	@TearDown
+	public void tearDown()
+	{
+		if (virtualThreadDispatcher != null)
+		{
+			virtualThreadDispatcher.close();
+		}
+		if (fixedPool != null)
+		{
+			fixedPool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Posts one event and waits until all blocking listeners have finished
+	 */
+	@Benchmark
+	public void postToBlockingListeners()
+	{
+		eventBus.postAsync(new BenchmarkEvent()).join();
+	}
+
+	/**
+	 * The event type of this benchmark
+	 */
+	public static class BenchmarkEvent
+	{
+	}
+
+	/**
+	 * A listener that blocks for one millisecond as if it would wait for I/O
+	 */
+	public static class BlockingListener implements EventListener<EventObject<BenchmarkEvent>>
+	{
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void onEvent(final EventObject<BenchmarkEvent> event)
+		{
+			try
+			{
+				Thread.sleep(1);
+			}
+			catch (InterruptedException exception)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
@@ -0,0 +1,146 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.registry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.astrapi69.design.pattern.eventbus.BaseEventBus;
+import io.github.astrapi69.design.pattern.observer.event.EventListener;
+import io.github.astrapi69.design.pattern.observer.event.EventObject;
+
+/**
+ * The class {@link ClassKeyedRegistryBenchmark} compares the lookup of the dispatch target of a
+ * posted object through the former {@code getSimpleName()} keyed map with its
+ * {@code containsKey()} and {@code get()} double probe against the single lookup of the
+ * {@link ClassKeyedRegistry}, and measures the resulting post latency of the {@link BaseEventBus}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ClassKeyedRegistryBenchmark
+{
+
+	/** The map keyed by the simple name as used before the class keyed registry */
+	private final Map<String, Object> simpleNameMap = new ConcurrentHashMap<>();
+
+	/** The class keyed registry */
+	private final ClassKeyedRegistry<Object> classKeyedRegistry = new ClassKeyedRegistry<>();
+
+	/** The event bus with one registered listener */
+	private final BaseEventBus eventBus = new BaseEventBus("benchmark");
+
+	/** The event that is looked up and posted */
+	private Object event;
+
+	/**
+	 * Registers the dispatch targets and the listener
+	 */
+	@Setup
+	public void setUp()
+	{
+		event = new BenchmarkEvent();
+		simpleNameMap.put(BenchmarkEvent.class.getSimpleName(), new Object());
+		classKeyedRegistry.computeIfAbsent(BenchmarkEvent.class, type -> new Object());
+		eventBus.register(new NoOpListener(), BenchmarkEvent.class);
+	}
+
+	/**
+	 * Resolves the dispatch target through the simple name keyed map
+	 *
+	 * @return the resolved dispatch target
+	 */
+	@Benchmark
+	public Object simpleNameLookup()
+	{
+		String key = event.getClass().getSimpleName();
+		if (simpleNameMap.containsKey(key))
+		{
+			return simpleNameMap.get(key);
+		}
+		return null;
+	}
+
+	/**
+	 * Resolves the dispatch target through the class keyed registry
+	 *
+	 * @return the resolved dispatch target
+	 */
+	@Benchmark
+	public Object classKeyedLookup()
+	{
+		return classKeyedRegistry.get(event.getClass());
+	}
+
+	/**
+	 * Posts the event to the event bus
+	 *
+	 * @param blackhole
+	 *            the blackhole
+	 */
+	@Benchmark
+	public void post(final Blackhole blackhole)
+	{
+		eventBus.post(event);
+		blackhole.consume(event);
+	}
+
+	/**
+	 * The event type of this benchmark
+	 */
+	public static class BenchmarkEvent
+	{
+	}
+
+	/**
+	 * A listener that does nothing
+	 */
+	public static class NoOpListener implements EventListener<EventObject<BenchmarkEvent>>
+	{
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void onEvent(final EventObject<BenchmarkEvent> event)
+		{
+		}
+	}
+}
@@ -24,27 +24,90 @@
  */
 package io.github.astrapi69.design.pattern.eventbus;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
+import io.github.astrapi69.design.pattern.eventbus.annotation.Subscribe;
+import io.github.astrapi69.design.pattern.eventbus.annotation.SubscriberMethod;
+import io.github.astrapi69.design.pattern.eventbus.annotation.SubscriberMethods;
+import io.github.astrapi69.design.pattern.eventbus.deadevent.DeadEvent;
+import io.github.astrapi69.design.pattern.eventbus.deadevent.DeadEventCounter;
+import io.github.astrapi69.design.pattern.eventbus.dispatch.BoundedQueueDispatcher;
+import io.github.astrapi69.design.pattern.eventbus.dispatch.Dispatcher;
+import io.github.astrapi69.design.pattern.eventbus.dispatch.ExecutorDispatcher;
+import io.github.astrapi69.design.pattern.eventbus.dispatch.OverflowPolicy;
+import io.github.astrapi69.design.pattern.eventbus.dispatch.SynchronousDispatcher;
+import io.github.astrapi69.design.pattern.eventbus.listener.BatchListener;
+import io.github.astrapi69.design.pattern.eventbus.listener.Cancellable;
+import io.github.astrapi69.design.pattern.eventbus.listener.PayloadListener;
+import io.github.astrapi69.design.pattern.eventbus.metrics.EventBusMetrics;
+import io.github.astrapi69.design.pattern.eventbus.metrics.EventTypeSnapshot;
+import io.github.astrapi69.design.pattern.eventbus.registry.ClassKeyedRegistry;
+import io.github.astrapi69.design.pattern.eventbus.registry.ListenerRegistry;
+import io.github.astrapi69.design.pattern.eventbus.registry.Subscriber;
+import io.github.astrapi69.design.pattern.eventbus.sticky.StickyEventCache;
+import io.github.astrapi69.design.pattern.eventbus.watchdog.QuarantinePolicy;
+import io.github.astrapi69.design.pattern.eventbus.watchdog.SlowListenerWatchdog;
 import io.github.astrapi69.design.pattern.observer.event.EventListener;
 import io.github.astrapi69.design.pattern.observer.event.EventObject;
-import io.github.astrapi69.design.pattern.observer.event.EventSource;
-import io.github.astrapi69.design.pattern.observer.event.EventSubject;
 import lombok.Getter;
 import lombok.NonNull;
 
 /**
- * The {@code GenericEventBus} is a final utility class that provides a centralized event bus
- * mechanism for managing and dispatching events using {@code EventSource} objects. It maintains a
- * registry of event sources keyed by strings or class types, enabling efficient event dispatching
- * and management.
+ * The {@code BaseEventBus} is a final class that provides an event bus mechanism for managing and
+ * dispatching events to {@link EventListener} objects. It maintains a registry of listeners keyed
+ * by the identity of their event types, enabling efficient event dispatching and management.
+ * Listeners that are registered for a superclass or an interface also receive the events of all
+ * its subtypes
+ *
+ * <p>
+ * Listeners that are registered with {@link #subscribe(PayloadListener, Class)} receive the posted
+ * event source directly, so posting an event to them does not allocate any object. Listeners
+ * that are registered with {@link #register(EventListener, Class)} receive every event source
+ * wrapped into a new {@link EventObject}
+ *
+ * <p>
+ * How a posted event is delivered to the listeners is decided by the {@link Dispatcher} of this
+ * event bus. By default {@link #post(Object)} invokes the listeners on the posting thread, while
+ * {@link #postAsync(Object)} hands the delivery over to an executor. Listeners receive an event in
+ * the order of their priority, a listener may stop the further delivery of a {@link Cancellable}
+ * event
+ *
+ * <p>
+ * Optionally the event bus records metrics per event type, see
+ * {@link #setMetricsEnabled(boolean)}. While metrics are disabled a post costs one additional
+ * field read. A {@link SlowListenerWatchdog} protects the posting threads from listeners that
+ * exceed a time budget, see {@link #setWatchdog(SlowListenerWatchdog)}
+ *
+ * <p>
+ * Events posted with {@link #postSticky(Object)} are also kept in a bounded
+ * {@link StickyEventCache}, so listeners that are registered later immediately receive the last
+ * sticky event of every matching event type
+ *
+ * <p>
+ * Posted events that no listener receives are counted per event type, see
+ * {@link #getDeadEventCounts()}, and are optionally forwarded as a {@link DeadEvent} to a dead
+ * event listener, see {@link #setDeadEventListener(PayloadListener)}
+ *
+ * <p>
+ * Listeners that are registered with {@link #registerWeak(EventListener, Class)} are held weakly,
+ * their registrations are removed after they were garbage collected
  */
 public final class BaseEventBus
 {
-	// A map holding event sources keyed by their string representation
-	private final Map<String, EventSource<?>> eventSources = new ConcurrentHashMap<>();
+	// A registry holding the listeners keyed by the identity of their event type
+	private final ListenerRegistry listenerRegistry = new ListenerRegistry(this::detach);
 
 	/**
 	 * The name of this event bus
@@ -53,7 +116,87 @@ public final class BaseEventBus
 	private final String name;
 
 	/**
-	 * Instantiates a new {@code BaseEventBus} object
+	 * The dispatcher that delivers the events posted with {@link #post(Object)}
+	 */
+	@Getter
+	private final Dispatcher dispatcher;
+
+	/**
+	 * The dispatcher that delivers the events posted with {@link #postAsync(Object)}
+	 */
+	private final Dispatcher asyncDispatcher;
+
+	/**
+	 * The dispatchers that replace the default dispatchers for the events of an event type
+	 */
+	private final ClassKeyedRegistry<Dispatcher> typeDispatchers = new ClassKeyedRegistry<>();
+
+	/**
+	 * The flag that indicates whether a dispatcher was set for at least one event type
+	 */
+	private volatile boolean typeDispatchersSet;
+
+	/**
+	 * The dispatchers that were resolved for a concrete event type from its nearest superclass
+	 * with a dispatcher or an empty optional if none of them has one. The registry is replaced as
+	 * a whole whenever a dispatcher is set, so a resolution against the previous dispatchers can
+	 * only end up in the discarded registry
+	 */
+	private volatile ClassKeyedRegistry<Optional<Dispatcher>> resolvedDispatchers =
+		new ClassKeyedRegistry<>();
+
+	/**
+	 * The delivery plans of the batches posted with {@link #postAll(Collection)} keyed by the
+	 * identity of the concrete event type
+	 */
+	private final ClassKeyedRegistry<BatchPlan> batchPlans = new ClassKeyedRegistry<>();
+
+
+	/**
+	 * The metrics that are currently recorded or {@code null} if metrics are disabled
+	 */
+	private volatile EventBusMetrics metrics;
+
+	/**
+	 * The watchdog that watches the execution time of the listeners or {@code null}
+	 */
+	@Getter
+	private volatile SlowListenerWatchdog watchdog;
+
+	/**
+	 * The counter of the posted events that no listener has received
+	 */
+	private final DeadEventCounter deadEventCounter = new DeadEventCounter();
+
+	/**
+	 * The metrics that are recorded while metrics are enabled
+	 */
+	private final EventBusMetrics collectedMetrics = new EventBusMetrics(deadEventCounter);
+
+	/**
+	 * The listener that receives the posted events that no listener has received or {@code null}
+	 */
+	@Getter
+	private volatile PayloadListener<? super DeadEvent> deadEventListener;
+
+	/**
+	 * The cache of the last sticky event of every event type
+	 */
+	@Getter
+	private volatile StickyEventCache stickyEventCache = new StickyEventCache();
+
+	/**
+	 * The lock that orders the caching of sticky events against the registrations. Registrations
+	 * share the read lock while they add the listener and replay the cached sticky events to it,
+	 * so they never wait for each other, a sticky post takes the write lock while it caches the
+	 * event and resolves its listeners
+	 */
+	private final ReentrantReadWriteLock stickyLock = new ReentrantReadWriteLock();
+
+	/**
+	 * Instantiates a new {@code BaseEventBus} object that delivers the events posted with
+	 * {@link #post(Object)} on the posting thread and the events posted with
+	 * {@link #postAsync(Object)} on the {@link ForkJoinPool#commonPool()}
 	 * 
 	 * @param name
 	 *            the name of this event bus
@@ -61,6 +204,38 @@ public final class BaseEventBus
 	public BaseEventBus(String name)
 	{
 		this.name = name;
+		this.dispatcher = SynchronousDispatcher.INSTANCE;
+		this.asyncDispatcher = new ExecutorDispatcher(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Instantiates a new asynchronous {@code BaseEventBus} object that hands the delivery of all
+	 * posted events over to the given executor, every listener is invoked in its own task
+	 *
+	 * @param name
+	 *            the name of this event bus
+	 * @param executor
+	 *            the executor that invokes the listeners
+	 */
+	public BaseEventBus(String name, @NonNull Executor executor)
+	{
+		this(name, new ExecutorDispatcher(executor));
+	}
+
+	/**
+	 * Instantiates a new {@code BaseEventBus} object that delivers all posted events with the given
+	 * dispatcher
+	 *
+	 * @param name
+	 *            the name of this event bus
+	 * @param dispatcher
+	 *            the dispatcher that delivers the posted events
+	 */
+	public BaseEventBus(String name, @NonNull Dispatcher dispatcher)
+	{
+		this.name = name;
+		this.dispatcher = dispatcher;
+		this.asyncDispatcher = dispatcher;
 	}
 
 	/**
@@ -74,17 +249,17 @@ public final class BaseEventBus
 	 * @param eventSourceTypeClass
 	 *            the class type of the event source
 	 */
-	@SuppressWarnings("unchecked")
 	public <T> void register(@NonNull final EventListener<EventObject<T>> listener,
 		@NonNull final Class<T> eventSourceTypeClass)
 	{
-		EventSource<EventObject<T>> eventSource = getEventSource(eventSourceTypeClass);
-		eventSource.add(listener);
+		add(Subscriber.forEventListener(eventSourceTypeClass, listener));
 	}
 
 	/**
-	 * Unregisters the given {@link EventListener} with the specified event source type class from
-	 * this EventBus
+	 * Registers a new {@link EventListener} with the specified event source type class and the
+	 * given priority to this EventBus instance. Listeners with a higher priority receive an event
+	 * before listeners with a lower priority and may stop its further delivery if the event
+	 * source implements {@link Cancellable}
 	 *
 	 * @param <T>
 	 *            the type parameter that represents the event source
@@ -92,155 +267,965 @@ public final class BaseEventBus
 	 *            the listener to register
 	 * @param eventSourceTypeClass
 	 *            the class type of the event source
+	 * @param priority
+	 *            the priority of the listener, the default priority is
+	 *            {@link Subscriber#DEFAULT_PRIORITY}
 	 */
-	@SuppressWarnings("unchecked")
-	public <T> void unregister(@NonNull final EventListener<EventObject<T>> listener,
+	public <T> void register(@NonNull final EventListener<EventObject<T>> listener,
+		@NonNull final Class<T> eventSourceTypeClass, final int priority)
+	{
+		add(Subscriber.forEventListener(eventSourceTypeClass, listener, priority));
+	}
+
+	/**
+	 * Registers the given {@link EventListener} weakly with the specified event source type class
+	 * to this EventBus instance. The event bus does not prevent the listener from being garbage
+	 * collected, so a listener with a short lifetime like a UI component does not have to
+	 * unregister itself. The registrations of collected listeners are purged in bulk before the
+	 * next post
+	 *
+	 * @param <T>
+	 *            the type parameter that represents the event source
+	 * @param listener
+	 *            the listener to register weakly
+	 * @param eventSourceTypeClass
+	 *            the class type of the event source
+	 */
+	public <T> void registerWeak(@NonNull final EventListener<EventObject<T>> listener,
 		@NonNull final Class<T> eventSourceTypeClass)
 	{
-		EventSource<EventObject<T>> eventSource = getEventSource(eventSourceTypeClass);
-		eventSource.remove(listener);
-		remove(eventSourceTypeClass);
+		registerWeak(listener, eventSourceTypeClass, Subscriber.DEFAULT_PRIORITY);
 	}
 
 	/**
-	 * Posts an event to the event bus. The event is dispatched to all registered listeners
-	 * associated with the event's class type
+	 * Registers the given {@link EventListener} weakly with the specified event source type class
+	 * and the given priority to this EventBus instance, see
+	 * {@link #registerWeak(EventListener, Class)}
 	 *
 	 * @param <T>
-	 *            the type parameter representing the event source
-	 * @param source
-	 *            the source event to be posted
+	 *            the type parameter that represents the event source
+	 * @param listener
+	 *            the listener to register weakly
+	 * @param eventSourceTypeClass
+	 *            the class type of the event source
+	 * @param priority
+	 *            the priority of the listener, the default priority is
+	 *            {@link Subscriber#DEFAULT_PRIORITY}
 	 */
-	@SuppressWarnings("unchecked")
-	public <T> void post(@NonNull final T source)
+	public <T> void registerWeak(@NonNull final EventListener<EventObject<T>> listener,
+		@NonNull final Class<T> eventSourceTypeClass, final int priority)
+	{
+		add(Subscriber.forWeakEventListener(eventSourceTypeClass, listener, priority,
+			listenerRegistry.getReferenceQueue()));
+	}
+
+	/**
+	 * Removes the registrations of all weakly registered listeners that were garbage collected.
+	 * This happens also automatically before every post
+	 *
+	 * @return the number of removed registrations
+	 */
+	public int purgeCollectedListeners()
 	{
-		Class<T> eventSourceTypeClass = (Class<T>)source.getClass();
-		if (containsKey(eventSourceTypeClass))
+		return listenerRegistry.purgeCollectedListeners();
+	}
+
+	/**
+	 * Registers all methods of the given subscriber object that are annotated with
+	 * {@link Subscribe}. Every handler method receives the events of the type of its parameter.
+	 * The subscriber class is scanned only once, the handler methods are invoked directly by
+	 * generated invokers without reflection
+	 *
+	 * @param subscriber
+	 *            the subscriber object with the annotated handler methods
+	 * @throws IllegalArgumentException
+	 *             is thrown if the subscriber object has no valid handler method
+	 */
+	public void register(@NonNull final Object subscriber)
+	{
+		for (Subscriber<?> handler : SubscriberMethods.bind(subscriber))
 		{
-			get(eventSourceTypeClass).fireEvent(EventObject.of(source));
+			add(handler);
 		}
 	}
 
+	/**
+	 * Unregisters all annotated handler methods of the given subscriber object, see
+	 * {@link #register(Object)}. The subscriber object is compared by identity
+	 *
+	 * @param subscriber
+	 *            the subscriber object with the annotated handler methods
+	 */
+	public void unregister(@NonNull final Object subscriber)
+	{
+		for (SubscriberMethod method : SubscriberMethods.of(subscriber.getClass()))
+		{
+			listenerRegistry.remove(method.getEventType(), subscriber);
+		}
+	}
 
 	/**
-	 * Retrieves the event source associated with the specified key
+	 * Subscribes a new {@link PayloadListener} with the specified event source type class to this
+	 * EventBus instance. The listener receives the posted event sources directly
 	 *
-	 * @param key
-	 *            the key associated with the event source
-	 * @return the event source associated with the given key, or {@code null} if none is found
+	 * @param <T>
+	 *            the type parameter that represents the event source
+	 * @param listener
+	 *            the listener to subscribe
+	 * @param eventSourceTypeClass
+	 *            the class type of the event source
 	 */
-	private EventSource<?> get(final String key)
+	public <T> void subscribe(@NonNull final PayloadListener<? super T> listener,
+		@NonNull final Class<T> eventSourceTypeClass)
 	{
-		return eventSources.get(key);
+		add(Subscriber.forPayloadListener(eventSourceTypeClass, listener));
 	}
 
 	/**
-	 * Checks if the event bus contains an event source associated with the specified key
+	 * Subscribes a new {@link PayloadListener} with the specified event source type class and the
+	 * given priority to this EventBus instance, see {@link #register(EventListener, Class, int)}
 	 *
-	 * @param key
-	 *            the key to check
-	 * @return {@code true} if the event source is present, {@code false} otherwise
+	 * @param <T>
+	 *            the type parameter that represents the event source
+	 * @param listener
+	 *            the listener to subscribe
+	 * @param eventSourceTypeClass
+	 *            the class type of the event source
+	 * @param priority
+	 *            the priority of the listener, the default priority is
+	 *            {@link Subscriber#DEFAULT_PRIORITY}
 	 */
-	private boolean containsKey(final String key)
+	public <T> void subscribe(@NonNull final PayloadListener<? super T> listener,
+		@NonNull final Class<T> eventSourceTypeClass, final int priority)
 	{
-		return eventSources.containsKey(key);
+		add(Subscriber.forPayloadListener(eventSourceTypeClass, listener, priority));
 	}
 
 	/**
-	 * Checks if the event bus contains an event source associated with the specified class type
+	 * Unsubscribes the given {@link PayloadListener} with the specified event source type class
+	 * from this EventBus. The listener is compared by identity
 	 *
 	 * @param <T>
-	 *            the type of the event source
+	 *            the type parameter that represents the event source
+	 * @param listener
+	 *            the listener to unsubscribe
 	 * @param eventSourceTypeClass
-	 *            the class type of the event source to check
-	 * @return {@code true} if the event source is present, {@code false} otherwise
+	 *            the class type of the event source
 	 */
-	private <T> boolean containsKey(@NonNull final Class<T> eventSourceTypeClass)
+	public <T> void unsubscribe(@NonNull final PayloadListener<? super T> listener,
+		@NonNull final Class<T> eventSourceTypeClass)
 	{
-		return containsKey(eventSourceTypeClass.getSimpleName());
+		listenerRegistry.remove(eventSourceTypeClass, listener);
 	}
 
 	/**
-	 * Retrieves the event source associated with the specified class type. If it does not exist, a
-	 * new {@code EventSubject} is created and associated with the class type
+	 * Unregisters the given {@link EventListener} with the specified event source type class from
+	 * this EventBus. The listener is compared by identity
 	 *
 	 * @param <T>
-	 *            the type of the event source
+	 *            the type parameter that represents the event source
+	 * @param listener
+	 *            the listener to register
 	 * @param eventSourceTypeClass
 	 *            the class type of the event source
-	 * @return the event source associated with the specified class type
 	 */
-	@SuppressWarnings("unchecked")
-	private <T> EventSource<EventObject<T>> getEventSource(
+	public <T> void unregister(@NonNull final EventListener<EventObject<T>> listener,
 		@NonNull final Class<T> eventSourceTypeClass)
 	{
-		if (!containsKey(eventSourceTypeClass))
+		listenerRegistry.remove(eventSourceTypeClass, listener);
+	}
+
+	/**
+	 * Unregisters the given listener from all event types it is registered for, regardless of
+	 * whether it was registered, subscribed or registered weakly. Only the event types of the
+	 * given listener are visited, so the cost does not grow with the number of all event types. The
+	 * listener is compared by identity
+	 *
+	 * @param listener
+	 *            the listener to unregister
+	 * @return the number of removed registrations
+	 */
+	public int unregisterAll(@NonNull final Object listener)
+	{
+		return listenerRegistry.removeAll(listener);
+	}
+
+	/**
+	 * Adds the given subscriber to the registry of this event bus, attaches its latency histogram
+	 * if metrics are enabled and its watch if a watchdog is set and replays the cached sticky
+	 * events to it
+	 *
+	 * @param subscriber
+	 *            the subscriber to add
+	 */
+	private void add(final Subscriber<?> subscriber)
+	{
+		stickyLock.readLock().lock();
+		try
+		{
+			listenerRegistry.add(subscriber);
+			attach(subscriber);
+			replaySticky(subscriber, stickyEventCache.getAssignable(subscriber.getEventType()));
+		}
+		finally
+		{
+			stickyLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Delivers the given cached sticky events to the given subscriber. The caller holds the read
+	 * lock of the sticky events, so a newer sticky event that is posted concurrently is cached and
+	 * delivered only after the replay was dispatched and never overtaken by an older one
+	 *
+	 * @param subscriber
+	 *            the newly added subscriber
+	 * @param stickyEvents
+	 *            the cached sticky events that are instances of the event type of the subscriber
+	 */
+	private void replaySticky(final Subscriber<?> subscriber, final List<Object> stickyEvents)
+	{
+		if (stickyEvents.isEmpty())
 		{
-			put(eventSourceTypeClass.getSimpleName(), new EventSubject<EventObject<T>>());
+			return;
 		}
-		return (EventSource<EventObject<T>>)get(eventSourceTypeClass.getSimpleName());
+		Subscriber<?>[] target = { subscriber };
+		for (Object stickyEvent : stickyEvents)
+		{
+			dispatcherOf(stickyEvent.getClass(), dispatcher).dispatch(stickyEvent, target);
+		}
+	}
+
+	/**
+	 * Sets the cache that keeps the last sticky event of every event type. The sticky events of
+	 * the current cache are not transferred
+	 *
+	 * @param stickyEventCache
+	 *            the new cache, for instance with other bounds
+	 */
+	public void setStickyEventCache(@NonNull final StickyEventCache stickyEventCache)
+	{
+		this.stickyEventCache = stickyEventCache;
 	}
 
 	/**
-	 * Removes the event source associated with the specified class type
+	 * Retrieves the last sticky event of the given concrete event type without any dispatching
 	 *
 	 * @param <T>
-	 *            the type of the event source
+	 *            the type parameter representing the event source
 	 * @param eventSourceTypeClass
-	 *            the class type of the event source to be removed
-	 * @return an {@code Optional} containing the removed event source, or {@code Optional.empty()}
-	 *         if none existed
+	 *            the concrete class type of the event source
+	 * @return the last sticky event or {@code null} if no sticky event of the given type is cached
 	 */
-	@SuppressWarnings("unchecked")
-	private <T> Optional<EventSource<EventObject<T>>> remove(
-		@NonNull final Class<T> eventSourceTypeClass)
+	public <T> T getStickyEvent(@NonNull final Class<T> eventSourceTypeClass)
+	{
+		return stickyEventCache.get(eventSourceTypeClass);
+	}
+
+	/**
+	 * Retrieves all cached sticky events
+	 *
+	 * @return the unmodifiable snapshot of the sticky events keyed by their concrete event type
+	 */
+	public Map<Class<?>, Object> getStickyEvents()
 	{
-		if (containsKey(eventSourceTypeClass))
+		return stickyEventCache.snapshot();
+	}
+
+	/**
+	 * Removes the last sticky event of the given concrete event type, so it is no longer delivered
+	 * to newly registered listeners
+	 *
+	 * @param <T>
+	 *            the type parameter representing the event source
+	 * @param eventSourceTypeClass
+	 *            the concrete class type of the event source
+	 * @return the removed sticky event or {@code null} if no sticky event of the given type was
+	 *         cached
+	 */
+	public <T> T removeStickyEvent(@NonNull final Class<T> eventSourceTypeClass)
+	{
+		return stickyEventCache.remove(eventSourceTypeClass);
+	}
+
+	/**
+	 * Removes all sticky events
+	 */
+	public void clearStickyEvents()
+	{
+		stickyEventCache.clear();
+	}
+
+	/**
+	 * Attaches the latency histogram of the given newly added subscriber if metrics are enabled
+	 * and its watch if a watchdog is set. A subscriber that was already removed again gets
+	 * nothing attached, so nothing is kept for it
+	 *
+	 * @param subscriber
+	 *            the newly added subscriber
+	 */
+	private synchronized void attach(final Subscriber<?> subscriber)
+	{
+		if (!isRegistered(subscriber))
+		{
+			return;
+		}
+		if (metrics != null)
+		{
+			attachLatency(subscriber);
+		}
+		if (watchdog != null)
+		{
+			subscriber.setWatch(watchdog.watch(subscriber));
+		}
+	}
+
+	/**
+	 * Attaches the latency histogram of the given subscriber
+	 *
+	 * @param subscriber
+	 *            the subscriber
+	 */
+	private void attachLatency(final Subscriber<?> subscriber)
+	{
+		subscriber.setLatencyHistogram(collectedMetrics.forType(subscriber.getEventType())
+			.latencyOf(subscriber.getListener()));
+	}
+
+	/**
+	 * Releases the latency histogram and the watch of the given removed subscriber unless another
+	 * subscriber of the same listener is still registered for the same event type
+	 *
+	 * @param subscriber
+	 *            the removed subscriber
+	 */
+	private synchronized void detach(final Subscriber<?> subscriber)
+	{
+		for (Subscriber<?> remaining : listenerRegistry.getListeners(subscriber.getEventType()))
 		{
-			String classSimpleName = eventSourceTypeClass.getSimpleName();
-			EventSource<EventObject<T>> removedEventSource = (EventSource<EventObject<T>>)eventSources
-				.remove(classSimpleName);
-			return Optional.of(removedEventSource);
+			if (remaining.getListener() == subscriber.getListener())
+			{
+				return;
+			}
+		}
+		collectedMetrics.release(subscriber.getEventType(), subscriber.getListener());
+		if (watchdog != null)
+		{
+			watchdog.unwatch(subscriber);
+		}
+	}
+
+	/**
+	 * Checks if the given subscriber is registered in the registry of this event bus
+	 *
+	 * @param subscriber
+	 *            the subscriber
+	 * @return {@code true} if the subscriber is registered, {@code false} otherwise
+	 */
+	private boolean isRegistered(final Subscriber<?> subscriber)
+	{
+		for (Subscriber<?> registered : listenerRegistry.getListeners(subscriber.getEventType()))
+		{
+			if (registered == subscriber)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Enables or disables the recording of metrics. While metrics are enabled the event bus
+	 * records per event type the number of posts, the number of deliveries, the number of posts
+	 * without any listener and the execution time of every listener. The metrics recorded so far
+	 * are kept if metrics are disabled and enabled again, the execution times of a listener are
+	 * dropped when the listener is removed
+	 *
+	 * @param enabled
+	 *            the flag that indicates whether metrics are recorded
+	 */
+	public synchronized void setMetricsEnabled(final boolean enabled)
+	{
+		metrics = enabled ? collectedMetrics : null;
+		for (Subscriber<?> subscriber : listenerRegistry.getSubscribers())
+		{
+			if (enabled)
+			{
+				attachLatency(subscriber);
+			}
+			else
+			{
+				subscriber.setLatencyHistogram(null);
+			}
+		}
+	}
+
+	/**
+	 * Sets the dispatcher that delivers the events of the given event type and its subclasses
+	 * instead of the default dispatchers of this event bus. This way every event type can have
+	 * its own delivery strategy, for instance its own {@link BoundedQueueDispatcher} with an
+	 * {@link OverflowPolicy} that fits the event type. The dispatcher of the nearest superclass
+	 * of a posted event is used
+	 *
+	 * @param eventType
+	 *            the event type
+	 * @param typeDispatcher
+	 *            the dispatcher for the events of the given type or {@code null} to use the
+	 *            default dispatchers again
+	 */
+	public synchronized void setDispatcher(@NonNull final Class<?> eventType,
+		final Dispatcher typeDispatcher)
+	{
+		if (typeDispatcher == null)
+		{
+			typeDispatchers.remove(eventType);
+		}
+		else
+		{
+			typeDispatchers.put(eventType, typeDispatcher);
+			typeDispatchersSet = true;
+		}
+		resolvedDispatchers = new ClassKeyedRegistry<>();
+	}
+
+	/**
+	 * Retrieves the dispatcher that delivers the events of the given event type. The superclass
+	 * chain of a concrete event type is walked only once until the next dispatcher is set
+	 *
+	 * @param type
+	 *            the concrete event type
+	 * @param defaultDispatcher
+	 *            the dispatcher if no dispatcher is set for the event type or its superclasses
+	 * @return the dispatcher that delivers the events of the given event type
+	 */
+	private Dispatcher dispatcherOf(final Class<?> type, final Dispatcher defaultDispatcher)
+	{
+		if (!typeDispatchersSet)
+		{
+			return defaultDispatcher;
+		}
+		return resolvedDispatchers.computeIfAbsent(type, this::resolveDispatcher)
+			.orElse(defaultDispatcher);
+	}
+
+	/**
+	 * Resolves the dispatcher of the nearest superclass of the given event type that has one
+	 *
+	 * @param type
+	 *            the concrete event type
+	 * @return the resolved dispatcher or an empty optional if no dispatcher is set for the event
+	 *         type or its superclasses
+	 */
+	private Optional<Dispatcher> resolveDispatcher(final Class<?> type)
+	{
+		for (Class<?> current = type; current != null; current = current.getSuperclass())
+		{
+			Dispatcher typeDispatcher = typeDispatchers.get(current);
+			if (typeDispatcher != null)
+			{
+				return Optional.of(typeDispatcher);
+			}
 		}
 		return Optional.empty();
 	}
 
 	/**
-	 * Retrieves the event source associated with the specified class type. If it does not exist,
-	 * null will be returned
+	 * Sets the watchdog that watches the execution time of all listeners of this event bus
+	 * against its time budget. Slow listeners are reported to the watchdog and, depending on its
+	 * {@link QuarantinePolicy}, moved into quarantine until they recover. The previous watchdog
+	 * drops the watches of the listeners of this event bus
+	 *
+	 * @param watchdog
+	 *            the watchdog or {@code null} to stop watching the listeners
+	 */
+	public synchronized void setWatchdog(final SlowListenerWatchdog watchdog)
+	{
+		SlowListenerWatchdog previous = this.watchdog;
+		this.watchdog = watchdog;
+		for (Subscriber<?> subscriber : listenerRegistry.getSubscribers())
+		{
+			if (previous != null)
+			{
+				previous.unwatch(subscriber);
+			}
+			subscriber.setWatch(watchdog != null ? watchdog.watch(subscriber) : null);
+		}
+	}
+
+	/**
+	 * Checks if the recording of metrics is enabled
+	 *
+	 * @return {@code true} if metrics are recorded, {@code false} otherwise
+	 */
+	public boolean isMetricsEnabled()
+	{
+		return metrics != null;
+	}
+
+	/**
+	 * Creates a snapshot of the metrics recorded so far
+	 *
+	 * @return the unmodifiable snapshots keyed by their event type
+	 */
+	public Map<Class<?>, EventTypeSnapshot> getMetricsSnapshot()
+	{
+		return collectedMetrics.snapshot();
+	}
+
+	/**
+	 * Counts the given event that no listener has received and forwards it to the dead event
+	 * listener if one is set
+	 *
+	 * @param type
+	 *            the event type
+	 * @param source
+	 *            the event that no listener has received or {@code null} if it was never created
+	 */
+	private void deadEvent(final Class<?> type, final Object source)
+	{
+		deadEventCounter.record(type, 1);
+		PayloadListener<? super DeadEvent> currentListener = deadEventListener;
+		if (currentListener != null && source != null)
+		{
+			currentListener.onPayload(new DeadEvent(name, source));
+		}
+	}
+
+	/**
+	 * Sets the listener that receives every posted event that no listener has received, wrapped
+	 * into a {@link DeadEvent}. The dead event listener is invoked on the posting thread
+	 *
+	 * @param deadEventListener
+	 *            the dead event listener or {@code null} to only count the dead events
+	 */
+	public void setDeadEventListener(final PayloadListener<? super DeadEvent> deadEventListener)
+	{
+		this.deadEventListener = deadEventListener;
+	}
+
+	/**
+	 * Retrieves the numbers of posted events that no listener has received, so producers of
+	 * events that nobody consumes can be found
+	 *
+	 * @return the unmodifiable numbers of dead events keyed by their event type, ordered from the
+	 *         highest to the lowest number
+	 */
+	public Map<Class<?>, Long> getDeadEventCounts()
+	{
+		return deadEventCounter.snapshot();
+	}
+
+	/**
+	 * Retrieves the number of posted events of the given event type that no listener has received
+	 *
+	 * @param eventType
+	 *            the event type
+	 * @return the number of dead events of the given event type
+	 */
+	public long getDeadEventCount(@NonNull final Class<?> eventType)
+	{
+		return deadEventCounter.getCount(eventType);
+	}
+
+	/**
+	 * Resets the numbers of dead events of all event types to zero
+	 */
+	public void resetDeadEventCounts()
+	{
+		deadEventCounter.reset();
+	}
+
+	/**
+	 * Records the given number of posts of the given event type with the given number of
+	 * listeners if metrics are enabled
+	 *
+	 * @param type
+	 *            the event type
+	 * @param posts
+	 *            the number of posted events
+	 * @param fanOut
+	 *            the number of listeners that receive every event
+	 */
+	private void recordPosts(final Class<?> type, final int posts, final int fanOut)
+	{
+		EventBusMetrics currentMetrics = metrics;
+		if (currentMetrics != null)
+		{
+			currentMetrics.forType(type).recordPosts(posts, fanOut);
+		}
+	}
+
+	/**
+	 * Posts an event to the event bus. The event is dispatched to all registered listeners
+	 * associated with the event's class type or one of its superclasses or interfaces
 	 *
 	 * @param <T>
-	 *            the type of the event source
+	 *            the type parameter representing the event source
+	 * @param source
+	 *            the source event to be posted
+	 */
+	public <T> void post(@NonNull final T source)
+	{
+		Class<?> type = source.getClass();
+		dispatch(type, source, listenerRegistry.resolve(type));
+	}
+
+	/**
+	 * Dispatches the given event to the given resolved listeners with the dispatcher of its event
+	 * type or counts it as a dead event if there are no listeners
+	 *
+	 * @param type
+	 *            the concrete event type
+	 * @param source
+	 *            the source event to be posted
+	 * @param listeners
+	 *            the resolved listeners of the event type
+	 */
+	private void dispatch(final Class<?> type, final Object source,
+		final Subscriber<?>[] listeners)
+	{
+		recordPosts(type, 1, listeners.length);
+		if (listeners.length == 0)
+		{
+			deadEvent(type, source);
+			return;
+		}
+		dispatcherOf(type, dispatcher).dispatch(source, listeners);
+	}
+
+	/**
+	 * Checks if at least one listener would receive an event of the given concrete event type,
+	 * either registered for the event type itself or for one of its superclasses or interfaces.
+	 * The check does not lock, does not allocate and never resolves the listeners, it costs one
+	 * lookup of the cached listeners of the event type or, if they are not cached yet, one lookup
+	 * per type of the type hierarchy
+	 *
+	 * @param <T>
+	 *            the type parameter representing the event source
 	 * @param eventSourceTypeClass
-	 *            the class type of the event source
-	 * @return the event source associated with the specified class type or null if it does not
-	 *         exist
+	 *            the concrete class type of the event source
+	 * @return {@code true} if at least one listener would receive the event, {@code false}
+	 *         otherwise
 	 */
-	@SuppressWarnings("unchecked")
-	private <T> EventSource<EventObject<T>> get(@NonNull final Class<T> eventSourceTypeClass)
+	public <T> boolean hasSubscribers(@NonNull final Class<T> eventSourceTypeClass)
 	{
-		if (containsKey(eventSourceTypeClass))
+		return listenerRegistry.hasListeners(eventSourceTypeClass);
+	}
+
+	/**
+	 * Posts a lazily created event to the event bus. The given supplier is only invoked if at
+	 * least one listener would receive an event of the given concrete event type, so an expensive
+	 * event is never created for nobody
+	 *
+	 * @param <T>
+	 *            the type parameter representing the event source
+	 * @param eventSourceTypeClass
+	 *            the concrete class type of the event source
+	 * @param supplier
+	 *            the supplier that creates the source event to be posted. If no listener would
+	 *            receive the event, the post is counted as a dead event but the supplier is not
+	 *            invoked and no {@link DeadEvent} is forwarded. If the supplier returns
+	 *            {@code null}, no event is posted and nothing is counted
+	 */
+	public <T> void post(@NonNull final Class<T> eventSourceTypeClass,
+		@NonNull final Supplier<? extends T> supplier)
+	{
+		Subscriber<?>[] listeners = listenerRegistry.resolve(eventSourceTypeClass);
+		if (listeners.length == 0)
+		{
+			recordPosts(eventSourceTypeClass, 1, 0);
+			deadEvent(eventSourceTypeClass, null);
+			return;
+		}
+		T source = supplier.get();
+		if (source == null)
 		{
-			String classSimpleName = eventSourceTypeClass.getSimpleName();
-			EventSource<EventObject<T>> removedEventSource = (EventSource<EventObject<T>>)eventSources
-				.get(classSimpleName);
-			return removedEventSource;
+			return;
 		}
-		return null;
+		if (source.getClass() != eventSourceTypeClass)
+		{
+			post(source);
+			return;
+		}
+		recordPosts(eventSourceTypeClass, 1, listeners.length);
+		dispatcherOf(eventSourceTypeClass, dispatcher).dispatch(source, listeners);
+	}
+
+	/**
+	 * Posts a sticky event to the event bus. The event is dispatched like with
+	 * {@link #post(Object)} and is kept as the last sticky event of its concrete event type, so
+	 * every listener that is registered later for the event type or one of its superclasses or
+	 * interfaces receives it immediately on registration. The event is cached and its listeners
+	 * are resolved while no listener is being registered, so a listener that is registered
+	 * concurrently receives the event exactly once, either from this post or on its registration,
+	 * and never receives an older sticky event after it. A sticky event that a listener posts while
+	 * it receives the replay of its registration is cached without waiting for the registrations
+	 *
+	 * @param <T>
+	 *            the type parameter representing the event source
+	 * @param source
+	 *            the source event to be posted
+	 */
+	public <T> void postSticky(@NonNull final T source)
+	{
+		Class<?> type = source.getClass();
+		Subscriber<?>[] listeners;
+		if (stickyLock.getReadHoldCount() != 0)
+		{
+			// posted by a listener during a replay, the read lock cannot be upgraded
+			stickyEventCache.put(source);
+			listeners = listenerRegistry.resolve(type);
+			dispatch(type, source, listeners);
+			return;
+		}
+		stickyLock.writeLock().lock();
+		try
+		{
+			stickyEventCache.put(source);
+			listeners = listenerRegistry.resolve(type);
+		}
+		finally
+		{
+			stickyLock.writeLock().unlock();
+		}
+		dispatch(type, source, listeners);
 	}
 
 	/**
-	 * Associates the specified event source with the specified key
+	 * Posts an event to the event bus asynchronously. The delivery of the event to all registered
+	 * listeners associated with the event's class type or one of its superclasses or interfaces is
+	 * handed over to the dispatcher of this event bus, so the posting thread does not wait for the
+	 * listeners
 	 *
-	 * @param key
-	 *            the key with which the event source is to be associated
-	 * @param value
-	 *            the event source to be associated with the key
-	 * @return the previous event source associated with the key, or {@code null} if there was no
-	 *         mapping for the key
+	 * @param <T>
+	 *            the type parameter representing the event source
+	 * @param source
+	 *            the source event to be posted
+	 * @return a {@link CompletableFuture} that completes when every listener has finished or
+	 *         completes exceptionally if at least one listener has thrown an exception. A
+	 *         listener that the watchdog has quarantined on its isolated executor is not awaited,
+	 *         its exceptions are passed to the uncaught exception handler of the isolated thread
 	 */
-	private synchronized EventSource<?> put(final String key, final EventSource<?> value)
+	public <T> CompletableFuture<Void> postAsync(@NonNull final T source)
 	{
-		return eventSources.put(key, value);
+		Class<?> type = source.getClass();
+		Subscriber<?>[] listeners = listenerRegistry.resolve(type);
+		recordPosts(type, 1, listeners.length);
+		if (listeners.length == 0)
+		{
+			deadEvent(type, source);
+			return CompletableFuture.completedFuture(null);
+		}
+		return dispatcherOf(type, asyncDispatcher).dispatchAsync(source, listeners);
+	}
+
+	/**
+	 * Posts a batch of events to the event bus. The registered listeners are resolved only once per
+	 * distinct event type of the batch. The events are delivered grouped by their event type in
+	 * the order the event types first occur in the batch, within an event type the events keep
+	 * their order. Listeners that implement {@link BatchListener} receive all events of their event
+	 * type in a single call. If the listeners of an event type include batch listeners, the
+	 * listeners are visited once in the order of their priority, every listener receives all
+	 * events or the batch before the next listener is visited, and a {@link Cancellable} event
+	 * that a listener has cancelled is not delivered to the listeners behind it
+	 *
+	 * @param <T>
+	 *            the type parameter representing the event sources
+	 * @param sources
+	 *            the source events to be posted
+	 */
+	public <T> void postAll(@NonNull final Collection<? extends T> sources)
+	{
+		if (sources.isEmpty())
+		{
+			return;
+		}
+		Class<?> firstType = null;
+		boolean homogeneous = true;
+		for (T source : sources)
+		{
+			if (firstType == null)
+			{
+				firstType = source.getClass();
+			}
+			else if (firstType != source.getClass())
+			{
+				homogeneous = false;
+				break;
+			}
+		}
+		if (homogeneous)
+		{
+			dispatchBatch(firstType, List.copyOf(sources));
+			return;
+		}
+		Map<Class<?>, List<Object>> batches = new LinkedHashMap<>();
+		for (T source : sources)
+		{
+			batches.computeIfAbsent(source.getClass(), type -> new ArrayList<>()).add(source);
+		}
+		batches.forEach((type, batch) -> dispatchBatch(type, Collections.unmodifiableList(batch)));
+	}
+
+	/**
+	 * Posts a batch of events to the event bus, see {@link #postAll(Collection)}
+	 *
+	 * @param <T>
+	 *            the type parameter representing the event sources
+	 * @param sources
+	 *            the source events to be posted
+	 */
+	@SafeVarargs
+	public final <T> void postAll(@NonNull final T... sources)
+	{
+		postAll(Arrays.asList(sources));
+	}
+
+	/**
+	 * Dispatches the given batch of events of the given event type to the resolved listeners
+	 *
+	 * @param type
+	 *            the event type of all events of the batch
+	 * @param batch
+	 *            the unmodifiable batch of events
+	 */
+	private void dispatchBatch(final Class<?> type, final List<?> batch)
+	{
+		Subscriber<?>[] listeners = listenerRegistry.resolve(type);
+		recordPosts(type, batch.size(), listeners.length);
+		if (listeners.length == 0)
+		{
+			for (Object source : batch)
+			{
+				deadEvent(type, source);
+			}
+			return;
+		}
+		Dispatcher batchDispatcher = dispatcherOf(type, dispatcher);
+		BatchPlan plan = batchPlans.get(type);
+		if (plan == null || plan.listeners != listeners)
+		{
+			plan = new BatchPlan(listeners);
+			batchPlans.put(type, plan);
+		}
+		if (plan.groups == null)
+		{
+			for (Object source : batch)
+			{
+				batchDispatcher.dispatch(source, listeners);
+			}
+			return;
+		}
+		for (int i = 0; i < plan.groups.length; i++)
+		{
+			if (plan.batchGroups[i])
+			{
+				List<?> remaining = uncancelled(batch);
+				if (!remaining.isEmpty())
+				{
+					batchDispatcher.dispatch(remaining, plan.groups[i]);
+				}
+				continue;
+			}
+			for (Object source : batch)
+			{
+				if (!Cancellable.isCancelled(source))
+				{
+					batchDispatcher.dispatch(source, plan.groups[i]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Retrieves the events of the given batch that are not cancelled
+	 *
+	 * @param batch
+	 *            the unmodifiable batch of events
+	 * @return the given batch if no event is cancelled, otherwise a new unmodifiable list with the
+	 *         events that are not cancelled
+	 */
+	private static List<?> uncancelled(final List<?> batch)
+	{
+		for (Object source : batch)
+		{
+			if (Cancellable.isCancelled(source))
+			{
+				List<Object> remaining = new ArrayList<>(batch.size());
+				for (Object candidate : batch)
+				{
+					if (!Cancellable.isCancelled(candidate))
+					{
+						remaining.add(candidate);
+					}
+				}
+				return Collections.unmodifiableList(remaining);
+			}
+		}
+		return batch;
+	}
+
+	/**
+	 * The delivery plan of the batches of one concrete event type. It splits the resolved
+	 * listeners in the order of their priority into groups of consecutive listeners that receive
+	 * the events one by one and into the reused batch subscribers of the batch listeners, so a
+	 * batch is delivered without allocating any subscriber. The plan is computed again when the
+	 * resolved listeners change
+	 */
+	private static final class BatchPlan
+	{
+		/** The resolved listeners this plan was computed for */
+		final Subscriber<?>[] listeners;
+
+		/** The groups of listeners in priority order or {@code null} without batch listeners */
+		final Subscriber<?>[][] groups;
+
+		/** The flags that indicate whether a group holds the batch subscriber of a listener */
+		final boolean[] batchGroups;
+
+		/**
+		 * Instantiates a new {@code BatchPlan}
+		 *
+		 * @param listeners
+		 *            the resolved listeners ordered by descending priority
+		 */
+		BatchPlan(final Subscriber<?>[] listeners)
+		{
+			this.listeners = listeners;
+			List<Subscriber<?>[]> planned = new ArrayList<>();
+			List<Boolean> batchFlags = new ArrayList<>();
+			int start = 0;
+			for (int i = 0; i < listeners.length; i++)
+			{
+				if (listeners[i].isBatchListener())
+				{
+					if (start < i)
+					{
+						planned.add(Arrays.copyOfRange(listeners, start, i));
+						batchFlags.add(Boolean.FALSE);
+					}
+					planned.add(new Subscriber<?>[] { listeners[i].toBatchSubscriber() });
+					batchFlags.add(Boolean.TRUE);
+					start = i + 1;
+				}
+			}
+			if (start == 0)
+			{
+				this.groups = null;
+				this.batchGroups = null;
+				return;
+			}
+			if (start < listeners.length)
+			{
+				planned.add(Arrays.copyOfRange(listeners, start, listeners.length));
+				batchFlags.add(Boolean.FALSE);
+			}
+			this.groups = planned.toArray(new Subscriber<?>[0][]);
+			this.batchGroups = new boolean[batchFlags.size()];
+			for (int i = 0; i < batchGroups.length; i++)
+			{
+				batchGroups[i] = batchFlags.get(i);
+			}
+		}
 	}
 }
@@ -24,26 +24,27 @@
  */
 package io.github.astrapi69.design.pattern.eventbus;
 
+import java.util.Collection;
 import java.util.Map;
-import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
+import io.github.astrapi69.design.pattern.eventbus.deadevent.DeadEvent;
+import io.github.astrapi69.design.pattern.eventbus.listener.PayloadListener;
+import io.github.astrapi69.design.pattern.eventbus.metrics.EventTypeSnapshot;
 import io.github.astrapi69.design.pattern.observer.event.EventListener;
 import io.github.astrapi69.design.pattern.observer.event.EventObject;
-import io.github.astrapi69.design.pattern.observer.event.EventSource;
-import io.github.astrapi69.design.pattern.observer.event.EventSubject;
 import lombok.NonNull;
 
 /**
  * The {@code GenericEventBus} is a final utility class that provides a centralized event bus
- * mechanism for managing and dispatching events using {@code EventSource} objects. It maintains a
- * registry of event sources keyed by strings or class types, enabling efficient event dispatching
- * and management.
+ * mechanism for managing and dispatching events to {@code EventListener} objects. It delegates to
+ * a single application wide {@link BaseEventBus} that maintains a registry of listeners keyed
+ * by the identity of their event types, enabling efficient event dispatching and management.
  */
 public final class GenericEventBus
 {
-	// A static map holding event sources keyed by their string representation
-	private static final Map<String, EventSource<?>> eventSources = new ConcurrentHashMap<>();
+	// The application wide event bus that holds the listeners
+	private static final BaseEventBus eventBus = new BaseEventBus("generic");
 
 	// Private constructor to prevent instantiation
 	private GenericEventBus()
@@ -61,13 +62,68 @@ public final class GenericEventBus
 	 * @param eventSourceTypeClass
 	 *            the class type of the event source
 	 */
-	@SuppressWarnings("unchecked")
 	public static <T> void register(@NonNull final EventListener<EventObject<T>> listener,
 		@NonNull final Class<T> eventSourceTypeClass)
 	{
-		EventSource<EventObject<T>> eventSource = GenericEventBus
-			.getEventSource(eventSourceTypeClass);
-		eventSource.add(listener);
+		eventBus.register(listener, eventSourceTypeClass);
+	}
+
+	/**
+	 * Registers a new {@link EventListener} with the specified event source type class and the
+	 * given priority to this EventBus instance, see
+	 * {@link BaseEventBus#register(EventListener, Class, int)}
+	 *
+	 * @param <T>
+	 *            the type parameter that represents the event source
+	 * @param listener
+	 *            the listener to register
+	 * @param eventSourceTypeClass
+	 *            the class type of the event source
+	 * @param priority
+	 *            the priority of the listener, higher priorities receive an event first
+	 */
+	public static <T> void register(@NonNull final EventListener<EventObject<T>> listener,
+		@NonNull final Class<T> eventSourceTypeClass, final int priority)
+	{
+		eventBus.register(listener, eventSourceTypeClass, priority);
+	}
+
+	/**
+	 * Registers the given {@link EventListener} weakly with the specified event source type class
+	 * to this EventBus instance, so this application wide event bus does not keep the listener
+	 * alive, see {@link BaseEventBus#registerWeak(EventListener, Class)}
+	 *
+	 * @param <T>
+	 *            the type parameter that represents the event source
+	 * @param listener
+	 *            the listener to register weakly
+	 * @param eventSourceTypeClass
+	 *            the class type of the event source
+	 */
+	public static <T> void registerWeak(@NonNull final EventListener<EventObject<T>> listener,
+		@NonNull final Class<T> eventSourceTypeClass)
+	{
+		eventBus.registerWeak(listener, eventSourceTypeClass);
+	}
+
+	/**
+	 * Registers the given {@link EventListener} weakly with the specified event source type class
+	 * and the given priority to this EventBus instance, see
+	 * {@link BaseEventBus#registerWeak(EventListener, Class, int)}
+	 *
+	 * @param <T>
+	 *            the type parameter that represents the event source
+	 * @param listener
+	 *            the listener to register weakly
+	 * @param eventSourceTypeClass
+	 *            the class type of the event source
+	 * @param priority
+	 *            the priority of the listener, higher priorities receive an event first
+	 */
+	public static <T> void registerWeak(@NonNull final EventListener<EventObject<T>> listener,
+		@NonNull final Class<T> eventSourceTypeClass, final int priority)
+	{
+		eventBus.registerWeak(listener, eventSourceTypeClass, priority);
 	}
 
 	/**
@@ -81,153 +137,231 @@ public final class GenericEventBus
 	 * @param eventSourceTypeClass
 	 *            the class type of the event source
 	 */
-	@SuppressWarnings("unchecked")
 	public static <T> void unregister(@NonNull final EventListener<EventObject<T>> listener,
 		@NonNull final Class<T> eventSourceTypeClass)
 	{
-		EventSource<EventObject<T>> eventSource = getEventSource(eventSourceTypeClass);
-		eventSource.remove(listener);
-		remove(eventSourceTypeClass);
+		eventBus.unregister(listener, eventSourceTypeClass);
 	}
 
 	/**
-	 * Posts an event to the event bus. The event is dispatched to all registered listeners
-	 * associated with the event's class type
+	 * Unregisters the given listener from all event types it is registered for, see
+	 * {@link BaseEventBus#unregisterAll(Object)}
 	 *
-	 * @param <T>
-	 *            the type parameter representing the event source
-	 * @param source
-	 *            the source event to be posted
+	 * @param listener
+	 *            the listener to unregister
+	 * @return the number of removed registrations
 	 */
-	@SuppressWarnings("unchecked")
-	public static <T> void post(@NonNull final T source)
+	public static int unregisterAll(@NonNull final Object listener)
 	{
-		Class<T> eventSourceTypeClass = (Class<T>)source.getClass();
-		if (containsKey(eventSourceTypeClass))
-		{
-			get(eventSourceTypeClass).fireEvent(EventObject.of(source));
-		}
+		return eventBus.unregisterAll(listener);
 	}
 
 	/**
-	 * Retrieves the event source associated with the specified key
+	 * Registers all annotated handler methods of the given subscriber object, see
+	 * {@link BaseEventBus#register(Object)}
 	 *
-	 * @param key
-	 *            the key associated with the event source
-	 * @return the event source associated with the given key, or {@code null} if none is found
+	 * @param subscriber
+	 *            the subscriber object with the annotated handler methods
 	 */
-	private static EventSource<?> get(final String key)
+	public static void register(@NonNull final Object subscriber)
 	{
-		return eventSources.get(key);
+		eventBus.register(subscriber);
 	}
 
 	/**
-	 * Checks if the event bus contains an event source associated with the specified key
+	 * Unregisters all annotated handler methods of the given subscriber object, see
+	 * {@link BaseEventBus#unregister(Object)}
 	 *
-	 * @param key
-	 *            the key to check
-	 * @return {@code true} if the event source is present, {@code false} otherwise
+	 * @param subscriber
+	 *            the subscriber object with the annotated handler methods
 	 */
-	private static boolean containsKey(final String key)
+	public static void unregister(@NonNull final Object subscriber)
 	{
-		return eventSources.containsKey(key);
+		eventBus.unregister(subscriber);
 	}
 
 	/**
-	 * Checks if the event bus contains an event source associated with the specified class type
+	 * Subscribes a new {@link PayloadListener} with the specified event source type class to this
+	 * EventBus instance. The listener receives the posted event sources directly
 	 *
 	 * @param <T>
-	 *            the type of the event source
+	 *            the type parameter that represents the event source
+	 * @param listener
+	 *            the listener to subscribe
 	 * @param eventSourceTypeClass
-	 *            the class type of the event source to check
-	 * @return {@code true} if the event source is present, {@code false} otherwise
+	 *            the class type of the event source
 	 */
-	private static <T> boolean containsKey(@NonNull final Class<T> eventSourceTypeClass)
+	public static <T> void subscribe(@NonNull final PayloadListener<? super T> listener,
+		@NonNull final Class<T> eventSourceTypeClass)
 	{
-		return containsKey(eventSourceTypeClass.getSimpleName());
+		eventBus.subscribe(listener, eventSourceTypeClass);
 	}
 
 	/**
-	 * Retrieves the event source associated with the specified class type. If it does not exist, a
-	 * new {@code EventSubject} is created and associated with the class type
+	 * Subscribes a new {@link PayloadListener} with the specified event source type class and the
+	 * given priority to this EventBus instance, see
+	 * {@link BaseEventBus#subscribe(PayloadListener, Class, int)}
 	 *
 	 * @param <T>
-	 *            the type of the event source
+	 *            the type parameter that represents the event source
+	 * @param listener
+	 *            the listener to subscribe
 	 * @param eventSourceTypeClass
 	 *            the class type of the event source
-	 * @return the event source associated with the specified class type
+	 * @param priority
+	 *            the priority of the listener, higher priorities receive an event first
 	 */
-	@SuppressWarnings("unchecked")
-	private static <T> EventSource<EventObject<T>> getEventSource(
-		@NonNull final Class<T> eventSourceTypeClass)
+	public static <T> void subscribe(@NonNull final PayloadListener<? super T> listener,
+		@NonNull final Class<T> eventSourceTypeClass, final int priority)
 	{
-		if (!containsKey(eventSourceTypeClass))
-		{
-			put(eventSourceTypeClass.getSimpleName(), new EventSubject<EventObject<T>>());
-		}
-		return (EventSource<EventObject<T>>)get(eventSourceTypeClass.getSimpleName());
+		eventBus.subscribe(listener, eventSourceTypeClass, priority);
 	}
 
 	/**
-	 * Removes the event source associated with the specified class type
+	 * Unsubscribes the given {@link PayloadListener} with the specified event source type class
+	 * from this EventBus
 	 *
 	 * @param <T>
-	 *            the type of the event source
+	 *            the type parameter that represents the event source
+	 * @param listener
+	 *            the listener to unsubscribe
 	 * @param eventSourceTypeClass
-	 *            the class type of the event source to be removed
-	 * @return an {@code Optional} containing the removed event source, or {@code Optional.empty()}
-	 *         if none existed
+	 *            the class type of the event source
 	 */
-	@SuppressWarnings("unchecked")
-	private static <T> Optional<EventSource<EventObject<T>>> remove(
+	public static <T> void unsubscribe(@NonNull final PayloadListener<? super T> listener,
 		@NonNull final Class<T> eventSourceTypeClass)
 	{
-		if (containsKey(eventSourceTypeClass))
-		{
-			String classSimpleName = eventSourceTypeClass.getSimpleName();
-			EventSource<EventObject<T>> removedEventSource = (EventSource<EventObject<T>>)eventSources
-				.remove(classSimpleName);
-			return Optional.of(removedEventSource);
-		}
-		return Optional.empty();
+		eventBus.unsubscribe(listener, eventSourceTypeClass);
+	}
+
+	/**
+	 * Posts an event to the event bus. The event is dispatched to all registered listeners
+	 * associated with the event's class type
+	 *
+	 * @param <T>
+	 *            the type parameter representing the event source
+	 * @param source
+	 *            the source event to be posted
+	 */
+	public static <T> void post(@NonNull final T source)
+	{
+		eventBus.post(source);
 	}
 
 	/**
-	 * Retrieves the event source associated with the specified class type. If it does not exist,
-	 * null will be returned
+	 * Posts a lazily created event to the event bus, the given supplier is only invoked if at
+	 * least one listener would receive the event, see {@link BaseEventBus#post(Class, Supplier)}
 	 *
 	 * @param <T>
-	 *            the type of the event source
+	 *            the type parameter representing the event source
 	 * @param eventSourceTypeClass
-	 *            the class type of the event source
-	 * @return the event source associated with the specified class type or null if it does not
-	 *         exist
+	 *            the concrete class type of the event source
+	 * @param supplier
+	 *            the supplier that creates the source event to be posted
+	 */
+	public static <T> void post(@NonNull final Class<T> eventSourceTypeClass,
+		@NonNull final Supplier<? extends T> supplier)
+	{
+		eventBus.post(eventSourceTypeClass, supplier);
+	}
+
+	/**
+	 * Checks if at least one listener would receive an event of the given concrete event type,
+	 * see {@link BaseEventBus#hasSubscribers(Class)}
+	 *
+	 * @param <T>
+	 *            the type parameter representing the event source
+	 * @param eventSourceTypeClass
+	 *            the concrete class type of the event source
+	 * @return {@code true} if at least one listener would receive the event, {@code false}
+	 *         otherwise
+	 */
+	public static <T> boolean hasSubscribers(@NonNull final Class<T> eventSourceTypeClass)
+	{
+		return eventBus.hasSubscribers(eventSourceTypeClass);
+	}
+
+	/**
+	 * Posts a batch of events to the event bus. The registered listeners are resolved only once per
+	 * distinct event type of the batch, see {@link BaseEventBus#postAll(Collection)}
+	 *
+	 * @param <T>
+	 *            the type parameter representing the event sources
+	 * @param sources
+	 *            the source events to be posted
+	 */
+	public static <T> void postAll(@NonNull final Collection<? extends T> sources)
+	{
+		eventBus.postAll(sources);
+	}
+
+	/**
+	 * Posts a batch of events to the event bus, see {@link BaseEventBus#postAll(Collection)}
+	 *
+	 * @param <T>
+	 *            the type parameter representing the event sources
+	 * @param sources
+	 *            the source events to be posted
+	 */
+	@SafeVarargs
+	public static <T> void postAll(@NonNull final T... sources)
+	{
+		eventBus.postAll(sources);
+	}
+
+	/**
+	 * Enables or disables the recording of metrics, see
+	 * {@link BaseEventBus#setMetricsEnabled(boolean)}
+	 *
+	 * @param enabled
+	 *            the flag that indicates whether metrics are recorded
+	 */
+	public static void setMetricsEnabled(final boolean enabled)
+	{
+		eventBus.setMetricsEnabled(enabled);
+	}
+
+	/**
+	 * Checks if the recording of metrics is enabled
+	 *
+	 * @return {@code true} if metrics are recorded, {@code false} otherwise
+	 */
+	public static boolean isMetricsEnabled()
+	{
+		return eventBus.isMetricsEnabled();
+	}
+
+	/**
+	 * Creates a snapshot of the metrics recorded so far
+	 *
+	 * @return the unmodifiable snapshots keyed by their event type
+	 */
+	public static Map<Class<?>, EventTypeSnapshot> getMetricsSnapshot()
+	{
+		return eventBus.getMetricsSnapshot();
+	}
+
+	/**
+	 * Sets the listener that receives every posted event that no listener has received, see
+	 * {@link BaseEventBus#setDeadEventListener(PayloadListener)}
+	 *
+	 * @param deadEventListener
+	 *            the dead event listener or {@code null} to only count the dead events
 	 */
-	@SuppressWarnings("unchecked")
-	private static <T> EventSource<EventObject<T>> get(@NonNull final Class<T> eventSourceTypeClass)
+	public static void setDeadEventListener(
+		final PayloadListener<? super DeadEvent> deadEventListener)
 	{
-		if (containsKey(eventSourceTypeClass))
-		{
-			String classSimpleName = eventSourceTypeClass.getSimpleName();
-			EventSource<EventObject<T>> removedEventSource = (EventSource<EventObject<T>>)eventSources
-				.get(classSimpleName);
-			return removedEventSource;
-		}
-		return null;
+		eventBus.setDeadEventListener(deadEventListener);
 	}
 
 	/**
-	 * Associates the specified event source with the specified key
+	 * Retrieves the numbers of posted events that no listener has received
 	 *
-	 * @param key
-	 *            the key with which the event source is to be associated
-	 * @param value
-	 *            the event source to be associated with the key
-	 * @return the previous event source associated with the key, or {@code null} if there was no
-	 *         mapping for the key
+	 * @return the unmodifiable numbers of dead events keyed by their event type, ordered from the
+	 *         highest to the lowest number
 	 */
-	private static synchronized EventSource<?> put(final String key, final EventSource<?> value)
+	public static Map<Class<?>, Long> getDeadEventCounts()
 	{
-		return eventSources.put(key, value);
+		return eventBus.getDeadEventCounts();
 	}
 }
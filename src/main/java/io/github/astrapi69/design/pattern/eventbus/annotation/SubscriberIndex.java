@@ -0,0 +1,54 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.annotation;
+
+import java.util.List;
+
+/**
+ * The interface {@link SubscriberIndex} is implemented by the classes that the
+ * {@code SubscriberIndexProcessor} generates at build time for every class with methods annotated
+ * with {@link Subscribe}. An index lists the handler methods that its subscriber class declares
+ * together with compiled invokers, so the handler methods are found without any reflection.
+ * Generated indexes are discovered with the {@link java.util.ServiceLoader} or can be added
+ * explicitly with {@link SubscriberMethods#addIndex(SubscriberIndex)}
+ */
+public interface SubscriberIndex
+{
+
+	/**
+	 * Gets the subscriber class of this index
+	 *
+	 * @return the subscriber class
+	 */
+	Class<?> getSubscriberClass();
+
+	/**
+	 * Gets the handler methods that the subscriber class declares, the handler methods of its
+	 * superclasses are not included
+	 *
+	 * @return the handler methods that the subscriber class declares
+	 */
+	List<SubscriberMethod> getSubscriberMethods();
+}
@@ -0,0 +1,326 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.annotation;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import io.github.astrapi69.design.pattern.eventbus.listener.PayloadListener;
+import io.github.astrapi69.design.pattern.eventbus.registry.Subscriber;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The class {@link SubscriberMethod} describes a handler method of a subscriber class together
+ * with a factory for the invokers of the handler method. An invoker is a {@link PayloadListener}
+ * that calls the handler method of one subscriber object directly without any reflection
+ *
+ * <p>
+ * A {@link SubscriberMethod} is either created from a reflected {@link Method}, then its invokers
+ * are generated once per handler method with the {@link LambdaMetafactory}, or it is created by a
+ * {@link SubscriberIndex} that was generated at build time, then its invokers call the compiled
+ * invoker of the index without linking anything at runtime. If a reflected handler method cannot
+ * be linked with the {@link LambdaMetafactory}, for instance because the subscriber class lives in
+ * a module that does not grant full access, the invoker calls a bound {@link MethodHandle}
+ * instead
+ */
+public final class SubscriberMethod
+{
+
+	/** The name of the method of the {@link PayloadListener} interface */
+	private static final String ON_PAYLOAD = "onPayload";
+
+	/** The erased type of the method of the {@link PayloadListener} interface */
+	private static final MethodType ON_PAYLOAD_TYPE = MethodType.methodType(void.class,
+		Object.class);
+
+	/** The class that declares the handler method */
+	@Getter
+	private final Class<?> declaringClass;
+
+	/** The name of the handler method */
+	@Getter
+	private final String methodName;
+
+	/** The event type the handler method receives */
+	@Getter
+	private final Class<?> eventType;
+
+	/** The priority of the handler method */
+	@Getter
+	private final int priority;
+
+	/** The factory that creates an invoker bound to a subscriber object */
+	private final Function<Object, PayloadListener<Object>> invokerFactory;
+
+	/**
+	 * Instantiates a new {@code SubscriberMethod} for the given reflected handler method
+	 *
+	 * @param method
+	 *            the handler method
+	 * @param priority
+	 *            the priority of the handler method
+	 * @throws IllegalArgumentException
+	 *             is thrown if the given method is no valid handler method or is not accessible
+	 */
+	public SubscriberMethod(@NonNull final Method method, final int priority)
+	{
+		this.declaringClass = method.getDeclaringClass();
+		this.methodName = method.getName();
+		this.eventType = eventTypeOf(method);
+		this.priority = priority;
+		this.invokerFactory = link(method);
+	}
+
+	/**
+	 * Instantiates a new {@code SubscriberMethod} for a handler method that is called by the given
+	 * compiled invoker. This constructor is used by the generated {@link SubscriberIndex} classes
+	 *
+	 * @param declaringClass
+	 *            the class that declares the handler method
+	 * @param methodName
+	 *            the name of the handler method
+	 * @param eventType
+	 *            the event type the handler method receives
+	 * @param priority
+	 *            the priority of the handler method
+	 * @param invoker
+	 *            the invoker that calls the handler method of the given subscriber object with
+	 *            the given event
+	 */
+	public SubscriberMethod(@NonNull final Class<?> declaringClass,
+		@NonNull final String methodName, @NonNull final Class<?> eventType, final int priority,
+		@NonNull final BiConsumer<Object, Object> invoker)
+	{
+		this.declaringClass = declaringClass;
+		this.methodName = methodName;
+		this.eventType = eventType;
+		this.priority = priority;
+		this.invokerFactory = new IndexedInvokerFactory(invoker);
+	}
+
+	/**
+	 * Validates the given handler method and gets the event type it receives
+	 *
+	 * @param method
+	 *            the handler method
+	 * @return the event type the handler method receives
+	 * @throws IllegalArgumentException
+	 *             is thrown if the given method is no valid handler method
+	 */
+	private static Class<?> eventTypeOf(final Method method)
+	{
+		if (Modifier.isStatic(method.getModifiers()))
+		{
+			throw new IllegalArgumentException(
+				"The handler method " + method + " must not be static");
+		}
+		if (method.getParameterCount() != 1 || method.getParameterTypes()[0].isPrimitive())
+		{
+			throw new IllegalArgumentException("The handler method " + method
+				+ " must have exactly one parameter of a reference type");
+		}
+		return method.getParameterTypes()[0];
+	}
+
+	/**
+	 * Links the given reflected handler method and creates the factory of its invokers
+	 *
+	 * @param method
+	 *            the handler method
+	 * @return the factory that creates an invoker bound to a subscriber object
+	 * @throws IllegalArgumentException
+	 *             is thrown if the given method is not accessible
+	 */
+	private Function<Object, PayloadListener<Object>> link(final Method method)
+	{
+		MethodHandles.Lookup lookup;
+		MethodHandle handle;
+		try
+		{
+			lookup = MethodHandles.privateLookupIn(declaringClass, MethodHandles.lookup());
+			handle = lookup.unreflect(method);
+		}
+		catch (IllegalAccessException exception)
+		{
+			throw new IllegalArgumentException("The handler method " + method
+				+ " is not accessible, the package of its class must be opened to this library",
+				exception);
+		}
+		MethodHandle factory = metafactory(lookup, handle);
+		if (factory == null)
+		{
+			return target -> {
+				MethodHandle bound = handle.bindTo(target).asType(ON_PAYLOAD_TYPE);
+				return payload -> invoke(bound, payload);
+			};
+		}
+		return target -> newInvoker(factory, target);
+	}
+
+	/**
+	 * Generates the factory of the invokers with the {@link LambdaMetafactory}
+	 *
+	 * @param lookup
+	 *            the lookup with private access to the declaring class of the handler method
+	 * @param handle
+	 *            the handle of the handler method
+	 * @return the factory that creates an invoker bound to a subscriber object or {@code null} if
+	 *         the handler method cannot be linked with the {@link LambdaMetafactory}
+	 */
+	private MethodHandle metafactory(final MethodHandles.Lookup lookup, final MethodHandle handle)
+	{
+		try
+		{
+			CallSite callSite = LambdaMetafactory.metafactory(lookup, ON_PAYLOAD,
+				MethodType.methodType(PayloadListener.class, declaringClass), ON_PAYLOAD_TYPE,
+				handle, MethodType.methodType(void.class, eventType));
+			return callSite.getTarget();
+		}
+		catch (LambdaConversionException | IllegalArgumentException exception)
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * Creates a new invoker with the given generated factory
+	 *
+	 * @param factory
+	 *            the factory generated with the {@link LambdaMetafactory}
+	 * @param target
+	 *            the subscriber object
+	 * @return the new invoker
+	 */
+	@SuppressWarnings("unchecked")
+	private PayloadListener<Object> newInvoker(final MethodHandle factory, final Object target)
+	{
+		try
+		{
+			return (PayloadListener<Object>)factory.invoke(target);
+		}
+		catch (Throwable throwable)
+		{
+			throw new IllegalStateException("Could not create the invoker of " + this, throwable);
+		}
+	}
+
+	/**
+	 * Invokes the given bound handle of the handler method with the given event and rethrows
+	 * every exception of the handler method unchanged if it is unchecked
+	 *
+	 * @param bound
+	 *            the handle bound to the subscriber object
+	 * @param payload
+	 *            the event
+	 */
+	private static void invoke(final MethodHandle bound, final Object payload)
+	{
+		try
+		{
+			bound.invokeExact(payload);
+		}
+		catch (RuntimeException | Error exception)
+		{
+			throw exception;
+		}
+		catch (Throwable throwable)
+		{
+			throw new IllegalStateException(throwable);
+		}
+	}
+
+	/**
+	 * Creates a new {@link Subscriber} that delivers the events to this handler method of the
+	 * given subscriber object
+	 *
+	 * @param target
+	 *            the subscriber object
+	 * @return the new {@link Subscriber}
+	 */
+	@SuppressWarnings("unchecked")
+	public Subscriber<?> bind(@NonNull final Object target)
+	{
+		return Subscriber.forHandler((Class<Object>)eventType, target,
+			invokerFactory.apply(target), priority);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString()
+	{
+		return "SubscriberMethod[" + declaringClass.getName() + "." + methodName + "("
+			+ eventType.getName() + "), priority=" + priority + "]";
+	}
+
+	/**
+	 * The factory of the invokers of a handler method from a generated {@link SubscriberIndex}.
+	 * It is a class instead of a lambda, so a generated index does not bootstrap any call site
+	 * at startup
+	 */
+	private static final class IndexedInvokerFactory
+		implements Function<Object, PayloadListener<Object>>
+	{
+		/** The compiled invoker of the generated index */
+		final BiConsumer<Object, Object> invoker;
+
+		/**
+		 * Instantiates a new {@code IndexedInvokerFactory}
+		 *
+		 * @param invoker
+		 *            the compiled invoker of the generated index
+		 */
+		IndexedInvokerFactory(final BiConsumer<Object, Object> invoker)
+		{
+			this.invoker = invoker;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public PayloadListener<Object> apply(final Object target)
+		{
+			return new PayloadListener<>()
+			{
+				@Override
+				public void onPayload(final Object payload)
+				{
+					invoker.accept(target, payload);
+				}
+			};
+		}
+	}
+}
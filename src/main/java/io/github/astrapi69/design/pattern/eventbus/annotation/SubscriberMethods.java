@@ -0,0 +1,259 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.annotation;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.github.astrapi69.design.pattern.eventbus.registry.Subscriber;
+import lombok.NonNull;
+
+/**
+ * The class {@link SubscriberMethods} finds the handler methods of subscriber classes that are
+ * annotated with {@link Subscribe}. Every subscriber class is resolved only once, the found
+ * {@link SubscriberMethod} objects together with their invoker factories are cached per class, so
+ * registering further objects of a class does not look up any method anymore
+ *
+ * <p>
+ * The handler methods of a class are taken from its {@link SubscriberIndex} if one was generated
+ * at build time by the {@code SubscriberIndexProcessor}, otherwise the class is scanned with
+ * reflection. Generated indexes are discovered with the {@link ServiceLoader} on first use, in a
+ * named module the module of the subscriber classes has to provide them, or they are added
+ * explicitly with {@link #addIndex(SubscriberIndex)} before the first subscriber object of their
+ * class is registered
+ */
+public final class SubscriberMethods
+{
+
+	/** The generated indexes keyed by their subscriber class */
+	private static final Map<Class<?>, SubscriberIndex> INDEXES = new ConcurrentHashMap<>();
+
+	/** The cached handler methods that a class declares */
+	private static final ClassValue<List<SubscriberMethod>> DECLARED_METHODS = new ClassValue<>()
+	{
+		@Override
+		protected List<SubscriberMethod> computeValue(final Class<?> type)
+		{
+			List<SubscriberMethod> indexed = indexed(type);
+			return indexed != null ? indexed : scan(type);
+		}
+	};
+
+	/** The cached handler methods of a class and all its superclasses */
+	private static final ClassValue<List<SubscriberMethod>> METHODS = new ClassValue<>()
+	{
+		@Override
+		protected List<SubscriberMethod> computeValue(final Class<?> type)
+		{
+			return resolve(type);
+		}
+	};
+
+	/** The flag that indicates whether the indexes were discovered with the service loader */
+	private static volatile boolean indexesLoaded;
+
+	/**
+	 * Private constructor to prevent instantiation
+	 */
+	private SubscriberMethods()
+	{
+	}
+
+	/**
+	 * Adds the given generated index, so the handler methods of its subscriber class are taken
+	 * from the index instead of being scanned with reflection
+	 *
+	 * @param index
+	 *            the generated index
+	 */
+	public static void addIndex(@NonNull final SubscriberIndex index)
+	{
+		INDEXES.put(index.getSubscriberClass(), index);
+	}
+
+	/**
+	 * Gets the handler methods of the given subscriber class and all its superclasses
+	 *
+	 * @param subscriberClass
+	 *            the subscriber class
+	 * @return the unmodifiable list of the handler methods
+	 * @throws IllegalArgumentException
+	 *             is thrown if an annotated method is no valid handler method
+	 */
+	public static List<SubscriberMethod> of(@NonNull final Class<?> subscriberClass)
+	{
+		return METHODS.get(subscriberClass);
+	}
+
+	/**
+	 * Creates the subscribers of all handler methods of the given subscriber object
+	 *
+	 * @param target
+	 *            the subscriber object
+	 * @return the new subscribers
+	 * @throws IllegalArgumentException
+	 *             is thrown if the given object has no handler method or an annotated method is
+	 *             no valid handler method
+	 */
+	public static List<Subscriber<?>> bind(@NonNull final Object target)
+	{
+		List<SubscriberMethod> methods = of(target.getClass());
+		if (methods.isEmpty())
+		{
+			throw new IllegalArgumentException("The class " + target.getClass().getName()
+				+ " has no method annotated with @" + Subscribe.class.getSimpleName());
+		}
+		List<Subscriber<?>> subscribers = new ArrayList<>(methods.size());
+		for (SubscriberMethod method : methods)
+		{
+			subscribers.add(method.bind(target));
+		}
+		return subscribers;
+	}
+
+	/**
+	 * Resolves the handler methods of the given subscriber class and all its superclasses. A
+	 * method that is overridden in a subclass is found only once
+	 *
+	 * @param subscriberClass
+	 *            the subscriber class
+	 * @return the unmodifiable list of the handler methods
+	 */
+	private static List<SubscriberMethod> resolve(final Class<?> subscriberClass)
+	{
+		List<SubscriberMethod> methods = new ArrayList<>();
+		Set<List<Object>> signatures = new HashSet<>();
+		for (Class<?> current = subscriberClass; current != null
+			&& current != Object.class; current = current.getSuperclass())
+		{
+			for (SubscriberMethod method : DECLARED_METHODS.get(current))
+			{
+				if (signatures.add(List.of(method.getMethodName(), method.getEventType())))
+				{
+					methods.add(method);
+				}
+			}
+		}
+		return List.copyOf(methods);
+	}
+
+	/**
+	 * Gets the handler methods that the given class declares from its generated index
+	 *
+	 * @param type
+	 *            the class
+	 * @return the handler methods from the generated index or {@code null} if the class has no
+	 *         generated index
+	 */
+	static List<SubscriberMethod> indexed(final Class<?> type)
+	{
+		loadIndexes();
+		SubscriberIndex index = INDEXES.get(type);
+		return index != null ? List.copyOf(index.getSubscriberMethods()) : null;
+	}
+
+	/**
+	 * Discovers the generated indexes with the {@link ServiceLoader} once. Index entries whose
+	 * classes cannot be loaded are skipped
+	 */
+	private static void loadIndexes()
+	{
+		if (indexesLoaded)
+		{
+			return;
+		}
+		synchronized (INDEXES)
+		{
+			if (indexesLoaded)
+			{
+				return;
+			}
+			Iterator<SubscriberIndex> indexes = ServiceLoader.load(SubscriberIndex.class)
+				.iterator();
+			while (hasNext(indexes))
+			{
+				try
+				{
+					SubscriberIndex index = indexes.next();
+					INDEXES.putIfAbsent(index.getSubscriberClass(), index);
+				}
+				catch (ServiceConfigurationError error)
+				{
+					// a stale index entry falls back to scanning its class
+				}
+			}
+			indexesLoaded = true;
+		}
+	}
+
+	/**
+	 * Checks if the given service iterator has a further index, a broken service configuration
+	 * ends the discovery
+	 *
+	 * @param indexes
+	 *            the service iterator
+	 * @return {@code true} if the iterator has a further index, {@code false} otherwise
+	 */
+	private static boolean hasNext(final Iterator<SubscriberIndex> indexes)
+	{
+		try
+		{
+			return indexes.hasNext();
+		}
+		catch (ServiceConfigurationError error)
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * Scans the handler methods that the given class declares with reflection
+	 *
+	 * @param type
+	 *            the class
+	 * @return the unmodifiable list of the handler methods that the given class declares
+	 */
+	static List<SubscriberMethod> scan(final Class<?> type)
+	{
+		List<SubscriberMethod> methods = new ArrayList<>();
+		for (Method method : type.getDeclaredMethods())
+		{
+			Subscribe subscribe = method.getAnnotation(Subscribe.class);
+			if (subscribe != null && !method.isBridge() && !method.isSynthetic())
+			{
+				methods.add(new SubscriberMethod(method, subscribe.priority()));
+			}
+		}
+		return List.copyOf(methods);
+	}
+}
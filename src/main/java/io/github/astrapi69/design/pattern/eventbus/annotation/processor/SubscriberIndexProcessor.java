@@ -0,0 +1,390 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.annotation.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * The class {@link SubscriberIndexProcessor} is an annotation processor that generates a
+ * {@code SubscriberIndex} at build time for every class with methods annotated with
+ * {@code Subscribe}. The generated index lists the handler methods of the class together with
+ * compiled lambdas that call them, and every generated index is registered in the service file
+ * {@code META-INF/services/io.github.astrapi69.design.pattern.eventbus.annotation.SubscriberIndex}.
+ * The event bus then takes the handler methods from the index instead of scanning the class with
+ * reflection, which shortens the startup and works in ahead-of-time compiled images
+ *
+ * <p>
+ * A class whose handler methods cannot be called from generated code in its package, because a
+ * handler method or the class itself is private or the class is local or anonymous, is reported
+ * with a warning and is scanned with reflection at runtime as before
+ */
+public final class SubscriberIndexProcessor extends AbstractProcessor
+{
+
+	/** The package of the annotation and of the index types */
+	static final String ANNOTATION_PACKAGE =
+		"io.github.astrapi69.design.pattern.eventbus.annotation";
+
+	/** The qualified name of the {@code Subscribe} annotation */
+	static final String SUBSCRIBE = ANNOTATION_PACKAGE + ".Subscribe";
+
+	/** The qualified name of the {@code SubscriberIndex} interface */
+	static final String SUBSCRIBER_INDEX = ANNOTATION_PACKAGE + ".SubscriberIndex";
+
+	/** The qualified name of the {@code SubscriberMethod} class */
+	static final String SUBSCRIBER_METHOD = ANNOTATION_PACKAGE + ".SubscriberMethod";
+
+	/** The suffix of the simple names of the generated index classes */
+	static final String INDEX_SUFFIX = "_SubscriberIndex";
+
+	/** The qualified names of the index classes generated so far */
+	private final List<String> generatedIndexes = new ArrayList<>();
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Set<String> getSupportedAnnotationTypes()
+	{
+		return Set.of(SUBSCRIBE);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public SourceVersion getSupportedSourceVersion()
+	{
+		return SourceVersion.latestSupported();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean process(final Set<? extends TypeElement> annotations,
+		final RoundEnvironment roundEnvironment)
+	{
+		if (roundEnvironment.processingOver())
+		{
+			writeServiceFile();
+			return false;
+		}
+		Map<TypeElement, List<ExecutableElement>> handlers = new LinkedHashMap<>();
+		for (TypeElement annotation : annotations)
+		{
+			for (Element element : roundEnvironment.getElementsAnnotatedWith(annotation))
+			{
+				if (element.getKind() == ElementKind.METHOD && isValid((ExecutableElement)element))
+				{
+					handlers.computeIfAbsent((TypeElement)element.getEnclosingElement(),
+						type -> new ArrayList<>()).add((ExecutableElement)element);
+				}
+			}
+		}
+		handlers.forEach(this::generateIndex);
+		return false;
+	}
+
+	/**
+	 * Validates the given handler method and reports an error if it is no valid handler method
+	 *
+	 * @param method
+	 *            the handler method
+	 * @return {@code true} if the given method is a valid handler method, {@code false} otherwise
+	 */
+	private boolean isValid(final ExecutableElement method)
+	{
+		String error = null;
+		if (method.getModifiers().contains(Modifier.STATIC))
+		{
+			error = "A handler method must not be static";
+		}
+		else if (method.getParameters().size() != 1)
+		{
+			error = "A handler method must have exactly one parameter";
+		}
+		else if (method.getParameters().get(0).asType().getKind().isPrimitive())
+		{
+			error = "The parameter of a handler method must be of a reference type";
+		}
+		if (error != null)
+		{
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, error, method);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Checks if the given handler methods of the given class can be called from a generated class
+	 * in the package of the given class and reports a warning otherwise
+	 *
+	 * @param type
+	 *            the class that declares the handler methods
+	 * @param methods
+	 *            the handler methods
+	 * @return {@code true} if the handler methods can be indexed, {@code false} otherwise
+	 */
+	private boolean isIndexable(final TypeElement type, final List<ExecutableElement> methods)
+	{
+		Element current = type;
+		while (current instanceof TypeElement)
+		{
+			TypeElement currentType = (TypeElement)current;
+			if (currentType.getModifiers().contains(Modifier.PRIVATE)
+				|| currentType.getNestingKind() == NestingKind.LOCAL
+				|| currentType.getNestingKind() == NestingKind.ANONYMOUS)
+			{
+				warnNotIndexed(type, "it is private, local or anonymous");
+				return false;
+			}
+			current = current.getEnclosingElement();
+		}
+		for (ExecutableElement method : methods)
+		{
+			if (method.getModifiers().contains(Modifier.PRIVATE))
+			{
+				warnNotIndexed(type, "its handler method " + method.getSimpleName()
+					+ " is private");
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Reports a warning that the given class is scanned with reflection at runtime
+	 *
+	 * @param type
+	 *            the class that is not indexed
+	 * @param reason
+	 *            the reason why the class is not indexed
+	 */
+	private void warnNotIndexed(final TypeElement type, final String reason)
+	{
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "The class "
+			+ type.getQualifiedName() + " is not indexed and is scanned with reflection at "
+			+ "runtime, because " + reason, type);
+	}
+
+	/**
+	 * Generates the index class of the given class with the given handler methods
+	 *
+	 * @param type
+	 *            the class that declares the handler methods
+	 * @param methods
+	 *            the handler methods
+	 */
+	private void generateIndex(final TypeElement type, final List<ExecutableElement> methods)
+	{
+		if (!isIndexable(type, methods))
+		{
+			return;
+		}
+		String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName()
+			.toString();
+		String indexName = indexSimpleName(type);
+		String qualifiedIndexName = packageName.isEmpty()
+			? indexName
+			: packageName + "." + indexName;
+		try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedIndexName, type)
+			.openWriter())
+		{
+			writer.write(indexSource(packageName, indexName, type, methods));
+			generatedIndexes.add(qualifiedIndexName);
+		}
+		catch (IOException exception)
+		{
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+				"Could not write the index " + qualifiedIndexName + ": " + exception, type);
+		}
+	}
+
+	/**
+	 * Computes the simple name of the index class of the given class from the simple names of the
+	 * class and its enclosing classes
+	 *
+	 * @param type
+	 *            the class
+	 * @return the simple name of the index class
+	 */
+	static String indexSimpleName(final TypeElement type)
+	{
+		String name = type.getSimpleName().toString();
+		Element current = type.getEnclosingElement();
+		while (current instanceof TypeElement)
+		{
+			name = current.getSimpleName() + "_" + name;
+			current = current.getEnclosingElement();
+		}
+		return name + INDEX_SUFFIX;
+	}
+
+	/**
+	 * Creates the source code of the index class of the given class. The invoker of a handler
+	 * method that declares exceptions rethrows unchecked exceptions unchanged and wraps checked
+	 * exceptions into an {@link IllegalStateException}
+	 *
+	 * @param packageName
+	 *            the package of the class
+	 * @param indexName
+	 *            the simple name of the index class
+	 * @param type
+	 *            the class that declares the handler methods
+	 * @param methods
+	 *            the handler methods
+	 * @return the source code of the index class
+	 */
+	private String indexSource(final String packageName, final String indexName,
+		final TypeElement type, final List<ExecutableElement> methods)
+	{
+		String className = erasure(type.asType());
+		StringBuilder source = new StringBuilder();
+		if (!packageName.isEmpty())
+		{
+			source.append("package ").append(packageName).append(";\n\n");
+		}
+		source.append("/**\n * The generated subscriber index of {@link ").append(className)
+			.append("}, do not edit\n */\n");
+		source.append("public final class ").append(indexName).append(" implements ")
+			.append(SUBSCRIBER_INDEX).append("\n{\n\n");
+		source.append("\t@Override\n\tpublic Class<?> getSubscriberClass()\n\t{\n\t\treturn ")
+			.append(className).append(".class;\n\t}\n\n");
+		source.append("\t@Override\n\t@SuppressWarnings({ \"unchecked\", \"rawtypes\" })\n");
+		source.append("\tpublic java.util.List<").append(SUBSCRIBER_METHOD)
+			.append("> getSubscriberMethods()\n\t{\n\t\treturn java.util.List.of(");
+		for (int i = 0; i < methods.size(); i++)
+		{
+			ExecutableElement method = methods.get(i);
+			String eventType = erasure(method.getParameters().get(0).asType());
+			source.append(i == 0 ? "\n" : ",\n").append("\t\t\tnew ").append(SUBSCRIBER_METHOD)
+				.append("(").append(className).append(".class, \"")
+				.append(method.getSimpleName()).append("\", ").append(eventType)
+				.append(".class, ").append(priorityOf(method))
+				.append(",\n\t\t\t\tnew java.util.function.BiConsumer<Object, Object>()\n")
+				.append("\t\t\t\t{\n\t\t\t\t\t@Override\n")
+				.append("\t\t\t\t\tpublic void accept(Object target, Object event)\n")
+				.append("\t\t\t\t\t{\n");
+			String call = "((" + className + ")target)." + method.getSimpleName() + "(("
+				+ eventType + ")event);\n";
+			if (method.getThrownTypes().isEmpty())
+			{
+				source.append("\t\t\t\t\t\t").append(call);
+			}
+			else
+			{
+				source.append("\t\t\t\t\t\ttry\n\t\t\t\t\t\t{\n\t\t\t\t\t\t\t").append(call)
+					.append("\t\t\t\t\t\t}\n")
+					.append("\t\t\t\t\t\tcatch (RuntimeException | Error exception)\n")
+					.append("\t\t\t\t\t\t{\n\t\t\t\t\t\t\tthrow exception;\n\t\t\t\t\t\t}\n")
+					.append("\t\t\t\t\t\tcatch (Throwable throwable)\n")
+					.append("\t\t\t\t\t\t{\n")
+					.append("\t\t\t\t\t\t\tthrow new IllegalStateException(throwable);\n")
+					.append("\t\t\t\t\t\t}\n");
+			}
+			source.append("\t\t\t\t\t}\n\t\t\t\t})");
+		}
+		source.append(");\n\t}\n}\n");
+		return source.toString();
+	}
+
+	/**
+	 * Gets the priority of the {@code Subscribe} annotation of the given handler method
+	 *
+	 * @param method
+	 *            the handler method
+	 * @return the priority of the handler method
+	 */
+	private static String priorityOf(final ExecutableElement method)
+	{
+		return method.getAnnotationMirrors().stream()
+			.filter(mirror -> mirror.getAnnotationType().toString().equals(SUBSCRIBE))
+			.flatMap(mirror -> mirror.getElementValues().entrySet().stream())
+			.filter(entry -> entry.getKey().getSimpleName().contentEquals("priority"))
+			.map(entry -> String.valueOf(entry.getValue().getValue())).findFirst().orElse("0");
+	}
+
+	/**
+	 * Gets the source representation of the erasure of the given type
+	 *
+	 * @param type
+	 *            the type
+	 * @return the source representation of the erasure of the given type
+	 */
+	private String erasure(final TypeMirror type)
+	{
+		return processingEnv.getTypeUtils().erasure(type).toString();
+	}
+
+	/**
+	 * Writes the service file that registers all generated index classes
+	 */
+	private void writeServiceFile()
+	{
+		if (generatedIndexes.isEmpty())
+		{
+			return;
+		}
+		try
+		{
+			FileObject serviceFile = processingEnv.getFiler().createResource(
+				StandardLocation.CLASS_OUTPUT, "", "META-INF/services/" + SUBSCRIBER_INDEX);
+			try (Writer writer = serviceFile.openWriter())
+			{
+				for (String generatedIndex : generatedIndexes)
+				{
+					writer.write(generatedIndex);
+					writer.write('\n');
+				}
+			}
+		}
+		catch (IOException exception)
+		{
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+				"Could not write the service file of the subscriber indexes: " + exception);
+		}
+	}
+}
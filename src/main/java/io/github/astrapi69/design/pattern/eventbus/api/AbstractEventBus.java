@@ -0,0 +1,350 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.api;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * The class {@link AbstractEventBus} is an implementation of the {@link EventBus} interface for
+ * many subscribers with a short lifetime. Subscribers are deduplicated by identity and posted to in
+ * the order of their registration.
+ *
+ * <p>
+ * The subscribers are kept in an array that is only appended to. An identity map holds the
+ * position of every subscriber, so {@link #register(Object)} and {@link #unregister(Object)} cost
+ * amortized O(1): unregistering a subscriber clears its slot and the array is compacted into a new
+ * array once more than half of its slots are cleared. A post reads one immutable snapshot of the
+ * array and its size and iterates it without locking, copying or allocating.
+ *
+ * <p>
+ * Unregistering clears the slot of the subscriber in place, in the same array that running posts
+ * iterate without synchronization. A reference write is atomic, so a running post sees either the
+ * subscriber or the cleared slot and never skips or repeats another subscriber, a compaction copies
+ * into a new array and leaves the iterated one untouched. Registration changes during a post are
+ * therefore weakly consistent: a subscriber that is unregistered during a post may or may not
+ * receive the event, a post that starts after {@link #unregister(Object)} has returned never
+ * delivers to it.
+ *
+ * <p>
+ * This contract differs from an event bus that keeps its subscribers in a
+ * {@code CopyOnWriteArrayList}. Subscribers are deduplicated by identity instead of
+ * {@link Object#equals(Object)}, so two distinct but equal subscribers are both registered and
+ * {@link #unregister(Object)} removes only the given instance. {@link #getSubscribers()} returns a
+ * live read-only {@link Collection} view without an index instead of a {@link java.util.List}
+ *
+ * @param <S>
+ *            the type of subscribers that can register to the event bus
+ * @param <E>
+ *            the type of events that can be posted to the event bus
+ */
+public abstract class AbstractEventBus<S, E> implements EventBus<S, E>
+{
+
+	/** The initial capacity of the subscriber array */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/** The positions of the registered subscribers in the subscriber array keyed by identity */
+	private final Map<S, Integer> positions = new IdentityHashMap<>();
+
+	/** The read-only view of the registered subscribers */
+	private final Collection<S> subscriberView = new SubscriberView();
+
+	/** The current snapshot of the subscriber array */
+	private volatile Snapshot snapshot = new Snapshot(new Object[INITIAL_CAPACITY], 0, 0);
+
+	/** The number of cleared slots in the subscriber array, guarded by this event bus */
+	private int cleared;
+
+	/**
+	 * Registers the given subscriber if it is not already registered. Subscribers are compared by
+	 * identity
+	 *
+	 * @param subscriber
+	 *            the subscriber object to register
+	 */
+	@Override
+	public synchronized void register(final S subscriber)
+	{
+		if (subscriber == null || positions.containsKey(subscriber))
+		{
+			return;
+		}
+		Snapshot current = snapshot;
+		if (current.size == current.elements.length)
+		{
+			int capacity = current.elements.length;
+			current = compact(current, cleared * 2 > current.size ? capacity : capacity * 2);
+		}
+		current.elements[current.size] = subscriber;
+		positions.put(subscriber, current.size);
+		snapshot = new Snapshot(current.elements, current.size + 1, positions.size());
+	}
+
+	/**
+	 * Unregisters the given subscriber. Subscribers are compared by identity
+	 *
+	 * @param subscriber
+	 *            the subscriber object to unregister
+	 */
+	@Override
+	public synchronized void unregister(final S subscriber)
+	{
+		Integer position = subscriber != null ? positions.remove(subscriber) : null;
+		if (position == null)
+		{
+			return;
+		}
+		Snapshot current = snapshot;
+		current.elements[position] = null;
+		cleared++;
+		if (cleared * 2 > current.size && current.size > INITIAL_CAPACITY)
+		{
+			current = compact(current, Math.max(INITIAL_CAPACITY, positions.size() * 2));
+		}
+		snapshot = new Snapshot(current.elements, current.size, positions.size());
+	}
+
+	/**
+	 * Copies the registered subscribers of the given snapshot into a new array with the given
+	 * capacity and updates their positions
+	 *
+	 * @param current
+	 *            the current snapshot
+	 * @param capacity
+	 *            the capacity of the new array
+	 * @return the snapshot of the new array
+	 */
+	@SuppressWarnings("unchecked")
+	private Snapshot compact(final Snapshot current, final int capacity)
+	{
+		Object[] elements = new Object[capacity];
+		int size = 0;
+		for (int i = 0; i < current.size; i++)
+		{
+			Object subscriber = current.elements[i];
+			if (subscriber != null)
+			{
+				elements[size] = subscriber;
+				positions.put((S)subscriber, size);
+				size++;
+			}
+		}
+		cleared = 0;
+		return new Snapshot(elements, size, size);
+	}
+
+	/**
+	 * Posts the given event to all registered subscribers in the order of their registration
+	 *
+	 * @param event
+	 *            the event to post
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public void post(final E event)
+	{
+		Snapshot current = snapshot;
+		Object[] elements = current.elements;
+		for (int i = 0; i < current.size; i++)
+		{
+			Object subscriber = elements[i];
+			if (subscriber != null)
+			{
+				onPost((S)subscriber, event);
+			}
+		}
+	}
+
+	/**
+	 * Retrieves a read-only view of the registered subscribers. The view is not copied, it always
+	 * reflects the current registrations and its iterators are weakly consistent. The method
+	 * {@link Collection#contains(Object)} of the view compares by identity
+	 *
+	 * @return the read-only view of the registered subscribers
+	 */
+	@Override
+	public Collection<S> getSubscribers()
+	{
+		return subscriberView;
+	}
+
+	/**
+	 * Checks if the given subscriber is registered. Subscribers are compared by identity
+	 *
+	 * @param subscriber
+	 *            the subscriber to check
+	 * @return {@code true} if the given subscriber is registered, {@code false} otherwise
+	 */
+	public synchronized boolean isRegistered(final Object subscriber)
+	{
+		return positions.containsKey(subscriber);
+	}
+
+	/**
+	 * Callback method for the specified event to the given subscriber
+	 *
+	 * @param subscriber
+	 *            the subscriber that is interested to the given event
+	 * @param event
+	 *            the event to post
+	 */
+	protected abstract void onPost(S subscriber, E event);
+
+	/**
+	 * The immutable snapshot of the subscriber array. Slots below the size are cleared in place
+	 * when their subscriber is unregistered, slots at or above the size are never read
+	 */
+	private static final class Snapshot
+	{
+		/** The subscriber array */
+		final Object[] elements;
+
+		/** The number of used slots of the subscriber array */
+		final int size;
+
+		/** The number of registered subscribers */
+		final int count;
+
+		/**
+		 * Instantiates a new {@code Snapshot}
+		 *
+		 * @param elements
+		 *            the subscriber array
+		 * @param size
+		 *            the number of used slots of the subscriber array
+		 * @param count
+		 *            the number of registered subscribers
+		 */
+		Snapshot(final Object[] elements, final int size, final int count)
+		{
+			this.elements = elements;
+			this.size = size;
+			this.count = count;
+		}
+	}
+
+	/**
+	 * The read-only view of the registered subscribers
+	 */
+	private final class SubscriberView extends AbstractCollection<S>
+	{
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Iterator<S> iterator()
+		{
+			return new SubscriberIterator(snapshot);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int size()
+		{
+			return snapshot.count;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean contains(final Object subscriber)
+		{
+			return isRegistered(subscriber);
+		}
+	}
+
+	/**
+	 * The weakly consistent iterator over one snapshot of the subscriber array
+	 */
+	private final class SubscriberIterator implements Iterator<S>
+	{
+		/** The iterated snapshot */
+		private final Snapshot iterated;
+
+		/** The index of the next slot to look at */
+		private int index;
+
+		/** The next subscriber or {@code null} if none is left */
+		private S next;
+
+		/**
+		 * Instantiates a new {@code SubscriberIterator}
+		 *
+		 * @param iterated
+		 *            the snapshot to iterate
+		 */
+		SubscriberIterator(final Snapshot iterated)
+		{
+			this.iterated = iterated;
+			advance();
+		}
+
+		/**
+		 * Moves to the next registered subscriber of the snapshot
+		 */
+		@SuppressWarnings("unchecked")
+		private void advance()
+		{
+			next = null;
+			while (next == null && index < iterated.size)
+			{
+				next = (S)iterated.elements[index++];
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean hasNext()
+		{
+			return next != null;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public S next()
+		{
+			if (next == null)
+			{
+				throw new NoSuchElementException();
+			}
+			S current = next;
+			advance();
+			return current;
+		}
+	}
+}
@@ -0,0 +1,67 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.deadevent;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The class {@link DeadEvent} wraps an event that was posted to an event bus while no listener was
+ * registered for its event type or one of its superclasses or interfaces
+ */
+public final class DeadEvent
+{
+
+	/** The name of the event bus the event was posted to */
+	@Getter
+	private final String eventBusName;
+
+	/** The event that no listener has received */
+	@Getter
+	private final Object event;
+
+	/**
+	 * Instantiates a new {@code DeadEvent}
+	 *
+	 * @param eventBusName
+	 *            the name of the event bus the event was posted to
+	 * @param event
+	 *            the event that no listener has received
+	 */
+	public DeadEvent(final String eventBusName, @NonNull final Object event)
+	{
+		this.eventBusName = eventBusName;
+		this.event = event;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString()
+	{
+		return "DeadEvent[" + eventBusName + ", " + event + "]";
+	}
+}
@@ -0,0 +1,118 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.deadevent;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.github.astrapi69.design.pattern.eventbus.registry.ClassKeyedRegistry;
+import lombok.NonNull;
+
+/**
+ * The class {@link DeadEventCounter} counts the posted events that no listener has received keyed
+ * by the identity of their event type. Recording a dead event does not lock, it costs one lookup
+ * and the increment of a {@link LongAdder}
+ */
+public final class DeadEventCounter
+{
+
+	/** The counters keyed by the identity of their event type */
+	private final ClassKeyedRegistry<LongAdder> counters = new ClassKeyedRegistry<>();
+
+	/** The event types that have a counter */
+	private final Set<Class<?>> types = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Records the given number of dead events of the given event type
+	 *
+	 * @param eventType
+	 *            the event type
+	 * @param count
+	 *            the number of dead events
+	 */
+	public void record(@NonNull final Class<?> eventType, final long count)
+	{
+		LongAdder counter = counters.get(eventType);
+		if (counter == null)
+		{
+			counter = counters.computeIfAbsent(eventType, type -> {
+				types.add(type);
+				return new LongAdder();
+			});
+		}
+		counter.add(count);
+	}
+
+	/**
+	 * Gets the number of dead events of the given event type
+	 *
+	 * @param eventType
+	 *            the event type
+	 * @return the number of dead events of the given event type
+	 */
+	public long getCount(@NonNull final Class<?> eventType)
+	{
+		LongAdder counter = counters.get(eventType);
+		return counter != null ? counter.sum() : 0;
+	}
+
+	/**
+	 * Creates a snapshot of the numbers of dead events of all event types. The numbers are read
+	 * once before they are sorted, so events that are recorded concurrently cannot change the
+	 * order while it is sorted
+	 *
+	 * @return the unmodifiable numbers of dead events keyed by their event type, ordered from the
+	 *         highest to the lowest number
+	 */
+	public Map<Class<?>, Long> snapshot()
+	{
+		Map<Class<?>, Long> counts = new HashMap<>();
+		for (Class<?> type : types)
+		{
+			counts.put(type, getCount(type));
+		}
+		Map<Class<?>, Long> snapshot = new LinkedHashMap<>();
+		counts.entrySet().stream()
+			.sorted(Map.Entry.<Class<?>, Long> comparingByValue().reversed())
+			.forEach(entry -> snapshot.put(entry.getKey(), entry.getValue()));
+		return Collections.unmodifiableMap(snapshot);
+	}
+
+	/**
+	 * Resets the numbers of dead events of all event types to zero
+	 */
+	public void reset()
+	{
+		for (Class<?> type : types)
+		{
+			counters.get(type).reset();
+		}
+	}
+}
@@ -0,0 +1,453 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.dispatch;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.github.astrapi69.design.pattern.eventbus.listener.Cancellable;
+import io.github.astrapi69.design.pattern.eventbus.registry.Subscriber;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The class {@link BoundedQueueDispatcher} hands posted events over to a single delivery thread
+ * through a queue with a fixed capacity, so a fast producer can never grow the queue beyond its
+ * bounds. If the queue is full, the {@link OverflowPolicy} of this dispatcher decides whether the
+ * producer waits, an event is dropped, the event is delivered on the posting thread or the post
+ * fails. Events are delivered in the order they were queued.
+ *
+ * <p>
+ * A listener that posts from the delivery thread into a full queue with
+ * {@link OverflowPolicy#BLOCK} does not wait for itself. Its events are kept aside in order and
+ * moved into the queue by the delivery thread as soon as there is space.
+ *
+ * <p>
+ * The futures of dropped events are cancelled. The number of dropped, rejected and caller run
+ * events is counted
+ */
+public final class BoundedQueueDispatcher implements Dispatcher, AutoCloseable
+{
+
+	/** The default capacity of the queue */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	/** The delivery that wakes up the waiting delivery thread on close */
+	private static final Delivery WAKE_UP = new Delivery(null, new Subscriber<?>[0], null);
+
+	/** The queue of the pending deliveries */
+	private final BlockingQueue<Delivery> queue;
+
+	/** The capacity of the queue */
+	@Getter
+	private final int capacity;
+
+	/** The policy if the queue is full */
+	@Getter
+	private final OverflowPolicy overflowPolicy;
+
+	/** The number of dropped events */
+	private final LongAdder droppedEvents = new LongAdder();
+
+	/** The number of rejected events */
+	private final LongAdder rejectedEvents = new LongAdder();
+
+	/** The number of events that were delivered on the posting thread */
+	private final LongAdder callerRunsEvents = new LongAdder();
+
+	/** The thread that delivers the queued events */
+	private final Thread consumer;
+
+	/**
+	 * The events that listeners posted from the delivery thread into the full queue, only used by
+	 * the delivery thread
+	 */
+	private final ArrayDeque<Delivery> nestedPosts = new ArrayDeque<>();
+
+	/** The flag that indicates whether this dispatcher is closed */
+	private volatile boolean closed;
+
+	/** The flag that indicates whether the delivery thread has terminated */
+	private volatile boolean terminated;
+
+	/**
+	 * Instantiates a new {@code BoundedQueueDispatcher} with the {@link #DEFAULT_CAPACITY} and
+	 * the given overflow policy
+	 *
+	 * @param overflowPolicy
+	 *            the policy if the queue is full
+	 */
+	public BoundedQueueDispatcher(final OverflowPolicy overflowPolicy)
+	{
+		this(DEFAULT_CAPACITY, overflowPolicy);
+	}
+
+	/**
+	 * Instantiates a new {@code BoundedQueueDispatcher}
+	 *
+	 * @param capacity
+	 *            the capacity of the queue
+	 * @param overflowPolicy
+	 *            the policy if the queue is full
+	 */
+	public BoundedQueueDispatcher(final int capacity, @NonNull final OverflowPolicy overflowPolicy)
+	{
+		if (capacity < 1)
+		{
+			throw new IllegalArgumentException("capacity must be positive");
+		}
+		this.capacity = capacity;
+		this.overflowPolicy = overflowPolicy;
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.consumer = new Thread(this::consume, "eventbus-bounded-queue");
+		this.consumer.setDaemon(true);
+		this.consumer.start();
+	}
+
+	/**
+	 * Gets the number of events that are currently queued
+	 *
+	 * @return the number of queued events
+	 */
+	public int getQueueSize()
+	{
+		return queue.size();
+	}
+
+	/**
+	 * Gets the number of events that were dropped with {@link OverflowPolicy#DROP_NEWEST} or
+	 * {@link OverflowPolicy#DROP_OLDEST}
+	 *
+	 * @return the number of dropped events
+	 */
+	public long getDroppedEvents()
+	{
+		return droppedEvents.sum();
+	}
+
+	/**
+	 * Gets the number of events that were rejected with {@link OverflowPolicy#FAIL_FAST}
+	 *
+	 * @return the number of rejected events
+	 */
+	public long getRejectedEvents()
+	{
+		return rejectedEvents.sum();
+	}
+
+	/**
+	 * Gets the number of events that were delivered on the posting thread with
+	 * {@link OverflowPolicy#CALLER_RUNS}
+	 *
+	 * @return the number of events delivered on the posting thread
+	 */
+	public long getCallerRunsEvents()
+	{
+		return callerRunsEvents.sum();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void dispatch(final Object event, final Subscriber<?>[] listeners)
+	{
+		if (listeners.length != 0)
+		{
+			enqueue(new Delivery(event, listeners, null));
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>
+	 * The returned future is cancelled if the event is dropped
+	 */
+	@Override
+	public CompletableFuture<Void> dispatchAsync(final Object event,
+		final Subscriber<?>[] listeners)
+	{
+		if (listeners.length == 0)
+		{
+			return CompletableFuture.completedFuture(null);
+		}
+		CompletableFuture<Void> completion = new CompletableFuture<>();
+		enqueue(new Delivery(event, listeners, completion));
+		return completion;
+	}
+
+	/**
+	 * Closes this dispatcher. Events that are already queued are still delivered before the
+	 * delivery thread terminates, events that are posted after this method is called are rejected.
+	 * The futures of events that are queued by a post that races with this method and that the
+	 * delivery thread does not deliver anymore are completed exceptionally
+	 */
+	@Override
+	public void close()
+	{
+		closed = true;
+		queue.offer(WAKE_UP);
+		if (Thread.currentThread() != consumer)
+		{
+			try
+			{
+				consumer.join();
+			}
+			catch (InterruptedException exception)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Queues the given delivery according to the overflow policy
+	 *
+	 * @param delivery
+	 *            the delivery to queue
+	 */
+	private void enqueue(final Delivery delivery)
+	{
+		if (closed)
+		{
+			throw new IllegalStateException("The dispatcher is closed");
+		}
+		boolean nested = Thread.currentThread() == consumer
+			&& overflowPolicy == OverflowPolicy.BLOCK;
+		if (nested && !nestedPosts.isEmpty())
+		{
+			nestedPosts.add(delivery);
+			return;
+		}
+		if (!queue.offer(delivery))
+		{
+			switch (overflowPolicy)
+			{
+				case BLOCK :
+					if (nested)
+					{
+						nestedPosts.add(delivery);
+						return;
+					}
+					try
+					{
+						queue.put(delivery);
+					}
+					catch (InterruptedException exception)
+					{
+						Thread.currentThread().interrupt();
+						throw new RejectedExecutionException(
+							"Interrupted while waiting for space in the queue", exception);
+					}
+					break;
+				case DROP_NEWEST :
+					droppedEvents.increment();
+					delivery.cancel();
+					return;
+				case DROP_OLDEST :
+					while (!queue.offer(delivery))
+					{
+						Delivery oldest = queue.poll();
+						if (oldest != null)
+						{
+							droppedEvents.increment();
+							oldest.cancel();
+						}
+					}
+					break;
+				case CALLER_RUNS :
+					callerRunsEvents.increment();
+					delivery.run(Thread.currentThread());
+					return;
+				default :
+					rejectedEvents.increment();
+					throw new RejectedExecutionException(
+						"The queue is full with " + capacity + " pending events");
+			}
+		}
+		if (terminated)
+		{
+			rejectQueued();
+			throw new IllegalStateException("The dispatcher is closed");
+		}
+	}
+
+	/**
+	 * Completes the futures of all queued deliveries exceptionally after the delivery thread has
+	 * terminated
+	 */
+	private void rejectQueued()
+	{
+		Delivery delivery;
+		while ((delivery = queue.poll()) != null)
+		{
+			delivery.reject();
+		}
+	}
+
+	/**
+	 * The loop of the delivery thread that delivers the queued events in order
+	 */
+	private void consume()
+	{
+		while (true)
+		{
+			Delivery delivery;
+			try
+			{
+				delivery = closed ? queue.poll() : queue.take();
+			}
+			catch (InterruptedException exception)
+			{
+				continue;
+			}
+			if (delivery == null)
+			{
+				break;
+			}
+			if (delivery != WAKE_UP)
+			{
+				delivery.run(consumer);
+				while (!nestedPosts.isEmpty() && queue.offer(nestedPosts.peek()))
+				{
+					nestedPosts.poll();
+				}
+			}
+		}
+		terminated = true;
+		rejectQueued();
+	}
+
+	/**
+	 * A queued delivery of an event to its listeners
+	 */
+	private static final class Delivery
+	{
+		/** The event to deliver */
+		final Object event;
+
+		/** The listeners that receive the event */
+		final Subscriber<?>[] listeners;
+
+		/** The future to complete after the delivery or {@code null} */
+		final CompletableFuture<Void> completion;
+
+		/**
+		 * Instantiates a new {@code Delivery}
+		 *
+		 * @param event
+		 *            the event to deliver
+		 * @param listeners
+		 *            the listeners that receive the event
+		 * @param completion
+		 *            the future to complete after the delivery or {@code null}
+		 */
+		Delivery(final Object event, final Subscriber<?>[] listeners,
+			final CompletableFuture<Void> completion)
+		{
+			this.event = event;
+			this.listeners = listeners;
+			this.completion = completion;
+		}
+
+		/**
+		 * Cancels the future of this delivery
+		 */
+		void cancel()
+		{
+			if (completion != null)
+			{
+				completion.cancel(false);
+			}
+		}
+
+		/**
+		 * Completes the future of this delivery exceptionally because the dispatcher is closed
+		 */
+		void reject()
+		{
+			if (completion != null)
+			{
+				completion.completeExceptionally(
+					new IllegalStateException("The dispatcher is closed"));
+			}
+		}
+
+		/**
+		 * Delivers the event to all listeners. An exception of a listener completes the future
+		 * exceptionally or is passed to the uncaught exception handler of the given thread if
+		 * there is no future
+		 *
+		 * @param thread
+		 *            the thread that delivers the event
+		 */
+		void run(final Thread thread)
+		{
+			RuntimeException failure = null;
+			for (Subscriber<?> listener : listeners)
+			{
+				if (Cancellable.isCancelled(event))
+				{
+					break;
+				}
+				try
+				{
+					listener.deliver(event);
+				}
+				catch (RuntimeException exception)
+				{
+					if (completion == null)
+					{
+						thread.getUncaughtExceptionHandler().uncaughtException(thread, exception);
+					}
+					else if (failure == null)
+					{
+						failure = exception;
+					}
+					else
+					{
+						failure.addSuppressed(exception);
+					}
+				}
+			}
+			if (completion != null)
+			{
+				if (failure == null)
+				{
+					completion.complete(null);
+				}
+				else
+				{
+					completion.completeExceptionally(failure);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,504 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.dispatch;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import io.github.astrapi69.design.pattern.eventbus.listener.PayloadListener;
+import io.github.astrapi69.design.pattern.eventbus.registry.Subscriber;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The class {@link CoalescingDispatcher} delivers events on a designated thread like the event
+ * dispatch thread of Swing or any single threaded executor. Instead of handing every event over to
+ * that thread, all events that are posted until the designated thread runs the next hand-off are
+ * collected and delivered together by one task. With a frame interval at most one task is handed
+ * over per frame, so even a burst of thousands of events per second costs a bounded number of
+ * tasks on the designated thread, for example:
+ *
+ * <pre>
+ * eventBus.setDispatcher(ProgressEvent.class,
+ * 	new CoalescingDispatcher(EventQueue::invokeLater, Duration.ofMillis(16))
+ * 		.conflate(ProgressEvent.class));
+ * </pre>
+ *
+ * <p>
+ * A dispatcher that is installed for an event type with
+ * {@link io.github.astrapi69.design.pattern.eventbus.BaseEventBus#setDispatcher(Class, Dispatcher)}
+ * delivers all listeners of that event type on the designated thread. To move only single
+ * listeners, for instance the listeners that touch Swing components, to the designated thread
+ * while the other listeners of the same event type stay on the posting thread, the listener that
+ * {@link #wrap(Class, PayloadListener)} returns is subscribed instead of the listener itself:
+ *
+ * <pre>
+ * eventBus.subscribe(dispatcher.wrap(ProgressEvent.class, progressPanel::update),
+ * 	ProgressEvent.class);
+ * </pre>
+ *
+ * <p>
+ * Conflation is enabled per event type with {@link #conflateBy(Class, Function)}, a pending event
+ * that is replaced by a newer event with the same key keeps its position in the batch. The events
+ * of types without conflation are delivered one by one in the order they were posted. An exception
+ * of a listener completes the future of an event posted with
+ * {@link #dispatchAsync(Object, Subscriber[])} exceptionally or is passed to the uncaught exception
+ * handler of the designated thread, the remaining listeners of the event and the remaining events
+ * of the batch are still delivered
+ */
+public final class CoalescingDispatcher implements Dispatcher, AutoCloseable
+{
+
+	/** The executor that runs the tasks on the designated thread */
+	@Getter
+	private final Executor executor;
+
+	/** The minimum interval between two hand-offs in nanoseconds, zero for no frames */
+	private final long frameNanos;
+
+	/** The scheduler that delays the hand-offs to the next frame or {@code null} */
+	private final ScheduledExecutorService scheduler;
+
+	/** The key extractors that compute the conflation keys */
+	private final KeyExtractors keyExtractors = new KeyExtractors();
+
+	/** The number of pending events that were replaced by a newer event */
+	private final LongAdder conflatedEvents = new LongAdder();
+
+	/** The number of tasks that were handed over to the designated thread */
+	private final LongAdder handOffs = new LongAdder();
+
+	/** The pending events keyed by their conflation key in the order they were posted */
+	private Map<Object, Pending> pending = new LinkedHashMap<>();
+
+	/** The flag that indicates whether a hand-off of the pending events is scheduled */
+	private boolean scheduled;
+
+	/** The time of the last hand-off in nanoseconds */
+	private long lastHandOff;
+
+	/**
+	 * Instantiates a new {@code CoalescingDispatcher} that hands the pending events over as soon
+	 * as the previous hand-off ran
+	 *
+	 * @param executor
+	 *            the executor that runs the tasks on the designated thread, for instance
+	 *            {@code EventQueue::invokeLater}
+	 */
+	public CoalescingDispatcher(@NonNull final Executor executor)
+	{
+		this(executor, Duration.ZERO);
+	}
+
+	/**
+	 * Instantiates a new {@code CoalescingDispatcher} that hands the pending events over at most
+	 * once per frame interval
+	 *
+	 * @param executor
+	 *            the executor that runs the tasks on the designated thread, for instance
+	 *            {@code EventQueue::invokeLater}
+	 * @param frameInterval
+	 *            the minimum interval between two hand-offs or {@link Duration#ZERO} to hand the
+	 *            pending events over as soon as the previous hand-off ran
+	 */
+	public CoalescingDispatcher(@NonNull final Executor executor,
+		@NonNull final Duration frameInterval)
+	{
+		if (frameInterval.isNegative())
+		{
+			throw new IllegalArgumentException("frameInterval must not be negative");
+		}
+		this.executor = executor;
+		this.frameNanos = frameInterval.toNanos();
+		this.scheduler = frameNanos == 0 ? null : Executors.newSingleThreadScheduledExecutor(
+			runnable -> {
+				Thread thread = new Thread(runnable, "eventbus-coalescing-frame");
+				thread.setDaemon(true);
+				return thread;
+			});
+		this.lastHandOff = System.nanoTime() - frameNanos;
+	}
+
+	/**
+	 * Enables the conflation of the events of the given event type and its subclasses by the key
+	 * that the given function computes. Pending events with an equal key are merged down to the
+	 * latest one
+	 *
+	 * @param <T>
+	 *            the type of the events
+	 * @param eventType
+	 *            the event type
+	 * @param keyExtractor
+	 *            the function that computes the conflation key of an event
+	 * @return this dispatcher for chaining
+	 */
+	public <T> CoalescingDispatcher conflateBy(@NonNull final Class<T> eventType,
+		@NonNull final Function<? super T, ?> keyExtractor)
+	{
+		keyExtractors.put(eventType, keyExtractor);
+		return this;
+	}
+
+	/**
+	 * Enables the conflation of the events of the given event type and its subclasses, so at most
+	 * one event of the given type is pending
+	 *
+	 * @param <T>
+	 *            the type of the events
+	 * @param eventType
+	 *            the event type
+	 * @return this dispatcher for chaining
+	 */
+	public <T> CoalescingDispatcher conflate(@NonNull final Class<T> eventType)
+	{
+		return conflateBy(eventType, event -> eventType);
+	}
+
+	/**
+	 * Gets the number of pending events that were replaced by a newer event
+	 *
+	 * @return the number of conflated events
+	 */
+	public long getConflatedEvents()
+	{
+		return conflatedEvents.sum();
+	}
+
+	/**
+	 * Gets the number of tasks that were handed over to the designated thread
+	 *
+	 * @return the number of hand-offs
+	 */
+	public long getHandOffs()
+	{
+		return handOffs.sum();
+	}
+
+	/**
+	 * Wraps the given listener, so it receives its events on the designated thread of this
+	 * dispatcher while the event bus delivers the events to the returned listener on the posting
+	 * thread. The events of every wrapped listener are coalesced and conflated on their own, so a
+	 * newer event for one wrapped listener never replaces a pending event of another listener. The
+	 * returned listener has to be kept to unsubscribe it again
+	 *
+	 * @param <T>
+	 *            the type of the events
+	 * @param eventType
+	 *            the event type the listener is subscribed for
+	 * @param listener
+	 *            the listener that receives its events on the designated thread
+	 * @return the listener to subscribe to the event bus
+	 */
+	public <T> PayloadListener<T> wrap(@NonNull final Class<T> eventType,
+		@NonNull final PayloadListener<? super T> listener)
+	{
+		Subscriber<?>[] listeners = { Subscriber.forPayloadListener(eventType, listener) };
+		return event -> enqueue(event, listeners, null, listeners);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void dispatch(final Object event, final Subscriber<?>[] listeners)
+	{
+		enqueue(event, listeners, null, null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>
+	 * If the event is replaced by a newer event before it is delivered, the returned future
+	 * completes when the newer event has been delivered
+	 */
+	@Override
+	public CompletableFuture<Void> dispatchAsync(final Object event,
+		final Subscriber<?>[] listeners)
+	{
+		CompletableFuture<Void> delivery = new CompletableFuture<>();
+		enqueue(event, listeners, delivery, null);
+		return delivery;
+	}
+
+	/**
+	 * Adds the given event to the pending events and schedules a hand-off if none is scheduled
+	 *
+	 * @param event
+	 *            the event
+	 * @param listeners
+	 *            the listeners of the event
+	 * @param completion
+	 *            the future to complete after the delivery or {@code null}
+	 * @param scope
+	 *            the listeners of a wrapped listener whose events are conflated on their own or
+	 *            {@code null}
+	 */
+	private void enqueue(final Object event, final Subscriber<?>[] listeners,
+		final CompletableFuture<Void> completion, final Subscriber<?>[] scope)
+	{
+		Function<Object, ?> keyExtractor = keyExtractors.find(event.getClass());
+		Object key = keyExtractor != null ? keyExtractor.apply(event) : new Object();
+		if (scope != null && keyExtractor != null)
+		{
+			key = new ScopedKey(scope, key);
+		}
+		long delay;
+		synchronized (this)
+		{
+			Pending existing = pending.get(key);
+			if (existing == null)
+			{
+				pending.put(key, new Pending(event, listeners, completion));
+			}
+			else
+			{
+				existing.replace(event, listeners, completion);
+				conflatedEvents.increment();
+			}
+			if (scheduled)
+			{
+				return;
+			}
+			scheduled = true;
+			delay = lastHandOff + frameNanos - System.nanoTime();
+		}
+		if (delay > 0 && scheduler != null && !scheduler.isShutdown())
+		{
+			try
+			{
+				scheduler.schedule(this::handOff, delay, TimeUnit.NANOSECONDS);
+				return;
+			}
+			catch (RejectedExecutionException exception)
+			{
+				// the dispatcher was closed concurrently, hand the events over without a frame
+			}
+		}
+		handOff();
+	}
+
+	/**
+	 * Hands one task over to the designated thread that delivers all pending events. If the
+	 * executor rejects the task, the pending events are discarded, their futures are completed
+	 * exceptionally and the next event schedules a new hand-off
+	 */
+	private void handOff()
+	{
+		handOffs.increment();
+		try
+		{
+			executor.execute(this::flush);
+		}
+		catch (RuntimeException exception)
+		{
+			Map<Object, Pending> rejected;
+			synchronized (this)
+			{
+				rejected = pending;
+				pending = new LinkedHashMap<>();
+				scheduled = false;
+			}
+			for (Pending next : rejected.values())
+			{
+				next.completions.forEach(completion -> completion.completeExceptionally(exception));
+			}
+			throw exception;
+		}
+	}
+
+	/**
+	 * Delivers all pending events on the designated thread. Events that are posted during the
+	 * delivery are delivered by the next hand-off
+	 */
+	private void flush()
+	{
+		Map<Object, Pending> batch;
+		synchronized (this)
+		{
+			batch = pending;
+			pending = new LinkedHashMap<>();
+			scheduled = false;
+			lastHandOff = System.nanoTime();
+		}
+		for (Pending next : batch.values())
+		{
+			next.deliver();
+		}
+	}
+
+	/**
+	 * Stops the scheduler of the frames. A hand-off that is already scheduled still runs, later
+	 * events are handed over without waiting for the next frame
+	 */
+	@Override
+	public void close()
+	{
+		if (scheduler != null)
+		{
+			scheduler.shutdown();
+		}
+	}
+
+	/**
+	 * A pending event together with its listeners and the futures of the events it replaced
+	 */
+	private static final class Pending
+	{
+		/** The futures to complete after the delivery */
+		final List<CompletableFuture<Void>> completions = new ArrayList<>(1);
+
+		/** The latest event */
+		Object event;
+
+		/** The listeners of the latest event */
+		Subscriber<?>[] listeners;
+
+		/**
+		 * Instantiates a new {@code Pending}
+		 *
+		 * @param event
+		 *            the event
+		 * @param listeners
+		 *            the listeners of the event
+		 * @param completion
+		 *            the future to complete after the delivery or {@code null}
+		 */
+		Pending(final Object event, final Subscriber<?>[] listeners,
+			final CompletableFuture<Void> completion)
+		{
+			replace(event, listeners, completion);
+		}
+
+		/**
+		 * Replaces the pending event with the given newer event
+		 *
+		 * @param newerEvent
+		 *            the newer event
+		 * @param newerListeners
+		 *            the listeners of the newer event
+		 * @param completion
+		 *            the future to complete after the delivery or {@code null}
+		 */
+		void replace(final Object newerEvent, final Subscriber<?>[] newerListeners,
+			final CompletableFuture<Void> completion)
+		{
+			this.event = newerEvent;
+			this.listeners = newerListeners;
+			if (completion != null)
+			{
+				completions.add(completion);
+			}
+		}
+
+		/**
+		 * Delivers the event to its listeners on the current thread and completes the futures.
+		 * A listener that throws an exception does not prevent the remaining listeners from
+		 * receiving the event. The exception completes the futures exceptionally or is passed to
+		 * the uncaught exception handler of the current thread if there is no future
+		 */
+		void deliver()
+		{
+			if (completions.isEmpty())
+			{
+				ExecutorDispatcher
+					.reportFailure(() -> ExecutorDispatcher.deliverAll(event, listeners));
+				return;
+			}
+			try
+			{
+				ExecutorDispatcher.deliverAll(event, listeners);
+			}
+			catch (RuntimeException exception)
+			{
+				completions.forEach(completion -> completion.completeExceptionally(exception));
+				return;
+			}
+			completions.forEach(completion -> completion.complete(null));
+		}
+	}
+
+	/**
+	 * The conflation key of an event of a wrapped listener, it is only equal to the keys of the
+	 * same wrapped listener
+	 */
+	private static final class ScopedKey
+	{
+		/** The listeners of the wrapped listener */
+		final Subscriber<?>[] scope;
+
+		/** The conflation key of the event */
+		final Object key;
+
+		/**
+		 * Instantiates a new {@code ScopedKey}
+		 *
+		 * @param scope
+		 *            the listeners of the wrapped listener
+		 * @param key
+		 *            the conflation key of the event
+		 */
+		ScopedKey(final Subscriber<?>[] scope, final Object key)
+		{
+			this.scope = scope;
+			this.key = key;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode()
+		{
+			return 31 * System.identityHashCode(scope) + Objects.hashCode(key);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(final Object object)
+		{
+			if (!(object instanceof ScopedKey))
+			{
+				return false;
+			}
+			ScopedKey other = (ScopedKey)object;
+			return other.scope == scope && Objects.equals(other.key, key);
+		}
+	}
+}
@@ -0,0 +1,389 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.dispatch;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import io.github.astrapi69.design.pattern.eventbus.registry.Subscriber;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The class {@link ConflatingDispatcher} delivers events asynchronously and merges the events
+ * that are still waiting for a slow listener down to the latest event per key. It fits event
+ * types that are full state snapshots, whose listeners only care about the newest state.
+ *
+ * <p>
+ * Conflation is enabled per event type with {@link #conflateBy(Class, Function)}. Every listener
+ * has its own queue of pending events that is drained by one task at a time on the executor, so
+ * every listener receives its events in order and at most one pending event per key. A pending
+ * event that is replaced by a newer event with the same key keeps its position in the queue. The
+ * events of types without conflation are queued one by one and never merged
+ */
+public final class ConflatingDispatcher implements Dispatcher
+{
+
+	/** The executor that runs the tasks that drain the queues of the listeners */
+	@Getter
+	private final Executor executor;
+
+	/** The key extractors that compute the conflation keys */
+	private final KeyExtractors keyExtractors = new KeyExtractors();
+
+	/** The queues of the pending events keyed by the identity of the subscriber */
+	private final Map<Subscriber<?>, PendingQueue> queues = new ConcurrentHashMap<>();
+
+	/** The number of pending events that were replaced by a newer event */
+	private final LongAdder conflatedEvents = new LongAdder();
+
+	/**
+	 * Instantiates a new {@code ConflatingDispatcher} that drains the queues on the
+	 * {@link ForkJoinPool#commonPool()}
+	 */
+	public ConflatingDispatcher()
+	{
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Instantiates a new {@code ConflatingDispatcher}
+	 *
+	 * @param executor
+	 *            the executor that runs the tasks that drain the queues of the listeners
+	 */
+	public ConflatingDispatcher(@NonNull final Executor executor)
+	{
+		this.executor = executor;
+	}
+
+	/**
+	 * Enables the conflation of the events of the given event type and its subclasses by the key
+	 * that the given function computes. Pending events with an equal key are merged down to the
+	 * latest one
+	 *
+	 * @param <T>
+	 *            the type of the events
+	 * @param eventType
+	 *            the event type
+	 * @param keyExtractor
+	 *            the function that computes the conflation key of an event
+	 * @return this dispatcher for chaining
+	 */
+	public <T> ConflatingDispatcher conflateBy(@NonNull final Class<T> eventType,
+		@NonNull final Function<? super T, ?> keyExtractor)
+	{
+		keyExtractors.put(eventType, keyExtractor);
+		return this;
+	}
+
+	/**
+	 * Enables the conflation of the events of the given event type and its subclasses, so every
+	 * listener has at most one pending event of the given type
+	 *
+	 * @param <T>
+	 *            the type of the events
+	 * @param eventType
+	 *            the event type
+	 * @return this dispatcher for chaining
+	 */
+	public <T> ConflatingDispatcher conflate(@NonNull final Class<T> eventType)
+	{
+		return conflateBy(eventType, event -> eventType);
+	}
+
+	/**
+	 * Gets the number of pending events that were replaced by a newer event
+	 *
+	 * @return the number of conflated events
+	 */
+	public long getConflatedEvents()
+	{
+		return conflatedEvents.sum();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void dispatch(final Object event, final Subscriber<?>[] listeners)
+	{
+		Object key = keyOf(event);
+		for (Subscriber<?> listener : listeners)
+		{
+			enqueue(listener, key, event, null);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>
+	 * If the event is replaced by a newer event before it is delivered, the returned future
+	 * completes when the newer event has been delivered
+	 */
+	@Override
+	public CompletableFuture<Void> dispatchAsync(final Object event,
+		final Subscriber<?>[] listeners)
+	{
+		Object key = keyOf(event);
+		CompletableFuture<?>[] deliveries = new CompletableFuture<?>[listeners.length];
+		for (int i = 0; i < listeners.length; i++)
+		{
+			CompletableFuture<Void> delivery = new CompletableFuture<>();
+			enqueue(listeners[i], key, event, delivery);
+			deliveries[i] = delivery;
+		}
+		return CompletableFuture.allOf(deliveries);
+	}
+
+	/**
+	 * Computes the conflation key of the given event
+	 *
+	 * @param event
+	 *            the event
+	 * @return the conflation key of the given event or a new unique key if the event type is not
+	 *         conflated
+	 */
+	private Object keyOf(final Object event)
+	{
+		Function<Object, ?> keyExtractor = keyExtractors.find(event.getClass());
+		return keyExtractor != null ? keyExtractor.apply(event) : new Object();
+	}
+
+	/**
+	 * Adds the given event to the queue of the given listener and schedules the draining of the
+	 * queue if it is not scheduled yet. If the executor rejects the draining, the pending events
+	 * of the listener are discarded, their futures are completed exceptionally and the next event
+	 * schedules a new draining
+	 *
+	 * @param listener
+	 *            the listener
+	 * @param key
+	 *            the conflation key of the event
+	 * @param event
+	 *            the event
+	 * @param completion
+	 *            the future to complete after the delivery or {@code null}
+	 */
+	private void enqueue(final Subscriber<?> listener, final Object key, final Object event,
+		final CompletableFuture<Void> completion)
+	{
+		while (true)
+		{
+			PendingQueue queue = queues.computeIfAbsent(listener, PendingQueue::new);
+			boolean schedule;
+			synchronized (queue)
+			{
+				if (queue.retired)
+				{
+					continue;
+				}
+				Pending pending = queue.pending.get(key);
+				if (pending == null)
+				{
+					queue.pending.put(key, new Pending(event, completion));
+				}
+				else
+				{
+					pending.replace(event, completion);
+					conflatedEvents.increment();
+				}
+				schedule = !queue.scheduled;
+				queue.scheduled = true;
+			}
+			if (schedule)
+			{
+				try
+				{
+					executor.execute(queue::drain);
+				}
+				catch (RuntimeException exception)
+				{
+					queue.reject(exception);
+					throw exception;
+				}
+			}
+			return;
+		}
+	}
+
+	/**
+	 * The queue of the pending events of one listener
+	 */
+	private final class PendingQueue
+	{
+		/** The listener that receives the pending events */
+		final Subscriber<?> listener;
+
+		/** The pending events keyed by their conflation key in the order they were queued */
+		final Map<Object, Pending> pending = new LinkedHashMap<>();
+
+		/** The flag that indicates whether a task that drains this queue is scheduled */
+		boolean scheduled;
+
+		/** The flag that indicates whether this queue was removed after it was drained */
+		boolean retired;
+
+		/**
+		 * Instantiates a new {@code PendingQueue}
+		 *
+		 * @param listener
+		 *            the listener that receives the pending events
+		 */
+		PendingQueue(final Subscriber<?> listener)
+		{
+			this.listener = listener;
+		}
+
+		/**
+		 * Delivers the pending events one after another until the queue is empty and removes the
+		 * empty queue
+		 */
+		void drain()
+		{
+			while (true)
+			{
+				Pending next;
+				synchronized (this)
+				{
+					Iterator<Pending> iterator = pending.values().iterator();
+					if (!iterator.hasNext())
+					{
+						scheduled = false;
+						retired = true;
+						queues.remove(listener, this);
+						return;
+					}
+					next = iterator.next();
+					iterator.remove();
+				}
+				next.deliver(listener);
+			}
+		}
+
+		/**
+		 * Discards the pending events after the executor rejected the draining of this queue,
+		 * completes their futures exceptionally and removes this queue
+		 *
+		 * @param exception
+		 *            the exception of the executor
+		 */
+		void reject(final RuntimeException exception)
+		{
+			List<Pending> rejected;
+			synchronized (this)
+			{
+				rejected = new ArrayList<>(pending.values());
+				pending.clear();
+				scheduled = false;
+				retired = true;
+				queues.remove(listener, this);
+			}
+			for (Pending next : rejected)
+			{
+				next.completions.forEach(completion -> completion.completeExceptionally(exception));
+			}
+		}
+	}
+
+	/**
+	 * A pending event together with the futures of the events it replaced
+	 */
+	private static final class Pending
+	{
+		/** The futures to complete after the delivery */
+		final List<CompletableFuture<Void>> completions = new ArrayList<>(1);
+
+		/** The latest event */
+		Object event;
+
+		/**
+		 * Instantiates a new {@code Pending}
+		 *
+		 * @param event
+		 *            the event
+		 * @param completion
+		 *            the future to complete after the delivery or {@code null}
+		 */
+		Pending(final Object event, final CompletableFuture<Void> completion)
+		{
+			replace(event, completion);
+		}
+
+		/**
+		 * Replaces the pending event with the given newer event
+		 *
+		 * @param newerEvent
+		 *            the newer event
+		 * @param completion
+		 *            the future to complete after the delivery or {@code null}
+		 */
+		void replace(final Object newerEvent, final CompletableFuture<Void> completion)
+		{
+			this.event = newerEvent;
+			if (completion != null)
+			{
+				completions.add(completion);
+			}
+		}
+
+		/**
+		 * Delivers the event to the given listener and completes the futures. An exception of the
+		 * listener completes the futures exceptionally or is passed to the uncaught exception
+		 * handler of the current thread if there is no future
+		 *
+		 * @param listener
+		 *            the listener
+		 */
+		void deliver(final Subscriber<?> listener)
+		{
+			try
+			{
+				listener.deliver(event);
+			}
+			catch (RuntimeException exception)
+			{
+				if (completions.isEmpty())
+				{
+					Thread thread = Thread.currentThread();
+					thread.getUncaughtExceptionHandler().uncaughtException(thread, exception);
+				}
+				completions.forEach(completion -> completion.completeExceptionally(exception));
+				return;
+			}
+			completions.forEach(completion -> completion.complete(null));
+		}
+	}
+}
@@ -0,0 +1,64 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.dispatch;
+
+import java.util.concurrent.CompletableFuture;
+
+import io.github.astrapi69.design.pattern.eventbus.registry.Subscriber;
+
+/**
+ * The interface {@link Dispatcher} defines the strategy that an event bus uses to deliver a posted
+ * event to the listeners that are interested in it. A dispatcher decides on which thread and at
+ * which time every listener is invoked.
+ */
+public interface Dispatcher
+{
+
+	/**
+	 * Dispatches the given event to the given listeners. Depending on the implementation the
+	 * listeners are invoked before this method returns or later on another thread
+	 *
+	 * @param event
+	 *            the event to deliver to every listener
+	 * @param listeners
+	 *            the subscribers of the listeners that receive the event, the array must not be
+	 *            modified
+	 */
+	void dispatch(Object event, Subscriber<?>[] listeners);
+
+	/**
+	 * Dispatches the given event to the given listeners and returns a {@link CompletableFuture}
+	 * that completes when every listener has finished. If at least one listener throws an
+	 * exception the returned future completes exceptionally
+	 *
+	 * @param event
+	 *            the event to deliver to every listener
+	 * @param listeners
+	 *            the subscribers of the listeners that receive the event, the array must not be
+	 *            modified
+	 * @return a {@link CompletableFuture} that completes when every listener has finished
+	 */
+	CompletableFuture<Void> dispatchAsync(Object event, Subscriber<?>[] listeners);
+}
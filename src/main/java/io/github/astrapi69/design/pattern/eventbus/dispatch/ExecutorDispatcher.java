@@ -0,0 +1,199 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.dispatch;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import io.github.astrapi69.design.pattern.eventbus.listener.Cancellable;
+import io.github.astrapi69.design.pattern.eventbus.registry.Subscriber;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The class {@link ExecutorDispatcher} hands the delivery of an event over to an {@link Executor},
+ * so the posting thread does not wait for the listeners. By default every listener is invoked in
+ * its own task, so a slow listener neither delays the poster nor the other listeners of the same
+ * event. Optionally all listeners of one event are invoked one after another in a single task, a
+ * listener that throws an exception does not prevent the remaining listeners from receiving the
+ * event.
+ *
+ * <p>
+ * An exception of a listener completes the future returned by
+ * {@link #dispatchAsync(Object, Subscriber[])} exceptionally. An exception of a listener of an
+ * event dispatched with {@link #dispatch(Object, Subscriber[])} has no future to complete and is
+ * passed to the uncaught exception handler of the thread that invoked the listener
+ */
+public final class ExecutorDispatcher implements Dispatcher
+{
+
+	/** The executor that runs the delivery tasks */
+	@Getter
+	private final Executor executor;
+
+	/** The flag that indicates whether every listener is invoked in its own task */
+	@Getter
+	private final boolean taskPerListener;
+
+	/**
+	 * Instantiates a new {@code ExecutorDispatcher} that invokes every listener in its own task
+	 *
+	 * @param executor
+	 *            the executor that runs the delivery tasks
+	 */
+	public ExecutorDispatcher(@NonNull final Executor executor)
+	{
+		this(executor, true);
+	}
+
+	/**
+	 * Instantiates a new {@code ExecutorDispatcher}
+	 *
+	 * @param executor
+	 *            the executor that runs the delivery tasks
+	 * @param taskPerListener
+	 *            the flag that indicates whether every listener is invoked in its own task or all
+	 *            listeners of one event are invoked in a single task
+	 */
+	public ExecutorDispatcher(@NonNull final Executor executor, final boolean taskPerListener)
+	{
+		this.executor = executor;
+		this.taskPerListener = taskPerListener;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void dispatch(final Object event, final Subscriber<?>[] listeners)
+	{
+		if (listeners.length == 0)
+		{
+			return;
+		}
+		if (!taskPerListener)
+		{
+			executor.execute(() -> reportFailure(() -> deliverAll(event, listeners)));
+			return;
+		}
+		for (Subscriber<?> listener : listeners)
+		{
+			executor.execute(() -> reportFailure(() -> listener.deliver(event)));
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public CompletableFuture<Void> dispatchAsync(final Object event,
+		final Subscriber<?>[] listeners)
+	{
+		if (listeners.length == 0)
+		{
+			return CompletableFuture.completedFuture(null);
+		}
+		if (!taskPerListener)
+		{
+			return CompletableFuture.runAsync(() -> deliverAll(event, listeners), executor);
+		}
+		if (listeners.length == 1)
+		{
+			return CompletableFuture.runAsync(() -> listeners[0].deliver(event),
+				executor);
+		}
+		CompletableFuture<?>[] deliveries = new CompletableFuture<?>[listeners.length];
+		for (int i = 0; i < listeners.length; i++)
+		{
+			Subscriber<?> listener = listeners[i];
+			deliveries[i] = CompletableFuture.runAsync(() -> listener.deliver(event),
+				executor);
+		}
+		return CompletableFuture.allOf(deliveries);
+	}
+
+	/**
+	 * Delivers the given event to all given listeners one after another on the current thread. A
+	 * listener that throws an exception does not prevent the remaining listeners from receiving
+	 * the event, the first exception is rethrown after all listeners were invoked and carries the
+	 * later exceptions as suppressed exceptions. If a listener cancels a {@link Cancellable}
+	 * event, the remaining listeners are not invoked
+	 *
+	 * @param event
+	 *            the event to deliver
+	 * @param listeners
+	 *            the listeners that receive the event
+	 */
+	static void deliverAll(final Object event, final Subscriber<?>[] listeners)
+	{
+		RuntimeException failure = null;
+		for (Subscriber<?> listener : listeners)
+		{
+			if (Cancellable.isCancelled(event))
+			{
+				break;
+			}
+			try
+			{
+				listener.deliver(event);
+			}
+			catch (RuntimeException exception)
+			{
+				if (failure == null)
+				{
+					failure = exception;
+				}
+				else
+				{
+					failure.addSuppressed(exception);
+				}
+			}
+		}
+		if (failure != null)
+		{
+			throw failure;
+		}
+	}
+
+	/**
+	 * Runs the given delivery and passes an exception of it to the uncaught exception handler of
+	 * the current thread
+	 *
+	 * @param delivery
+	 *            the delivery to run
+	 */
+	static void reportFailure(final Runnable delivery)
+	{
+		try
+		{
+			delivery.run();
+		}
+		catch (RuntimeException exception)
+		{
+			Thread thread = Thread.currentThread();
+			thread.getUncaughtExceptionHandler().uncaughtException(thread, exception);
+		}
+	}
+}
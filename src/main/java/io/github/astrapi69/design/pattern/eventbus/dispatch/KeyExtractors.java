@@ -0,0 +1,79 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.dispatch;
+
+import java.util.function.Function;
+
+import io.github.astrapi69.design.pattern.eventbus.registry.ClassKeyedRegistry;
+
+/**
+ * The class {@link KeyExtractors} holds the functions that compute the key of an event keyed by
+ * the identity of the event type they are registered for. The key extractor of an event is the
+ * one registered for its concrete type or the nearest superclass
+ */
+final class KeyExtractors
+{
+
+	/** The key extractors keyed by the identity of the event type they are registered for */
+	private final ClassKeyedRegistry<Function<Object, ?>> keyExtractors =
+		new ClassKeyedRegistry<>();
+
+	/**
+	 * Registers the key extractor for the given event type and its subclasses
+	 *
+	 * @param <T>
+	 *            the type of the events
+	 * @param eventType
+	 *            the event type
+	 * @param keyExtractor
+	 *            the function that computes the key of an event
+	 */
+	@SuppressWarnings("unchecked")
+	<T> void put(final Class<T> eventType, final Function<? super T, ?> keyExtractor)
+	{
+		keyExtractors.put(eventType, (Function<Object, ?>)keyExtractor);
+	}
+
+	/**
+	 * Finds the key extractor for the given event type
+	 *
+	 * @param type
+	 *            the concrete event type
+	 * @return the key extractor of the event type or the nearest superclass or {@code null} if
+	 *         none is registered
+	 */
+	Function<Object, ?> find(final Class<?> type)
+	{
+		for (Class<?> current = type; current != null; current = current.getSuperclass())
+		{
+			Function<Object, ?> keyExtractor = keyExtractors.get(current);
+			if (keyExtractor != null)
+			{
+				return keyExtractor;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,58 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.dispatch;
+
+/**
+ * The enum {@link OverflowPolicy} defines what a {@link BoundedQueueDispatcher} does with a
+ * posted event if its queue is full
+ */
+public enum OverflowPolicy
+{
+
+	/**
+	 * The posting thread waits until the queue has space for the event
+	 */
+	BLOCK,
+
+	/**
+	 * The posted event is dropped
+	 */
+	DROP_NEWEST,
+
+	/**
+	 * The oldest queued event is dropped to make space for the posted event
+	 */
+	DROP_OLDEST,
+
+	/**
+	 * The posted event is delivered on the posting thread
+	 */
+	CALLER_RUNS,
+
+	/**
+	 * The post fails with a {@link java.util.concurrent.RejectedExecutionException}
+	 */
+	FAIL_FAST
+}
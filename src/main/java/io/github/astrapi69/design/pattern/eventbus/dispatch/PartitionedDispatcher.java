@@ -0,0 +1,191 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.dispatch;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import io.github.astrapi69.design.pattern.eventbus.registry.Subscriber;
+import lombok.NonNull;
+
+/**
+ * The class {@link PartitionedDispatcher} delivers events asynchronously on a fixed number of
+ * worker lanes. Every lane is a single thread, and the lane of an event is chosen by the partition
+ * key of the event. Events with the same key are therefore delivered one after another in the
+ * order they were posted, while events with different keys are spread across the lanes and
+ * delivered in parallel. A listener that throws an exception does not prevent the remaining
+ * listeners or the later events of its lane from being delivered, the exception completes the
+ * future of the event exceptionally or is passed to the uncaught exception handler of the lane
+ *
+ * <p>
+ * The partition key of an event is computed by the key extractor that is registered with
+ * {@link #partitionBy(Class, Function)} for the event type or the nearest superclass. Events of a
+ * type without a key extractor are partitioned by their event type, so they keep their order per
+ * event type. All listeners of one event are invoked one after another in a single task on the
+ * lane of the event
+ */
+public final class PartitionedDispatcher implements Dispatcher, AutoCloseable
+{
+
+	/** The single threaded executor services of the lanes */
+	private final ExecutorService[] executorServices;
+
+	/** The dispatchers that invoke all listeners of an event in a single task on their lane */
+	private final ExecutorDispatcher[] lanes;
+
+	/** The key extractors that compute the partition keys */
+	private final KeyExtractors keyExtractors = new KeyExtractors();
+
+	/**
+	 * Instantiates a new {@code PartitionedDispatcher} with one lane per available processor
+	 */
+	public PartitionedDispatcher()
+	{
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Instantiates a new {@code PartitionedDispatcher}
+	 *
+	 * @param laneCount
+	 *            the number of worker lanes
+	 */
+	public PartitionedDispatcher(final int laneCount)
+	{
+		if (laneCount < 1)
+		{
+			throw new IllegalArgumentException("laneCount must be positive");
+		}
+		this.executorServices = new ExecutorService[laneCount];
+		this.lanes = new ExecutorDispatcher[laneCount];
+		for (int i = 0; i < laneCount; i++)
+		{
+			String threadName = "eventbus-lane-" + i;
+			executorServices[i] = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, threadName);
+				thread.setDaemon(true);
+				return thread;
+			});
+			lanes[i] = new ExecutorDispatcher(executorServices[i], false);
+		}
+	}
+
+	/**
+	 * Registers the key extractor that computes the partition key of the events of the given
+	 * event type and its subclasses. Events with equal keys are delivered in order on the same
+	 * lane
+	 *
+	 * @param <T>
+	 *            the type of the events
+	 * @param eventType
+	 *            the event type
+	 * @param keyExtractor
+	 *            the function that computes the partition key of an event
+	 * @return this dispatcher for chaining
+	 */
+	public <T> PartitionedDispatcher partitionBy(@NonNull final Class<T> eventType,
+		@NonNull final Function<? super T, ?> keyExtractor)
+	{
+		keyExtractors.put(eventType, keyExtractor);
+		return this;
+	}
+
+	/**
+	 * Gets the number of worker lanes
+	 *
+	 * @return the number of worker lanes
+	 */
+	public int getLaneCount()
+	{
+		return lanes.length;
+	}
+
+	/**
+	 * Computes the index of the lane that delivers the given event
+	 *
+	 * @param event
+	 *            the event
+	 * @return the index of the lane that delivers the given event
+	 */
+	public int laneOf(@NonNull final Object event)
+	{
+		Object key = keyOf(event);
+		int hash = key != null ? key.hashCode() : 0;
+		return Math.floorMod(hash ^ (hash >>> 16), lanes.length);
+	}
+
+	/**
+	 * Computes the partition key of the given event
+	 *
+	 * @param event
+	 *            the event
+	 * @return the partition key of the given event
+	 */
+	private Object keyOf(final Object event)
+	{
+		Function<Object, ?> keyExtractor = keyExtractors.find(event.getClass());
+		return keyExtractor != null ? keyExtractor.apply(event) : event.getClass();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void dispatch(final Object event, final Subscriber<?>[] listeners)
+	{
+		if (listeners.length != 0)
+		{
+			lanes[laneOf(event)].dispatch(event, listeners);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public CompletableFuture<Void> dispatchAsync(final Object event,
+		final Subscriber<?>[] listeners)
+	{
+		if (listeners.length == 0)
+		{
+			return CompletableFuture.completedFuture(null);
+		}
+		return lanes[laneOf(event)].dispatchAsync(event, listeners);
+	}
+
+	/**
+	 * Shuts down the lanes, events that are already dispatched are still delivered
+	 */
+	@Override
+	public void close()
+	{
+		for (ExecutorService executorService : executorServices)
+		{
+			executorService.shutdown();
+		}
+	}
+}
@@ -0,0 +1,259 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.dispatch;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+import io.github.astrapi69.design.pattern.eventbus.listener.Cancellable;
+import io.github.astrapi69.design.pattern.eventbus.registry.Subscriber;
+
+/**
+ * The class {@link PerThreadQueueDispatcher} delivers an event to all listeners one after another
+ * on the thread that posts the event like the {@link SynchronousDispatcher}, but never recursively.
+ * An event that a listener posts while the posting thread is already delivering an event is
+ * appended to a queue of this thread instead of being delivered on the same stack. The outermost
+ * post drains this queue in a loop after its own event was delivered to all listeners, so cascades
+ * of events do not grow the stack and every event is delivered to all its listeners before the
+ * events that were posted by these listeners.
+ *
+ * <p>
+ * A post that is not nested in another post delivers its event directly and does not allocate any
+ * object, the queue of a thread is created on the first post of the thread and grows on demand. If
+ * a listener throws an exception, the exception is propagated to the outermost poster and the
+ * events that are still queued on this thread are discarded. If a listener cancels a
+ * {@link Cancellable} event, the remaining listeners are not invoked
+ */
+public final class PerThreadQueueDispatcher implements Dispatcher
+{
+
+	/** The queues of the nested posts keyed by the posting thread */
+	private final ThreadLocal<PostQueue> queues = ThreadLocal.withInitial(PostQueue::new);
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void dispatch(final Object event, final Subscriber<?>[] listeners)
+	{
+		PostQueue queue = queues.get();
+		if (queue.dispatching)
+		{
+			queue.offer(event, listeners, null);
+			return;
+		}
+		queue.dispatching = true;
+		try
+		{
+			SynchronousDispatcher.INSTANCE.dispatch(event, listeners);
+			queue.drain();
+		}
+		finally
+		{
+			queue.dispatching = false;
+			queue.clear();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>
+	 * If the calling thread is already delivering an event, the given event is queued and the
+	 * returned future completes after the event was delivered by the outermost post
+	 */
+	@Override
+	public CompletableFuture<Void> dispatchAsync(final Object event,
+		final Subscriber<?>[] listeners)
+	{
+		PostQueue queue = queues.get();
+		if (queue.dispatching)
+		{
+			CompletableFuture<Void> delivery = new CompletableFuture<>();
+			queue.offer(event, listeners, delivery);
+			return delivery;
+		}
+		try
+		{
+			dispatch(event, listeners);
+			return CompletableFuture.completedFuture(null);
+		}
+		catch (RuntimeException exception)
+		{
+			return CompletableFuture.failedFuture(exception);
+		}
+	}
+
+	/**
+	 * Checks if the calling thread is currently delivering an event with this dispatcher
+	 *
+	 * @return {@code true} if a post of the calling thread would be queued, {@code false} otherwise
+	 */
+	public boolean isDispatching()
+	{
+		return queues.get().dispatching;
+	}
+
+	/**
+	 * The growable ring buffer of the events that were posted by the listeners of one thread. The
+	 * events, their listeners and their futures are kept in parallel arrays, so queuing an event
+	 * does not allocate any object while the capacity suffices
+	 */
+	private static final class PostQueue
+	{
+		/** The initial capacity of the queue, a power of two */
+		private static final int INITIAL_CAPACITY = 16;
+
+		/** The flag that indicates whether the thread of this queue is delivering an event */
+		boolean dispatching;
+
+		/** The queued events */
+		private Object[] events = new Object[INITIAL_CAPACITY];
+
+		/** The listeners of the queued events */
+		private Subscriber<?>[][] listeners = new Subscriber<?>[INITIAL_CAPACITY][];
+
+		/** The futures of the queued events or {@code null} for events without a future */
+		private Object[] deliveries = new Object[INITIAL_CAPACITY];
+
+		/** The index of the oldest queued event */
+		private int head;
+
+		/** The number of queued events */
+		private int size;
+
+		/**
+		 * Appends the given event to this queue
+		 *
+		 * @param event
+		 *            the event
+		 * @param eventListeners
+		 *            the listeners of the event
+		 * @param delivery
+		 *            the future that completes after the delivery or {@code null}
+		 */
+		void offer(final Object event, final Subscriber<?>[] eventListeners,
+			final CompletableFuture<Void> delivery)
+		{
+			if (size == events.length)
+			{
+				grow();
+			}
+			int tail = (head + size) & (events.length - 1);
+			events[tail] = event;
+			listeners[tail] = eventListeners;
+			deliveries[tail] = delivery;
+			size++;
+		}
+
+		/**
+		 * Delivers the queued events in the order they were posted until this queue is empty,
+		 * including the events that are queued during the delivery
+		 */
+		@SuppressWarnings("unchecked")
+		void drain()
+		{
+			while (size != 0)
+			{
+				Object event = events[head];
+				Subscriber<?>[] eventListeners = listeners[head];
+				CompletableFuture<Void> delivery = (CompletableFuture<Void>)deliveries[head];
+				events[head] = null;
+				listeners[head] = null;
+				deliveries[head] = null;
+				head = (head + 1) & (events.length - 1);
+				size--;
+				if (delivery == null)
+				{
+					SynchronousDispatcher.INSTANCE.dispatch(event, eventListeners);
+					continue;
+				}
+				try
+				{
+					SynchronousDispatcher.INSTANCE.dispatch(event, eventListeners);
+					delivery.complete(null);
+				}
+				catch (RuntimeException exception)
+				{
+					delivery.completeExceptionally(exception);
+				}
+			}
+		}
+
+		/**
+		 * Discards all queued events, the futures of discarded events are cancelled
+		 */
+		void clear()
+		{
+			while (size != 0)
+			{
+				Object delivery = deliveries[head];
+				if (delivery != null)
+				{
+					((CompletableFuture<?>)delivery).cancel(false);
+				}
+				events[head] = null;
+				listeners[head] = null;
+				deliveries[head] = null;
+				head = (head + 1) & (events.length - 1);
+				size--;
+			}
+			head = 0;
+		}
+
+		/**
+		 * Doubles the capacity of this queue and moves the queued events to the start of the new
+		 * arrays
+		 */
+		private void grow()
+		{
+			int capacity = events.length;
+			events = unwrap(events, capacity * 2);
+			listeners = unwrap(listeners, capacity * 2);
+			deliveries = unwrap(deliveries, capacity * 2);
+			head = 0;
+		}
+
+		/**
+		 * Copies the elements of the given full ring buffer in their queue order into a new array
+		 * with the given capacity
+		 *
+		 * @param <T>
+		 *            the type of the elements
+		 * @param elements
+		 *            the full ring buffer
+		 * @param capacity
+		 *            the capacity of the new array
+		 * @return the new array
+		 */
+		private <T> T[] unwrap(final T[] elements, final int capacity)
+		{
+			T[] grown = Arrays.copyOf(elements, capacity);
+			System.arraycopy(elements, head, grown, 0, elements.length - head);
+			System.arraycopy(elements, 0, grown, elements.length - head, head);
+			return grown;
+		}
+	}
+}
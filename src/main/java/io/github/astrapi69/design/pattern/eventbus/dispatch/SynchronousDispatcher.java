@@ -0,0 +1,84 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.dispatch;
+
+import java.util.concurrent.CompletableFuture;
+
+import io.github.astrapi69.design.pattern.eventbus.listener.Cancellable;
+import io.github.astrapi69.design.pattern.eventbus.registry.Subscriber;
+
+/**
+ * The class {@link SynchronousDispatcher} delivers an event to all listeners one after another on
+ * the thread that posts the event. An exception thrown by a listener is propagated to the poster
+ * and the remaining listeners are not invoked. If a listener cancels a {@link Cancellable} event,
+ * the remaining listeners are not invoked either
+ */
+public final class SynchronousDispatcher implements Dispatcher
+{
+
+	/** The singleton instance of the {@link SynchronousDispatcher} */
+	public static final SynchronousDispatcher INSTANCE = new SynchronousDispatcher();
+
+	/**
+	 * Private constructor to enforce singleton pattern
+	 */
+	private SynchronousDispatcher()
+	{
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void dispatch(final Object event, final Subscriber<?>[] listeners)
+	{
+		for (Subscriber<?> listener : listeners)
+		{
+			if (Cancellable.isCancelled(event))
+			{
+				return;
+			}
+			listener.deliver(event);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public CompletableFuture<Void> dispatchAsync(final Object event,
+		final Subscriber<?>[] listeners)
+	{
+		try
+		{
+			dispatch(event, listeners);
+			return CompletableFuture.completedFuture(null);
+		}
+		catch (RuntimeException exception)
+		{
+			return CompletableFuture.failedFuture(exception);
+		}
+	}
+}
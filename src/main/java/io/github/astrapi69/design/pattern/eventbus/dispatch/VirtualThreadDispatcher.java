@@ -0,0 +1,190 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.dispatch;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.github.astrapi69.design.pattern.eventbus.registry.Subscriber;
+import lombok.Getter;
+
+/**
+ * The class {@link VirtualThreadDispatcher} delivers every event to every listener on its own
+ * virtual thread, so listeners that block on I/O neither block the poster nor each other and do
+ * not occupy a platform thread while they wait.
+ *
+ * <p>
+ * Virtual threads are looked up at runtime, so this library still runs on Java 17. If the runtime
+ * does not support virtual threads, the deliveries run on a bounded pool of daemon platform
+ * threads instead. Deliveries that exceed the pool size wait in the queue of the pool
+ */
+public final class VirtualThreadDispatcher implements Dispatcher, AutoCloseable
+{
+
+	/** The default maximum number of platform threads if virtual threads are not supported */
+	public static final int DEFAULT_MAX_PLATFORM_THREADS = 256;
+
+	/** The executor service that runs the delivery tasks */
+	private final ExecutorService executorService;
+
+	/** The dispatcher that invokes every listener in its own task */
+	private final ExecutorDispatcher delegate;
+
+	/** The flag that indicates whether the deliveries run on virtual threads */
+	@Getter
+	private final boolean virtualThreads;
+
+	/**
+	 * Instantiates a new {@code VirtualThreadDispatcher} that falls back to a pool of at most
+	 * {@link #DEFAULT_MAX_PLATFORM_THREADS} platform threads if virtual threads are not supported
+	 */
+	public VirtualThreadDispatcher()
+	{
+		this(DEFAULT_MAX_PLATFORM_THREADS);
+	}
+
+	/**
+	 * Instantiates a new {@code VirtualThreadDispatcher}
+	 *
+	 * @param maxPlatformThreads
+	 *            the maximum number of platform threads if virtual threads are not supported
+	 */
+	public VirtualThreadDispatcher(final int maxPlatformThreads)
+	{
+		this(true, maxPlatformThreads);
+	}
+
+	/**
+	 * Instantiates a new {@code VirtualThreadDispatcher}
+	 *
+	 * @param preferVirtualThreads
+	 *            the flag that indicates whether virtual threads are used if the runtime supports
+	 *            them, if {@code false} the bounded pool of platform threads is always used
+	 * @param maxPlatformThreads
+	 *            the maximum number of platform threads if virtual threads are not used
+	 */
+	public VirtualThreadDispatcher(final boolean preferVirtualThreads,
+		final int maxPlatformThreads)
+	{
+		if (maxPlatformThreads < 1)
+		{
+			throw new IllegalArgumentException("maxPlatformThreads must be positive");
+		}
+		Optional<ExecutorService> virtualThreadExecutor = preferVirtualThreads
+			? newVirtualThreadPerTaskExecutor()
+			: Optional.empty();
+		this.virtualThreads = virtualThreadExecutor.isPresent();
+		this.executorService = virtualThreadExecutor.orElseGet(
+			() -> Executors.newFixedThreadPool(maxPlatformThreads, new DeliveryThreadFactory()));
+		this.delegate = new ExecutorDispatcher(executorService);
+	}
+
+	/**
+	 * Checks if the current runtime supports virtual threads
+	 *
+	 * @return {@code true} if the current runtime supports virtual threads, {@code false} otherwise
+	 */
+	public static boolean isVirtualThreadsSupported()
+	{
+		Optional<ExecutorService> executor = newVirtualThreadPerTaskExecutor();
+		executor.ifPresent(ExecutorService::shutdown);
+		return executor.isPresent();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void dispatch(final Object event, final Subscriber<?>[] listeners)
+	{
+		delegate.dispatch(event, listeners);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public CompletableFuture<Void> dispatchAsync(final Object event,
+		final Subscriber<?>[] listeners)
+	{
+		return delegate.dispatchAsync(event, listeners);
+	}
+
+	/**
+	 * Shuts down the underlying executor service, deliveries that are already submitted are still
+	 * executed
+	 */
+	@Override
+	public void close()
+	{
+		executorService.shutdown();
+	}
+
+	/**
+	 * Creates a new executor service that starts a new virtual thread for each task if the current
+	 * runtime supports virtual threads
+	 *
+	 * @return an {@link Optional} with the new executor service or an empty {@link Optional} if
+	 *         the current runtime does not support virtual threads
+	 */
+	private static Optional<ExecutorService> newVirtualThreadPerTaskExecutor()
+	{
+		try
+		{
+			Method factoryMethod = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return Optional.of((ExecutorService)factoryMethod.invoke(null));
+		}
+		catch (ReflectiveOperationException | RuntimeException exception)
+		{
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * The thread factory of the bounded pool that creates named daemon threads
+	 */
+	private static final class DeliveryThreadFactory implements ThreadFactory
+	{
+		/** The number of the next thread */
+		private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Thread newThread(final Runnable runnable)
+		{
+			Thread thread = new Thread(runnable,
+				"eventbus-delivery-" + threadNumber.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,548 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.dispatch.ringbuffer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.LockSupport;
+
+import io.github.astrapi69.design.pattern.eventbus.dispatch.Dispatcher;
+import io.github.astrapi69.design.pattern.eventbus.listener.Cancellable;
+import io.github.astrapi69.design.pattern.eventbus.registry.Subscriber;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The class {@link RingBufferDispatcher} hands posted events over to a single consumer thread
+ * through a pre-allocated ring buffer in the style of the LMAX Disruptor. Producers claim a slot by
+ * its sequence, write the event and the listeners into the slot and publish the sequence. The
+ * consumer thread delivers the events of the published slots in order to their listeners.
+ *
+ * <p>
+ * The slots are allocated once, so a post through {@link #dispatch(Object, Subscriber[])}
+ * allocates neither a queue node nor a task. The {@link ProducerType} decides whether slots are
+ * claimed by a single producer without atomic operations or by any number of producers with a
+ * compare and set operation, and the {@link WaitStrategy} decides how the consumer waits for the
+ * next slot. If the ring buffer is full the producers wait until the consumer frees a slot.
+ *
+ * <p>
+ * An exception or an error that is thrown by a listener does not stop the consumer, the remaining
+ * listeners of the event still receive it and the producers never wait for a consumer that has
+ * died. The throwable is passed to the uncaught exception handler of the consumer thread or, for
+ * {@link #dispatchAsync(Object, Subscriber[])}, completes the returned future exceptionally
+ *
+ * <p>
+ * An event that a listener posts from the consumer thread is not written into the ring buffer, as
+ * the consumer could not free a slot while it waits for one. It is queued on the consumer thread
+ * and delivered right after the event that is currently delivered, in the order of the posts.
+ *
+ * <p>
+ * On {@link #close()} the consumer seals the cursor so that no further slot can be claimed and
+ * delivers every slot that was claimed before, including the slots of producers that have not
+ * published them yet
+ */
+public final class RingBufferDispatcher implements Dispatcher, AutoCloseable
+{
+
+	/** The default number of slots of the ring buffer */
+	public static final int DEFAULT_BUFFER_SIZE = 1024;
+
+	/** The value of the cursor after the consumer sealed it on close */
+	private static final long SEALED = Long.MAX_VALUE;
+
+	/** The var handle for the elements of the availability buffer */
+	private static final VarHandle AVAILABLE = MethodHandles.arrayElementVarHandle(int[].class);
+
+	/** The pre-allocated slots of the ring buffer */
+	private final Slot[] slots;
+
+	/** The mask that maps a sequence to the index of its slot */
+	private final int mask;
+
+	/** The shift that maps a sequence to the round of its slot */
+	private final int indexShift;
+
+	/** The type of the producers */
+	@Getter
+	private final ProducerType producerType;
+
+	/** The strategy of the consumer to wait for the next slot */
+	@Getter
+	private final WaitStrategy waitStrategy;
+
+	/**
+	 * The cursor of the producers, the last published sequence for a single producer or the last
+	 * claimed sequence for multiple producers
+	 */
+	private final Sequence cursor = new Sequence(-1L);
+
+	/** The last sequence that was taken by the consumer */
+	private final Sequence consumerSequence = new Sequence(-1L);
+
+	/** The round of the last published sequence of every slot, only used by multiple producers */
+	private final int[] availableBuffer;
+
+	/** The barrier that the wait strategy checks */
+	private final SequenceBarrier barrier = new RingBufferBarrier();
+
+	/** The consumer thread */
+	private final Thread consumer;
+
+	/** The events that listeners posted from the consumer thread, only used by the consumer */
+	private final ArrayDeque<Slot> nestedPosts = new ArrayDeque<>();
+
+	/** The last claimed sequence, only used by a single producer */
+	private long nextValue = -1L;
+
+	/** The flag that indicates whether this dispatcher is closed */
+	private volatile boolean closed;
+
+	/**
+	 * Instantiates a new {@code RingBufferDispatcher} with {@link #DEFAULT_BUFFER_SIZE} slots for
+	 * multiple producers and a blocking wait strategy
+	 */
+	public RingBufferDispatcher()
+	{
+		this(DEFAULT_BUFFER_SIZE, ProducerType.MULTI, WaitStrategies.blocking());
+	}
+
+	/**
+	 * Instantiates a new {@code RingBufferDispatcher} whose consumer runs on a daemon thread
+	 *
+	 * @param bufferSize
+	 *            the number of slots of the ring buffer, must be a power of two
+	 * @param producerType
+	 *            the type of the producers
+	 * @param waitStrategy
+	 *            the strategy of the consumer to wait for the next slot
+	 */
+	public RingBufferDispatcher(final int bufferSize, @NonNull final ProducerType producerType,
+		@NonNull final WaitStrategy waitStrategy)
+	{
+		this(bufferSize, producerType, waitStrategy, runnable -> {
+			Thread thread = new Thread(runnable, "eventbus-ring-buffer");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Instantiates a new {@code RingBufferDispatcher}
+	 *
+	 * @param bufferSize
+	 *            the number of slots of the ring buffer, must be a power of two
+	 * @param producerType
+	 *            the type of the producers
+	 * @param waitStrategy
+	 *            the strategy of the consumer to wait for the next slot
+	 * @param threadFactory
+	 *            the thread factory that creates the consumer thread
+	 */
+	public RingBufferDispatcher(final int bufferSize, @NonNull final ProducerType producerType,
+		@NonNull final WaitStrategy waitStrategy, @NonNull final ThreadFactory threadFactory)
+	{
+		if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1)
+		{
+			throw new IllegalArgumentException("bufferSize must be a power of two");
+		}
+		this.producerType = producerType;
+		this.waitStrategy = waitStrategy;
+		this.slots = new Slot[bufferSize];
+		for (int i = 0; i < bufferSize; i++)
+		{
+			slots[i] = new Slot();
+		}
+		this.mask = bufferSize - 1;
+		this.indexShift = Integer.numberOfTrailingZeros(bufferSize);
+		if (producerType == ProducerType.MULTI)
+		{
+			this.availableBuffer = new int[bufferSize];
+			Arrays.fill(availableBuffer, -1);
+		}
+		else
+		{
+			this.availableBuffer = null;
+		}
+		this.consumer = threadFactory.newThread(this::consume);
+		this.consumer.start();
+	}
+
+	/**
+	 * Gets the number of slots of the ring buffer
+	 *
+	 * @return the number of slots of the ring buffer
+	 */
+	public int getBufferSize()
+	{
+		return slots.length;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void dispatch(final Object event, final Subscriber<?>[] listeners)
+	{
+		if (listeners.length != 0)
+		{
+			publish(event, listeners, null);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public CompletableFuture<Void> dispatchAsync(final Object event,
+		final Subscriber<?>[] listeners)
+	{
+		if (listeners.length == 0)
+		{
+			return CompletableFuture.completedFuture(null);
+		}
+		CompletableFuture<Void> completion = new CompletableFuture<>();
+		publish(event, listeners, completion);
+		return completion;
+	}
+
+	/**
+	 * Closes this dispatcher. Events that are already published or whose slot is already claimed
+	 * are still delivered before the consumer thread terminates, events that are posted after this
+	 * method is called are rejected
+	 */
+	@Override
+	public void close()
+	{
+		closed = true;
+		waitStrategy.signalAllWhenBlocking();
+		if (Thread.currentThread() != consumer)
+		{
+			try
+			{
+				consumer.join();
+			}
+			catch (InterruptedException exception)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Claims the next slot, writes the given event into it and publishes it to the consumer
+	 *
+	 * @param event
+	 *            the event to deliver
+	 * @param listeners
+	 *            the listeners that receive the event
+	 * @param completion
+	 *            the future to complete after the delivery or {@code null}
+	 */
+	private void publish(final Object event, final Subscriber<?>[] listeners,
+		final CompletableFuture<Void> completion)
+	{
+		if (Thread.currentThread() == consumer)
+		{
+			ensureOpen();
+			Slot nested = new Slot();
+			nested.event = event;
+			nested.listeners = listeners;
+			nested.completion = completion;
+			nestedPosts.add(nested);
+			return;
+		}
+		long sequence = producerType == ProducerType.SINGLE ? nextSingle() : nextMulti();
+		Slot slot = slots[(int)(sequence & mask)];
+		slot.event = event;
+		slot.listeners = listeners;
+		slot.completion = completion;
+		if (producerType == ProducerType.SINGLE)
+		{
+			if (!cursor.compareAndSet(sequence - 1, sequence))
+			{
+				slot.event = null;
+				slot.listeners = null;
+				slot.completion = null;
+				ensureOpen();
+			}
+		}
+		else
+		{
+			AVAILABLE.setRelease(availableBuffer, (int)(sequence & mask),
+				(int)(sequence >>> indexShift));
+		}
+		waitStrategy.signalAllWhenBlocking();
+	}
+
+	/**
+	 * Claims the next sequence for a single producer
+	 *
+	 * @return the claimed sequence
+	 */
+	private long nextSingle()
+	{
+		long next = nextValue + 1;
+		awaitFreeSlot(next);
+		nextValue = next;
+		return next;
+	}
+
+	/**
+	 * Claims the next sequence for multiple producers
+	 *
+	 * @return the claimed sequence
+	 */
+	private long nextMulti()
+	{
+		while (true)
+		{
+			long current = cursor.get();
+			if (current == SEALED)
+			{
+				ensureOpen();
+			}
+			long next = current + 1;
+			awaitFreeSlot(next);
+			if (cursor.compareAndSet(current, next))
+			{
+				return next;
+			}
+		}
+	}
+
+	/**
+	 * Waits until the consumer has taken the slot that the given sequence wraps around to
+	 *
+	 * @param sequence
+	 *            the sequence to claim
+	 */
+	private void awaitFreeSlot(final long sequence)
+	{
+		long wrapPoint = sequence - slots.length;
+		while (wrapPoint > consumerSequence.get())
+		{
+			ensureOpen();
+			LockSupport.parkNanos(1L);
+		}
+		ensureOpen();
+	}
+
+	/**
+	 * Ensures that this dispatcher is not closed
+	 */
+	private void ensureOpen()
+	{
+		if (closed)
+		{
+			throw new IllegalStateException("The ring buffer dispatcher is closed");
+		}
+	}
+
+	/**
+	 * Checks if the slot with the given sequence is published
+	 *
+	 * @param sequence
+	 *            the sequence to check
+	 * @return {@code true} if the slot with the given sequence is published, {@code false}
+	 *         otherwise
+	 */
+	private boolean isAvailable(final long sequence)
+	{
+		if (producerType == ProducerType.SINGLE)
+		{
+			return sequence <= cursor.get();
+		}
+		return (int)AVAILABLE.getAcquire(availableBuffer,
+			(int)(sequence & mask)) == (int)(sequence >>> indexShift);
+	}
+
+	/**
+	 * The loop of the consumer thread that delivers the events of the published slots in order
+	 */
+	private void consume()
+	{
+		long next = 0L;
+		while (true)
+		{
+			if (!isAvailable(next))
+			{
+				if (closed)
+				{
+					break;
+				}
+				waitStrategy.waitFor(next, barrier);
+				continue;
+			}
+			take(next++);
+		}
+		long last = seal();
+		for (; next <= last; next++)
+		{
+			while (!isAvailable(next))
+			{
+				Thread.onSpinWait();
+			}
+			take(next);
+		}
+	}
+
+	/**
+	 * Seals the cursor so that no producer can claim a further slot
+	 *
+	 * @return the last sequence that was claimed before the cursor was sealed
+	 */
+	private long seal()
+	{
+		long current;
+		do
+		{
+			current = cursor.get();
+		}
+		while (!cursor.compareAndSet(current, SEALED));
+		return current;
+	}
+
+	/**
+	 * Takes the event of the slot with the given sequence, frees the slot and delivers the event
+	 * and the events that its listeners post from the consumer thread
+	 *
+	 * @param sequence
+	 *            the published sequence to take
+	 */
+	private void take(final long sequence)
+	{
+		Slot slot = slots[(int)(sequence & mask)];
+		Object event = slot.event;
+		Subscriber<?>[] listeners = slot.listeners;
+		CompletableFuture<Void> completion = slot.completion;
+		slot.event = null;
+		slot.listeners = null;
+		slot.completion = null;
+		consumerSequence.set(sequence);
+		deliver(event, listeners, completion);
+		Slot nested;
+		while ((nested = nestedPosts.poll()) != null)
+		{
+			deliver(nested.event, nested.listeners, nested.completion);
+		}
+	}
+
+	/**
+	 * Delivers the given event to all given listeners. Every throwable of a listener is caught,
+	 * so an error cannot terminate the consumer thread
+	 *
+	 * @param event
+	 *            the event to deliver
+	 * @param listeners
+	 *            the listeners that receive the event
+	 * @param completion
+	 *            the future to complete after the delivery or {@code null}
+	 */
+	private void deliver(final Object event, final Subscriber<?>[] listeners,
+		final CompletableFuture<Void> completion)
+	{
+		Throwable failure = null;
+		for (Subscriber<?> listener : listeners)
+		{
+			if (Cancellable.isCancelled(event))
+			{
+				break;
+			}
+			try
+			{
+				listener.deliver(event);
+			}
+			catch (Throwable exception)
+			{
+				if (completion == null)
+				{
+					consumer.getUncaughtExceptionHandler().uncaughtException(consumer, exception);
+				}
+				else if (failure == null)
+				{
+					failure = exception;
+				}
+				else
+				{
+					failure.addSuppressed(exception);
+				}
+			}
+		}
+		if (completion != null)
+		{
+			if (failure == null)
+			{
+				completion.complete(null);
+			}
+			else
+			{
+				completion.completeExceptionally(failure);
+			}
+		}
+	}
+
+	/**
+	 * A pre-allocated slot of the ring buffer
+	 */
+	private static final class Slot
+	{
+		/** The event to deliver */
+		Object event;
+
+		/** The listeners that receive the event */
+		Subscriber<?>[] listeners;
+
+		/** The future to complete after the delivery or {@code null} */
+		CompletableFuture<Void> completion;
+	}
+
+	/**
+	 * The barrier of this ring buffer
+	 */
+	private final class RingBufferBarrier implements SequenceBarrier
+	{
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean isAvailable(final long sequence)
+		{
+			return RingBufferDispatcher.this.isAvailable(sequence);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean isAlerted()
+		{
+			return closed;
+		}
+	}
+}
@@ -0,0 +1,106 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.dispatch.ringbuffer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * The class {@link Sequence} is a counter of the ring buffer that is padded with unused fields on
+ * both sides, so the producer and the consumer sequence do not contend for the same cache line
+ */
+final class Sequence
+{
+
+	/** The var handle of the value */
+	private static final VarHandle VALUE;
+
+	static
+	{
+		try
+		{
+			VALUE = MethodHandles.lookup().findVarHandle(Sequence.class, "value", long.class);
+		}
+		catch (ReflectiveOperationException exception)
+		{
+			throw new ExceptionInInitializerError(exception);
+		}
+	}
+
+	/** Padding fields before the value */
+	long p1, p2, p3, p4, p5, p6, p7;
+
+	/** The current value */
+	private volatile long value;
+
+	/** Padding fields after the value */
+	long p9, p10, p11, p12, p13, p14, p15;
+
+	/**
+	 * Instantiates a new {@code Sequence} with the given initial value
+	 *
+	 * @param initialValue
+	 *            the initial value
+	 */
+	Sequence(final long initialValue)
+	{
+		VALUE.setRelease(this, initialValue);
+	}
+
+	/**
+	 * Gets the current value with acquire semantics
+	 *
+	 * @return the current value
+	 */
+	long get()
+	{
+		return (long)VALUE.getAcquire(this);
+	}
+
+	/**
+	 * Sets the given value with release semantics
+	 *
+	 * @param newValue
+	 *            the new value
+	 */
+	void set(final long newValue)
+	{
+		VALUE.setRelease(this, newValue);
+	}
+
+	/**
+	 * Sets the given value if the current value equals the expected value
+	 *
+	 * @param expectedValue
+	 *            the expected value
+	 * @param newValue
+	 *            the new value
+	 * @return {@code true} if the value was set, {@code false} otherwise
+	 */
+	boolean compareAndSet(final long expectedValue, final long newValue)
+	{
+		return VALUE.compareAndSet(this, expectedValue, newValue);
+	}
+}
@@ -0,0 +1,51 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.dispatch.ringbuffer;
+
+/**
+ * The interface {@link SequenceBarrier} is the view of a {@link WaitStrategy} on the ring buffer
+ * it waits for
+ */
+public interface SequenceBarrier
+{
+
+	/**
+	 * Checks if the slot with the given sequence is published and can be consumed
+	 *
+	 * @param sequence
+	 *            the sequence to check
+	 * @return {@code true} if the slot with the given sequence is published, {@code false}
+	 *         otherwise
+	 */
+	boolean isAvailable(long sequence);
+
+	/**
+	 * Checks if the consumer is alerted to stop waiting, for instance because the ring buffer is
+	 * closed
+	 *
+	 * @return {@code true} if the consumer is alerted, {@code false} otherwise
+	 */
+	boolean isAlerted();
+}
@@ -0,0 +1,261 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.dispatch.ringbuffer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The class {@link WaitStrategies} provides factory methods for the {@link WaitStrategy}
+ * implementations of the {@link RingBufferDispatcher}
+ */
+public final class WaitStrategies
+{
+
+	/** The number of spins before a spinning strategy yields or parks */
+	private static final int SPIN_TRIES = 100;
+
+	/**
+	 * Private constructor to prevent instantiation
+	 */
+	private WaitStrategies()
+	{
+	}
+
+	/**
+	 * Creates a wait strategy that spins in a tight loop. It has the lowest latency but occupies
+	 * a whole CPU core, so it should only be used if a core can be dedicated to the consumer
+	 *
+	 * @return the busy spin wait strategy
+	 */
+	public static WaitStrategy busySpin()
+	{
+		return new BusySpinWaitStrategy();
+	}
+
+	/**
+	 * Creates a wait strategy that spins for a while and then yields the CPU to other threads. It
+	 * has a low latency without burning a core when other threads are runnable
+	 *
+	 * @return the yielding wait strategy
+	 */
+	public static WaitStrategy yielding()
+	{
+		return new YieldingWaitStrategy();
+	}
+
+	/**
+	 * Creates a wait strategy that spins for a while and then parks the consumer thread for the
+	 * given time between checks
+	 *
+	 * @param parkTime
+	 *            the time to park between checks
+	 * @param timeUnit
+	 *            the time unit of the park time
+	 * @return the parking wait strategy
+	 */
+	public static WaitStrategy parking(final long parkTime, final TimeUnit timeUnit)
+	{
+		return new ParkingWaitStrategy(timeUnit.toNanos(parkTime));
+	}
+
+	/**
+	 * Creates a wait strategy that blocks the consumer thread on a condition until a producer
+	 * signals a new slot. It uses the least CPU but has the highest latency because every publish
+	 * acquires a lock
+	 *
+	 * @return the blocking wait strategy
+	 */
+	public static WaitStrategy blocking()
+	{
+		return new BlockingWaitStrategy();
+	}
+
+	/**
+	 * Wait strategy that spins in a tight loop
+	 */
+	private static final class BusySpinWaitStrategy implements WaitStrategy
+	{
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void waitFor(final long sequence, final SequenceBarrier barrier)
+		{
+			while (!barrier.isAvailable(sequence) && !barrier.isAlerted())
+			{
+				Thread.onSpinWait();
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void signalAllWhenBlocking()
+		{
+		}
+	}
+
+	/**
+	 * Wait strategy that spins and then yields
+	 */
+	private static final class YieldingWaitStrategy implements WaitStrategy
+	{
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void waitFor(final long sequence, final SequenceBarrier barrier)
+		{
+			int counter = SPIN_TRIES;
+			while (!barrier.isAvailable(sequence) && !barrier.isAlerted())
+			{
+				if (counter > 0)
+				{
+					counter--;
+					Thread.onSpinWait();
+				}
+				else
+				{
+					Thread.yield();
+				}
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void signalAllWhenBlocking()
+		{
+		}
+	}
+
+	/**
+	 * Wait strategy that spins and then parks
+	 */
+	private static final class ParkingWaitStrategy implements WaitStrategy
+	{
+		/** The time in nanoseconds to park between checks */
+		private final long parkNanos;
+
+		/**
+		 * Instantiates a new {@code ParkingWaitStrategy}
+		 *
+		 * @param parkNanos
+		 *            the time in nanoseconds to park between checks
+		 */
+		ParkingWaitStrategy(final long parkNanos)
+		{
+			this.parkNanos = parkNanos;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void waitFor(final long sequence, final SequenceBarrier barrier)
+		{
+			int counter = SPIN_TRIES;
+			while (!barrier.isAvailable(sequence) && !barrier.isAlerted())
+			{
+				if (counter > 0)
+				{
+					counter--;
+					Thread.onSpinWait();
+				}
+				else
+				{
+					LockSupport.parkNanos(parkNanos);
+				}
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void signalAllWhenBlocking()
+		{
+		}
+	}
+
+	/**
+	 * Wait strategy that blocks on a condition
+	 */
+	private static final class BlockingWaitStrategy implements WaitStrategy
+	{
+		/** The lock of the condition */
+		private final Lock lock = new ReentrantLock();
+
+		/** The condition that is signaled on every publish */
+		private final Condition published = lock.newCondition();
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void waitFor(final long sequence, final SequenceBarrier barrier)
+		{
+			if (barrier.isAvailable(sequence))
+			{
+				return;
+			}
+			lock.lock();
+			try
+			{
+				while (!barrier.isAvailable(sequence) && !barrier.isAlerted())
+				{
+					published.awaitUninterruptibly();
+				}
+			}
+			finally
+			{
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void signalAllWhenBlocking()
+		{
+			lock.lock();
+			try
+			{
+				published.signalAll();
+			}
+			finally
+			{
+				lock.unlock();
+			}
+		}
+	}
+}
@@ -0,0 +1,50 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.dispatch.ringbuffer;
+
+/**
+ * The interface {@link WaitStrategy} defines how the consumer of a {@link RingBufferDispatcher}
+ * waits for the next published slot. The strategies trade latency against CPU usage, see
+ * {@link WaitStrategies} for the provided implementations
+ */
+public interface WaitStrategy
+{
+
+	/**
+	 * Waits until the slot with the given sequence is available or the given barrier is alerted
+	 *
+	 * @param sequence
+	 *            the sequence to wait for
+	 * @param barrier
+	 *            the barrier of the ring buffer
+	 */
+	void waitFor(long sequence, SequenceBarrier barrier);
+
+	/**
+	 * Signals all waiting consumers that a new slot was published or the barrier was alerted.
+	 * Strategies that do not block the consumer thread do nothing
+	 */
+	void signalAllWhenBlocking();
+}
@@ -0,0 +1,48 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.listener;
+
+import java.util.List;
+
+/**
+ * The interface {@link BatchListener} can be implemented additionally by a listener that handles a
+ * whole batch of events in one call. If a batch of events is posted with
+ * {@code BaseEventBus#postAll}, a listener that implements this interface receives all events of
+ * its event type in a single call of {@link #onBatch(List)} instead of one call per event
+ *
+ * @param <T>
+ *            the type of the event sources
+ */
+public interface BatchListener<T>
+{
+
+	/**
+	 * Handles the given batch of event sources
+	 *
+	 * @param sources
+	 *            the unmodifiable list of the event sources in the order they were posted
+	 */
+	void onBatch(List<T> sources);
+}
@@ -0,0 +1,60 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.listener;
+
+/**
+ * The interface {@link Cancellable} can be implemented by an event source whose delivery a listener
+ * may stop. If a listener cancels the event, the listeners with a lower priority do not receive it
+ * anymore. Cancellation is honored by the dispatchers that deliver an event to its listeners one
+ * after another, listeners that already run in parallel are not affected
+ */
+public interface Cancellable
+{
+
+	/**
+	 * Cancels the further delivery of this event
+	 */
+	void cancel();
+
+	/**
+	 * Checks if the delivery of this event was cancelled
+	 *
+	 * @return {@code true} if the delivery was cancelled, {@code false} otherwise
+	 */
+	boolean isCancelled();
+
+	/**
+	 * Checks if the given event is a {@link Cancellable} whose delivery was cancelled
+	 *
+	 * @param event
+	 *            the event
+	 * @return {@code true} if the delivery of the given event was cancelled, {@code false}
+	 *         otherwise
+	 */
+	static boolean isCancelled(final Object event)
+	{
+		return event instanceof Cancellable && ((Cancellable)event).isCancelled();
+	}
+}
@@ -0,0 +1,90 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.listener;
+
+import io.github.astrapi69.design.pattern.observer.event.EventListener;
+import io.github.astrapi69.design.pattern.observer.event.EventObject;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The class {@link EventObjectListenerAdapter} adapts an {@link EventListener} that receives
+ * {@link EventObject} instances to the {@link PayloadListener} contract. Every delivered event
+ * source is wrapped into a new {@link EventObject}. Two adapters are equal if they adapt equal
+ * listeners
+ *
+ * @param <T>
+ *            the type of the event sources
+ */
+public final class EventObjectListenerAdapter<T> implements PayloadListener<T>
+{
+
+	/** The adapted listener */
+	@Getter
+	private final EventListener<EventObject<T>> listener;
+
+	/**
+	 * Instantiates a new {@code EventObjectListenerAdapter}
+	 *
+	 * @param listener
+	 *            the listener to adapt
+	 */
+	public EventObjectListenerAdapter(@NonNull final EventListener<EventObject<T>> listener)
+	{
+		this.listener = listener;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onPayload(final T payload)
+	{
+		listener.onEvent(EventObject.of(payload));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(final Object o)
+	{
+		if (this == o)
+			return true;
+		if (o == null || getClass() != o.getClass())
+			return false;
+		EventObjectListenerAdapter<?> that = (EventObjectListenerAdapter<?>)o;
+		return listener.equals(that.listener);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode()
+	{
+		return listener.hashCode();
+	}
+}
@@ -0,0 +1,132 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import io.github.astrapi69.design.pattern.eventbus.deadevent.DeadEventCounter;
+import io.github.astrapi69.design.pattern.eventbus.registry.ClassKeyedRegistry;
+import lombok.NonNull;
+
+/**
+ * The class {@link EventBusMetrics} holds the {@link EventTypeMetrics} of an event bus keyed by
+ * the identity of their event type. The metrics of a hot event type are found with one lookup,
+ * and a snapshot of the metrics of all event types can be taken at any time
+ */
+public final class EventBusMetrics
+{
+
+	/** The metrics keyed by the identity of their event type */
+	private final ClassKeyedRegistry<EventTypeMetrics> metrics = new ClassKeyedRegistry<>();
+
+	/** The metrics of all event types in the order they were created */
+	private final List<EventTypeMetrics> allMetrics = new CopyOnWriteArrayList<>();
+
+	/** The counter of the posted events that no listener has received */
+	private final DeadEventCounter deadEventCounter;
+
+	/**
+	 * Instantiates a new {@code EventBusMetrics}
+	 *
+	 * @param deadEventCounter
+	 *            the counter of the posted events that no listener has received, which provides
+	 *            the number of posts without a listener of every event type
+	 */
+	public EventBusMetrics(@NonNull final DeadEventCounter deadEventCounter)
+	{
+		this.deadEventCounter = deadEventCounter;
+	}
+
+	/**
+	 * Retrieves the metrics of the given event type. If the event type has no metrics yet, new
+	 * metrics are created
+	 *
+	 * @param eventType
+	 *            the event type
+	 * @return the metrics of the given event type
+	 */
+	public EventTypeMetrics forType(@NonNull final Class<?> eventType)
+	{
+		EventTypeMetrics current = metrics.get(eventType);
+		return current != null ? current : create(eventType);
+	}
+
+	/**
+	 * Creates the metrics of the given event type if they do not exist yet
+	 *
+	 * @param eventType
+	 *            the event type
+	 * @return the metrics of the given event type
+	 */
+	private synchronized EventTypeMetrics create(final Class<?> eventType)
+	{
+		EventTypeMetrics current = metrics.get(eventType);
+		if (current == null)
+		{
+			current = new EventTypeMetrics(eventType, deadEventCounter);
+			metrics.put(eventType, current);
+			allMetrics.add(current);
+		}
+		return current;
+	}
+
+	/**
+	 * Releases the execution time histogram of the given listener for the given event type after
+	 * the listener was removed. Event types without metrics are left untouched
+	 *
+	 * @param eventType
+	 *            the event type the listener was registered for
+	 * @param listener
+	 *            the listener as it was registered
+	 */
+	public void release(@NonNull final Class<?> eventType, @NonNull final Object listener)
+	{
+		EventTypeMetrics current = metrics.get(eventType);
+		if (current != null)
+		{
+			current.release(listener);
+		}
+	}
+
+	/**
+	 * Creates a snapshot of the metrics of all event types
+	 *
+	 * @return the unmodifiable snapshots keyed by their event type in the order the event types
+	 *         were first seen
+	 */
+	public Map<Class<?>, EventTypeSnapshot> snapshot()
+	{
+		Map<Class<?>, EventTypeSnapshot> snapshots = new LinkedHashMap<>();
+		for (EventTypeMetrics current : allMetrics)
+		{
+			snapshots.put(current.getEventType(), current.snapshot());
+		}
+		return Collections.unmodifiableMap(snapshots);
+	}
+}
@@ -0,0 +1,175 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.github.astrapi69.design.pattern.eventbus.deadevent.DeadEventCounter;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The class {@link EventTypeMetrics} records the metrics of one event type. The post counters are
+ * recorded for the concrete type of the posted events, while the execution times of the listeners
+ * are recorded for the event type the listeners are registered for. The number of posts without a
+ * listener is not counted twice, it is read from the {@link DeadEventCounter} of the event bus.
+ * The histograms are kept in a concurrent map keyed by the identity of the listeners, so a
+ * histogram is found with one lookup and is released as soon as its listener is removed
+ */
+public final class EventTypeMetrics
+{
+
+	/** The event type of these metrics */
+	@Getter
+	private final Class<?> eventType;
+
+	/** The number of posted events */
+	private final LongAdder posts = new LongAdder();
+
+	/** The number of deliveries of the posted events to listeners */
+	private final LongAdder deliveries = new LongAdder();
+
+	/** The counter of the posted events that no listener has received */
+	private final DeadEventCounter deadEventCounter;
+
+	/** The execution time histograms keyed by the identity of the registered listeners */
+	private final Map<ListenerKey, LatencyHistogram> listenerLatencies =
+		new ConcurrentHashMap<>();
+
+	/**
+	 * Instantiates a new {@code EventTypeMetrics}
+	 *
+	 * @param eventType
+	 *            the event type of these metrics
+	 * @param deadEventCounter
+	 *            the counter of the posted events that no listener has received
+	 */
+	public EventTypeMetrics(@NonNull final Class<?> eventType,
+		@NonNull final DeadEventCounter deadEventCounter)
+	{
+		this.eventType = eventType;
+		this.deadEventCounter = deadEventCounter;
+	}
+
+	/**
+	 * Records the given number of posted events of the event type
+	 *
+	 * @param count
+	 *            the number of posted events
+	 * @param fanOut
+	 *            the number of listeners that receive every posted event
+	 */
+	public void recordPosts(final int count, final int fanOut)
+	{
+		posts.add(count);
+		if (fanOut != 0)
+		{
+			deliveries.add((long)count * fanOut);
+		}
+	}
+
+	/**
+	 * Retrieves the execution time histogram of the given listener. If the listener has no
+	 * histogram yet, a new histogram is created
+	 *
+	 * @param listener
+	 *            the listener as it was registered
+	 * @return the execution time histogram of the given listener
+	 */
+	public LatencyHistogram latencyOf(@NonNull final Object listener)
+	{
+		return listenerLatencies.computeIfAbsent(new ListenerKey(listener),
+			key -> new LatencyHistogram());
+	}
+
+	/**
+	 * Releases the execution time histogram of the given listener, so neither the listener nor
+	 * its histogram are kept after the listener was removed
+	 *
+	 * @param listener
+	 *            the listener as it was registered
+	 */
+	public void release(@NonNull final Object listener)
+	{
+		listenerLatencies.remove(new ListenerKey(listener));
+	}
+
+	/**
+	 * Creates a snapshot of the metrics recorded so far
+	 *
+	 * @return the snapshot of these metrics
+	 */
+	public EventTypeSnapshot snapshot()
+	{
+		Map<Object, HistogramSnapshot> latencies = new LinkedHashMap<>();
+		for (Map.Entry<ListenerKey, LatencyHistogram> entry : listenerLatencies.entrySet())
+		{
+			latencies.put(entry.getKey().listener, entry.getValue().snapshot());
+		}
+		return new EventTypeSnapshot(eventType, posts.sum(), deliveries.sum(),
+			deadEventCounter.getCount(eventType), latencies);
+	}
+
+	/**
+	 * The key of a listener that compares the listener by identity
+	 */
+	private static final class ListenerKey
+	{
+		/** The listener as it was registered */
+		final Object listener;
+
+		/**
+		 * Instantiates a new {@code ListenerKey}
+		 *
+		 * @param listener
+		 *            the listener as it was registered
+		 */
+		ListenerKey(final Object listener)
+		{
+			this.listener = listener;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode()
+		{
+			return System.identityHashCode(listener);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(final Object object)
+		{
+			return object instanceof ListenerKey && ((ListenerKey)object).listener == listener;
+		}
+	}
+}
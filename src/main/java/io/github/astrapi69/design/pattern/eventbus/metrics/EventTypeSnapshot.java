@@ -0,0 +1,82 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+
+import lombok.Getter;
+
+/**
+ * The class {@link EventTypeSnapshot} is an immutable copy of the metrics of one event type at a
+ * point in time
+ */
+public final class EventTypeSnapshot
+{
+
+	/** The event type of the metrics */
+	@Getter
+	private final Class<?> eventType;
+
+	/** The number of posted events */
+	@Getter
+	private final long posts;
+
+	/** The number of deliveries of the posted events to listeners */
+	@Getter
+	private final long deliveries;
+
+	/** The number of posted events that no listener has received since the last reset */
+	@Getter
+	private final long noSubscriberPosts;
+
+	/** The execution time histograms keyed by the listeners as they were registered */
+	@Getter
+	private final Map<Object, HistogramSnapshot> listenerLatencies;
+
+	/**
+	 * Instantiates a new {@code EventTypeSnapshot}
+	 *
+	 * @param eventType
+	 *            the event type of the metrics
+	 * @param posts
+	 *            the number of posted events
+	 * @param deliveries
+	 *            the number of deliveries of the posted events to listeners
+	 * @param noSubscriberPosts
+	 *            the number of posted events that no listener has received
+	 * @param listenerLatencies
+	 *            the execution time histograms keyed by the listeners
+	 */
+	EventTypeSnapshot(final Class<?> eventType, final long posts, final long deliveries,
+		final long noSubscriberPosts, final Map<Object, HistogramSnapshot> listenerLatencies)
+	{
+		this.eventType = eventType;
+		this.posts = posts;
+		this.deliveries = deliveries;
+		this.noSubscriberPosts = noSubscriberPosts;
+		this.listenerLatencies = Collections.unmodifiableMap(listenerLatencies);
+	}
+}
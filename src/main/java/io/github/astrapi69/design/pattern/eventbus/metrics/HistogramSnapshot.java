@@ -0,0 +1,114 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.metrics;
+
+import lombok.Getter;
+
+/**
+ * The class {@link HistogramSnapshot} is an immutable copy of the values recorded by a
+ * {@link LatencyHistogram} at a point in time
+ */
+public final class HistogramSnapshot
+{
+
+	/** The counts of the recorded values per bucket */
+	private final long[] counts;
+
+	/** The number of recorded values */
+	@Getter
+	private final long count;
+
+	/** The sum of all recorded values in nanoseconds */
+	@Getter
+	private final long sum;
+
+	/** The maximum of all recorded values in nanoseconds */
+	@Getter
+	private final long max;
+
+	/**
+	 * Instantiates a new {@code HistogramSnapshot}
+	 *
+	 * @param counts
+	 *            the counts of the recorded values per bucket
+	 * @param sum
+	 *            the sum of all recorded values in nanoseconds
+	 * @param max
+	 *            the maximum of all recorded values in nanoseconds
+	 */
+	HistogramSnapshot(final long[] counts, final long sum, final long max)
+	{
+		this.counts = counts;
+		long total = 0L;
+		for (long bucketCount : counts)
+		{
+			total += bucketCount;
+		}
+		this.count = total;
+		this.sum = sum;
+		this.max = max;
+	}
+
+	/**
+	 * Computes the mean of all recorded values
+	 *
+	 * @return the mean of all recorded values in nanoseconds or zero if no value was recorded
+	 */
+	public double getMean()
+	{
+		return count == 0L ? 0.0 : (double)sum / count;
+	}
+
+	/**
+	 * Computes the value at the given percentile. The returned value is the highest value of the
+	 * bucket that contains the percentile, but never more than the recorded maximum
+	 *
+	 * @param percentile
+	 *            the percentile between 0 and 100
+	 * @return the value at the given percentile in nanoseconds or zero if no value was recorded
+	 */
+	public long getValueAtPercentile(final double percentile)
+	{
+		if (percentile < 0.0 || percentile > 100.0)
+		{
+			throw new IllegalArgumentException("percentile must be between 0 and 100");
+		}
+		if (count == 0L)
+		{
+			return 0L;
+		}
+		long rank = Math.max(1L, (long)Math.ceil(percentile / 100.0 * count));
+		long seen = 0L;
+		for (int i = 0; i < counts.length; i++)
+		{
+			seen += counts[i];
+			if (seen >= rank)
+			{
+				return Math.min(LatencyHistogram.highestValueOf(i), max);
+			}
+		}
+		return max;
+	}
+}
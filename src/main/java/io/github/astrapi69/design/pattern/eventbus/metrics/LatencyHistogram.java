@@ -0,0 +1,124 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The class {@link LatencyHistogram} records durations in nanoseconds into a fixed number of
+ * log-linear buckets. Every power of two is split into {@link #SUB_BUCKETS} linear sub-buckets,
+ * so a recorded value is kept with a relative error of at most {@code 1 / SUB_BUCKETS} while the
+ * memory of the histogram never grows. Recording a value is lock-free and does not allocate, so
+ * the histogram can be updated concurrently by many threads
+ */
+public final class LatencyHistogram
+{
+
+	/** The number of bits of the linear sub-buckets within one power of two */
+	static final int SUB_BUCKET_BITS = 4;
+
+	/** The number of linear sub-buckets within one power of two */
+	public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	/** The number of buckets of every histogram */
+	public static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	/** The counts of the recorded values per bucket */
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+	/** The sum of all recorded values */
+	private final LongAdder sum = new LongAdder();
+
+	/** The maximum of all recorded values */
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+	/**
+	 * Records the given duration
+	 *
+	 * @param nanos
+	 *            the duration in nanoseconds, negative values are recorded as zero
+	 */
+	public void record(final long nanos)
+	{
+		long value = Math.max(0L, nanos);
+		counts.incrementAndGet(indexOf(value));
+		sum.add(value);
+		max.accumulate(value);
+	}
+
+	/**
+	 * Creates a snapshot of the values recorded so far
+	 *
+	 * @return the snapshot of this histogram
+	 */
+	public HistogramSnapshot snapshot()
+	{
+		long[] snapshot = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++)
+		{
+			snapshot[i] = counts.get(i);
+		}
+		return new HistogramSnapshot(snapshot, sum.sum(), max.get());
+	}
+
+	/**
+	 * Computes the index of the bucket of the given value
+	 *
+	 * @param value
+	 *            the non-negative value
+	 * @return the index of the bucket of the given value
+	 */
+	static int indexOf(final long value)
+	{
+		if (value < SUB_BUCKETS)
+		{
+			return (int)value;
+		}
+		int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+		int shift = exponent - SUB_BUCKET_BITS;
+		int subBucket = (int)(value >>> shift) & (SUB_BUCKETS - 1);
+		return (shift + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	/**
+	 * Computes the highest value that is recorded into the bucket with the given index
+	 *
+	 * @param index
+	 *            the index of the bucket
+	 * @return the highest value of the bucket
+	 */
+	static long highestValueOf(final int index)
+	{
+		if (index < SUB_BUCKETS)
+		{
+			return index;
+		}
+		int shift = index / SUB_BUCKETS - 1;
+		long lowest = (long)(SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+}
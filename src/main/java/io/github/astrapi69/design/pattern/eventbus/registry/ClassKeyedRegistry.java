@@ -0,0 +1,171 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.registry;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import lombok.NonNull;
+
+/**
+ * The class {@link ClassKeyedRegistry} is a registry that associates values with {@link Class}
+ * objects by identity. It is backed by a {@link ClassValue}, so a lookup resolves the slot of a
+ * class directly from the class object without computing a string key or hashing into a shared
+ * map. Two classes with the same simple name in different packages or class loaders are therefore
+ * always kept apart.
+ *
+ * <p>
+ * Every class that was ever looked up owns an empty slot afterwards, so the memory of this registry
+ * grows with the number of distinct classes and not with the number of values
+ *
+ * @param <V>
+ *            the type of the values stored in this registry
+ */
+public final class ClassKeyedRegistry<V>
+{
+
+	/** The slots of this registry, one per class */
+	private final ClassValue<AtomicReference<V>> slots = new ClassValue<>()
+	{
+		@Override
+		protected AtomicReference<V> computeValue(final Class<?> type)
+		{
+			return new AtomicReference<>();
+		}
+	};
+
+	/**
+	 * Retrieves the value associated with the given class type
+	 *
+	 * @param type
+	 *            the class type
+	 * @return the value associated with the given class type or {@code null} if none exists
+	 */
+	public V get(@NonNull final Class<?> type)
+	{
+		return slots.get(type).get();
+	}
+
+	/**
+	 * Checks if this registry contains a value associated with the given class type
+	 *
+	 * @param type
+	 *            the class type to check
+	 * @return {@code true} if a value is present, {@code false} otherwise
+	 */
+	public boolean containsKey(@NonNull final Class<?> type)
+	{
+		return get(type) != null;
+	}
+
+	/**
+	 * Retrieves the value associated with the given class type. If it does not exist, a new value
+	 * is created with the given factory and associated atomically with the class type. If two
+	 * threads race for the same class type, both receive the same value
+	 *
+	 * @param type
+	 *            the class type
+	 * @param factory
+	 *            the factory that creates a new value for the class type
+	 * @return the value associated with the given class type
+	 */
+	public V computeIfAbsent(@NonNull final Class<?> type,
+		@NonNull final Function<Class<?>, ? extends V> factory)
+	{
+		AtomicReference<V> slot = slots.get(type);
+		V value = slot.get();
+		if (value == null)
+		{
+			V created = factory.apply(type);
+			value = slot.compareAndExchange(null, created);
+			if (value == null)
+			{
+				value = created;
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Associates the given value with the given class type
+	 *
+	 * @param type
+	 *            the class type
+	 * @param value
+	 *            the value to associate with the class type
+	 * @return the previous value associated with the class type or {@code null} if none existed
+	 */
+	public V put(@NonNull final Class<?> type, @NonNull final V value)
+	{
+		return slots.get(type).getAndSet(value);
+	}
+
+	/**
+	 * Replaces the value associated with the given class type atomically only if it is currently
+	 * associated with the given expected value. The values are compared by identity
+	 *
+	 * @param type
+	 *            the class type
+	 * @param expected
+	 *            the value expected to be associated with the class type or {@code null} if none
+	 *            is expected
+	 * @param value
+	 *            the new value to associate with the class type or {@code null} to remove the
+	 *            association
+	 * @return {@code true} if the value was replaced, {@code false} if the class type is associated
+	 *         with another value
+	 */
+	public boolean compareAndSet(@NonNull final Class<?> type, final V expected, final V value)
+	{
+		return slots.get(type).compareAndSet(expected, value);
+	}
+
+	/**
+	 * Removes the value associated with the given class type
+	 *
+	 * @param type
+	 *            the class type
+	 * @return the removed value or {@code null} if none existed
+	 */
+	public V remove(@NonNull final Class<?> type)
+	{
+		return slots.get(type).getAndSet(null);
+	}
+
+	/**
+	 * Removes the value associated with the given class type only if it is currently associated
+	 * with the given value
+	 *
+	 * @param type
+	 *            the class type
+	 * @param value
+	 *            the value expected to be associated with the class type
+	 * @return {@code true} if the value was removed, {@code false} otherwise
+	 */
+	public boolean remove(@NonNull final Class<?> type, final V value)
+	{
+		return slots.get(type).compareAndSet(value, null);
+	}
+}
@@ -0,0 +1,837 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.registry;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The class {@link ListenerRegistry} holds the {@link Subscriber} objects of an event bus keyed by
+ * the identity of the event type they are registered for. Listeners registered for a superclass or
+ * an interface also receive the events of all subtypes.
+ *
+ * <p>
+ * The listeners of every event type are kept in an immutable array that is ordered by descending
+ * priority and, within a priority, by registration order. The array is replaced atomically with a
+ * compare-and-set on each registration change, so concurrent registrations never block each other
+ * and are never lost, and a post iterates a plain array without any locking. For every concrete
+ * event type the listeners of its whole type hierarchy are merged into one array in the same
+ * order that is computed on the first resolution of the event type and cached. A registration
+ * change for an event type rebuilds the cached arrays of the concrete event types that are
+ * assignable to it right away and leaves all other cached arrays untouched. These concrete event
+ * types are looked up in an index of the cached types keyed by every type of their hierarchy, so
+ * a registration change costs time proportional to the number of affected types and not to the
+ * number of all types ever posted. Event types without any listener are never cached, and a
+ * cached array that loses its last listener is dropped from the cache and the index. A post of
+ * an event type with listeners costs one lookup and never walks the type hierarchy or sorts any
+ * listeners, not even the first post after a registration change
+ *
+ * <p>
+ * Weakly registered listeners are held by a {@link WeakListenerReference} that is enqueued to the
+ * reference queue of this registry after the listener was garbage collected. Before the listeners
+ * are resolved the queue is drained and the subscribers of all collected listeners are removed in
+ * bulk with one registration change per event type, so a post never checks the weakly registered
+ * listeners one by one
+ *
+ * <p>
+ * A reverse index keeps the event types every listener is registered for, so all registrations
+ * of a listener are removed in time proportional to the number of its own registrations and not
+ * to the number of all event types. The index is a concurrent map keyed by the identity of the
+ * listeners, so it takes no global lock and ignores the {@code equals} method of the listeners.
+ * It holds its listeners weakly, never keeps a weakly registered listener alive and drops the
+ * entries of collected listeners when they are purged. The keys of the index are enqueued to the
+ * same reference queue as the weakly registered listeners, so a purge removes exactly the entries
+ * of the collected listeners and never scans the whole index
+ *
+ * <p>
+ * Every subscriber that leaves the registry, no matter whether it was removed explicitly, cleared
+ * with its event type or purged after its listener was collected, is handed to the removal
+ * listener of the registry, so the owner can release the state it keeps per subscriber
+ */
+public final class ListenerRegistry
+{
+
+	/** The empty subscriber array */
+	private static final Subscriber<?>[] NO_LISTENERS = new Subscriber<?>[0];
+
+	/** The stable order of subscribers by descending priority */
+	private static final Comparator<Subscriber<?>> BY_PRIORITY = Comparator
+		.comparingInt((Subscriber<?> subscriber) -> subscriber.getPriority()).reversed();
+
+	/** The subscribers keyed by the identity of the event type they are registered for */
+	private final ClassKeyedRegistry<Subscriber<?>[]> listeners = new ClassKeyedRegistry<>();
+
+	/** The cached flattened listeners keyed by the identity of the concrete event type */
+	private final ClassKeyedRegistry<ResolvedListeners> resolvedListeners =
+		new ClassKeyedRegistry<>();
+
+	/** The event types that listeners are currently registered for */
+	private final Set<Class<?>> types = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * The concrete event types with cached flattened listeners keyed by every type of their type
+	 * hierarchy
+	 */
+	private final Map<Class<?>, Set<Class<?>>> dependentTypes = new ConcurrentHashMap<>();
+
+	/**
+	 * The reverse index of the event types keyed by the identity of the listeners that are
+	 * registered for them, an event type is contained once per registration
+	 */
+	private final Map<ListenerKey, Class<?>[]> listenerTypes = new ConcurrentHashMap<>();
+
+	/**
+	 * The queue that receives the references of the weakly registered listeners that were garbage
+	 * collected
+	 */
+	@Getter
+	private final ReferenceQueue<Object> referenceQueue = new ReferenceQueue<>();
+
+	/** The flag that indicates whether a listener was ever registered weakly */
+	private volatile boolean weakListenersAdded;
+
+	/** The listener that is notified about every subscriber that was removed */
+	private final Consumer<? super Subscriber<?>> removalListener;
+
+	/**
+	 * Instantiates a new {@code ListenerRegistry} without a removal listener
+	 */
+	public ListenerRegistry()
+	{
+		this(subscriber -> {
+		});
+	}
+
+	/**
+	 * Instantiates a new {@code ListenerRegistry} with the given removal listener
+	 *
+	 * @param removalListener
+	 *            the listener that is notified about every subscriber after it was removed
+	 */
+	public ListenerRegistry(@NonNull final Consumer<? super Subscriber<?>> removalListener)
+	{
+		this.removalListener = removalListener;
+	}
+
+	/**
+	 * Adds the given subscriber for its event type behind all subscribers with the same or a
+	 * higher priority
+	 *
+	 * @param subscriber
+	 *            the subscriber to add
+	 */
+	public void add(@NonNull final Subscriber<?> subscriber)
+	{
+		Class<?> type = subscriber.getEventType();
+		index(subscriber.resolveListener(), type);
+		Subscriber<?>[] current;
+		Subscriber<?>[] updated;
+		do
+		{
+			current = listeners.get(type);
+			if (current == null)
+			{
+				updated = new Subscriber<?>[] { subscriber };
+			}
+			else
+			{
+				updated = with(current, subscriber);
+			}
+		}
+		while (!listeners.compareAndSet(type, current, updated));
+		types.add(type);
+		if (subscriber.isWeak() && !weakListenersAdded)
+		{
+			weakListenersAdded = true;
+		}
+		rebuild(type);
+	}
+
+	/**
+	 * Removes the subscriber of the given listener for the given event type. The listener is
+	 * compared by identity like in the reverse index
+	 *
+	 * @param type
+	 *            the event type
+	 * @param listener
+	 *            the listener as it was registered
+	 * @return {@code true} if the listener was removed, {@code false} otherwise
+	 */
+	public boolean remove(@NonNull final Class<?> type, @NonNull final Object listener)
+	{
+		Subscriber<?>[] current;
+		Subscriber<?>[] updated;
+		Subscriber<?> removed;
+		do
+		{
+			current = listeners.get(type);
+			int index = current != null ? indexOf(current, listener) : -1;
+			if (index < 0)
+			{
+				return false;
+			}
+			removed = current[index];
+			updated = current.length == 1 ? null : without(current, index);
+		}
+		while (!listeners.compareAndSet(type, current, updated));
+		if (updated == null)
+		{
+			dropType(type);
+		}
+		unindex(removed.resolveListener(), type);
+		rebuild(type);
+		removalListener.accept(removed);
+		return true;
+	}
+
+	/**
+	 * Removes all subscribers of the given listener for all event types it is registered for. The
+	 * event types are looked up in the reverse index, so only the event types of the given
+	 * listener are visited. The listener is compared by identity
+	 *
+	 * @param listener
+	 *            the listener as it was registered
+	 * @return the number of removed subscribers
+	 */
+	public int removeAll(@NonNull final Object listener)
+	{
+		Class<?>[] registeredTypes = listenerTypes.remove(new ListenerKey(listener));
+		if (registeredTypes == null)
+		{
+			return 0;
+		}
+		int removed = 0;
+		for (Class<?> type : new LinkedHashSet<>(Arrays.asList(registeredTypes)))
+		{
+			removed += removeIf(type, subscriber -> subscriber.isListener(listener));
+		}
+		return removed;
+	}
+
+	/**
+	 * Retrieves the event types the given listener is registered for. The listener is compared by
+	 * identity
+	 *
+	 * @param listener
+	 *            the listener as it was registered
+	 * @return a new set with the event types of the given listener
+	 */
+	public Set<Class<?>> getTypes(@NonNull final Object listener)
+	{
+		Class<?>[] registeredTypes = listenerTypes.get(new ListenerKey(listener));
+		return registeredTypes != null
+			? new LinkedHashSet<>(Arrays.asList(registeredTypes))
+			: new LinkedHashSet<>();
+	}
+
+	/**
+	 * Adds the given event type to the reverse index of the given listener
+	 *
+	 * @param listener
+	 *            the listener or {@code null} if a weakly registered listener was already
+	 *            collected
+	 * @param type
+	 *            the event type the listener is registered for
+	 */
+	private void index(final Object listener, final Class<?> type)
+	{
+		if (listener == null)
+		{
+			return;
+		}
+		listenerTypes.compute(new ListenerKey(listener, referenceQueue), (key, registeredTypes) -> {
+			if (registeredTypes == null)
+			{
+				return new Class<?>[] { type };
+			}
+			Class<?>[] updated = Arrays.copyOf(registeredTypes, registeredTypes.length + 1);
+			updated[registeredTypes.length] = type;
+			return updated;
+		});
+	}
+
+	/**
+	 * Removes one registration of the given event type from the reverse index of the given
+	 * listener
+	 *
+	 * @param listener
+	 *            the listener or {@code null} if a weakly registered listener was already
+	 *            collected
+	 * @param type
+	 *            the event type the listener was registered for
+	 */
+	private void unindex(final Object listener, final Class<?> type)
+	{
+		if (listener == null)
+		{
+			return;
+		}
+		listenerTypes.computeIfPresent(new ListenerKey(listener), (key, registeredTypes) -> {
+			int index = Arrays.asList(registeredTypes).indexOf(type);
+			if (index < 0)
+			{
+				return registeredTypes;
+			}
+			if (registeredTypes.length == 1)
+			{
+				return null;
+			}
+			Class<?>[] updated = new Class<?>[registeredTypes.length - 1];
+			System.arraycopy(registeredTypes, 0, updated, 0, index);
+			System.arraycopy(registeredTypes, index + 1, updated, index, updated.length - index);
+			return updated;
+		});
+	}
+
+	/**
+	 * Rebuilds the cached flattened listeners of all concrete event types that are assignable to
+	 * the given event type after a registration change for it. Only the concrete event types in
+	 * the index of the given event type are visited, the cached listeners of other event types are
+	 * kept. A concrete event type without any listener left is dropped from the cache
+	 *
+	 * @param type
+	 *            the event type whose listeners were changed
+	 */
+	private void rebuild(final Class<?> type)
+	{
+		Set<Class<?>> dependents = dependentTypes.get(type);
+		if (dependents == null)
+		{
+			return;
+		}
+		for (Class<?> resolvedType : dependents)
+		{
+			ResolvedListeners current;
+			boolean updated;
+			do
+			{
+				current = resolvedListeners.get(resolvedType);
+				if (current == null)
+				{
+					break;
+				}
+				Subscriber<?>[] flattened = flatten(resolvedType);
+				updated = flattened.length == 0
+					? resolvedListeners.remove(resolvedType, current)
+					: resolvedListeners.compareAndSet(resolvedType, current,
+						new ResolvedListeners(flattened));
+			}
+			while (!updated);
+			if (current == null || resolvedListeners.get(resolvedType) == null)
+			{
+				unindexResolved(resolvedType);
+			}
+		}
+	}
+
+	/**
+	 * Adds the given concrete event type to the index of every type of its type hierarchy
+	 *
+	 * @param resolvedType
+	 *            the concrete event type whose flattened listeners are cached
+	 */
+	private void indexResolved(final Class<?> resolvedType)
+	{
+		for (Class<?> current : TypeHierarchy.cached(resolvedType))
+		{
+			dependentTypes.compute(current, (key, dependents) -> {
+				Set<Class<?>> updated = dependents != null
+					? dependents
+					: ConcurrentHashMap.newKeySet();
+				updated.add(resolvedType);
+				return updated;
+			});
+		}
+	}
+
+	/**
+	 * Removes the given concrete event type from the index of every type of its type hierarchy if
+	 * its flattened listeners are not cached. The check runs atomically with the update of every
+	 * index entry, so a concurrent first resolution that caches the event type again keeps it
+	 *
+	 * @param resolvedType
+	 *            the concrete event type that was dropped from the cache
+	 */
+	private void unindexResolved(final Class<?> resolvedType)
+	{
+		for (Class<?> current : TypeHierarchy.cached(resolvedType))
+		{
+			dependentTypes.computeIfPresent(current, (key, dependents) -> {
+				if (resolvedListeners.get(resolvedType) == null)
+				{
+					dependents.remove(resolvedType);
+				}
+				return dependents.isEmpty() ? null : dependents;
+			});
+		}
+	}
+
+	/**
+	 * Drops the given event type from the event types with registered listeners after its last
+	 * listener was removed
+	 *
+	 * @param type
+	 *            the event type
+	 */
+	private void dropType(final Class<?> type)
+	{
+		types.remove(type);
+		if (listeners.get(type) != null)
+		{
+			types.add(type);
+		}
+	}
+
+	/**
+	 * Removes the subscribers of all weakly registered listeners that were garbage collected. The
+	 * collected subscribers are grouped by their event type and removed with one registration
+	 * change per event type. The entries of the collected listeners are dropped from the reverse
+	 * index with the keys that were enqueued for them, so the reverse index is not scanned
+	 *
+	 * @return the number of removed subscribers
+	 */
+	public int purgeCollectedListeners()
+	{
+		Reference<?> reference = referenceQueue.poll();
+		if (reference == null)
+		{
+			return 0;
+		}
+		Map<Class<?>, Set<Subscriber<?>>> collected = new LinkedHashMap<>();
+		do
+		{
+			if (reference instanceof ListenerKey)
+			{
+				listenerTypes.remove(reference);
+				reference = referenceQueue.poll();
+				continue;
+			}
+			Subscriber<?> subscriber = ((WeakListenerReference<?>)reference).getSubscriber();
+			if (subscriber != null)
+			{
+				collected
+					.computeIfAbsent(subscriber.getEventType(),
+						type -> Collections.newSetFromMap(new IdentityHashMap<>()))
+					.add(subscriber);
+			}
+			reference = referenceQueue.poll();
+		}
+		while (reference != null);
+		int removed = 0;
+		for (Map.Entry<Class<?>, Set<Subscriber<?>>> entry : collected.entrySet())
+		{
+			removed += removeIf(entry.getKey(), entry.getValue()::contains);
+		}
+		return removed;
+	}
+
+	/**
+	 * Removes the subscribers of the given event type that match the given filter with one
+	 * registration change
+	 *
+	 * @param type
+	 *            the event type
+	 * @param filter
+	 *            the filter that matches the subscribers to remove
+	 * @return the number of removed subscribers
+	 */
+	private int removeIf(final Class<?> type, final Predicate<Subscriber<?>> filter)
+	{
+		Subscriber<?>[] current;
+		Subscriber<?>[] updated;
+		List<Subscriber<?>> removed;
+		do
+		{
+			current = listeners.get(type);
+			if (current == null)
+			{
+				return 0;
+			}
+			List<Subscriber<?>> remaining = new ArrayList<>(current.length);
+			removed = new ArrayList<>();
+			for (Subscriber<?> subscriber : current)
+			{
+				if (filter.test(subscriber))
+				{
+					removed.add(subscriber);
+				}
+				else
+				{
+					remaining.add(subscriber);
+				}
+			}
+			if (removed.isEmpty())
+			{
+				return 0;
+			}
+			updated = remaining.isEmpty() ? null : remaining.toArray(NO_LISTENERS);
+		}
+		while (!listeners.compareAndSet(type, current, updated));
+		if (updated == null)
+		{
+			dropType(type);
+		}
+		rebuild(type);
+		for (Subscriber<?> subscriber : removed)
+		{
+			removalListener.accept(subscriber);
+		}
+		return removed.size();
+	}
+
+	/**
+	 * Creates a copy of the given subscribers that contains the given subscriber behind all
+	 * subscribers with the same or a higher priority
+	 *
+	 * @param subscribers
+	 *            the subscribers ordered by descending priority
+	 * @param subscriber
+	 *            the subscriber to insert
+	 * @return the new array
+	 */
+	private static Subscriber<?>[] with(final Subscriber<?>[] subscribers,
+		final Subscriber<?> subscriber)
+	{
+		int index = subscribers.length;
+		while (index > 0 && subscribers[index - 1].getPriority() < subscriber.getPriority())
+		{
+			index--;
+		}
+		Subscriber<?>[] updated = new Subscriber<?>[subscribers.length + 1];
+		System.arraycopy(subscribers, 0, updated, 0, index);
+		updated[index] = subscriber;
+		System.arraycopy(subscribers, index, updated, index + 1, subscribers.length - index);
+		return updated;
+	}
+
+	/**
+	 * Creates a copy of the given subscribers without the subscriber at the given index
+	 *
+	 * @param subscribers
+	 *            the subscribers to copy
+	 * @param index
+	 *            the index of the subscriber to leave out
+	 * @return the new array
+	 */
+	private static Subscriber<?>[] without(final Subscriber<?>[] subscribers, final int index)
+	{
+		Subscriber<?>[] updated = new Subscriber<?>[subscribers.length - 1];
+		System.arraycopy(subscribers, 0, updated, 0, index);
+		System.arraycopy(subscribers, index + 1, updated, index, updated.length - index);
+		return updated;
+	}
+
+	/**
+	 * Finds the index of the subscriber of the given listener in the given subscribers
+	 *
+	 * @param subscribers
+	 *            the subscribers to search
+	 * @param listener
+	 *            the listener as it was registered
+	 * @return the index of the subscriber or -1 if the listener is not found
+	 */
+	private static int indexOf(final Subscriber<?>[] subscribers, final Object listener)
+	{
+		for (int i = 0; i < subscribers.length; i++)
+		{
+			if (subscribers[i].isListener(listener))
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Removes all listeners for the given event type
+	 *
+	 * @param type
+	 *            the event type
+	 */
+	public void clear(@NonNull final Class<?> type)
+	{
+		Subscriber<?>[] removed = listeners.remove(type);
+		if (removed != null)
+		{
+			dropType(type);
+			for (Subscriber<?> subscriber : removed)
+			{
+				unindex(subscriber.resolveListener(), type);
+			}
+			rebuild(type);
+			for (Subscriber<?> subscriber : removed)
+			{
+				removalListener.accept(subscriber);
+			}
+		}
+	}
+
+	/**
+	 * Retrieves the subscribers that are registered exactly for the given event type
+	 *
+	 * @param type
+	 *            the event type
+	 * @return the subscribers registered for the given event type, the returned array must not be
+	 *         modified
+	 */
+	public Subscriber<?>[] getListeners(@NonNull final Class<?> type)
+	{
+		Subscriber<?>[] current = listeners.get(type);
+		return current != null ? current : NO_LISTENERS;
+	}
+
+	/**
+	 * Retrieves all subscribers of this registry
+	 *
+	 * @return a new list with all subscribers of this registry
+	 */
+	public List<Subscriber<?>> getSubscribers()
+	{
+		List<Subscriber<?>> subscribers = new ArrayList<>();
+		for (Class<?> type : types)
+		{
+			subscribers.addAll(Arrays.asList(getListeners(type)));
+		}
+		return subscribers;
+	}
+
+	/**
+	 * Resolves all subscribers that receive an event of the given concrete event type. These are
+	 * the subscribers registered for the event type itself and for its superclasses and
+	 * interfaces ordered by descending priority. Subscribers with the same priority are ordered
+	 * by the type hierarchy, the event type itself first. The subscribers are flattened on the
+	 * first resolution of the event type only, afterwards every registration change keeps them up
+	 * to date. An event type without any listener is not cached. If listeners were registered
+	 * weakly, the subscribers of the collected listeners are purged before
+	 *
+	 * @param type
+	 *            the concrete event type
+	 * @return the subscribers that receive an event of the given type, the returned array must not
+	 *         be modified
+	 */
+	public Subscriber<?>[] resolve(@NonNull final Class<?> type)
+	{
+		if (weakListenersAdded)
+		{
+			purgeCollectedListeners();
+		}
+		ResolvedListeners resolved = resolvedListeners.get(type);
+		if (resolved != null && resolved.listeners != null)
+		{
+			return resolved.listeners;
+		}
+		if (!isListenedTo(type))
+		{
+			return NO_LISTENERS;
+		}
+		ResolvedListeners pending = new ResolvedListeners(null);
+		if (!resolvedListeners.compareAndSet(type, resolved, pending))
+		{
+			return flatten(type);
+		}
+		indexResolved(type);
+		Subscriber<?>[] flattened = flatten(type);
+		if (flattened.length == 0)
+		{
+			resolvedListeners.remove(type, pending);
+			unindexResolved(type);
+		}
+		else
+		{
+			resolvedListeners.compareAndSet(type, pending, new ResolvedListeners(flattened));
+		}
+		return flattened;
+	}
+
+	/**
+	 * Checks if at least one subscriber would receive an event of the given concrete event type.
+	 * If the listeners of the event type are cached, the check reads the length of the cached
+	 * array, otherwise it looks up the registered listeners of the type hierarchy. In both cases
+	 * nothing is flattened, sorted or allocated
+	 *
+	 * @param type
+	 *            the concrete event type
+	 * @return {@code true} if at least one subscriber would receive an event of the given type,
+	 *         {@code false} otherwise
+	 */
+	public boolean hasListeners(@NonNull final Class<?> type)
+	{
+		if (weakListenersAdded)
+		{
+			purgeCollectedListeners();
+		}
+		ResolvedListeners resolved = resolvedListeners.get(type);
+		if (resolved != null && resolved.listeners != null)
+		{
+			return resolved.listeners.length != 0;
+		}
+		return isListenedTo(type);
+	}
+
+	/**
+	 * Checks if a listener is registered for any type of the type hierarchy of the given concrete
+	 * event type without flattening or allocating anything
+	 *
+	 * @param type
+	 *            the concrete event type
+	 * @return {@code true} if a listener is registered for the type hierarchy of the given type,
+	 *         {@code false} otherwise
+	 */
+	private boolean isListenedTo(final Class<?> type)
+	{
+		for (Class<?> current : TypeHierarchy.cached(type))
+		{
+			if (listeners.get(current) != null)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Flattens the listeners of the whole type hierarchy of the given event type into one array
+	 * ordered by descending priority
+	 *
+	 * @param type
+	 *            the concrete event type
+	 * @return the flattened listeners
+	 */
+	private Subscriber<?>[] flatten(final Class<?> type)
+	{
+		List<Subscriber<?>> flattened = new ArrayList<>();
+		for (Class<?> current : TypeHierarchy.of(type))
+		{
+			flattened.addAll(Arrays.asList(getListeners(current)));
+		}
+		flattened.sort(BY_PRIORITY);
+		return flattened.isEmpty() ? NO_LISTENERS : flattened.toArray(NO_LISTENERS);
+	}
+
+	/**
+	 * The cached flattened listeners of a concrete event type. The first resolution installs its
+	 * own pending instance before it reads the listeners, so a registration change that rebuilds
+	 * the listeners in the meantime prevents the outdated result from being cached
+	 */
+	private static final class ResolvedListeners
+	{
+		/** The flattened listeners or {@code null} while they are computed */
+		final Subscriber<?>[] listeners;
+
+		/**
+		 * Instantiates a new {@code ResolvedListeners} object
+		 *
+		 * @param listeners
+		 *            the flattened listeners or {@code null} while they are computed
+		 */
+		ResolvedListeners(final Subscriber<?>[] listeners)
+		{
+			this.listeners = listeners;
+		}
+	}
+
+	/**
+	 * The key of a listener in the reverse index. It references the listener weakly and compares
+	 * it by identity, a key whose listener was collected is only equal to itself. The keys stored
+	 * in the index are enqueued to the reference queue of the registry after their listener was
+	 * collected, the keys that only look up an entry are not
+	 */
+	private static final class ListenerKey extends WeakReference<Object>
+	{
+		/** The identity hash code of the listener */
+		final int hash;
+
+		/**
+		 * Instantiates a new {@code ListenerKey}
+		 *
+		 * @param listener
+		 *            the listener
+		 */
+		ListenerKey(final Object listener)
+		{
+			super(listener);
+			this.hash = System.identityHashCode(listener);
+		}
+
+		/**
+		 * Instantiates a new {@code ListenerKey} that is enqueued to the given queue after its
+		 * listener was collected
+		 *
+		 * @param listener
+		 *            the listener
+		 * @param queue
+		 *            the queue that receives this key after the listener was collected
+		 */
+		ListenerKey(final Object listener, final ReferenceQueue<Object> queue)
+		{
+			super(listener, queue);
+			this.hash = System.identityHashCode(listener);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(final Object object)
+		{
+			if (this == object)
+			{
+				return true;
+			}
+			if (!(object instanceof ListenerKey))
+			{
+				return false;
+			}
+			Object listener = get();
+			return listener != null && listener == ((ListenerKey)object).get();
+		}
+	}
+}
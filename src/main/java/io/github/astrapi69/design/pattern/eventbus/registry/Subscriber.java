@@ -0,0 +1,456 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.registry;
+
+import java.lang.ref.ReferenceQueue;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import io.github.astrapi69.design.pattern.eventbus.listener.BatchListener;
+import io.github.astrapi69.design.pattern.eventbus.listener.EventObjectListenerAdapter;
+import io.github.astrapi69.design.pattern.eventbus.listener.PayloadListener;
+import io.github.astrapi69.design.pattern.eventbus.metrics.LatencyHistogram;
+import io.github.astrapi69.design.pattern.eventbus.watchdog.ListenerWatch;
+import io.github.astrapi69.design.pattern.observer.event.EventListener;
+import io.github.astrapi69.design.pattern.observer.event.EventObject;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The class {@link Subscriber} is the registration of a listener for an event type. It holds the
+ * listener as it was registered and the {@link PayloadListener} that the event sources are
+ * delivered to. Listeners with a higher priority receive an event before listeners with a lower
+ * priority. A weakly registered listener is held by a {@link WeakListenerReference} only, so it
+ * does not prevent the listener from being garbage collected
+ *
+ * @param <T>
+ *            the type of the event sources
+ */
+public final class Subscriber<T>
+{
+
+	/** The priority of listeners that are registered without a priority */
+	public static final int DEFAULT_PRIORITY = 0;
+
+	/** The event type the listener is registered for */
+	@Getter
+	private final Class<T> eventType;
+
+	/**
+	 * The listener as it was registered or the {@link WeakListenerReference} of a weakly
+	 * registered listener
+	 */
+	@Getter
+	private final Object listener;
+
+	/** The payload listener that receives the event sources */
+	private final PayloadListener<? super T> payloadListener;
+
+	/** The priority of the listener, higher priorities receive an event first */
+	@Getter
+	private final int priority;
+
+	/** The histogram that records the execution time of the listener or {@code null} */
+	@Getter
+	private volatile LatencyHistogram latencyHistogram;
+
+	/** The watch of a slow listener watchdog that watches the listener or {@code null} */
+	@Getter
+	private volatile ListenerWatch watch;
+
+	/** The subscriber that delivers batches to the {@link BatchListener} or {@code null} */
+	private volatile Subscriber<List<Object>> batchSubscriber;
+
+	/**
+	 * Instantiates a new {@code Subscriber}
+	 *
+	 * @param eventType
+	 *            the event type the listener is registered for
+	 * @param listener
+	 *            the listener as it was registered
+	 * @param payloadListener
+	 *            the payload listener that receives the event sources
+	 * @param priority
+	 *            the priority of the listener
+	 */
+	private Subscriber(final Class<T> eventType, final Object listener,
+		final PayloadListener<? super T> payloadListener, final int priority)
+	{
+		this.eventType = eventType;
+		this.listener = listener;
+		this.payloadListener = payloadListener;
+		this.priority = priority;
+	}
+
+	/**
+	 * Factory method for create a new {@link Subscriber} for the given {@link EventListener} that
+	 * receives every event source wrapped into an {@link EventObject}
+	 *
+	 * @param <T>
+	 *            the type of the event sources
+	 * @param eventType
+	 *            the event type the listener is registered for
+	 * @param listener
+	 *            the listener
+	 * @return the new {@link Subscriber}
+	 */
+	public static <T> Subscriber<T> forEventListener(@NonNull final Class<T> eventType,
+		@NonNull final EventListener<EventObject<T>> listener)
+	{
+		return forEventListener(eventType, listener, DEFAULT_PRIORITY);
+	}
+
+	/**
+	 * Factory method for create a new {@link Subscriber} for the given {@link EventListener} with
+	 * the given priority that receives every event source wrapped into an {@link EventObject}
+	 *
+	 * @param <T>
+	 *            the type of the event sources
+	 * @param eventType
+	 *            the event type the listener is registered for
+	 * @param listener
+	 *            the listener
+	 * @param priority
+	 *            the priority of the listener, higher priorities receive an event first
+	 * @return the new {@link Subscriber}
+	 */
+	public static <T> Subscriber<T> forEventListener(@NonNull final Class<T> eventType,
+		@NonNull final EventListener<EventObject<T>> listener, final int priority)
+	{
+		return new Subscriber<>(eventType, listener, new EventObjectListenerAdapter<>(listener),
+			priority);
+	}
+
+	/**
+	 * Factory method for create a new {@link Subscriber} for the given {@link PayloadListener} that
+	 * receives the event sources directly
+	 *
+	 * @param <T>
+	 *            the type of the event sources
+	 * @param eventType
+	 *            the event type the listener is registered for
+	 * @param listener
+	 *            the listener
+	 * @return the new {@link Subscriber}
+	 */
+	public static <T> Subscriber<T> forPayloadListener(@NonNull final Class<T> eventType,
+		@NonNull final PayloadListener<? super T> listener)
+	{
+		return forPayloadListener(eventType, listener, DEFAULT_PRIORITY);
+	}
+
+	/**
+	 * Factory method for create a new {@link Subscriber} for the given {@link PayloadListener} with
+	 * the given priority that receives the event sources directly
+	 *
+	 * @param <T>
+	 *            the type of the event sources
+	 * @param eventType
+	 *            the event type the listener is registered for
+	 * @param listener
+	 *            the listener
+	 * @param priority
+	 *            the priority of the listener, higher priorities receive an event first
+	 * @return the new {@link Subscriber}
+	 */
+	public static <T> Subscriber<T> forPayloadListener(@NonNull final Class<T> eventType,
+		@NonNull final PayloadListener<? super T> listener, final int priority)
+	{
+		return new Subscriber<>(eventType, listener, listener, priority);
+	}
+
+	/**
+	 * Factory method for create a new {@link Subscriber} that holds the given {@link EventListener}
+	 * weakly. The listener receives every event source wrapped into an {@link EventObject} as long
+	 * as it is reachable, after it was garbage collected its {@link WeakListenerReference} is
+	 * enqueued to the given queue
+	 *
+	 * @param <T>
+	 *            the type of the event sources
+	 * @param eventType
+	 *            the event type the listener is registered for
+	 * @param listener
+	 *            the listener
+	 * @param priority
+	 *            the priority of the listener, higher priorities receive an event first
+	 * @param queue
+	 *            the queue the reference of the listener is enqueued to after the listener was
+	 *            garbage collected
+	 * @return the new {@link Subscriber}
+	 */
+	public static <T> Subscriber<T> forWeakEventListener(@NonNull final Class<T> eventType,
+		@NonNull final EventListener<EventObject<T>> listener, final int priority,
+		@NonNull final ReferenceQueue<Object> queue)
+	{
+		WeakListenerReference<EventListener<EventObject<T>>> reference =
+			new WeakListenerReference<>(listener, queue);
+		Subscriber<T> subscriber = new Subscriber<>(eventType, reference, payload -> {
+			EventListener<EventObject<T>> current = reference.get();
+			if (current != null)
+			{
+				current.onEvent(EventObject.of(payload));
+			}
+		}, priority);
+		reference.setSubscriber(subscriber);
+		return subscriber;
+	}
+
+	/**
+	 * Factory method for create a new {@link Subscriber} for a handler method of the given
+	 * subscriber object. The subscriber object is the listener as it was registered, the given
+	 * invoker calls the handler method
+	 *
+	 * @param <T>
+	 *            the type of the event sources
+	 * @param eventType
+	 *            the event type the handler method receives
+	 * @param target
+	 *            the subscriber object that declares the handler method
+	 * @param invoker
+	 *            the invoker that calls the handler method of the subscriber object
+	 * @param priority
+	 *            the priority of the handler method, higher priorities receive an event first
+	 * @return the new {@link Subscriber}
+	 */
+	public static <T> Subscriber<T> forHandler(@NonNull final Class<T> eventType,
+		@NonNull final Object target, @NonNull final PayloadListener<? super T> invoker,
+		final int priority)
+	{
+		return new Subscriber<>(eventType, target, invoker, priority);
+	}
+
+	/**
+	 * Checks if the listener of this subscriber handles a whole batch of events in one call
+	 *
+	 * @return {@code true} if the listener implements {@link BatchListener}, {@code false}
+	 *         otherwise
+	 */
+	public boolean isBatchListener()
+	{
+		return resolveListener() instanceof BatchListener;
+	}
+
+	/**
+	 * Sets the histogram that records the execution time of the listener, the batch subscriber
+	 * of this subscriber records into the same histogram
+	 *
+	 * @param latencyHistogram
+	 *            the histogram or {@code null} to stop recording
+	 */
+	public synchronized void setLatencyHistogram(final LatencyHistogram latencyHistogram)
+	{
+		this.latencyHistogram = latencyHistogram;
+		Subscriber<List<Object>> current = batchSubscriber;
+		if (current != null)
+		{
+			current.latencyHistogram = latencyHistogram;
+		}
+	}
+
+	/**
+	 * Sets the watch of a slow listener watchdog that watches the listener, the batch subscriber
+	 * of this subscriber is watched by the same watch
+	 *
+	 * @param watch
+	 *            the watch or {@code null} to stop watching
+	 */
+	public synchronized void setWatch(final ListenerWatch watch)
+	{
+		this.watch = watch;
+		Subscriber<List<Object>> current = batchSubscriber;
+		if (current != null)
+		{
+			current.watch = watch;
+		}
+	}
+
+	/**
+	 * Retrieves the {@link Subscriber} that delivers a batch of event sources to the
+	 * {@link BatchListener} of this subscriber. The batch subscriber is created once and reused,
+	 * it has the priority, the latency histogram and the watch of this subscriber and resolves a
+	 * weakly registered listener only on delivery
+	 *
+	 * @return the {@link Subscriber} that receives the batches
+	 */
+	@SuppressWarnings("unchecked")
+	public Subscriber<List<Object>> toBatchSubscriber()
+	{
+		Subscriber<List<Object>> current = batchSubscriber;
+		if (current != null)
+		{
+			return current;
+		}
+		synchronized (this)
+		{
+			if (batchSubscriber == null)
+			{
+				Subscriber<List<Object>> created = new Subscriber<>(
+					(Class<List<Object>>)(Class<?>)List.class, listener, sources -> {
+						Object resolved = resolveListener();
+						if (resolved instanceof BatchListener)
+						{
+							((BatchListener<Object>)resolved).onBatch(sources);
+						}
+					}, priority);
+				created.latencyHistogram = latencyHistogram;
+				created.watch = watch;
+				batchSubscriber = created;
+			}
+			return batchSubscriber;
+		}
+	}
+
+	/**
+	 * Delivers the given event source to the listener on the current thread. If a latency
+	 * histogram or a watch is set, the execution time of the listener is recorded into them. If
+	 * the watch has moved the listener into quarantine, the event source is delivered on the
+	 * isolated executor of the watch or dropped. A delivery on the isolated executor is not part
+	 * of the current delivery, this method returns before the listener has run and an exception
+	 * of the listener is passed to the uncaught exception handler of the isolated thread instead
+	 * of being thrown to the dispatcher
+	 *
+	 * @param payload
+	 *            the event source to deliver
+	 */
+	@SuppressWarnings("unchecked")
+	public void deliver(final Object payload)
+	{
+		LatencyHistogram histogram = latencyHistogram;
+		ListenerWatch currentWatch = watch;
+		if (histogram == null && currentWatch == null)
+		{
+			((PayloadListener<Object>)payloadListener).onPayload(payload);
+			return;
+		}
+		if (currentWatch != null && currentWatch.isQuarantined())
+		{
+			Executor isolatedExecutor = currentWatch.getIsolatedExecutor();
+			if (isolatedExecutor == null)
+			{
+				currentWatch.recordDropped();
+				return;
+			}
+			isolatedExecutor.execute(() -> deliverIsolated(payload, histogram, currentWatch));
+			return;
+		}
+		deliverTimed(payload, histogram, currentWatch);
+	}
+
+	/**
+	 * Delivers the given event source to the quarantined listener on the isolated thread and
+	 * passes an exception of the listener to the uncaught exception handler of that thread, so
+	 * the failure is reported even if the isolated executor discards it
+	 *
+	 * @param payload
+	 *            the event source to deliver
+	 * @param histogram
+	 *            the histogram that records the execution time or {@code null}
+	 * @param currentWatch
+	 *            the watch that records the execution time
+	 */
+	private void deliverIsolated(final Object payload, final LatencyHistogram histogram,
+		final ListenerWatch currentWatch)
+	{
+		try
+		{
+			deliverTimed(payload, histogram, currentWatch);
+		}
+		catch (RuntimeException exception)
+		{
+			Thread thread = Thread.currentThread();
+			thread.getUncaughtExceptionHandler().uncaughtException(thread, exception);
+		}
+	}
+
+	/**
+	 * Delivers the given event source to the listener on the current thread and records the
+	 * execution time of the listener
+	 *
+	 * @param payload
+	 *            the event source to deliver
+	 * @param histogram
+	 *            the histogram that records the execution time or {@code null}
+	 * @param currentWatch
+	 *            the watch that records the execution time or {@code null}
+	 */
+	@SuppressWarnings("unchecked")
+	private void deliverTimed(final Object payload, final LatencyHistogram histogram,
+		final ListenerWatch currentWatch)
+	{
+		long start = System.nanoTime();
+		try
+		{
+			((PayloadListener<Object>)payloadListener).onPayload(payload);
+		}
+		finally
+		{
+			long elapsed = System.nanoTime() - start;
+			if (histogram != null)
+			{
+				histogram.record(elapsed);
+			}
+			if (currentWatch != null)
+			{
+				currentWatch.record(elapsed);
+			}
+		}
+	}
+
+	/**
+	 * Checks if the listener of this subscriber is held weakly
+	 *
+	 * @return {@code true} if the listener was registered weakly, {@code false} otherwise
+	 */
+	public boolean isWeak()
+	{
+		return listener instanceof WeakListenerReference;
+	}
+
+	/**
+	 * Checks if the given listener is the listener of this subscriber. The listener is compared by
+	 * identity
+	 *
+	 * @param candidate
+	 *            the listener to check
+	 * @return {@code true} if the given listener is the listener of this subscriber,
+	 *         {@code false} otherwise
+	 */
+	public boolean isListener(final Object candidate)
+	{
+		Object current = resolveListener();
+		return current != null && current == candidate;
+	}
+
+	/**
+	 * Resolves the listener of this subscriber. For a weakly registered listener this is the
+	 * referent of its {@link WeakListenerReference}
+	 *
+	 * @return the listener or {@code null} if the weakly registered listener was garbage collected
+	 */
+	public Object resolveListener()
+	{
+		return isWeak() ? ((WeakListenerReference<?>)listener).get() : listener;
+	}
+}
@@ -0,0 +1,113 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.registry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import lombok.NonNull;
+
+/**
+ * The class {@link TypeHierarchy} provides the flattened type hierarchy of a class. The flattened
+ * hierarchy of a class is computed only once and cached for the lifetime of the class
+ */
+public final class TypeHierarchy
+{
+
+	/** The cached flattened type hierarchies */
+	private static final ClassValue<Class<?>[]> hierarchies = new ClassValue<>()
+	{
+		@Override
+		protected Class<?>[] computeValue(final Class<?> type)
+		{
+			return flatten(type);
+		}
+	};
+
+	/**
+	 * Private constructor to prevent instantiation
+	 */
+	private TypeHierarchy()
+	{
+	}
+
+	/**
+	 * Retrieves the flattened type hierarchy of the given class type. The returned array starts
+	 * with the given class type itself, followed by all its superclasses and then all interfaces
+	 * that are implemented by the class type or one of its superclasses
+	 *
+	 * @param type
+	 *            the class type
+	 * @return a copy of the flattened type hierarchy of the given class type
+	 */
+	public static Class<?>[] of(@NonNull final Class<?> type)
+	{
+		Class<?>[] hierarchy = hierarchies.get(type);
+		return Arrays.copyOf(hierarchy, hierarchy.length);
+	}
+
+	/**
+	 * Retrieves the cached flattened type hierarchy of the given class type without copying it
+	 *
+	 * @param type
+	 *            the class type
+	 * @return the cached flattened type hierarchy of the given class type, the returned array must
+	 *         not be modified
+	 */
+	static Class<?>[] cached(final Class<?> type)
+	{
+		return hierarchies.get(type);
+	}
+
+	/**
+	 * Computes the flattened type hierarchy of the given class type
+	 *
+	 * @param type
+	 *            the class type
+	 * @return the flattened type hierarchy of the given class type
+	 */
+	private static Class<?>[] flatten(final Class<?> type)
+	{
+		Set<Class<?>> types = new LinkedHashSet<>();
+		List<Class<?>> interfaces = new ArrayList<>();
+		for (Class<?> current = type; current != null; current = current.getSuperclass())
+		{
+			types.add(current);
+			interfaces.addAll(Arrays.asList(current.getInterfaces()));
+		}
+		for (int i = 0; i < interfaces.size(); i++)
+		{
+			Class<?> current = interfaces.get(i);
+			if (types.add(current))
+			{
+				interfaces.addAll(Arrays.asList(current.getInterfaces()));
+			}
+		}
+		return types.toArray(new Class<?>[0]);
+	}
+}
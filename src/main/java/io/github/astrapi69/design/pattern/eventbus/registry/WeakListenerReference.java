@@ -0,0 +1,70 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.registry;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+import lombok.Getter;
+
+/**
+ * The class {@link WeakListenerReference} is the weak reference of a listener that was registered
+ * weakly. It knows the {@link Subscriber} it belongs to, so the {@link ListenerRegistry} can remove
+ * the subscriber as soon as the reference was enqueued after the listener was garbage collected
+ *
+ * @param <L>
+ *            the type of the listener
+ */
+public final class WeakListenerReference<L> extends WeakReference<L>
+{
+
+	/** The subscriber that holds this reference */
+	@Getter
+	private volatile Subscriber<?> subscriber;
+
+	/**
+	 * Instantiates a new {@code WeakListenerReference}
+	 *
+	 * @param listener
+	 *            the listener to reference weakly
+	 * @param queue
+	 *            the queue this reference is enqueued to after the listener was garbage collected
+	 */
+	WeakListenerReference(final L listener, final ReferenceQueue<Object> queue)
+	{
+		super(listener, queue);
+	}
+
+	/**
+	 * Sets the subscriber that holds this reference
+	 *
+	 * @param subscriber
+	 *            the subscriber that holds this reference
+	 */
+	void setSubscriber(final Subscriber<?> subscriber)
+	{
+		this.subscriber = subscriber;
+	}
+}
@@ -0,0 +1,358 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.sticky;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The class {@link StickyEventCache} keeps the last sticky event of every concrete event type. The
+ * cache is bounded by the number of its entries and by the estimated memory of the cached events.
+ * If a bound is exceeded, the event types that were least recently posted or read are evicted
+ *
+ * <p>
+ * The memory of an event is estimated with a size estimator, by default with
+ * {@link #estimateShallowSize(Object)}. Events that are estimated larger than the whole memory
+ * bound are not cached at all
+ */
+public final class StickyEventCache
+{
+
+	/** The default maximum number of cached event types */
+	public static final int DEFAULT_MAX_ENTRIES = 256;
+
+	/** The default maximum estimated memory of the cached events in bytes */
+	public static final long DEFAULT_MAX_BYTES = 1024 * 1024;
+
+	/** The estimated size of an object header in bytes */
+	private static final long OBJECT_HEADER_BYTES = 16;
+
+	/** The estimated size of a reference or a primitive field in bytes */
+	private static final long FIELD_BYTES = 8;
+
+	/** The cached estimated shallow sizes of the instances of a class */
+	private static final ClassValue<Long> SHALLOW_SIZES = new ClassValue<Long>()
+	{
+		@Override
+		protected Long computeValue(final Class<?> type)
+		{
+			long size = OBJECT_HEADER_BYTES;
+			for (Class<?> current = type; current != null; current = current.getSuperclass())
+			{
+				for (Field field : current.getDeclaredFields())
+				{
+					if (!Modifier.isStatic(field.getModifiers()))
+					{
+						size += FIELD_BYTES;
+					}
+				}
+			}
+			return size;
+		}
+	};
+
+	/** The maximum number of cached event types */
+	@Getter
+	private final int maxEntries;
+
+	/** The maximum estimated memory of the cached events in bytes */
+	@Getter
+	private final long maxBytes;
+
+	/** The function that estimates the memory of an event in bytes */
+	private final ToLongFunction<Object> sizeEstimator;
+
+	/** The cached events keyed by their concrete event type in the order of their last access */
+	private final LinkedHashMap<Class<?>, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	/** The estimated memory of the cached events in bytes */
+	private long bytes;
+
+	/** The number of events that were evicted or not cached because of the bounds */
+	private long evictions;
+
+	/** The flag that indicates whether the cache is empty, read without locking */
+	private volatile boolean empty = true;
+
+	/**
+	 * Instantiates a new {@code StickyEventCache} with the default bounds
+	 */
+	public StickyEventCache()
+	{
+		this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES);
+	}
+
+	/**
+	 * Instantiates a new {@code StickyEventCache} that estimates the memory of the events with
+	 * {@link #estimateShallowSize(Object)}
+	 *
+	 * @param maxEntries
+	 *            the maximum number of cached event types
+	 * @param maxBytes
+	 *            the maximum estimated memory of the cached events in bytes
+	 */
+	public StickyEventCache(final int maxEntries, final long maxBytes)
+	{
+		this(maxEntries, maxBytes, StickyEventCache::estimateShallowSize);
+	}
+
+	/**
+	 * Instantiates a new {@code StickyEventCache}
+	 *
+	 * @param maxEntries
+	 *            the maximum number of cached event types
+	 * @param maxBytes
+	 *            the maximum estimated memory of the cached events in bytes
+	 * @param sizeEstimator
+	 *            the function that estimates the memory of an event in bytes
+	 */
+	public StickyEventCache(final int maxEntries, final long maxBytes,
+		@NonNull final ToLongFunction<Object> sizeEstimator)
+	{
+		if (maxEntries < 1)
+		{
+			throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+		}
+		if (maxBytes < 1)
+		{
+			throw new IllegalArgumentException("maxBytes must be positive: " + maxBytes);
+		}
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+		this.sizeEstimator = sizeEstimator;
+	}
+
+	/**
+	 * Estimates the shallow memory of the given event in bytes. Strings and arrays are estimated
+	 * with their content, all other objects with an object header and one slot per instance field
+	 *
+	 * @param event
+	 *            the event
+	 * @return the estimated memory of the given event in bytes
+	 */
+	public static long estimateShallowSize(@NonNull final Object event)
+	{
+		if (event instanceof CharSequence)
+		{
+			return OBJECT_HEADER_BYTES + FIELD_BYTES + 2L * ((CharSequence)event).length();
+		}
+		Class<?> type = event.getClass();
+		if (type.isArray())
+		{
+			long componentBytes = type.getComponentType().isPrimitive() ? 4 : FIELD_BYTES;
+			return OBJECT_HEADER_BYTES + componentBytes * Array.getLength(event);
+		}
+		return SHALLOW_SIZES.get(type);
+	}
+
+	/**
+	 * Caches the given event as the last sticky event of its concrete event type and evicts the
+	 * least recently used event types while a bound is exceeded
+	 *
+	 * @param event
+	 *            the event
+	 * @return {@code true} if the event is cached, {@code false} if it is larger than the memory
+	 *         bound
+	 */
+	public synchronized boolean put(@NonNull final Object event)
+	{
+		long size = sizeEstimator.applyAsLong(event);
+		Entry previous = entries.remove(event.getClass());
+		if (previous != null)
+		{
+			bytes -= previous.size;
+		}
+		if (size > maxBytes)
+		{
+			evictions++;
+			empty = entries.isEmpty();
+			return false;
+		}
+		entries.put(event.getClass(), new Entry(event, size));
+		bytes += size;
+		Iterator<Entry> eldest = entries.values().iterator();
+		while (entries.size() > maxEntries || bytes > maxBytes)
+		{
+			bytes -= eldest.next().size;
+			eldest.remove();
+			evictions++;
+		}
+		empty = false;
+		return true;
+	}
+
+	/**
+	 * Retrieves the cached sticky event of the given concrete event type
+	 *
+	 * @param <T>
+	 *            the type of the event
+	 * @param eventType
+	 *            the concrete event type
+	 * @return the cached event or {@code null} if no event of the given type is cached
+	 */
+	public synchronized <T> T get(@NonNull final Class<T> eventType)
+	{
+		Entry entry = entries.get(eventType);
+		return entry != null ? eventType.cast(entry.event) : null;
+	}
+
+	/**
+	 * Retrieves all cached sticky events that are instances of the given event type, without
+	 * changing their order of eviction
+	 *
+	 * @param eventType
+	 *            the event type
+	 * @return a new list with the cached events that are instances of the given event type
+	 */
+	public List<Object> getAssignable(@NonNull final Class<?> eventType)
+	{
+		if (empty)
+		{
+			return Collections.emptyList();
+		}
+		List<Object> assignable = new ArrayList<>();
+		synchronized (this)
+		{
+			for (Entry entry : entries.values())
+			{
+				if (eventType.isInstance(entry.event))
+				{
+					assignable.add(entry.event);
+				}
+			}
+		}
+		return assignable;
+	}
+
+	/**
+	 * Removes the cached sticky event of the given concrete event type
+	 *
+	 * @param <T>
+	 *            the type of the event
+	 * @param eventType
+	 *            the concrete event type
+	 * @return the removed event or {@code null} if no event of the given type was cached
+	 */
+	public synchronized <T> T remove(@NonNull final Class<T> eventType)
+	{
+		Entry entry = entries.remove(eventType);
+		if (entry == null)
+		{
+			return null;
+		}
+		bytes -= entry.size;
+		empty = entries.isEmpty();
+		return eventType.cast(entry.event);
+	}
+
+	/**
+	 * Removes all cached sticky events
+	 */
+	public synchronized void clear()
+	{
+		entries.clear();
+		bytes = 0;
+		empty = true;
+	}
+
+	/**
+	 * Creates a snapshot of all cached sticky events
+	 *
+	 * @return the unmodifiable snapshot of the cached events keyed by their concrete event type
+	 */
+	public synchronized Map<Class<?>, Object> snapshot()
+	{
+		Map<Class<?>, Object> snapshot = new LinkedHashMap<>();
+		entries.forEach((type, entry) -> snapshot.put(type, entry.event));
+		return Collections.unmodifiableMap(snapshot);
+	}
+
+	/**
+	 * Gets the number of cached event types
+	 *
+	 * @return the number of cached event types
+	 */
+	public synchronized int size()
+	{
+		return entries.size();
+	}
+
+	/**
+	 * Gets the estimated memory of the cached events in bytes
+	 *
+	 * @return the estimated memory of the cached events in bytes
+	 */
+	public synchronized long getBytes()
+	{
+		return bytes;
+	}
+
+	/**
+	 * Gets the number of events that were evicted or not cached because of the bounds
+	 *
+	 * @return the number of evictions
+	 */
+	public synchronized long getEvictions()
+	{
+		return evictions;
+	}
+
+	/**
+	 * A cached event together with its estimated memory
+	 */
+	private static final class Entry
+	{
+		/** The cached event */
+		final Object event;
+
+		/** The estimated memory of the event in bytes */
+		final long size;
+
+		/**
+		 * Instantiates a new {@code Entry}
+		 *
+		 * @param event
+		 *            the cached event
+		 * @param size
+		 *            the estimated memory of the event in bytes
+		 */
+		Entry(final Object event, final long size)
+		{
+			this.event = event;
+			this.size = size;
+		}
+	}
+}
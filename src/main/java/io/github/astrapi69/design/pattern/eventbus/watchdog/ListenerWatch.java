@@ -0,0 +1,203 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.watchdog;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Getter;
+
+/**
+ * The class {@link ListenerWatch} holds the state of one listener that is watched by a
+ * {@link SlowListenerWatchdog}. It counts the slow deliveries of the listener and decides whether
+ * the listener is in quarantine
+ */
+public final class ListenerWatch
+{
+
+	/** The watchdog of this watch */
+	private final SlowListenerWatchdog watchdog;
+
+	/** The event type the listener is registered for */
+	@Getter
+	private final Class<?> eventType;
+
+	/** The listener as it was registered */
+	@Getter
+	private final Object listener;
+
+	/** The number of slow deliveries in a row */
+	private final AtomicInteger consecutiveSlowDeliveries = new AtomicInteger();
+
+	/** The number of all slow deliveries */
+	private final LongAdder slowDeliveries = new LongAdder();
+
+	/** The number of events that were dropped while the listener was in quarantine */
+	private final LongAdder droppedDeliveries = new LongAdder();
+
+	/** The flag that indicates whether the listener is in quarantine */
+	private volatile boolean quarantined;
+
+	/** The value of {@link System#nanoTime()} when the quarantine ends */
+	private volatile long quarantineEnd;
+
+	/**
+	 * Instantiates a new {@code ListenerWatch}
+	 *
+	 * @param watchdog
+	 *            the watchdog of this watch
+	 * @param eventType
+	 *            the event type the listener is registered for
+	 * @param listener
+	 *            the listener as it was registered
+	 */
+	ListenerWatch(final SlowListenerWatchdog watchdog, final Class<?> eventType,
+		final Object listener)
+	{
+		this.watchdog = watchdog;
+		this.eventType = eventType;
+		this.listener = listener;
+	}
+
+	/**
+	 * Checks if the listener is in quarantine. A quarantine that has ended is released by this
+	 * method
+	 *
+	 * @return {@code true} if the listener is in quarantine, {@code false} otherwise
+	 */
+	public boolean isQuarantined()
+	{
+		if (!quarantined)
+		{
+			return false;
+		}
+		if (System.nanoTime() - quarantineEnd < 0L)
+		{
+			return true;
+		}
+		release();
+		return quarantined;
+	}
+
+	/**
+	 * Gets the executor that delivers the events of the listener while it is in quarantine
+	 *
+	 * @return the isolated executor or {@code null} if the events are dropped
+	 */
+	public Executor getIsolatedExecutor()
+	{
+		return watchdog.getQuarantinePolicy() == QuarantinePolicy.ISOLATE
+			? watchdog.getIsolatedExecutor()
+			: null;
+	}
+
+	/**
+	 * Gets the number of all slow deliveries of the listener
+	 *
+	 * @return the number of slow deliveries
+	 */
+	public long getSlowDeliveries()
+	{
+		return slowDeliveries.sum();
+	}
+
+	/**
+	 * Gets the number of events that were dropped while the listener was in quarantine
+	 *
+	 * @return the number of dropped events
+	 */
+	public long getDroppedDeliveries()
+	{
+		return droppedDeliveries.sum();
+	}
+
+	/**
+	 * Records an event that was dropped because the listener is in quarantine
+	 */
+	public void recordDropped()
+	{
+		droppedDeliveries.increment();
+	}
+
+	/**
+	 * Records the execution time of one delivery to the listener. If the listener exceeds the
+	 * budget as often in a row as the quarantine threshold allows, it is moved into quarantine. A
+	 * slow delivery during the quarantine extends the quarantine
+	 *
+	 * @param nanos
+	 *            the execution time of the listener in nanoseconds
+	 */
+	public void record(final long nanos)
+	{
+		if (nanos <= watchdog.getBudgetNanos())
+		{
+			if (consecutiveSlowDeliveries.get() != 0)
+			{
+				consecutiveSlowDeliveries.set(0);
+			}
+			return;
+		}
+		slowDeliveries.increment();
+		watchdog.getHandler().onSlowDelivery(this, nanos);
+		if (quarantined)
+		{
+			quarantineEnd = System.nanoTime() + watchdog.getQuarantineDuration().toNanos();
+		}
+		else if (watchdog.getQuarantinePolicy() != QuarantinePolicy.NONE
+			&& consecutiveSlowDeliveries.incrementAndGet() >= watchdog.getQuarantineThreshold())
+		{
+			quarantine();
+		}
+	}
+
+	/**
+	 * Moves the listener into quarantine
+	 */
+	private synchronized void quarantine()
+	{
+		if (quarantined)
+		{
+			return;
+		}
+		quarantineEnd = System.nanoTime() + watchdog.getQuarantineDuration().toNanos();
+		quarantined = true;
+		consecutiveSlowDeliveries.set(0);
+		watchdog.getHandler().onQuarantined(this);
+	}
+
+	/**
+	 * Releases the listener from quarantine if the quarantine has ended
+	 */
+	private synchronized void release()
+	{
+		if (!quarantined || System.nanoTime() - quarantineEnd < 0L)
+		{
+			return;
+		}
+		quarantined = false;
+		watchdog.getHandler().onReleased(this);
+	}
+}
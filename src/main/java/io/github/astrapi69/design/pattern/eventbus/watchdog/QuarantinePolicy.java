@@ -0,0 +1,51 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.watchdog;
+
+/**
+ * The enum {@link QuarantinePolicy} defines what a {@link SlowListenerWatchdog} does with a
+ * listener that exceeded its time budget repeatedly
+ */
+public enum QuarantinePolicy
+{
+
+	/**
+	 * Slow listeners are only reported and keep receiving their events on the dispatching thread
+	 */
+	NONE,
+
+	/**
+	 * The events of a quarantined listener are delivered on a separate isolated executor, so the
+	 * listener no longer delays the posting thread or the other listeners. These deliveries are
+	 * not awaited by the futures of asynchronous posts and an exception of the listener is passed
+	 * to the uncaught exception handler of the isolated thread
+	 */
+	ISOLATE,
+
+	/**
+	 * The events of a quarantined listener are dropped
+	 */
+	DROP
+}
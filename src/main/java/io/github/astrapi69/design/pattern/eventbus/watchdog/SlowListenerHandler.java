@@ -0,0 +1,71 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.watchdog;
+
+/**
+ * The interface {@link SlowListenerHandler} is notified by a {@link SlowListenerWatchdog} about
+ * slow listeners. All methods are invoked on the thread that delivered the event and should
+ * return quickly
+ */
+public interface SlowListenerHandler
+{
+
+	/** The handler that ignores all notifications */
+	SlowListenerHandler NO_OP = new SlowListenerHandler()
+	{
+	};
+
+	/**
+	 * Notifies that a listener exceeded the time budget
+	 *
+	 * @param watch
+	 *            the watch of the slow listener
+	 * @param nanos
+	 *            the execution time of the listener in nanoseconds
+	 */
+	default void onSlowDelivery(final ListenerWatch watch, final long nanos)
+	{
+	}
+
+	/**
+	 * Notifies that a listener was moved into quarantine
+	 *
+	 * @param watch
+	 *            the watch of the quarantined listener
+	 */
+	default void onQuarantined(final ListenerWatch watch)
+	{
+	}
+
+	/**
+	 * Notifies that a listener was released from quarantine
+	 *
+	 * @param watch
+	 *            the watch of the released listener
+	 */
+	default void onReleased(final ListenerWatch watch)
+	{
+	}
+}
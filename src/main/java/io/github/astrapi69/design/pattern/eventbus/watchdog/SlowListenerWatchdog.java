@@ -0,0 +1,285 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.watchdog;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import io.github.astrapi69.design.pattern.eventbus.registry.Subscriber;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The class {@link SlowListenerWatchdog} watches the execution time of the listeners of an event
+ * bus against a time budget. Every delivery that exceeds the budget is reported to the
+ * {@link SlowListenerHandler}. Depending on the {@link QuarantinePolicy} a listener that exceeds
+ * the budget repeatedly in a row is moved into quarantine, where its events are delivered on an
+ * isolated executor or dropped, so it no longer delays the posting threads. A slow delivery during
+ * the quarantine extends it, so the listener is released only after it stayed within the budget
+ * for the whole quarantine duration or received no events during it. The watches are kept in a
+ * concurrent map keyed by the identity of the listener and its event type and are dropped when
+ * the listener is removed, see {@link #unwatch(Subscriber)}
+ */
+public final class SlowListenerWatchdog implements AutoCloseable
+{
+
+	/** The default number of slow deliveries in a row that move a listener into quarantine */
+	public static final int DEFAULT_QUARANTINE_THRESHOLD = 3;
+
+	/** The default duration of a quarantine */
+	public static final Duration DEFAULT_QUARANTINE_DURATION = Duration.ofSeconds(30);
+
+	/** The time budget of one delivery */
+	@Getter
+	private final Duration budget;
+
+	/** The time budget of one delivery in nanoseconds */
+	@Getter
+	private final long budgetNanos;
+
+	/** The policy for listeners that exceed the budget repeatedly */
+	@Getter
+	private final QuarantinePolicy quarantinePolicy;
+
+	/** The number of slow deliveries in a row that move a listener into quarantine */
+	@Getter
+	private final int quarantineThreshold;
+
+	/** The duration of a quarantine */
+	@Getter
+	private final Duration quarantineDuration;
+
+	/** The executor that delivers the events of quarantined listeners */
+	@Getter
+	private final Executor isolatedExecutor;
+
+	/** The executor service that is owned and shut down by this watchdog or {@code null} */
+	private final ExecutorService ownedExecutorService;
+
+	/** The handler that is notified about slow listeners */
+	@Getter
+	private final SlowListenerHandler handler;
+
+	/** The watches of all watched listeners keyed by the identity of listener and event type */
+	private final Map<WatchKey, ListenerWatch> watches = new ConcurrentHashMap<>();
+
+	/**
+	 * Instantiates a new {@code SlowListenerWatchdog} that only reports slow listeners
+	 *
+	 * @param budget
+	 *            the time budget of one delivery
+	 * @param handler
+	 *            the handler that is notified about slow listeners
+	 */
+	public SlowListenerWatchdog(final Duration budget, final SlowListenerHandler handler)
+	{
+		this(budget, QuarantinePolicy.NONE, handler);
+	}
+
+	/**
+	 * Instantiates a new {@code SlowListenerWatchdog} with the default quarantine threshold and
+	 * duration. If the policy is {@link QuarantinePolicy#ISOLATE}, the events of quarantined
+	 * listeners are delivered on a single daemon thread that is owned by this watchdog
+	 *
+	 * @param budget
+	 *            the time budget of one delivery
+	 * @param quarantinePolicy
+	 *            the policy for listeners that exceed the budget repeatedly
+	 * @param handler
+	 *            the handler that is notified about slow listeners
+	 */
+	public SlowListenerWatchdog(final Duration budget, final QuarantinePolicy quarantinePolicy,
+		final SlowListenerHandler handler)
+	{
+		this(budget, quarantinePolicy, DEFAULT_QUARANTINE_THRESHOLD, DEFAULT_QUARANTINE_DURATION,
+			null, handler);
+	}
+
+	/**
+	 * Instantiates a new {@code SlowListenerWatchdog}
+	 *
+	 * @param budget
+	 *            the time budget of one delivery
+	 * @param quarantinePolicy
+	 *            the policy for listeners that exceed the budget repeatedly
+	 * @param quarantineThreshold
+	 *            the number of slow deliveries in a row that move a listener into quarantine
+	 * @param quarantineDuration
+	 *            the duration of a quarantine
+	 * @param isolatedExecutor
+	 *            the executor that delivers the events of quarantined listeners or {@code null}
+	 *            for a single daemon thread that is owned by this watchdog
+	 * @param handler
+	 *            the handler that is notified about slow listeners
+	 */
+	public SlowListenerWatchdog(@NonNull final Duration budget,
+		@NonNull final QuarantinePolicy quarantinePolicy, final int quarantineThreshold,
+		@NonNull final Duration quarantineDuration, final Executor isolatedExecutor,
+		@NonNull final SlowListenerHandler handler)
+	{
+		if (budget.isNegative())
+		{
+			throw new IllegalArgumentException("budget must not be negative");
+		}
+		if (quarantineThreshold < 1)
+		{
+			throw new IllegalArgumentException("quarantineThreshold must be positive");
+		}
+		this.budget = budget;
+		this.budgetNanos = budget.toNanos();
+		this.quarantinePolicy = quarantinePolicy;
+		this.quarantineThreshold = quarantineThreshold;
+		this.quarantineDuration = quarantineDuration;
+		this.handler = handler;
+		if (isolatedExecutor == null && quarantinePolicy == QuarantinePolicy.ISOLATE)
+		{
+			this.ownedExecutorService = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "eventbus-quarantine");
+				thread.setDaemon(true);
+				return thread;
+			});
+			this.isolatedExecutor = ownedExecutorService;
+		}
+		else
+		{
+			this.ownedExecutorService = null;
+			this.isolatedExecutor = isolatedExecutor;
+		}
+	}
+
+	/**
+	 * Creates the watch of the given subscriber. A listener that is registered more than once for
+	 * the same event type shares one watch
+	 *
+	 * @param subscriber
+	 *            the subscriber to watch
+	 * @return the watch of the given subscriber
+	 */
+	public ListenerWatch watch(@NonNull final Subscriber<?> subscriber)
+	{
+		return watches.computeIfAbsent(new WatchKey(subscriber),
+			key -> new ListenerWatch(this, key.eventType, key.listener));
+	}
+
+	/**
+	 * Drops the watch of the given subscriber after its listener was removed, so neither the
+	 * listener nor its watch are kept by this watchdog
+	 *
+	 * @param subscriber
+	 *            the removed subscriber
+	 */
+	public void unwatch(@NonNull final Subscriber<?> subscriber)
+	{
+		watches.remove(new WatchKey(subscriber));
+	}
+
+	/**
+	 * Retrieves the watches of all listeners that exceeded the budget at least once
+	 *
+	 * @return the watches of the offending listeners
+	 */
+	public List<ListenerWatch> getOffenders()
+	{
+		return watches.values().stream().filter(watch -> watch.getSlowDeliveries() > 0L)
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * Retrieves the watches of all listeners that are currently in quarantine
+	 *
+	 * @return the watches of the quarantined listeners
+	 */
+	public List<ListenerWatch> getQuarantined()
+	{
+		return watches.values().stream().filter(ListenerWatch::isQuarantined)
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * Shuts down the isolated executor if it is owned by this watchdog, events that are already
+	 * handed over to it are still delivered
+	 */
+	@Override
+	public void close()
+	{
+		if (ownedExecutorService != null)
+		{
+			ownedExecutorService.shutdown();
+		}
+	}
+
+	/**
+	 * The key of a watch that compares the listener and the event type by identity
+	 */
+	private static final class WatchKey
+	{
+		/** The listener as it was registered */
+		final Object listener;
+
+		/** The event type the listener is registered for */
+		final Class<?> eventType;
+
+		/**
+		 * Instantiates a new {@code WatchKey}
+		 *
+		 * @param subscriber
+		 *            the subscriber of the listener
+		 */
+		WatchKey(final Subscriber<?> subscriber)
+		{
+			this.listener = subscriber.getListener();
+			this.eventType = subscriber.getEventType();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode()
+		{
+			return 31 * System.identityHashCode(listener) + System.identityHashCode(eventType);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(final Object object)
+		{
+			if (!(object instanceof WatchKey))
+			{
+				return false;
+			}
+			WatchKey other = (WatchKey)object;
+			return other.listener == listener && other.eventType == eventType;
+		}
+	}
+}
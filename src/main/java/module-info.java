@@ -21,8 +21,24 @@
 module io.github.astrapisixtynine.design.patterns.eventbus
 {
 	requires static lombok;
+	requires static java.compiler;
 	requires io.github.astrapisixtynine.design.patterns.observer;
 
 	exports io.github.astrapi69.design.pattern.eventbus;
+	exports io.github.astrapi69.design.pattern.eventbus.annotation;
+	exports io.github.astrapi69.design.pattern.eventbus.annotation.processor;
 	exports io.github.astrapi69.design.pattern.eventbus.api;
+	exports io.github.astrapi69.design.pattern.eventbus.deadevent;
+	exports io.github.astrapi69.design.pattern.eventbus.dispatch;
+	exports io.github.astrapi69.design.pattern.eventbus.dispatch.ringbuffer;
+	exports io.github.astrapi69.design.pattern.eventbus.listener;
+	exports io.github.astrapi69.design.pattern.eventbus.metrics;
+	exports io.github.astrapi69.design.pattern.eventbus.registry;
+	exports io.github.astrapi69.design.pattern.eventbus.sticky;
+	exports io.github.astrapi69.design.pattern.eventbus.watchdog;
+
+	uses io.github.astrapi69.design.pattern.eventbus.annotation.SubscriberIndex;
+
+	provides javax.annotation.processing.Processor with
+		io.github.astrapi69.design.pattern.eventbus.annotation.processor.SubscriberIndexProcessor;
 }
\ No newline at end of file
@@ -0,0 +1,881 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.management.ThreadMXBean;
+
+import io.github.astrapi69.design.pattern.eventbus.annotation.Subscribe;
+import io.github.astrapi69.design.pattern.eventbus.deadevent.DeadEvent;
+import io.github.astrapi69.design.pattern.eventbus.dispatch.ExecutorDispatcher;
+import io.github.astrapi69.design.pattern.eventbus.listener.BatchListener;
+import io.github.astrapi69.design.pattern.eventbus.listener.Cancellable;
+import io.github.astrapi69.design.pattern.eventbus.listener.PayloadListener;
+import io.github.astrapi69.design.pattern.eventbus.metrics.EventTypeSnapshot;
+import io.github.astrapi69.design.pattern.observer.event.EventListener;
+import io.github.astrapi69.design.pattern.observer.event.EventObject;
+
+/**
+ * The class {@link BaseEventBusTest} provides unit tests for the {@link BaseEventBus} class
+ */
+public class BaseEventBusTest
+{
+
+	/** The event bus under test */
+	private BaseEventBus eventBus;
+
+	/**
+	 * Sets up the test environment before each test method execution
+	 */
+	@BeforeEach
+	void setUp()
+	{
+		eventBus = new BaseEventBus("test");
+	}
+
+	/**
+	 * Test method for verifying that two event types with the same simple name in different
+	 * enclosing classes are dispatched to their own listeners only
+	 */
+	@Test
+	public void testSameSimpleNameEventTypesDoNotCollide()
+	{
+		RecordingListener<First.Payload> firstListener = new RecordingListener<>();
+		RecordingListener<Second.Payload> secondListener = new RecordingListener<>();
+		assertEquals(First.Payload.class.getSimpleName(), Second.Payload.class.getSimpleName());
+
+		eventBus.register(firstListener, First.Payload.class);
+		eventBus.register(secondListener, Second.Payload.class);
+
+		First.Payload firstPayload = new First.Payload();
+		eventBus.post(firstPayload);
+		assertEquals(firstPayload, firstListener.last);
+		assertEquals(1, firstListener.count);
+		assertEquals(0, secondListener.count);
+
+		Second.Payload secondPayload = new Second.Payload();
+		eventBus.post(secondPayload);
+		assertEquals(secondPayload, secondListener.last);
+		assertEquals(1, firstListener.count);
+		assertEquals(1, secondListener.count);
+	}
+
+	/**
+	 * Test method for verifying that an unregistered listener does not receive events anymore
+	 */
+	@Test
+	public void testUnregister()
+	{
+		RecordingListener<First.Payload> listener = new RecordingListener<>();
+		RecordingListener<First.Payload> remaining = new RecordingListener<>();
+		eventBus.register(listener, First.Payload.class);
+		eventBus.register(remaining, First.Payload.class);
+		eventBus.unregister(listener, First.Payload.class);
+
+		eventBus.post(new First.Payload());
+		assertNull(listener.last);
+		assertEquals(0, listener.count);
+		assertEquals(1, remaining.count);
+	}
+
+	/**
+	 * Test method for {@link BaseEventBus#unregisterAll(Object)}
+	 */
+	@Test
+	public void testUnregisterAll()
+	{
+		RecordingListener<Object> listener = new RecordingListener<>();
+		RecordingListener<Object> remaining = new RecordingListener<>();
+		eventBus.register(listener, Object.class);
+		eventBus.registerWeak(listener, Object.class);
+		eventBus.subscribe(event -> listener.count++, String.class);
+		eventBus.register(remaining, Object.class);
+		eventBus.post("event");
+		assertEquals(3, listener.count);
+
+		assertEquals(2, eventBus.unregisterAll(listener));
+		assertEquals(0, eventBus.unregisterAll(listener));
+		eventBus.post("event");
+		assertEquals(4, listener.count);
+		assertEquals(2, remaining.count);
+	}
+
+	/**
+	 * Test method for verifying that listeners registered for a superclass or an interface receive
+	 * the events of their subtypes
+	 */
+	@Test
+	public void testPolymorphicDelivery()
+	{
+		RecordingListener<Child> childListener = new RecordingListener<>();
+		RecordingListener<Parent> parentListener = new RecordingListener<>();
+		RecordingListener<Marker> markerListener = new RecordingListener<>();
+		RecordingListener<Object> objectListener = new RecordingListener<>();
+		eventBus.register(childListener, Child.class);
+		eventBus.register(parentListener, Parent.class);
+		eventBus.register(markerListener, Marker.class);
+		eventBus.register(objectListener, Object.class);
+
+		Child child = new Child();
+		eventBus.post(child);
+		assertEquals(child, childListener.last);
+		assertEquals(child, parentListener.last);
+		assertEquals(child, markerListener.last);
+		assertEquals(child, objectListener.last);
+
+		Parent parent = new Parent();
+		eventBus.post(parent);
+		assertEquals(1, childListener.count);
+		assertEquals(parent, parentListener.last);
+		assertEquals(1, markerListener.count);
+		assertEquals(2, objectListener.count);
+	}
+
+	/**
+	 * Test method for verifying that registration changes on a supertype invalidate the cached
+	 * listeners of the subtypes
+	 */
+	@Test
+	public void testRegistrationChangeOnSupertypeInvalidatesCache()
+	{
+		RecordingListener<Parent> parentListener = new RecordingListener<>();
+		eventBus.post(new Child());
+
+		eventBus.register(parentListener, Parent.class);
+		eventBus.post(new Child());
+		assertEquals(1, parentListener.count);
+
+		eventBus.unregister(parentListener, Parent.class);
+		eventBus.post(new Child());
+		assertEquals(1, parentListener.count);
+	}
+
+	/**
+	 * Test method for verifying that setting or removing the dispatcher of an event type replaces
+	 * the dispatcher that was resolved before for its subtypes
+	 */
+	@Test
+	public void testSetDispatcherInvalidatesResolvedDispatchers()
+	{
+		List<String> dispatchers = new ArrayList<>();
+		RecordingListener<Parent> parentListener = new RecordingListener<>();
+		eventBus.register(parentListener, Parent.class);
+
+		eventBus.setDispatcher(Parent.class, new ExecutorDispatcher(runnable -> {
+			dispatchers.add("parent");
+			runnable.run();
+		}));
+		eventBus.post(new Child());
+		eventBus.setDispatcher(Child.class, new ExecutorDispatcher(runnable -> {
+			dispatchers.add("child");
+			runnable.run();
+		}));
+		eventBus.post(new Child());
+		eventBus.setDispatcher(Child.class, null);
+		eventBus.post(new Child());
+		eventBus.setDispatcher(Parent.class, null);
+		eventBus.post(new Child());
+
+		assertEquals(List.of("parent", "child", "parent"), dispatchers);
+		assertEquals(4, parentListener.count);
+	}
+
+	/**
+	 * Test method for {@link BaseEventBus#postAsync(Object)}
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted or the future fails
+	 */
+	@Test
+	public void testPostAsync() throws Exception
+	{
+		RecordingListener<Parent> listener = new RecordingListener<>();
+		assertTrue(eventBus.postAsync(new Parent()).isDone());
+		eventBus.register(listener, Parent.class);
+
+		Parent parent = new Parent();
+		eventBus.postAsync(parent).get(5, TimeUnit.SECONDS);
+		assertEquals(parent, listener.last);
+		assertEquals(1, listener.count);
+	}
+
+	/**
+	 * Test method for verifying that an asynchronous event bus does not invoke the listeners on
+	 * the posting thread
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted
+	 */
+	@Test
+	public void testAsynchronousEventBus() throws Exception
+	{
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try
+		{
+			BaseEventBus asyncEventBus = new BaseEventBus("async", executor);
+			CountDownLatch delivered = new CountDownLatch(1);
+			AtomicReference<Thread> deliveryThread = new AtomicReference<>();
+			asyncEventBus.register(event -> {
+				deliveryThread.set(Thread.currentThread());
+				delivered.countDown();
+			}, Parent.class);
+
+			asyncEventBus.post(new Parent());
+			assertTrue(delivered.await(5, TimeUnit.SECONDS));
+			assertNotEquals(Thread.currentThread(), deliveryThread.get());
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Test method for {@link BaseEventBus#postAll(java.util.Collection)} with a batch of mixed
+	 * event types, a weakly registered batch listener and the latency metrics of batch listeners
+	 */
+	@Test
+	public void testPostAll()
+	{
+		RecordingListener<Child> childListener = new RecordingListener<>();
+		RecordingListener<Parent> parentListener = new RecordingListener<>();
+		BatchRecordingListener<Parent> batchListener = new BatchRecordingListener<>();
+		BatchRecordingListener<Parent> weakBatchListener = new BatchRecordingListener<>();
+		eventBus.setMetricsEnabled(true);
+		eventBus.register(childListener, Child.class);
+		eventBus.register(parentListener, Parent.class);
+		eventBus.register(batchListener, Parent.class);
+		eventBus.registerWeak(weakBatchListener, Parent.class);
+
+		Parent first = new Parent();
+		Child second = new Child();
+		Parent third = new Parent();
+		eventBus.postAll(List.of(first, second, third));
+
+		assertEquals(1, childListener.count);
+		assertEquals(3, parentListener.count);
+		assertEquals(List.of(List.of(first, third), List.of(second)), batchListener.batches);
+		assertEquals(batchListener.batches, weakBatchListener.batches);
+		assertEquals(0, batchListener.count);
+		assertEquals(0, weakBatchListener.count);
+		assertEquals(2L, eventBus.getMetricsSnapshot().get(Parent.class).getListenerLatencies()
+			.get(batchListener).getCount());
+
+		eventBus.postAll(new Parent(), new Parent());
+		assertEquals(5, parentListener.count);
+		assertEquals(3, batchListener.batches.size());
+		assertEquals(2, batchListener.batches.get(2).size());
+	}
+
+	/**
+	 * Test method for {@link BaseEventBus#subscribe(PayloadListener, Class)} and
+	 * {@link BaseEventBus#unsubscribe(PayloadListener, Class)}
+	 */
+	@Test
+	public void testSubscribe()
+	{
+		List<Parent> received = new ArrayList<>();
+		PayloadListener<Parent> listener = received::add;
+		RecordingListener<Parent> eventListener = new RecordingListener<>();
+		eventBus.subscribe(listener, Parent.class);
+		eventBus.register(eventListener, Parent.class);
+
+		Child child = new Child();
+		eventBus.post(child);
+		assertEquals(List.of(child), received);
+		assertEquals(child, eventListener.last);
+
+		eventBus.unsubscribe(listener, Parent.class);
+		eventBus.post(new Parent());
+		assertEquals(1, received.size());
+		assertEquals(2, eventListener.count);
+	}
+
+	/**
+	 * Test method for verifying that posting an event to subscribed {@link PayloadListener}
+	 * objects does not allocate any object on the posting thread in the steady state
+	 */
+	@Test
+	public void testPostDoesNotAllocate()
+	{
+		Object threadMXBean = ManagementFactory.getThreadMXBean();
+		assumeTrue(threadMXBean instanceof ThreadMXBean);
+		ThreadMXBean allocationBean = (ThreadMXBean)threadMXBean;
+		assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+		allocationBean.setThreadAllocatedMemoryEnabled(true);
+
+		AtomicLong deliveries = new AtomicLong();
+		eventBus.subscribe(payload -> deliveries.incrementAndGet(), Parent.class);
+		eventBus.subscribe(payload -> deliveries.incrementAndGet(), Marker.class);
+		Child event = new Child();
+		int posts = 100_000;
+		for (int i = 0; i < posts; i++)
+		{
+			eventBus.post(event);
+		}
+		long threadId = Thread.currentThread().getId();
+		long before = allocationBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < posts; i++)
+		{
+			eventBus.post(event);
+		}
+		long allocated = allocationBean.getThreadAllocatedBytes(threadId) - before;
+
+		assertEquals(4L * posts, deliveries.get());
+		assertTrue(allocated < posts, "allocated " + allocated + " bytes for " + posts + " posts");
+	}
+
+	/**
+	 * Test method for {@link BaseEventBus#setMetricsEnabled(boolean)} and
+	 * {@link BaseEventBus#getMetricsSnapshot()}
+	 */
+	@Test
+	public void testMetrics()
+	{
+		PayloadListener<Parent> listener = payload -> {
+		};
+		eventBus.subscribe(listener, Parent.class);
+		eventBus.post(new Parent());
+		assertTrue(eventBus.getMetricsSnapshot().isEmpty());
+
+		eventBus.setMetricsEnabled(true);
+		assertTrue(eventBus.isMetricsEnabled());
+		eventBus.post(new Parent());
+		eventBus.post(new Child());
+		eventBus.postAll(new Parent(), new Parent());
+		eventBus.post("unrouted");
+
+		Map<Class<?>, EventTypeSnapshot> snapshot = eventBus.getMetricsSnapshot();
+		EventTypeSnapshot parentMetrics = snapshot.get(Parent.class);
+		assertEquals(3L, parentMetrics.getPosts());
+		assertEquals(3L, parentMetrics.getDeliveries());
+		assertEquals(0L, parentMetrics.getNoSubscriberPosts());
+		assertEquals(4L, parentMetrics.getListenerLatencies().get(listener).getCount());
+		assertEquals(1L, snapshot.get(Child.class).getPosts());
+		assertEquals(1L, snapshot.get(String.class).getNoSubscriberPosts());
+
+		eventBus.setMetricsEnabled(false);
+		eventBus.post(new Parent());
+		assertEquals(3L, eventBus.getMetricsSnapshot().get(Parent.class).getPosts());
+
+		eventBus.unsubscribe(listener, Parent.class);
+		assertFalse(eventBus.getMetricsSnapshot().get(Parent.class).getListenerLatencies()
+			.containsKey(listener));
+	}
+
+	/**
+	 * Test method for {@link BaseEventBus#hasSubscribers(Class)} and
+	 * {@link BaseEventBus#post(Class, java.util.function.Supplier)}
+	 */
+	@Test
+	public void testLazyPost()
+	{
+		AtomicLong created = new AtomicLong();
+		assertFalse(eventBus.hasSubscribers(Child.class));
+		eventBus.post(Child.class, () -> {
+			created.incrementAndGet();
+			return new Child();
+		});
+		assertEquals(0L, created.get());
+
+		RecordingListener<Parent> listener = new RecordingListener<>();
+		eventBus.register(listener, Parent.class);
+		assertTrue(eventBus.hasSubscribers(Child.class));
+		assertFalse(eventBus.hasSubscribers(String.class));
+		eventBus.post(Child.class, () -> {
+			created.incrementAndGet();
+			return new Child();
+		});
+		assertEquals(1L, created.get());
+		assertEquals(1, listener.count);
+		eventBus.post(Child.class, () -> null);
+		assertEquals(1, listener.count);
+	}
+
+	/**
+	 * Test method for the delivery in the order of the priorities and for the cancellation of a
+	 * {@link Cancellable} event
+	 */
+	@Test
+	public void testPriorityAndCancellation()
+	{
+		List<String> calls = new ArrayList<>();
+		eventBus.subscribe(event -> calls.add("default"), Vetoable.class);
+		eventBus.subscribe(event -> calls.add("parent"), Parent.class, 5);
+		eventBus.subscribe(event -> {
+			calls.add("veto");
+			if (event.veto)
+			{
+				event.cancel();
+			}
+		}, Vetoable.class, 10);
+		eventBus.subscribe(event -> calls.add("low"), Vetoable.class, -1);
+
+		eventBus.post(new Vetoable(false));
+		assertEquals(List.of("veto", "parent", "default", "low"), calls);
+		calls.clear();
+		eventBus.post(new Vetoable(true));
+		assertEquals(List.of("veto"), calls);
+	}
+
+	/**
+	 * Test method for {@link BaseEventBus#postAll(java.util.Collection)} that verifies that batch
+	 * listeners and the other listeners are visited in the order of their priorities and that
+	 * cancelled events are not delivered to the listeners behind the cancelling listener
+	 */
+	@Test
+	public void testPostAllPriorityAndCancellation()
+	{
+		List<String> calls = new ArrayList<>();
+		BatchRecordingListener<Vetoable> batchListener = new BatchRecordingListener<>()
+		{
+			@Override
+			public void onBatch(List<Vetoable> sources)
+			{
+				calls.add("batch");
+				super.onBatch(sources);
+			}
+		};
+		eventBus.subscribe(event -> {
+			calls.add("veto");
+			if (event.veto)
+			{
+				event.cancel();
+			}
+		}, Vetoable.class, 10);
+		eventBus.register(batchListener, Vetoable.class, 5);
+		eventBus.subscribe(event -> calls.add("low"), Vetoable.class, -1);
+
+		Vetoable first = new Vetoable(false);
+		Vetoable third = new Vetoable(false);
+		eventBus.postAll(first, new Vetoable(true), third);
+		assertEquals(List.of("veto", "veto", "veto", "batch", "low", "low"), calls);
+		assertEquals(List.of(List.of(first, third)), batchListener.batches);
+
+		calls.clear();
+		eventBus.postAll(new Vetoable(false), new Vetoable(false));
+		assertEquals(List.of("veto", "veto", "batch", "low", "low"), calls);
+	}
+
+	/**
+	 * Test method for {@link BaseEventBus#register(Object)} and
+	 * {@link BaseEventBus#unregister(Object)}
+	 */
+	@Test
+	public void testRegisterAnnotatedSubscriber()
+	{
+		AnnotatedSubscriber subscriber = new AnnotatedSubscriber();
+		eventBus.register(subscriber);
+		eventBus.post(new Child());
+		eventBus.post(new Parent());
+		assertEquals(List.of("child", "parent", "parent"), subscriber.calls);
+
+		eventBus.unregister(subscriber);
+		eventBus.post(new Child());
+		assertEquals(3, subscriber.calls.size());
+		assertFalse(eventBus.hasSubscribers(Parent.class));
+	}
+
+	/**
+	 * Test method for {@link BaseEventBus#registerWeak(EventListener, Class)} that verifies that a
+	 * weakly registered listener receives events while it is reachable and that its registration
+	 * is purged after it was garbage collected
+	 *
+	 * @throws InterruptedException
+	 *             is thrown if the test is interrupted
+	 */
+	@Test
+	public void testRegisterWeak() throws InterruptedException
+	{
+		RecordingListener<Integer> strongListener = new RecordingListener<>();
+		eventBus.register(strongListener, Integer.class);
+		RecordingListener<String> unregistered = new RecordingListener<>();
+		eventBus.registerWeak(unregistered, String.class);
+		eventBus.unregister(unregistered, String.class);
+		WeakReference<RecordingListener<Long>> collected = registerWeakListener();
+
+		eventBus.post(1);
+		eventBus.post("unregistered");
+		assertEquals(1, strongListener.count);
+		assertEquals(0, unregistered.count);
+		for (int i = 0; i < 100 && eventBus.hasSubscribers(Long.class); i++)
+		{
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertNull(collected.get());
+		assertFalse(eventBus.hasSubscribers(Long.class));
+		assertEquals(0, eventBus.purgeCollectedListeners());
+		eventBus.post(2);
+		assertEquals(2, strongListener.count);
+	}
+
+	/**
+	 * Registers a new listener weakly that receives one event and is not referenced anymore
+	 * afterwards
+	 *
+	 * @return a weak reference to the registered listener
+	 */
+	private WeakReference<RecordingListener<Long>> registerWeakListener()
+	{
+		RecordingListener<Long> listener = new RecordingListener<>();
+		eventBus.registerWeak(listener, Long.class);
+		eventBus.post(1L);
+		assertEquals(1, listener.count);
+		return new WeakReference<>(listener);
+	}
+
+	/**
+	 * Test method for the counting and the forwarding of dead events
+	 */
+	@Test
+	public void testDeadEvents()
+	{
+		List<DeadEvent> deadEvents = new ArrayList<>();
+		eventBus.post("unrouted");
+		eventBus.setDeadEventListener(deadEvents::add);
+		eventBus.postAsync("unrouted");
+		eventBus.postAll(new Parent(), new Parent(), new Parent());
+		eventBus.post(Child.class, Child::new);
+		RecordingListener<Integer> listener = new RecordingListener<>();
+		eventBus.register(listener, Integer.class);
+		eventBus.post(1);
+
+		assertEquals(4, deadEvents.size());
+		assertEquals("unrouted", deadEvents.get(0).getEvent());
+		assertEquals("test", deadEvents.get(0).getEventBusName());
+		Map<Class<?>, Long> counts = eventBus.getDeadEventCounts();
+		assertEquals(List.of(Parent.class, String.class, Child.class),
+			new ArrayList<>(counts.keySet()));
+		assertEquals(Long.valueOf(3L), counts.get(Parent.class));
+		assertEquals(2L, eventBus.getDeadEventCount(String.class));
+		assertEquals(0L, eventBus.getDeadEventCount(Integer.class));
+		eventBus.resetDeadEventCounts();
+		assertEquals(0L, eventBus.getDeadEventCount(Parent.class));
+	}
+
+	/**
+	 * Test method for {@link BaseEventBus#postSticky(Object)} and the replay of sticky events on
+	 * registration
+	 */
+	@Test
+	public void testPostSticky()
+	{
+		Child child = new Child();
+		eventBus.postSticky(child);
+		eventBus.postSticky("state");
+		assertEquals(child, eventBus.getStickyEvent(Child.class));
+		assertNull(eventBus.getStickyEvent(Parent.class));
+
+		RecordingListener<Parent> parentListener = new RecordingListener<>();
+		eventBus.register(parentListener, Parent.class);
+		assertEquals(1, parentListener.count);
+		assertEquals(child, parentListener.last);
+
+		List<Object> received = new ArrayList<>();
+		eventBus.subscribe(received::add, Marker.class);
+		assertEquals(List.of(child), received);
+
+		assertEquals(child, eventBus.removeStickyEvent(Child.class));
+		assertEquals(1, eventBus.getStickyEvents().size());
+		eventBus.clearStickyEvents();
+		assertTrue(eventBus.getStickyEvents().isEmpty());
+		RecordingListener<Parent> lateListener = new RecordingListener<>();
+		eventBus.register(lateListener, Parent.class);
+		assertEquals(0, lateListener.count);
+	}
+
+	/**
+	 * Test method for verifying that a listener that is registered concurrently with
+	 * {@link BaseEventBus#postSticky(Object)} receives the sticky event exactly once
+	 *
+	 * @throws InterruptedException
+	 *             is thrown if the test is interrupted
+	 */
+	@Test
+	public void testPostStickyConcurrentRegistration() throws InterruptedException
+	{
+		for (int round = 0; round < 500; round++)
+		{
+			BaseEventBus stickyBus = new BaseEventBus("sticky");
+			AtomicInteger received = new AtomicInteger();
+			CountDownLatch start = new CountDownLatch(1);
+			Thread poster = new Thread(() -> {
+				awaitQuietly(start);
+				stickyBus.postSticky("state");
+			});
+			poster.start();
+			start.countDown();
+			stickyBus.subscribe(payload -> received.incrementAndGet(), String.class);
+			poster.join();
+			assertEquals(1, received.get(), "round " + round);
+		}
+	}
+
+	/**
+	 * Test method for verifying that a listener that is registered concurrently with a sequence
+	 * of {@link BaseEventBus#postSticky(Object)} calls never receives an older sticky event after
+	 * a newer one
+	 *
+	 * @throws InterruptedException
+	 *             is thrown if the test is interrupted
+	 */
+	@Test
+	public void testPostStickyReplayIsNotOvertaken() throws InterruptedException
+	{
+		for (int round = 0; round < 200; round++)
+		{
+			BaseEventBus stickyBus = new BaseEventBus("sticky");
+			stickyBus.postSticky(0);
+			List<Integer> received = new CopyOnWriteArrayList<>();
+			CountDownLatch start = new CountDownLatch(1);
+			Thread poster = new Thread(() -> {
+				awaitQuietly(start);
+				for (int value = 1; value <= 20; value++)
+				{
+					stickyBus.postSticky(value);
+				}
+			});
+			poster.start();
+			start.countDown();
+			stickyBus.subscribe(received::add, Integer.class);
+			poster.join();
+			for (int index = 1; index < received.size(); index++)
+			{
+				assertTrue(received.get(index - 1) < received.get(index),
+					"round " + round + ": " + received);
+			}
+			assertEquals(Integer.valueOf(20), received.get(received.size() - 1), "round " + round);
+		}
+	}
+
+	/**
+	 * Waits for the given latch and restores the interrupt flag if the waiting is interrupted
+	 *
+	 * @param latch
+	 *            the latch to wait for
+	 */
+	private static void awaitQuietly(final CountDownLatch latch)
+	{
+		try
+		{
+			latch.await();
+		}
+		catch (InterruptedException exception)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Marker interface for the event type hierarchy
+	 */
+	interface Marker
+	{
+	}
+
+	/**
+	 * Parent event type
+	 */
+	static class Parent
+	{
+	}
+
+	/**
+	 * Child event type that extends {@link Parent} and implements {@link Marker}
+	 */
+	static class Child extends Parent implements Marker
+	{
+	}
+
+	/**
+	 * Event type that a listener can cancel
+	 */
+	static class Vetoable extends Parent implements Cancellable
+	{
+		/** The flag that indicates whether a listener should cancel the event */
+		final boolean veto;
+
+		/** The flag that indicates whether the event was cancelled */
+		boolean cancelled;
+
+		/**
+		 * Instantiates a new {@code Vetoable}
+		 *
+		 * @param veto
+		 *            the flag that indicates whether a listener should cancel the event
+		 */
+		Vetoable(final boolean veto)
+		{
+			this.veto = veto;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void cancel()
+		{
+			cancelled = true;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean isCancelled()
+		{
+			return cancelled;
+		}
+	}
+
+	/**
+	 * Subscriber with annotated handler methods
+	 */
+	static class AnnotatedSubscriber
+	{
+		/** The names of the invoked handler methods */
+		final List<String> calls = new ArrayList<>();
+
+		/**
+		 * Handles a {@link Parent} event
+		 *
+		 * @param event
+		 *            the event
+		 */
+		@Subscribe
+		void onParent(final Parent event)
+		{
+			calls.add("parent");
+		}
+
+		/**
+		 * Handles a {@link Child} event before the {@link Parent} handler
+		 *
+		 * @param event
+		 *            the event
+		 */
+		@Subscribe(priority = 1)
+		void onChild(final Child event)
+		{
+			calls.add("child");
+		}
+	}
+
+	/**
+	 * Enclosing class for the first payload type
+	 */
+	static class First
+	{
+		/**
+		 * Payload type that has the same simple name as {@link Second.Payload}
+		 */
+		static class Payload
+		{
+		}
+	}
+
+	/**
+	 * Enclosing class for the second payload type
+	 */
+	static class Second
+	{
+		/**
+		 * Payload type that has the same simple name as {@link First.Payload}
+		 */
+		static class Payload
+		{
+		}
+	}
+
+	/**
+	 * Listener that records the received batches
+	 *
+	 * @param <T>
+	 *            the type of the event source
+	 */
+	static class BatchRecordingListener<T> extends RecordingListener<T> implements BatchListener<T>
+	{
+		/** The received batches */
+		final List<List<T>> batches = new ArrayList<>();
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void onBatch(List<T> sources)
+		{
+			batches.add(sources);
+		}
+	}
+
+	/**
+	 * Listener that records the last received event source and the count of received events
+	 *
+	 * @param <T>
+	 *            the type of the event source
+	 */
+	static class RecordingListener<T> implements EventListener<EventObject<T>>
+	{
+		/** The last received event source */
+		T last;
+
+		/** The count of received events */
+		int count;
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void onEvent(EventObject<T> event)
+		{
+			last = event.getSource();
+			count++;
+		}
+	}
+}
@@ -0,0 +1,197 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.annotation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.astrapi69.design.pattern.eventbus.registry.Subscriber;
+
+/**
+ * The class {@link SubscriberMethodsTest} provides unit tests for the {@link SubscriberMethods}
+ * and the {@link SubscriberMethod} class
+ */
+public class SubscriberMethodsTest
+{
+
+	/**
+	 * Test method for {@link SubscriberMethods#of(Class)}
+	 */
+	@Test
+	public void testScanIsCachedPerClass()
+	{
+		List<SubscriberMethod> methods = SubscriberMethods.of(ChildSubscriber.class);
+		assertSame(methods, SubscriberMethods.of(ChildSubscriber.class));
+		assertEquals(3, methods.size());
+		SubscriberMethod onText = methods.stream()
+			.filter(method -> method.getEventType() == String.class).findFirst().get();
+		assertEquals(ChildSubscriber.class, onText.getDeclaringClass());
+		assertEquals(7, onText.getPriority());
+		assertEquals(0, SubscriberMethods.of(Object.class).size());
+	}
+
+	/**
+	 * Test method for {@link SubscriberMethods#bind(Object)} that verifies that the handler
+	 * methods are invoked directly without reflection
+	 */
+	@Test
+	public void testBindInvokesHandlersDirectly()
+	{
+		ChildSubscriber target = new ChildSubscriber();
+		List<Subscriber<?>> subscribers = SubscriberMethods.bind(target);
+		for (Subscriber<?> subscriber : subscribers)
+		{
+			assertSame(target, subscriber.getListener());
+			if (subscriber.getEventType() == String.class)
+			{
+				subscriber.deliver("text");
+			}
+			else if (subscriber.getEventType() == Integer.class)
+			{
+				subscriber.deliver(42);
+			}
+			else
+			{
+				subscriber.deliver(4.2d);
+			}
+		}
+		target.received.sort(null);
+		assertEquals(Arrays.asList("child:text", "number:4.2", "parent:42"), target.received);
+		for (StackTraceElement element : target.stackTrace)
+		{
+			if (element.getMethodName().equals("testBindInvokesHandlersDirectly"))
+			{
+				break;
+			}
+			assertFalse(element.getClassName().startsWith("jdk.internal.reflect"),
+				element.toString());
+			assertFalse(element.getClassName().equals("java.lang.reflect.Method"),
+				element.toString());
+		}
+	}
+
+	/**
+	 * Test method for verifying that invalid handler methods are rejected
+	 */
+	@Test
+	public void testInvalidHandlerMethods()
+	{
+		assertThrows(IllegalArgumentException.class,
+			() -> SubscriberMethods.of(InvalidSubscriber.class));
+		assertThrows(IllegalArgumentException.class, () -> SubscriberMethods.bind(new Object()));
+	}
+
+	/**
+	 * A subscriber with handler methods in a superclass
+	 */
+	static class ParentSubscriber
+	{
+		/** The received events */
+		final List<String> received = new ArrayList<>();
+
+		/** The stack trace of the last handler invocation */
+		StackTraceElement[] stackTrace;
+
+		/**
+		 * Handles a text event
+		 *
+		 * @param event
+		 *            the event
+		 */
+		@Subscribe
+		void onText(final String event)
+		{
+			received.add("parent:" + event);
+		}
+
+		/**
+		 * Handles an integer event
+		 *
+		 * @param event
+		 *            the event
+		 */
+		@Subscribe
+		void onInteger(final Integer event)
+		{
+			received.add("parent:" + event);
+			stackTrace = new Throwable().getStackTrace();
+		}
+	}
+
+	/**
+	 * A subscriber that overrides a handler method and adds another one
+	 */
+	static class ChildSubscriber extends ParentSubscriber
+	{
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		@Subscribe(priority = 7)
+		void onText(final String event)
+		{
+			received.add("child:" + event);
+		}
+
+		/**
+		 * Handles a number event
+		 *
+		 * @param event
+		 *            the event
+		 */
+		@Subscribe
+		private void onNumber(final Number event)
+		{
+			received.add("number:" + event);
+		}
+	}
+
+	/**
+	 * A subscriber with an invalid handler method
+	 */
+	static class InvalidSubscriber
+	{
+		/**
+		 * Handles two events at once, which is not allowed
+		 *
+		 * @param first
+		 *            the first event
+		 * @param second
+		 *            the second event
+		 */
+		@Subscribe
+		void onEvents(final String first, final String second)
+		{
+		}
+	}
+}
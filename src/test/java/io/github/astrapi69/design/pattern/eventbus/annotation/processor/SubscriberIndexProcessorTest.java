@@ -0,0 +1,214 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.annotation.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.astrapi69.design.pattern.eventbus.BaseEventBus;
+import io.github.astrapi69.design.pattern.eventbus.annotation.SubscriberIndex;
+import io.github.astrapi69.design.pattern.eventbus.annotation.SubscriberMethod;
+import io.github.astrapi69.design.pattern.eventbus.annotation.SubscriberMethods;
+import io.github.astrapi69.design.pattern.eventbus.registry.Subscriber;
+
+/**
+ * The class {@link SubscriberIndexProcessorTest} provides unit tests for the
+ * {@link SubscriberIndexProcessor} class
+ */
+public class SubscriberIndexProcessorTest
+{
+
+	/** The source of a subscriber class with an indexable nested subscriber class */
+	private static final String INDEXED_SOURCE = String.join("\n", "package sample;",
+		"import io.github.astrapi69.design.pattern.eventbus.annotation.Subscribe;",
+		"import java.util.ArrayList;", "import java.util.List;", "public class Outer {",
+		"  public static class Panel {",
+		"    public final List<Object> received = new ArrayList<>();",
+		"    @Subscribe(priority = 3) void onText(String text) { received.add(text); }",
+		"    @Subscribe public void onList(List<String> list) { received.add(list); }", "  }",
+		"}");
+
+	/** The source of a subscriber class with a private handler method */
+	private static final String PRIVATE_SOURCE = String.join("\n", "package sample;",
+		"import io.github.astrapi69.design.pattern.eventbus.annotation.Subscribe;",
+		"public class Hidden {", "  @Subscribe private void onText(String text) { }", "}");
+
+	/** The source of a subscriber class with a handler method that declares a checked exception */
+	private static final String THROWING_SOURCE = String.join("\n", "package sample;",
+		"import io.github.astrapi69.design.pattern.eventbus.annotation.Subscribe;",
+		"public class Loader {",
+		"  @Subscribe public void onPath(String path) throws java.io.IOException {",
+		"    throw new java.io.IOException(path);", "  }", "}");
+
+	/**
+	 * Test method for verifying that the generated index is registered in the service file and
+	 * provides the handler methods with compiled invokers
+	 *
+	 * @throws Exception
+	 *             is thrown if the sample sources cannot be compiled or loaded
+	 */
+	@Test
+	public void testGeneratedIndex() throws Exception
+	{
+		Path directory = Files.createTempDirectory("subscriber-index");
+		StringWriter diagnostics = new StringWriter();
+		assertTrue(compile(directory, diagnostics, "Outer.java", INDEXED_SOURCE, "Hidden.java",
+			PRIVATE_SOURCE), diagnostics.toString());
+		assertTrue(diagnostics.toString().contains("sample.Hidden is not indexed"),
+			diagnostics.toString());
+
+		Path serviceFile = directory
+			.resolve("META-INF/services/" + SubscriberIndexProcessor.SUBSCRIBER_INDEX);
+		assertEquals(List.of("sample.Outer_Panel_SubscriberIndex"),
+			Files.readAllLines(serviceFile, StandardCharsets.UTF_8));
+
+		try (URLClassLoader classLoader = new URLClassLoader(
+			new URL[] { directory.toUri().toURL() }, getClass().getClassLoader()))
+		{
+			Class<?> panelClass = classLoader.loadClass("sample.Outer$Panel");
+			SubscriberIndex index = (SubscriberIndex)classLoader
+				.loadClass("sample.Outer_Panel_SubscriberIndex").getDeclaredConstructor()
+				.newInstance();
+			assertEquals(panelClass, index.getSubscriberClass());
+			List<SubscriberMethod> indexed = index.getSubscriberMethods();
+			assertEquals(2, indexed.size());
+			assertEquals("onText", indexed.get(0).getMethodName());
+			assertEquals(String.class, indexed.get(0).getEventType());
+			assertEquals(3, indexed.get(0).getPriority());
+			assertEquals(List.class, indexed.get(1).getEventType());
+
+			AtomicInteger lookups = new AtomicInteger();
+			SubscriberMethods.addIndex(new SubscriberIndex()
+			{
+				@Override
+				public Class<?> getSubscriberClass()
+				{
+					return index.getSubscriberClass();
+				}
+
+				@Override
+				public List<SubscriberMethod> getSubscriberMethods()
+				{
+					lookups.incrementAndGet();
+					return indexed;
+				}
+			});
+			assertEquals(indexed, SubscriberMethods.of(panelClass));
+			assertEquals(1, lookups.get());
+
+			Object panel = panelClass.getDeclaredConstructor().newInstance();
+			BaseEventBus eventBus = new BaseEventBus("index");
+			eventBus.register(panel);
+			eventBus.post("text");
+			eventBus.post(List.of("a"));
+			assertEquals(List.of("text", List.of("a")),
+				panelClass.getField("received").get(panel));
+		}
+	}
+
+	/**
+	 * Test method for verifying that the generated invoker of a handler method that declares a
+	 * checked exception compiles and wraps the checked exception
+	 *
+	 * @throws Exception
+	 *             is thrown if the sample source cannot be compiled or loaded
+	 */
+	@Test
+	public void testCheckedException() throws Exception
+	{
+		Path directory = Files.createTempDirectory("subscriber-index");
+		StringWriter diagnostics = new StringWriter();
+		assertTrue(compile(directory, diagnostics, "Loader.java", THROWING_SOURCE),
+			diagnostics.toString());
+
+		try (URLClassLoader classLoader = new URLClassLoader(
+			new URL[] { directory.toUri().toURL() }, getClass().getClassLoader()))
+		{
+			Object loader = classLoader.loadClass("sample.Loader").getDeclaredConstructor()
+				.newInstance();
+			SubscriberIndex index = (SubscriberIndex)classLoader
+				.loadClass("sample.Loader_SubscriberIndex").getDeclaredConstructor()
+				.newInstance();
+			Subscriber<?> subscriber = index.getSubscriberMethods().get(0).bind(loader);
+			IllegalStateException exception = assertThrows(IllegalStateException.class,
+				() -> subscriber.deliver("missing.txt"));
+			assertTrue(exception.getCause() instanceof IOException);
+			assertEquals("missing.txt", exception.getCause().getMessage());
+		}
+	}
+
+	/**
+	 * Compiles the given sample sources with the {@link SubscriberIndexProcessor} into the given
+	 * directory
+	 *
+	 * @param directory
+	 *            the directory of the sources and the compiled classes
+	 * @param diagnostics
+	 *            the writer that receives the diagnostics of the compiler
+	 * @param sources
+	 *            the pairs of the file name and the content of the sample sources
+	 * @return {@code true} if the compilation succeeded, {@code false} otherwise
+	 * @throws Exception
+	 *             is thrown if a sample source cannot be written
+	 */
+	private static boolean compile(final Path directory, final StringWriter diagnostics,
+		final String... sources) throws Exception
+	{
+		Path sourceDirectory = Files.createDirectories(directory.resolve("sample"));
+		String classPath = System.getProperty("java.class.path");
+		List<String> arguments = new ArrayList<>(List.of("-d", directory.toString(), "-cp",
+			classPath, "-processorpath", classPath, "-processor",
+			SubscriberIndexProcessor.class.getName()));
+		for (int i = 0; i < sources.length; i += 2)
+		{
+			Path file = sourceDirectory.resolve(sources[i]);
+			Files.write(file, sources[i + 1].getBytes(StandardCharsets.UTF_8));
+			arguments.add(file.toString());
+		}
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		int result = compiler.run(null, output, output, arguments.toArray(new String[0]));
+		diagnostics.append(output.toString(StandardCharsets.UTF_8));
+		return result == 0;
+	}
+}
@@ -0,0 +1,176 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The class {@link AbstractEventBusTest} provides unit tests for the {@link AbstractEventBus}
+ * class
+ */
+public class AbstractEventBusTest
+{
+
+	/** The event bus under test */
+	private AbstractEventBus<TestSubscriber, TestEvent> eventBus;
+
+	/**
+	 * Sets up the test environment before each test method execution
+	 */
+	@BeforeEach
+	void setUp()
+	{
+		eventBus = new AbstractEventBus<>()
+		{
+			@Override
+			protected void onPost(final TestSubscriber subscriber, final TestEvent event)
+			{
+				subscriber.receive(event);
+			}
+		};
+	}
+
+	/**
+	 * Test method for the deduplication of subscribers by identity and for the read-only view of
+	 * the subscribers
+	 */
+	@Test
+	public void testRegisterDeduplicatesByIdentity()
+	{
+		TestSubscriber subscriber = new TestSubscriber();
+		Collection<TestSubscriber> subscribers = eventBus.getSubscribers();
+		eventBus.register(subscriber);
+		eventBus.register(subscriber);
+		eventBus.register(null);
+		TestEvent event = new TestEvent("event");
+		eventBus.post(event);
+
+		assertEquals(1, subscriber.getReceivedEvents().size());
+		assertEquals(1, subscribers.size());
+		assertTrue(subscribers.contains(subscriber));
+		assertThrows(UnsupportedOperationException.class,
+			() -> subscribers.add(new TestSubscriber()));
+		eventBus.unregister(subscriber);
+		assertTrue(subscribers.isEmpty());
+		assertFalse(eventBus.isRegistered(subscriber));
+	}
+
+	/**
+	 * Test method for verifying that posts that run concurrently with registrations,
+	 * unregistrations and compactions deliver every event exactly once to each subscriber that
+	 * stays registered and never to a subscriber after its unregistration has returned
+	 *
+	 * @throws InterruptedException
+	 *             is thrown if the test is interrupted
+	 */
+	@Test
+	public void testConcurrentPostAndUnregister() throws InterruptedException
+	{
+		List<TestSubscriber> stable = new ArrayList<>();
+		for (int i = 0; i < 8; i++)
+		{
+			TestSubscriber subscriber = new TestSubscriber();
+			eventBus.register(subscriber);
+			stable.add(subscriber);
+		}
+		int posts = 20_000;
+		AtomicBoolean posting = new AtomicBoolean(true);
+		List<TestSubscriber> unregistered = new ArrayList<>();
+		Thread churn = new Thread(() -> {
+			while (posting.get())
+			{
+				TestSubscriber transientSubscriber = new TestSubscriber();
+				eventBus.register(transientSubscriber);
+				eventBus.unregister(transientSubscriber);
+				unregistered.add(transientSubscriber);
+			}
+		});
+		churn.start();
+		try
+		{
+			for (int i = 0; i < posts; i++)
+			{
+				eventBus.post(new TestEvent("event"));
+			}
+		}
+		finally
+		{
+			posting.set(false);
+			churn.join();
+		}
+		TestEvent last = new TestEvent("last");
+		eventBus.post(last);
+
+		for (TestSubscriber subscriber : stable)
+		{
+			assertEquals(posts + 1, subscriber.getReceivedEvents().size());
+		}
+		for (TestSubscriber subscriber : unregistered)
+		{
+			assertFalse(subscriber.getReceivedEvents().contains(last));
+		}
+		assertEquals(stable, new ArrayList<>(eventBus.getSubscribers()));
+	}
+
+	/**
+	 * Test method for verifying that many transient subscribers keep the registration order of the
+	 * remaining subscribers across the compactions of the subscriber array
+	 */
+	@Test
+	public void testChurnKeepsRegistrationOrder()
+	{
+		List<TestSubscriber> remaining = new ArrayList<>();
+		for (int i = 0; i < 10_000; i++)
+		{
+			TestSubscriber transientSubscriber = new TestSubscriber();
+			eventBus.register(transientSubscriber);
+			if (i % 1_000 == 0)
+			{
+				TestSubscriber subscriber = new TestSubscriber();
+				eventBus.register(subscriber);
+				remaining.add(subscriber);
+			}
+			eventBus.unregister(transientSubscriber);
+		}
+		eventBus.post(new TestEvent("event"));
+
+		assertEquals(remaining, new ArrayList<>(eventBus.getSubscribers()));
+		for (TestSubscriber subscriber : remaining)
+		{
+			assertEquals(1, subscriber.getReceivedEvents().size());
+		}
+	}
+}
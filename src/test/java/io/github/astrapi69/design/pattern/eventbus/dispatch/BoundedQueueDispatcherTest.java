@@ -0,0 +1,312 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.dispatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.astrapi69.design.pattern.eventbus.BaseEventBus;
+import io.github.astrapi69.design.pattern.eventbus.registry.Subscriber;
+
+/**
+ * The class {@link BoundedQueueDispatcherTest} provides unit tests for the
+ * {@link BoundedQueueDispatcher} class. Every test blocks the delivery thread with the first
+ * event and fills the queue with a capacity of two events, so the fourth event overflows
+ */
+public class BoundedQueueDispatcherTest
+{
+
+	/** The events received by the listener */
+	private final List<Integer> received = new CopyOnWriteArrayList<>();
+
+	/** The latch that is released when the delivery thread received the first event */
+	private final CountDownLatch started = new CountDownLatch(1);
+
+	/** The latch that blocks the delivery of the first event */
+	private final CountDownLatch gate = new CountDownLatch(1);
+
+	/** The listener that blocks on the first event */
+	private final Subscriber<?>[] listeners = { Subscriber.forPayloadListener(Integer.class,
+		event -> {
+			if (event == 0)
+			{
+				started.countDown();
+				awaitQuietly(gate);
+			}
+			received.add(event);
+		}) };
+
+	/**
+	 * Test method for {@link OverflowPolicy#DROP_NEWEST}
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted
+	 */
+	@Test
+	public void testDropNewest() throws Exception
+	{
+		try (BoundedQueueDispatcher dispatcher = fill(OverflowPolicy.DROP_NEWEST))
+		{
+			CompletableFuture<Void> dropped = dispatcher.dispatchAsync(3, listeners);
+			assertTrue(dropped.isCancelled());
+			assertEquals(1L, dispatcher.getDroppedEvents());
+			gate.countDown();
+		}
+		assertEquals(List.of(0, 1, 2), received);
+	}
+
+	/**
+	 * Test method for {@link OverflowPolicy#DROP_OLDEST}
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted
+	 */
+	@Test
+	public void testDropOldest() throws Exception
+	{
+		try (BoundedQueueDispatcher dispatcher = fill(OverflowPolicy.DROP_OLDEST))
+		{
+			dispatcher.dispatch(3, listeners);
+			assertEquals(1L, dispatcher.getDroppedEvents());
+			assertEquals(2, dispatcher.getQueueSize());
+			gate.countDown();
+		}
+		assertEquals(List.of(0, 2, 3), received);
+	}
+
+	/**
+	 * Test method for {@link OverflowPolicy#CALLER_RUNS}
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted
+	 */
+	@Test
+	public void testCallerRuns() throws Exception
+	{
+		try (BoundedQueueDispatcher dispatcher = fill(OverflowPolicy.CALLER_RUNS))
+		{
+			dispatcher.dispatch(3, listeners);
+			assertEquals(List.of(3), received);
+			assertEquals(1L, dispatcher.getCallerRunsEvents());
+			gate.countDown();
+		}
+		assertEquals(List.of(3, 0, 1, 2), received);
+	}
+
+	/**
+	 * Test method for {@link OverflowPolicy#FAIL_FAST}
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted
+	 */
+	@Test
+	public void testFailFast() throws Exception
+	{
+		try (BoundedQueueDispatcher dispatcher = fill(OverflowPolicy.FAIL_FAST))
+		{
+			assertThrows(RejectedExecutionException.class,
+				() -> dispatcher.dispatch(3, listeners));
+			assertEquals(1L, dispatcher.getRejectedEvents());
+			gate.countDown();
+		}
+		assertEquals(List.of(0, 1, 2), received);
+	}
+
+	/**
+	 * Test method for {@link OverflowPolicy#BLOCK}
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted
+	 */
+	@Test
+	public void testBlock() throws Exception
+	{
+		try (BoundedQueueDispatcher dispatcher = fill(OverflowPolicy.BLOCK))
+		{
+			Thread producer = new Thread(() -> dispatcher.dispatch(3, listeners));
+			producer.start();
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (producer.getState() != Thread.State.WAITING && System.nanoTime() < deadline)
+			{
+				Thread.sleep(1);
+			}
+			assertEquals(Thread.State.WAITING, producer.getState());
+			gate.countDown();
+			producer.join();
+		}
+		assertEquals(List.of(0, 1, 2, 3), received);
+	}
+
+	/**
+	 * Test method for verifying that closing the dispatcher does not interrupt a listener, still
+	 * delivers the queued events and either delivers or rejects the event of a producer that waits
+	 * for space
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted or the future fails
+	 */
+	@Test
+	public void testCloseWhileBlocked() throws Exception
+	{
+		BoundedQueueDispatcher dispatcher = fill(OverflowPolicy.BLOCK);
+		List<CompletableFuture<Void>> futures = new CopyOnWriteArrayList<>();
+		Thread producer = new Thread(() -> {
+			try
+			{
+				futures.add(dispatcher.dispatchAsync(3, listeners));
+			}
+			catch (IllegalStateException exception)
+			{
+				// the post raced with the close and was rejected
+			}
+		});
+		producer.start();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (producer.getState() != Thread.State.WAITING && System.nanoTime() < deadline)
+		{
+			Thread.sleep(1);
+		}
+		Thread closer = new Thread(dispatcher::close);
+		closer.start();
+		closer.join(50);
+		assertTrue(received.isEmpty());
+		assertThrows(IllegalStateException.class, () -> dispatcher.dispatch(4, listeners));
+		gate.countDown();
+		producer.join();
+		closer.join();
+		for (CompletableFuture<Void> future : futures)
+		{
+			future.get(5, TimeUnit.SECONDS);
+		}
+		assertEquals(futures.isEmpty() ? List.of(0, 1, 2) : List.of(0, 1, 2, 3), received);
+	}
+
+	/**
+	 * Test method for verifying that a listener that posts from the delivery thread into a full
+	 * queue with {@link OverflowPolicy#BLOCK} does not deadlock and that the nested events are
+	 * delivered in order
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted
+	 */
+	@Test
+	public void testNestedPostOnFullQueue() throws Exception
+	{
+		try (BoundedQueueDispatcher dispatcher = new BoundedQueueDispatcher(2,
+			OverflowPolicy.BLOCK))
+		{
+			List<Integer> nestedReceived = new CopyOnWriteArrayList<>();
+			CountDownLatch delivered = new CountDownLatch(9);
+			Subscriber<?>[] nestedListeners = new Subscriber<?>[1];
+			nestedListeners[0] = Subscriber.forPayloadListener(Integer.class, event -> {
+				nestedReceived.add(event);
+				if (event == 0)
+				{
+					for (int i = 1; i <= 8; i++)
+					{
+						dispatcher.dispatch(i, nestedListeners);
+					}
+				}
+				delivered.countDown();
+			});
+			dispatcher.dispatch(0, nestedListeners);
+			assertTrue(delivered.await(5, TimeUnit.SECONDS));
+			assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8), nestedReceived);
+		}
+	}
+
+	/**
+	 * Test method for verifying a bounded queue as the dispatcher of one event type of a
+	 * {@link BaseEventBus}
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted or the future fails
+	 */
+	@Test
+	public void testDispatcherPerEventType() throws Exception
+	{
+		BaseEventBus eventBus = new BaseEventBus("bounded");
+		List<String> threads = new CopyOnWriteArrayList<>();
+		eventBus.subscribe(event -> threads.add(Thread.currentThread().getName()), Object.class);
+		try (BoundedQueueDispatcher dispatcher = new BoundedQueueDispatcher(OverflowPolicy.BLOCK))
+		{
+			eventBus.setDispatcher(Integer.class, dispatcher);
+			eventBus.post("synchronous");
+			eventBus.postAsync(1).get(5, TimeUnit.SECONDS);
+		}
+		assertEquals(List.of(Thread.currentThread().getName(), "eventbus-bounded-queue"),
+			threads);
+	}
+
+	/**
+	 * Creates a dispatcher with the given policy, blocks its delivery thread with the first event
+	 * and fills its queue
+	 *
+	 * @param overflowPolicy
+	 *            the policy if the queue is full
+	 * @return the dispatcher with a full queue
+	 * @throws InterruptedException
+	 *             is thrown if the test is interrupted
+	 */
+	private BoundedQueueDispatcher fill(final OverflowPolicy overflowPolicy)
+		throws InterruptedException
+	{
+		BoundedQueueDispatcher dispatcher = new BoundedQueueDispatcher(2, overflowPolicy);
+		dispatcher.dispatch(0, listeners);
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		dispatcher.dispatch(1, listeners);
+		dispatcher.dispatch(2, listeners);
+		assertEquals(2, dispatcher.getQueueSize());
+		return dispatcher;
+	}
+
+	/**
+	 * Waits for the given latch and restores the interrupt flag if the waiting is interrupted
+	 *
+	 * @param latch
+	 *            the latch to wait for
+	 */
+	private static void awaitQuietly(final CountDownLatch latch)
+	{
+		try
+		{
+			latch.await();
+		}
+		catch (InterruptedException exception)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,268 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.dispatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.github.astrapi69.design.pattern.eventbus.BaseEventBus;
+import io.github.astrapi69.design.pattern.eventbus.listener.PayloadListener;
+
+/**
+ * The class {@link CoalescingDispatcherTest} provides unit tests for the
+ * {@link CoalescingDispatcher} class
+ */
+public class CoalescingDispatcherTest
+{
+
+	/** The single thread that plays the role of the event dispatch thread */
+	private ExecutorService uiExecutor;
+
+	/** The thread of the {@link #uiExecutor} */
+	private final AtomicReference<Thread> uiThread = new AtomicReference<>();
+
+	/**
+	 * Sets up the test environment before each test method execution
+	 */
+	@BeforeEach
+	void setUp()
+	{
+		uiExecutor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "ui");
+			uiThread.set(thread);
+			return thread;
+		});
+	}
+
+	/**
+	 * Tears down the test environment after each test method execution
+	 */
+	@AfterEach
+	void tearDown()
+	{
+		uiExecutor.shutdownNow();
+	}
+
+	/**
+	 * Test method for verifying that a burst of events that is posted while the designated thread
+	 * is busy is delivered by one hand-off, conflated per type and in order otherwise
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted or the future fails
+	 */
+	@Test
+	public void testBurstIsDeliveredByOneHandOff() throws Exception
+	{
+		CoalescingDispatcher dispatcher = new CoalescingDispatcher(uiExecutor)
+			.conflate(Integer.class);
+		BaseEventBus eventBus = new BaseEventBus("ui", dispatcher);
+		List<Object> deliveries = new ArrayList<>();
+		List<Thread> threads = new ArrayList<>();
+		eventBus.subscribe(progress -> {
+			deliveries.add(progress);
+			threads.add(Thread.currentThread());
+		}, Object.class);
+		CountDownLatch busy = new CountDownLatch(1);
+		uiExecutor.execute(() -> awaitQuietly(busy));
+
+		eventBus.post("started");
+		for (int progress = 1; progress <= 10_000; progress++)
+		{
+			eventBus.post(progress);
+		}
+		eventBus.post("finished");
+		busy.countDown();
+		eventBus.postAsync("flushed").get(10, TimeUnit.SECONDS);
+
+		assertEquals(List.of("started", 10_000, "finished", "flushed"), deliveries);
+		assertSame(uiThread.get(), threads.get(0));
+		assertEquals(9_999, dispatcher.getConflatedEvents());
+		assertTrue(dispatcher.getHandOffs() <= 2, "hand-offs " + dispatcher.getHandOffs());
+	}
+
+	/**
+	 * Test method for verifying that a frame interval bounds the number of hand-offs while events
+	 * are posted continuously
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted or the future fails
+	 */
+	@Test
+	public void testFrameIntervalBoundsHandOffs() throws Exception
+	{
+		try (CoalescingDispatcher dispatcher = new CoalescingDispatcher(uiExecutor,
+			Duration.ofMillis(50)).conflate(Integer.class))
+		{
+			BaseEventBus eventBus = new BaseEventBus("ui", dispatcher);
+			AtomicReference<Integer> latest = new AtomicReference<>();
+			eventBus.subscribe(latest::set, Integer.class);
+			long start = System.nanoTime();
+			int progress = 0;
+			while (System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(300))
+			{
+				eventBus.post(++progress);
+			}
+			long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			eventBus.postAsync(++progress).get(10, TimeUnit.SECONDS);
+
+			assertEquals(Integer.valueOf(progress), latest.get());
+			long maxHandOffs = elapsedMillis / 50 + 3;
+			assertTrue(dispatcher.getHandOffs() <= maxHandOffs,
+				"hand-offs " + dispatcher.getHandOffs() + " for " + progress + " events");
+		}
+	}
+
+	/**
+	 * Test method for verifying that a hand-off that the executor rejects fails the pending events
+	 * and does not block the later hand-offs
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted or the future fails
+	 */
+	@Test
+	public void testRejectedHandOff() throws Exception
+	{
+		AtomicBoolean reject = new AtomicBoolean(true);
+		CoalescingDispatcher dispatcher = new CoalescingDispatcher(task -> {
+			if (reject.getAndSet(false))
+			{
+				throw new RejectedExecutionException("rejected");
+			}
+			task.run();
+		});
+		BaseEventBus eventBus = new BaseEventBus("ui", dispatcher);
+		List<Object> deliveries = new ArrayList<>();
+		eventBus.subscribe(deliveries::add, String.class);
+
+		assertThrows(RejectedExecutionException.class, () -> eventBus.postAsync("rejected"));
+		eventBus.postAsync("delivered").get(10, TimeUnit.SECONDS);
+
+		assertEquals(List.of("delivered"), deliveries);
+		assertEquals(2, dispatcher.getHandOffs());
+	}
+
+	/**
+	 * Test method for verifying that a listener that throws an exception does not prevent the
+	 * remaining listeners of a coalesced event from receiving it
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted
+	 */
+	@Test
+	public void testThrowingListenerDoesNotSkipOthers() throws Exception
+	{
+		CoalescingDispatcher dispatcher = new CoalescingDispatcher(uiExecutor);
+		BaseEventBus eventBus = new BaseEventBus("ui", dispatcher);
+		List<Object> deliveries = new ArrayList<>();
+		eventBus.subscribe(event -> {
+			throw new IllegalStateException("failed");
+		}, String.class);
+		eventBus.subscribe(deliveries::add, String.class);
+
+		ExecutionException exception = assertThrows(ExecutionException.class,
+			() -> eventBus.postAsync("delivered").get(10, TimeUnit.SECONDS));
+
+		assertEquals("failed", exception.getCause().getMessage());
+		assertEquals(List.of("delivered"), deliveries);
+	}
+
+	/**
+	 * Test method for {@link CoalescingDispatcher#wrap(Class, PayloadListener)} that verifies that
+	 * only the wrapped listeners receive their events coalesced on the designated thread and that
+	 * the events of different wrapped listeners are conflated on their own
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted or the future fails
+	 */
+	@Test
+	public void testWrappedListeners() throws Exception
+	{
+		CoalescingDispatcher dispatcher = new CoalescingDispatcher(uiExecutor)
+			.conflate(Integer.class);
+		BaseEventBus eventBus = new BaseEventBus("ui");
+		List<Integer> direct = new ArrayList<>();
+		List<Integer> first = new ArrayList<>();
+		List<Integer> second = new ArrayList<>();
+		List<Thread> threads = new ArrayList<>();
+		eventBus.subscribe(direct::add, Integer.class);
+		eventBus.subscribe(dispatcher.wrap(Integer.class, progress -> {
+			first.add(progress);
+			threads.add(Thread.currentThread());
+		}), Integer.class);
+		eventBus.subscribe(dispatcher.wrap(Integer.class, second::add), Integer.class);
+		CountDownLatch busy = new CountDownLatch(1);
+		uiExecutor.execute(() -> awaitQuietly(busy));
+
+		for (int progress = 1; progress <= 100; progress++)
+		{
+			eventBus.post(progress);
+		}
+		assertEquals(100, direct.size());
+		busy.countDown();
+		uiExecutor.submit(() -> {
+		}).get(10, TimeUnit.SECONDS);
+
+		assertEquals(List.of(100), first);
+		assertEquals(List.of(100), second);
+		assertSame(uiThread.get(), threads.get(0));
+		assertEquals(198, dispatcher.getConflatedEvents());
+	}
+
+	/**
+	 * Waits for the given latch and restores the interrupt flag if the waiting is interrupted
+	 *
+	 * @param latch
+	 *            the latch to wait for
+	 */
+	private static void awaitQuietly(final CountDownLatch latch)
+	{
+		try
+		{
+			latch.await();
+		}
+		catch (InterruptedException exception)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,206 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.dispatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.astrapi69.design.pattern.eventbus.registry.Subscriber;
+
+/**
+ * The class {@link ConflatingDispatcherTest} provides unit tests for the
+ * {@link ConflatingDispatcher} class
+ */
+public class ConflatingDispatcherTest
+{
+
+	/**
+	 * Test method for verifying that the events waiting for a slow listener are merged down to the
+	 * latest event per key while the events of other types are delivered completely and in order
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted or a future fails
+	 */
+	@Test
+	public void testPendingEventsAreConflatedPerKey() throws Exception
+	{
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try
+		{
+			ConflatingDispatcher dispatcher = new ConflatingDispatcher(executor)
+				.conflateBy(Quote.class, Quote::getSymbol);
+			CountDownLatch blocked = new CountDownLatch(1);
+			CountDownLatch release = new CountDownLatch(1);
+			List<Object> received = Collections.synchronizedList(new ArrayList<>());
+			Subscriber<?>[] listeners = { Subscriber.forPayloadListener(Object.class, event -> {
+				if ("block".equals(event))
+				{
+					blocked.countDown();
+					awaitQuietly(release);
+				}
+				received.add(event);
+			}) };
+
+			dispatcher.dispatch("block", listeners);
+			assertTrue(blocked.await(10, TimeUnit.SECONDS));
+			Quote latestA = null;
+			Quote latestB = null;
+			List<CompletableFuture<Void>> futures = new ArrayList<>();
+			for (int i = 0; i < 100; i++)
+			{
+				latestA = new Quote("A", i);
+				latestB = new Quote("B", i);
+				futures.add(dispatcher.dispatchAsync(latestA, listeners));
+				futures.add(dispatcher.dispatchAsync(latestB, listeners));
+				dispatcher.dispatch(i, listeners);
+			}
+			release.countDown();
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(10,
+				TimeUnit.SECONDS);
+			dispatcher.dispatchAsync("end", listeners).get(10, TimeUnit.SECONDS);
+
+			List<Object> expected = new ArrayList<>(Arrays.asList("block", latestA, latestB));
+			for (int i = 0; i < 100; i++)
+			{
+				expected.add(i);
+			}
+			expected.add("end");
+			assertEquals(expected, received);
+			assertEquals(198, dispatcher.getConflatedEvents());
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Test method for verifying that a draining that the executor rejects discards the pending
+	 * events of the listener and does not block its later events
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted or the future fails
+	 */
+	@Test
+	public void testRejectedDraining() throws Exception
+	{
+		AtomicBoolean reject = new AtomicBoolean(true);
+		ConflatingDispatcher dispatcher = new ConflatingDispatcher(task -> {
+			if (reject.getAndSet(false))
+			{
+				throw new RejectedExecutionException("rejected");
+			}
+			task.run();
+		}).conflate(String.class);
+		List<Object> received = new ArrayList<>();
+		Subscriber<?>[] listeners = { Subscriber.forPayloadListener(Object.class, received::add) };
+
+		assertThrows(RejectedExecutionException.class,
+			() -> dispatcher.dispatchAsync("rejected", listeners));
+		dispatcher.dispatchAsync("delivered", listeners).get(10, TimeUnit.SECONDS);
+
+		assertEquals(List.of("delivered"), received);
+		assertEquals(0, dispatcher.getConflatedEvents());
+	}
+
+	/**
+	 * Waits for the given latch and restores the interrupt flag if the waiting is interrupted
+	 *
+	 * @param latch
+	 *            the latch to wait for
+	 */
+	private static void awaitQuietly(final CountDownLatch latch)
+	{
+		try
+		{
+			latch.await();
+		}
+		catch (InterruptedException exception)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * A price snapshot of a symbol
+	 */
+	static final class Quote
+	{
+
+		/** The symbol */
+		private final String symbol;
+
+		/** The price */
+		private final int price;
+
+		/**
+		 * Instantiates a new {@code Quote}
+		 *
+		 * @param symbol
+		 *            the symbol
+		 * @param price
+		 *            the price
+		 */
+		Quote(final String symbol, final int price)
+		{
+			this.symbol = symbol;
+			this.price = price;
+		}
+
+		/**
+		 * Gets the symbol
+		 *
+		 * @return the symbol
+		 */
+		String getSymbol()
+		{
+			return symbol;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public String toString()
+		{
+			return symbol + "=" + price;
+		}
+	}
+}
@@ -0,0 +1,204 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.dispatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.github.astrapi69.design.pattern.eventbus.registry.Subscriber;
+
+/**
+ * The class {@link ExecutorDispatcherTest} provides unit tests for the {@link ExecutorDispatcher}
+ * class
+ */
+public class ExecutorDispatcherTest
+{
+
+	/** The executor that runs the delivery tasks */
+	private ExecutorService executor;
+
+	/**
+	 * Sets up the test environment before each test method execution
+	 */
+	@BeforeEach
+	void setUp()
+	{
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	/**
+	 * Tears down the test environment after each test method execution
+	 */
+	@AfterEach
+	void tearDown()
+	{
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Test method for verifying that a slow listener neither blocks the poster nor the other
+	 * listeners and that the returned future completes when every listener has finished
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted or the future fails
+	 */
+	@Test
+	public void testSlowListenerDoesNotBlockOtherListeners() throws Exception
+	{
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch fastDelivered = new CountDownLatch(1);
+		AtomicInteger deliveries = new AtomicInteger();
+		Subscriber<Object> slowListener = Subscriber.forPayloadListener(Object.class, event -> {
+			awaitQuietly(release);
+			deliveries.incrementAndGet();
+		});
+		Subscriber<Object> fastListener = Subscriber.forPayloadListener(Object.class, event -> {
+			deliveries.incrementAndGet();
+			fastDelivered.countDown();
+		});
+		ExecutorDispatcher dispatcher = new ExecutorDispatcher(executor);
+
+		CompletableFuture<Void> future = dispatcher.dispatchAsync("event",
+			new Subscriber<?>[] { slowListener, fastListener });
+		assertTrue(fastDelivered.await(5, TimeUnit.SECONDS));
+		assertFalse(future.isDone());
+
+		release.countDown();
+		future.get(5, TimeUnit.SECONDS);
+		assertEquals(2, deliveries.get());
+	}
+
+	/**
+	 * Test method for verifying that the returned future completes exceptionally if a listener
+	 * throws an exception while the other listeners still receive the event
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted
+	 */
+	@Test
+	public void testFailingListener() throws Exception
+	{
+		AtomicInteger deliveries = new AtomicInteger();
+		Subscriber<Object> failingListener = Subscriber.forPayloadListener(Object.class, event -> {
+			throw new IllegalStateException("failure");
+		});
+		Subscriber<Object> listener = Subscriber.forPayloadListener(Object.class,
+			event -> deliveries.incrementAndGet());
+		ExecutorDispatcher dispatcher = new ExecutorDispatcher(executor);
+
+		CompletableFuture<Void> future = dispatcher.dispatchAsync("event",
+			new Subscriber<?>[] { failingListener, listener });
+		ExecutionException exception = assertThrows(ExecutionException.class,
+			() -> future.get(5, TimeUnit.SECONDS));
+		assertTrue(exception.getCause() instanceof IllegalStateException);
+		assertEquals(1, deliveries.get());
+	}
+
+	/**
+	 * Test method for verifying that all listeners are invoked in a single task in order if a
+	 * task per listener is disabled
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted or the future fails
+	 */
+	@Test
+	public void testSingleTask() throws Exception
+	{
+		StringBuilder order = new StringBuilder();
+		Subscriber<Object> first = Subscriber.forPayloadListener(Object.class,
+			event -> order.append("first"));
+		Subscriber<Object> second = Subscriber.forPayloadListener(Object.class,
+			event -> order.append("second"));
+		ExecutorDispatcher dispatcher = new ExecutorDispatcher(executor, false);
+
+		dispatcher.dispatchAsync("event", new Subscriber<?>[] { first, second }).get(5,
+			TimeUnit.SECONDS);
+		assertEquals("firstsecond", order.toString());
+	}
+
+	/**
+	 * Test method for verifying that a listener that throws an exception in a single task does not
+	 * prevent the remaining listeners from receiving the event and that the exceptions of
+	 * dispatched events are passed to the uncaught exception handler
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted
+	 */
+	@Test
+	public void testDispatchReportsFailures() throws Exception
+	{
+		List<Throwable> failures = new CopyOnWriteArrayList<>();
+		ExecutorService reportingExecutor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable);
+			thread.setUncaughtExceptionHandler((failed, exception) -> failures.add(exception));
+			return thread;
+		});
+		AtomicInteger deliveries = new AtomicInteger();
+		Subscriber<?>[] listeners = { Subscriber.forPayloadListener(Object.class, event -> {
+			throw new IllegalStateException("failure");
+		}), Subscriber.forPayloadListener(Object.class, event -> deliveries.incrementAndGet()) };
+		new ExecutorDispatcher(reportingExecutor, false).dispatch("event", listeners);
+		new ExecutorDispatcher(reportingExecutor).dispatch("event", listeners);
+		reportingExecutor.shutdown();
+		assertTrue(reportingExecutor.awaitTermination(5, TimeUnit.SECONDS));
+		assertEquals(2, failures.size());
+		assertTrue(failures.get(0) instanceof IllegalStateException);
+		assertEquals(2, deliveries.get());
+	}
+
+	/**
+	 * Waits for the given latch and ignores interrupts
+	 *
+	 * @param latch
+	 *            the latch
+	 */
+	private static void awaitQuietly(final CountDownLatch latch)
+	{
+		try
+		{
+			latch.await(5, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException exception)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,217 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.dispatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.github.astrapi69.design.pattern.eventbus.BaseEventBus;
+
+/**
+ * The class {@link PartitionedDispatcherTest} provides unit tests for the
+ * {@link PartitionedDispatcher} class
+ */
+public class PartitionedDispatcherTest
+{
+
+	/** The dispatcher under test */
+	private PartitionedDispatcher dispatcher;
+
+	/**
+	 * Sets up the test environment before each test method execution
+	 */
+	@BeforeEach
+	void setUp()
+	{
+		dispatcher = new PartitionedDispatcher(4).partitionBy(JobEvent.class, JobEvent::getJobId);
+	}
+
+	/**
+	 * Tears down the test environment after each test method execution
+	 */
+	@AfterEach
+	void tearDown()
+	{
+		dispatcher.close();
+	}
+
+	/**
+	 * Test method for verifying that the events of the same key are delivered in the order they
+	 * were posted while the events of different keys are delivered on different lanes
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted
+	 */
+	@Test
+	public void testPerKeyOrder() throws Exception
+	{
+		int jobs = 16;
+		int eventsPerJob = 500;
+		BaseEventBus eventBus = new BaseEventBus("partitioned", dispatcher);
+		Map<Integer, List<Integer>> received = new ConcurrentHashMap<>();
+		Map<Integer, String> threads = new ConcurrentHashMap<>();
+		CountDownLatch done = new CountDownLatch(jobs * eventsPerJob);
+		eventBus.subscribe(event -> {
+			received.computeIfAbsent(event.getJobId(), id -> new ArrayList<>())
+				.add(event.getSequence());
+			threads.merge(event.getJobId(), Thread.currentThread().getName(),
+				(first, second) -> first.equals(second) ? first : "multiple");
+			done.countDown();
+		}, JobEvent.class);
+
+		for (int sequence = 0; sequence < eventsPerJob; sequence++)
+		{
+			for (int jobId = 0; jobId < jobs; jobId++)
+			{
+				eventBus.post(new JobEvent(jobId, sequence));
+			}
+		}
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+
+		for (int jobId = 0; jobId < jobs; jobId++)
+		{
+			List<Integer> sequences = received.get(jobId);
+			assertEquals(eventsPerJob, sequences.size());
+			for (int sequence = 0; sequence < eventsPerJob; sequence++)
+			{
+				assertEquals(Integer.valueOf(sequence), sequences.get(sequence));
+			}
+			assertNotEquals("multiple", threads.get(jobId));
+		}
+		assertEquals(4, threads.values().stream().distinct().count());
+	}
+
+	/**
+	 * Test method for verifying that a throwing listener neither skips the remaining listeners nor
+	 * the later events of its lane and that its exceptions are reported
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted
+	 */
+	@Test
+	public void testFailingListener() throws Exception
+	{
+		BaseEventBus eventBus = new BaseEventBus("partitioned", dispatcher);
+		List<Throwable> failures = new CopyOnWriteArrayList<>();
+		List<Integer> received = new CopyOnWriteArrayList<>();
+		eventBus.subscribe(event -> {
+			throw new IllegalStateException("failure " + event.getSequence());
+		}, JobEvent.class, 1);
+		eventBus.subscribe(event -> received.add(event.getSequence()), JobEvent.class);
+		Thread.UncaughtExceptionHandler defaultHandler =
+			Thread.getDefaultUncaughtExceptionHandler();
+		Thread.setDefaultUncaughtExceptionHandler((thread, exception) -> failures.add(exception));
+		try
+		{
+			eventBus.post(new JobEvent(1, 1));
+			CompletableFuture<Void> delivery = eventBus.postAsync(new JobEvent(1, 2));
+			ExecutionException exception = assertThrows(ExecutionException.class,
+				() -> delivery.get(5, TimeUnit.SECONDS));
+			assertTrue(exception.getCause() instanceof IllegalStateException);
+		}
+		finally
+		{
+			Thread.setDefaultUncaughtExceptionHandler(defaultHandler);
+		}
+		assertEquals(List.of(1, 2), received);
+		assertEquals(1, failures.size());
+		assertEquals("failure 1", failures.get(0).getMessage());
+	}
+
+	/**
+	 * Test method for {@link PartitionedDispatcher#laneOf(Object)}
+	 */
+	@Test
+	public void testLaneOf()
+	{
+		assertEquals(dispatcher.laneOf(new JobEvent(7, 1)), dispatcher.laneOf(new JobEvent(7, 2)));
+		assertEquals(dispatcher.laneOf("first"), dispatcher.laneOf("second"));
+		assertEquals(4, dispatcher.getLaneCount());
+		assertThrows(IllegalArgumentException.class, () -> new PartitionedDispatcher(0));
+	}
+
+	/**
+	 * An event of an import job
+	 */
+	static class JobEvent
+	{
+
+		/** The id of the job */
+		private final int jobId;
+
+		/** The sequence number of the event within the job */
+		private final int sequence;
+
+		/**
+		 * Instantiates a new {@code JobEvent}
+		 *
+		 * @param jobId
+		 *            the id of the job
+		 * @param sequence
+		 *            the sequence number of the event within the job
+		 */
+		JobEvent(final int jobId, final int sequence)
+		{
+			this.jobId = jobId;
+			this.sequence = sequence;
+		}
+
+		/**
+		 * Gets the id of the job
+		 *
+		 * @return the id of the job
+		 */
+		int getJobId()
+		{
+			return jobId;
+		}
+
+		/**
+		 * Gets the sequence number of the event within the job
+		 *
+		 * @return the sequence number of the event within the job
+		 */
+		int getSequence()
+		{
+			return sequence;
+		}
+	}
+}
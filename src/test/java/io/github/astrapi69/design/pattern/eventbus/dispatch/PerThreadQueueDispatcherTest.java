@@ -0,0 +1,118 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.dispatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.astrapi69.design.pattern.eventbus.BaseEventBus;
+
+/**
+ * The class {@link PerThreadQueueDispatcherTest} provides unit tests for the
+ * {@link PerThreadQueueDispatcher} class
+ */
+public class PerThreadQueueDispatcherTest
+{
+
+	/**
+	 * Test method for verifying that an event is delivered to all its listeners before the events
+	 * that these listeners post
+	 */
+	@Test
+	public void testNestedPostsAreDeliveredAfterTheCurrentEvent()
+	{
+		PerThreadQueueDispatcher dispatcher = new PerThreadQueueDispatcher();
+		BaseEventBus eventBus = new BaseEventBus("queued", dispatcher);
+		List<String> deliveries = new ArrayList<>();
+		AtomicReference<CompletableFuture<Void>> nestedDelivery = new AtomicReference<>();
+		eventBus.subscribe(text -> {
+			deliveries.add("first:" + text);
+			eventBus.post(text.length());
+			nestedDelivery.set(eventBus.postAsync(Long.valueOf(text.length())));
+			assertTrue(dispatcher.isDispatching());
+		}, String.class);
+		eventBus.subscribe(text -> deliveries.add("second:" + text), String.class);
+		eventBus.subscribe(number -> deliveries.add("number:" + number), Number.class);
+
+		eventBus.post("event");
+		assertEquals(List.of("first:event", "second:event", "number:5", "number:5"), deliveries);
+		assertTrue(nestedDelivery.get().isDone());
+		assertFalse(dispatcher.isDispatching());
+	}
+
+	/**
+	 * Test method for verifying that a long cascade of nested posts does not grow the stack
+	 */
+	@Test
+	public void testCascadeDoesNotGrowTheStack()
+	{
+		BaseEventBus eventBus = new BaseEventBus("queued", new PerThreadQueueDispatcher());
+		AtomicInteger maxDepth = new AtomicInteger();
+		int cascade = 100_000;
+		eventBus.subscribe(number -> {
+			maxDepth.accumulateAndGet(Thread.currentThread().getStackTrace().length, Math::max);
+			if (number < cascade)
+			{
+				eventBus.post(number + 1);
+			}
+		}, Integer.class);
+
+		eventBus.post(1);
+		int depth = maxDepth.get();
+		eventBus.post(cascade);
+		assertEquals(depth, maxDepth.get());
+	}
+
+	/**
+	 * Test method for verifying that an exception of a listener is propagated to the outermost
+	 * poster and discards the queued events
+	 */
+	@Test
+	public void testExceptionDiscardsQueuedEvents()
+	{
+		BaseEventBus eventBus = new BaseEventBus("queued", new PerThreadQueueDispatcher());
+		List<Object> deliveries = new ArrayList<>();
+		eventBus.subscribe(text -> {
+			eventBus.post(1);
+			throw new IllegalStateException(text);
+		}, String.class);
+		eventBus.subscribe(deliveries::add, Integer.class);
+
+		assertThrows(IllegalStateException.class, () -> eventBus.post("failure"));
+		assertTrue(deliveries.isEmpty());
+		eventBus.post(2);
+		assertEquals(List.of(2), deliveries);
+	}
+}
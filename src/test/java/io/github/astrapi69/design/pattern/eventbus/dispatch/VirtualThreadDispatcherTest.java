@@ -0,0 +1,101 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.dispatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.astrapi69.design.pattern.eventbus.registry.Subscriber;
+
+/**
+ * The class {@link VirtualThreadDispatcherTest} provides unit tests for the
+ * {@link VirtualThreadDispatcher} class
+ */
+public class VirtualThreadDispatcherTest
+{
+
+	/**
+	 * Test method for verifying that virtual threads are used exactly if the runtime supports them
+	 */
+	@Test
+	public void testVirtualThreadsSupport()
+	{
+		try (VirtualThreadDispatcher dispatcher = new VirtualThreadDispatcher())
+		{
+			assertEquals(Runtime.version().feature() >= 21, dispatcher.isVirtualThreads());
+			assertEquals(dispatcher.isVirtualThreads(),
+				VirtualThreadDispatcher.isVirtualThreadsSupported());
+		}
+	}
+
+	/**
+	 * Test method for verifying that many blocking listeners receive the event with the bounded
+	 * pool of platform threads
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted or the future fails
+	 */
+	@Test
+	public void testBlockingListenersOnBoundedPool() throws Exception
+	{
+		AtomicInteger deliveries = new AtomicInteger();
+		Subscriber<?>[] listeners = new Subscriber<?>[500];
+		for (int i = 0; i < listeners.length; i++)
+		{
+			listeners[i] = Subscriber.forPayloadListener(Object.class, event -> {
+				sleepQuietly(1);
+				deliveries.incrementAndGet();
+			});
+		}
+		try (VirtualThreadDispatcher dispatcher = new VirtualThreadDispatcher(false, 64))
+		{
+			assertEquals(false, dispatcher.isVirtualThreads());
+			dispatcher.dispatchAsync("event", listeners).get(30, TimeUnit.SECONDS);
+		}
+		assertEquals(listeners.length, deliveries.get());
+	}
+
+	/**
+	 * Sleeps the given milliseconds and ignores interrupts
+	 *
+	 * @param millis
+	 *            the milliseconds to sleep
+	 */
+	private static void sleepQuietly(final long millis)
+	{
+		try
+		{
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException exception)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,340 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.dispatch.ringbuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.astrapi69.design.pattern.eventbus.BaseEventBus;
+import io.github.astrapi69.design.pattern.eventbus.registry.Subscriber;
+import io.github.astrapi69.design.pattern.observer.event.EventListener;
+import io.github.astrapi69.design.pattern.observer.event.EventObject;
+
+/**
+ * The class {@link RingBufferDispatcherTest} provides unit tests for the
+ * {@link RingBufferDispatcher} class
+ */
+public class RingBufferDispatcherTest
+{
+
+	/**
+	 * Test method for verifying that a single producer delivers all events in order with every
+	 * wait strategy
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted
+	 */
+	@Test
+	public void testSingleProducer() throws Exception
+	{
+		for (WaitStrategy waitStrategy : waitStrategies())
+		{
+			List<Integer> received = new ArrayList<>();
+			CountDownLatch done = new CountDownLatch(1);
+			int events = 10_000;
+			Subscriber<Integer> listener = Subscriber.forPayloadListener(Integer.class, event -> {
+				received.add(event);
+				if (event == events - 1)
+				{
+					done.countDown();
+				}
+			});
+			try (RingBufferDispatcher dispatcher = new RingBufferDispatcher(64,
+				ProducerType.SINGLE, waitStrategy))
+			{
+				for (int i = 0; i < events; i++)
+				{
+					dispatcher.dispatch(i, new Subscriber<?>[] { listener });
+				}
+				assertTrue(done.await(10, TimeUnit.SECONDS));
+			}
+			assertEquals(events, received.size());
+			for (int i = 0; i < events; i++)
+			{
+				assertEquals(Integer.valueOf(i), received.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Test method for verifying that multiple producers deliver all events with every wait
+	 * strategy
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted
+	 */
+	@Test
+	public void testMultiProducer() throws Exception
+	{
+		for (WaitStrategy waitStrategy : waitStrategies())
+		{
+			int producers = 4;
+			int eventsPerProducer = 5_000;
+			AtomicLong sum = new AtomicLong();
+			CountDownLatch done = new CountDownLatch(producers * eventsPerProducer);
+			Subscriber<?>[] listeners = new Subscriber<?>[] {
+					Subscriber.forPayloadListener(Integer.class, event -> {
+						sum.addAndGet(event);
+						done.countDown();
+					}) };
+			try (RingBufferDispatcher dispatcher = new RingBufferDispatcher(128,
+				ProducerType.MULTI, waitStrategy))
+			{
+				List<Thread> threads = new ArrayList<>();
+				for (int p = 0; p < producers; p++)
+				{
+					Thread thread = new Thread(() -> {
+						for (int i = 1; i <= eventsPerProducer; i++)
+						{
+							dispatcher.dispatch(i, listeners);
+						}
+					});
+					threads.add(thread);
+					thread.start();
+				}
+				for (Thread thread : threads)
+				{
+					thread.join();
+				}
+				assertTrue(done.await(10, TimeUnit.SECONDS));
+			}
+			long expected = (long)producers * eventsPerProducer * (eventsPerProducer + 1) / 2;
+			assertEquals(expected, sum.get());
+		}
+	}
+
+	/**
+	 * Test method for verifying the ring buffer dispatcher as the engine of a
+	 * {@link BaseEventBus}, including the completion of asynchronous posts
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted or the future fails
+	 */
+	@Test
+	public void testEventBusEngine() throws Exception
+	{
+		try (RingBufferDispatcher dispatcher = new RingBufferDispatcher())
+		{
+			BaseEventBus eventBus = new BaseEventBus("ring-buffer", dispatcher);
+			List<String> received = new ArrayList<>();
+			EventListener<EventObject<String>> listener = event -> received.add(event.getSource());
+			eventBus.register(listener, String.class);
+
+			eventBus.post("first");
+			eventBus.postAsync("second").get(5, TimeUnit.SECONDS);
+			assertEquals(List.of("first", "second"), received);
+		}
+	}
+
+	/**
+	 * Test method for verifying that a failing listener completes the future exceptionally and
+	 * does not stop the consumer
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted or the future fails
+	 */
+	@Test
+	public void testFailingListener() throws Exception
+	{
+		try (RingBufferDispatcher dispatcher = new RingBufferDispatcher())
+		{
+			Subscriber<Object> failingListener = Subscriber.forPayloadListener(Object.class,
+				event -> {
+					throw new IllegalStateException("failure");
+				});
+			Subscriber<Object> listener = Subscriber.forPayloadListener(Object.class, event -> {
+			});
+			ExecutionException exception = assertThrows(ExecutionException.class,
+				() -> dispatcher.dispatchAsync("event", new Subscriber<?>[] { failingListener })
+					.get(5, TimeUnit.SECONDS));
+			assertTrue(exception.getCause() instanceof IllegalStateException);
+			dispatcher.dispatchAsync("event", new Subscriber<?>[] { listener }).get(5,
+				TimeUnit.SECONDS);
+		}
+	}
+
+	/**
+	 * Test method for verifying that an error of a listener is reported and neither stops the
+	 * consumer nor blocks the producers of a full ring buffer
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted or the future fails
+	 */
+	@Test
+	public void testFailingListenerError() throws Exception
+	{
+		List<Throwable> reported = new CopyOnWriteArrayList<>();
+		try (RingBufferDispatcher dispatcher = new RingBufferDispatcher(2, ProducerType.MULTI,
+			WaitStrategies.blocking(), runnable -> {
+				Thread thread = new Thread(runnable, "ring-buffer-consumer");
+				thread.setDaemon(true);
+				thread.setUncaughtExceptionHandler((failed, error) -> reported.add(error));
+				return thread;
+			}))
+		{
+			Subscriber<Object> failingListener = Subscriber.forPayloadListener(Object.class,
+				event -> {
+					throw new AssertionError("failure");
+				});
+			AtomicLong received = new AtomicLong();
+			Subscriber<Object> listener = Subscriber.forPayloadListener(Object.class,
+				event -> received.incrementAndGet());
+			dispatcher.dispatch("event", new Subscriber<?>[] { failingListener, listener });
+			ExecutionException exception = assertThrows(ExecutionException.class,
+				() -> dispatcher.dispatchAsync("event", new Subscriber<?>[] { failingListener })
+					.get(5, TimeUnit.SECONDS));
+			assertTrue(exception.getCause() instanceof AssertionError);
+			for (int i = 0; i < 8; i++)
+			{
+				dispatcher.dispatch("event", new Subscriber<?>[] { listener });
+			}
+			dispatcher.dispatchAsync("event", new Subscriber<?>[] { listener }).get(5,
+				TimeUnit.SECONDS);
+			assertEquals(10, received.get());
+			assertEquals(1, reported.size());
+			assertTrue(reported.get(0) instanceof AssertionError);
+		}
+	}
+
+	/**
+	 * Test method for verifying that a listener that posts from the consumer thread into a full
+	 * ring buffer does not deadlock and that the nested events are delivered in order
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted or the future fails
+	 */
+	@Test
+	public void testNestedPostOnFullBuffer() throws Exception
+	{
+		try (RingBufferDispatcher dispatcher = new RingBufferDispatcher(2, ProducerType.MULTI,
+			WaitStrategies.blocking()))
+		{
+			List<Integer> received = new ArrayList<>();
+			Subscriber<?>[] listeners = new Subscriber<?>[1];
+			listeners[0] = Subscriber.forPayloadListener(Integer.class, event -> {
+				received.add(event);
+				if (event == 0)
+				{
+					for (int i = 1; i <= 8; i++)
+					{
+						dispatcher.dispatch(i, listeners);
+					}
+				}
+			});
+			dispatcher.dispatchAsync(0, listeners).get(5, TimeUnit.SECONDS);
+			dispatcher.dispatchAsync(9, listeners).get(5, TimeUnit.SECONDS);
+			assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), received);
+		}
+	}
+
+	/**
+	 * Test method for verifying that every future of multiple producers that race with the close
+	 * of the dispatcher either completes or its post is rejected
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted or a future fails
+	 */
+	@Test
+	public void testCloseCompletesClaimedSlots() throws Exception
+	{
+		for (int round = 0; round < 20; round++)
+		{
+			RingBufferDispatcher dispatcher = new RingBufferDispatcher(8, ProducerType.MULTI,
+				WaitStrategies.yielding());
+			Subscriber<Object> listener = Subscriber.forPayloadListener(Object.class, event -> {
+			});
+			List<CompletableFuture<Void>> futures = new CopyOnWriteArrayList<>();
+			List<Thread> producers = new ArrayList<>();
+			for (int p = 0; p < 4; p++)
+			{
+				Thread producer = new Thread(() -> {
+					try
+					{
+						while (true)
+						{
+							futures.add(dispatcher.dispatchAsync("event",
+								new Subscriber<?>[] { listener }));
+						}
+					}
+					catch (IllegalStateException exception)
+					{
+						// the dispatcher is closed
+					}
+				});
+				producer.start();
+				producers.add(producer);
+			}
+			Thread.sleep(2);
+			dispatcher.close();
+			for (Thread producer : producers)
+			{
+				producer.join(5_000);
+			}
+			for (CompletableFuture<Void> future : futures)
+			{
+				future.get(5, TimeUnit.SECONDS);
+			}
+		}
+	}
+
+	/**
+	 * Test method for verifying that a closed dispatcher rejects new events
+	 */
+	@Test
+	public void testClosed()
+	{
+		RingBufferDispatcher dispatcher = new RingBufferDispatcher();
+		dispatcher.close();
+		Subscriber<Object> listener = Subscriber.forPayloadListener(Object.class, event -> {
+		});
+		assertThrows(IllegalStateException.class,
+			() -> dispatcher.dispatch("event", new Subscriber<?>[] { listener }));
+		assertThrows(IllegalArgumentException.class,
+			() -> new RingBufferDispatcher(100, ProducerType.SINGLE, WaitStrategies.busySpin()));
+	}
+
+	/**
+	 * Creates all provided wait strategies
+	 *
+	 * @return all provided wait strategies
+	 */
+	private static List<WaitStrategy> waitStrategies()
+	{
+		return List.of(WaitStrategies.busySpin(), WaitStrategies.yielding(),
+			WaitStrategies.parking(10, TimeUnit.MICROSECONDS), WaitStrategies.blocking());
+	}
+}
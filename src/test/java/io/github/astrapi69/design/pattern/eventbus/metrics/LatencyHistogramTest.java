@@ -0,0 +1,82 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The class {@link LatencyHistogramTest} provides unit tests for the {@link LatencyHistogram}
+ * class
+ */
+public class LatencyHistogramTest
+{
+
+	/**
+	 * Test method for verifying that every value is recorded into a bucket whose range contains
+	 * the value and whose relative width does not exceed the precision of the histogram
+	 */
+	@Test
+	public void testBuckets()
+	{
+		long[] values = { 0L, 1L, 15L, 16L, 17L, 31L, 32L, 1_000L, 123_456_789L, Long.MAX_VALUE };
+		for (long value : values)
+		{
+			int index = LatencyHistogram.indexOf(value);
+			assertTrue(index >= 0 && index < LatencyHistogram.BUCKETS);
+			long highest = LatencyHistogram.highestValueOf(index);
+			long lowest = index == 0 ? 0L : LatencyHistogram.highestValueOf(index - 1) + 1;
+			assertTrue(lowest <= value && value <= highest, "value " + value);
+			assertTrue(highest - lowest <= Math.max(0L, lowest / LatencyHistogram.SUB_BUCKETS));
+		}
+		assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.indexOf(Long.MAX_VALUE));
+	}
+
+	/**
+	 * Test method for {@link LatencyHistogram#snapshot()}
+	 */
+	@Test
+	public void testSnapshot()
+	{
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long value = 1; value <= 1_000; value++)
+		{
+			histogram.record(value * 1_000L);
+		}
+		HistogramSnapshot snapshot = histogram.snapshot();
+
+		assertEquals(1_000L, snapshot.getCount());
+		assertEquals(1_000_000L, snapshot.getMax());
+		assertEquals(500_500.0, snapshot.getMean(), 0.001);
+		long median = snapshot.getValueAtPercentile(50.0);
+		assertTrue(median >= 500_000L && median <= 500_000L * 17 / 16, "median " + median);
+		assertEquals(1_000_000L, snapshot.getValueAtPercentile(100.0));
+		assertEquals(0L, new LatencyHistogram().snapshot().getValueAtPercentile(99.0));
+		assertThrows(IllegalArgumentException.class, () -> snapshot.getValueAtPercentile(101.0));
+	}
+}
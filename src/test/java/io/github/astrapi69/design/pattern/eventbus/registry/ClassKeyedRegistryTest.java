@@ -0,0 +1,105 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.registry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The class {@link ClassKeyedRegistryTest} provides unit tests for the {@link ClassKeyedRegistry}
+ * class
+ */
+public class ClassKeyedRegistryTest
+{
+
+	/**
+	 * Test method for {@link ClassKeyedRegistry#computeIfAbsent(Class, java.util.function.Function)}
+	 */
+	@Test
+	public void testComputeIfAbsent()
+	{
+		ClassKeyedRegistry<String> registry = new ClassKeyedRegistry<>();
+		assertFalse(registry.containsKey(String.class));
+
+		String value = registry.computeIfAbsent(String.class, type -> "first");
+		assertEquals("first", value);
+		assertSame(value, registry.computeIfAbsent(String.class, type -> "second"));
+		assertTrue(registry.containsKey(String.class));
+	}
+
+	/**
+	 * Test method for verifying that classes with the same simple name are kept apart
+	 */
+	@Test
+	public void testSameSimpleName()
+	{
+		ClassKeyedRegistry<String> registry = new ClassKeyedRegistry<>();
+		registry.computeIfAbsent(java.util.Date.class, type -> "util");
+		registry.computeIfAbsent(java.sql.Date.class, type -> "sql");
+
+		assertEquals("util", registry.get(java.util.Date.class));
+		assertEquals("sql", registry.get(java.sql.Date.class));
+	}
+
+	/**
+	 * Test method for {@link ClassKeyedRegistry#remove(Class)} and
+	 * {@link ClassKeyedRegistry#remove(Class, Object)}
+	 */
+	@Test
+	public void testRemove()
+	{
+		ClassKeyedRegistry<String> registry = new ClassKeyedRegistry<>();
+		registry.computeIfAbsent(Integer.class, type -> "value");
+
+		assertFalse(registry.remove(Integer.class, "other"));
+		assertEquals("value", registry.get(Integer.class));
+		assertTrue(registry.remove(Integer.class, "value"));
+		assertNull(registry.get(Integer.class));
+
+		registry.computeIfAbsent(Integer.class, type -> "value");
+		assertEquals("value", registry.remove(Integer.class));
+		assertNull(registry.remove(Integer.class));
+	}
+
+	/**
+	 * Test method for {@link ClassKeyedRegistry#compareAndSet(Class, Object, Object)}
+	 */
+	@Test
+	public void testCompareAndSet()
+	{
+		ClassKeyedRegistry<String> registry = new ClassKeyedRegistry<>();
+		assertTrue(registry.compareAndSet(Long.class, null, "first"));
+		assertFalse(registry.compareAndSet(Long.class, null, "second"));
+		assertTrue(registry.compareAndSet(Long.class, "first", "second"));
+		assertEquals("second", registry.get(Long.class));
+		assertTrue(registry.compareAndSet(Long.class, "second", null));
+		assertFalse(registry.containsKey(Long.class));
+	}
+}
@@ -0,0 +1,278 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.registry;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.astrapi69.design.pattern.eventbus.listener.PayloadListener;
+
+/**
+ * The class {@link ListenerRegistryTest} provides unit tests for the {@link ListenerRegistry} and
+ * the {@link TypeHierarchy} class
+ */
+public class ListenerRegistryTest
+{
+
+	/**
+	 * Test method for {@link TypeHierarchy#of(Class)}
+	 */
+	@Test
+	public void testTypeHierarchy()
+	{
+		Class<?>[] hierarchy = TypeHierarchy.of(Integer.class);
+		assertEquals(Integer.class, hierarchy[0]);
+		assertEquals(Number.class, hierarchy[1]);
+		assertEquals(Object.class, hierarchy[2]);
+		assertTrue(Arrays.asList(hierarchy).contains(Comparable.class));
+		assertTrue(Arrays.asList(hierarchy).contains(Serializable.class));
+	}
+
+	/**
+	 * Test method for {@link ListenerRegistry#resolve(Class)} that verifies that a registration
+	 * change invalidates only the cached listeners of the affected event types
+	 */
+	@Test
+	public void testResolveIsCachedUntilRegistrationChanges()
+	{
+		ListenerRegistry registry = new ListenerRegistry();
+		PayloadListener<Object> numberListener = event -> {
+		};
+		Subscriber<Integer> integerSubscriber = Subscriber.forPayloadListener(Integer.class,
+			event -> {
+			});
+		Subscriber<Number> numberSubscriber = Subscriber.forPayloadListener(Number.class,
+			numberListener);
+		registry.add(integerSubscriber);
+		registry.add(numberSubscriber);
+
+		Subscriber<?>[] resolved = registry.resolve(Integer.class);
+		assertArrayEquals(new Subscriber<?>[] { integerSubscriber, numberSubscriber }, resolved);
+		assertSame(resolved, registry.resolve(Integer.class));
+
+		Subscriber<?>[] unrelated = registry.resolve(String.class);
+		registry.add(Subscriber.forPayloadListener(CharSequence.class, event -> {
+		}));
+		assertSame(resolved, registry.resolve(Integer.class));
+		assertNotSame(unrelated, registry.resolve(String.class));
+		assertEquals(1, registry.resolve(String.class).length);
+
+		registry.remove(Number.class, numberListener);
+		Subscriber<?>[] updated = registry.resolve(Integer.class);
+		assertNotSame(resolved, updated);
+		assertArrayEquals(new Subscriber<?>[] { integerSubscriber }, updated);
+		assertEquals(0, registry.resolve(Long.class).length);
+
+		registry.clear(CharSequence.class);
+		assertEquals(0, registry.resolve(String.class).length);
+		assertFalse(registry.hasListeners(String.class));
+		registry.add(Subscriber.forPayloadListener(Comparable.class, event -> {
+		}));
+		assertEquals(1, registry.resolve(String.class).length);
+		assertEquals(2, registry.resolve(Integer.class).length);
+	}
+
+	/**
+	 * Test method for {@link ListenerRegistry#removeAll(Object)} and
+	 * {@link ListenerRegistry#getTypes(Object)}
+	 */
+	@Test
+	public void testRemoveAllWithReverseIndex()
+	{
+		ListenerRegistry registry = new ListenerRegistry();
+		NoOpListener listener = new NoOpListener();
+		NoOpListener other = new NoOpListener();
+		registry.add(Subscriber.forPayloadListener(Number.class, listener));
+		registry.add(Subscriber.forPayloadListener(Integer.class, listener));
+		registry.add(Subscriber.forPayloadListener(Integer.class, listener));
+		registry.add(Subscriber.forPayloadListener(Integer.class, other));
+		assertEquals(Set.of(Number.class, Integer.class), registry.getTypes(listener));
+
+		assertTrue(registry.remove(Integer.class, listener));
+		assertEquals(Set.of(Number.class, Integer.class), registry.getTypes(listener));
+		assertEquals(2, registry.removeAll(listener));
+		assertTrue(registry.getTypes(listener).isEmpty());
+		assertEquals(0, registry.getListeners(Number.class).length);
+		assertArrayEquals(new Object[] { other },
+			Arrays.stream(registry.resolve(Integer.class)).map(Subscriber::getListener).toArray());
+		assertEquals(1, registry.getSubscribers().size());
+	}
+
+	/**
+	 * Test method for verifying that the reverse index and the removal for one event type compare
+	 * the listeners by identity and not by their {@code equals} method
+	 */
+	@Test
+	public void testReverseIndexComparesByIdentity()
+	{
+		ListenerRegistry registry = new ListenerRegistry();
+		EqualListener listener = new EqualListener();
+		EqualListener equalListener = new EqualListener();
+		registry.add(Subscriber.forPayloadListener(Number.class, listener));
+		registry.add(Subscriber.forPayloadListener(Integer.class, equalListener));
+		assertEquals(Set.of(Number.class), registry.getTypes(listener));
+		assertEquals(Set.of(Integer.class), registry.getTypes(equalListener));
+
+		assertEquals(1, registry.removeAll(listener));
+		assertEquals(0, registry.getListeners(Number.class).length);
+		assertSame(equalListener, registry.getListeners(Integer.class)[0].getListener());
+		assertEquals(Set.of(Integer.class), registry.getTypes(equalListener));
+
+		assertFalse(registry.remove(Integer.class, listener));
+		assertEquals(1, registry.getListeners(Integer.class).length);
+		assertTrue(registry.remove(Integer.class, equalListener));
+		assertTrue(registry.getTypes(equalListener).isEmpty());
+	}
+
+	/**
+	 * Stress test for verifying that no registration is lost if many threads add and remove
+	 * listeners of the same event type concurrently while another thread resolves the listeners
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted
+	 */
+	@Test
+	public void testConcurrentRegistrationsAreNotLost() throws Exception
+	{
+		ListenerRegistry registry = new ListenerRegistry();
+		int threads = 8;
+		int registrationsPerThread = 2_000;
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicBoolean running = new AtomicBoolean(true);
+		Thread reader = new Thread(() -> {
+			while (running.get())
+			{
+				for (Subscriber<?> subscriber : registry.resolve(Integer.class))
+				{
+					subscriber.deliver(1);
+				}
+			}
+		});
+		reader.start();
+		List<Thread> writers = new ArrayList<>();
+		for (int t = 0; t < threads; t++)
+		{
+			Thread writer = new Thread(() -> {
+				List<NoOpListener> added = new ArrayList<>();
+				awaitQuietly(start);
+				for (int i = 0; i < registrationsPerThread; i++)
+				{
+					NoOpListener listener = new NoOpListener();
+					registry.add(Subscriber.forPayloadListener(Number.class, listener));
+					added.add(listener);
+				}
+				for (int i = 0; i < registrationsPerThread; i += 2)
+				{
+					assertTrue(registry.remove(Number.class, added.get(i)));
+				}
+			});
+			writers.add(writer);
+			writer.start();
+		}
+		start.countDown();
+		for (Thread writer : writers)
+		{
+			writer.join();
+		}
+		running.set(false);
+		reader.join();
+
+		int expected = threads * registrationsPerThread / 2;
+		assertEquals(expected, registry.getListeners(Number.class).length);
+		assertEquals(expected, registry.resolve(Integer.class).length);
+	}
+
+	/**
+	 * Waits for the given latch and restores the interrupt flag if the waiting is interrupted
+	 *
+	 * @param latch
+	 *            the latch to wait for
+	 */
+	private static void awaitQuietly(final CountDownLatch latch)
+	{
+		try
+		{
+			latch.await();
+		}
+		catch (InterruptedException exception)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * A listener that ignores all events, every instance is a distinct registration
+	 */
+	static class NoOpListener implements PayloadListener<Number>
+	{
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void onPayload(final Number payload)
+		{
+		}
+	}
+
+	/**
+	 * A listener that ignores all events and equals every other instance of its class
+	 */
+	static class EqualListener extends NoOpListener
+	{
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(final Object object)
+		{
+			return object instanceof EqualListener;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode()
+		{
+			return EqualListener.class.hashCode();
+		}
+	}
+}
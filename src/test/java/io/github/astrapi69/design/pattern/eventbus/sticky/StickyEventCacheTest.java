@@ -0,0 +1,114 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.sticky;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The class {@link StickyEventCacheTest} provides unit tests for the {@link StickyEventCache}
+ * class
+ */
+public class StickyEventCacheTest
+{
+
+	/**
+	 * Test method for verifying that the least recently used event types are evicted if the
+	 * number of entries is exceeded
+	 */
+	@Test
+	public void testEntryBound()
+	{
+		StickyEventCache cache = new StickyEventCache(2, 1024, event -> 1);
+		cache.put("first");
+		cache.put(1);
+		assertEquals("first", cache.get(String.class));
+		cache.put(2L);
+		assertEquals(2, cache.size());
+		assertNull(cache.get(Integer.class));
+		assertEquals("first", cache.get(String.class));
+		assertEquals(Long.valueOf(2L), cache.get(Long.class));
+		assertEquals(1L, cache.getEvictions());
+	}
+
+	/**
+	 * Test method for verifying that the estimated memory of the cached events is accounted and
+	 * bounded
+	 */
+	@Test
+	public void testMemoryBound()
+	{
+		StickyEventCache cache = new StickyEventCache(16, 100, event -> ((String)event).length());
+		assertTrue(cache.put("a".repeat(60)));
+		cache.put("b".repeat(40));
+		assertEquals(40L, cache.getBytes());
+		assertFalse(cache.put("c".repeat(101)));
+		assertEquals(0, cache.size());
+		assertEquals(0L, cache.getBytes());
+
+		StickyEventCache mixed = new StickyEventCache(16, 100, event -> 60);
+		mixed.put("a");
+		mixed.put(1);
+		assertEquals(1, mixed.size());
+		assertEquals(Integer.valueOf(1), mixed.get(Integer.class));
+		assertEquals(60L, mixed.getBytes());
+	}
+
+	/**
+	 * Test method for {@link StickyEventCache#getAssignable(Class)} and
+	 * {@link StickyEventCache#remove(Class)}
+	 */
+	@Test
+	public void testGetAssignableAndRemove()
+	{
+		StickyEventCache cache = new StickyEventCache();
+		cache.put(1);
+		cache.put(2L);
+		cache.put("text");
+		assertEquals(List.of(1, 2L), cache.getAssignable(Number.class));
+		assertEquals(Integer.valueOf(1), cache.remove(Integer.class));
+		assertNull(cache.remove(Integer.class));
+		assertEquals(List.of(2L), cache.getAssignable(Number.class));
+		cache.clear();
+		assertTrue(cache.getAssignable(Object.class).isEmpty());
+	}
+
+	/**
+	 * Test method for {@link StickyEventCache#estimateShallowSize(Object)}
+	 */
+	@Test
+	public void testEstimateShallowSize()
+	{
+		assertTrue(StickyEventCache.estimateShallowSize("a".repeat(100)) > 200);
+		assertTrue(StickyEventCache.estimateShallowSize(new long[100]) > 400);
+		assertTrue(StickyEventCache.estimateShallowSize(new Object()) > 0);
+	}
+}
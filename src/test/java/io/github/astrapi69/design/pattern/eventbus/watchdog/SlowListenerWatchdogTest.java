@@ -0,0 +1,254 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.eventbus.watchdog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.astrapi69.design.pattern.eventbus.BaseEventBus;
+import io.github.astrapi69.design.pattern.eventbus.listener.PayloadListener;
+
+/**
+ * The class {@link SlowListenerWatchdogTest} provides unit tests for the
+ * {@link SlowListenerWatchdog} class
+ */
+public class SlowListenerWatchdogTest
+{
+
+	/**
+	 * Test method for verifying that a repeatedly slow listener is reported, quarantined with
+	 * dropped events and released after it recovered
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted
+	 */
+	@Test
+	public void testDropQuarantine() throws Exception
+	{
+		List<String> notifications = new CopyOnWriteArrayList<>();
+		SlowListenerHandler handler = new RecordingHandler(notifications);
+		BaseEventBus eventBus = new BaseEventBus("watchdog");
+		AtomicBoolean slow = new AtomicBoolean(true);
+		AtomicInteger deliveries = new AtomicInteger();
+		PayloadListener<String> listener = payload -> {
+			if (slow.get())
+			{
+				sleepQuietly(20);
+			}
+			deliveries.incrementAndGet();
+		};
+		eventBus.subscribe(listener, String.class);
+		try (SlowListenerWatchdog watchdog = new SlowListenerWatchdog(Duration.ofMillis(5),
+			QuarantinePolicy.DROP, 2, Duration.ofMillis(200), null, handler))
+		{
+			eventBus.setWatchdog(watchdog);
+
+			eventBus.post("first");
+			eventBus.post("second");
+			assertEquals(List.of("slow", "slow", "quarantined"), notifications);
+			assertEquals(1, watchdog.getQuarantined().size());
+
+			long start = System.nanoTime();
+			eventBus.post("dropped");
+			assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(20));
+			assertEquals(2, deliveries.get());
+
+			ListenerWatch watch = watchdog.getOffenders().get(0);
+			assertEquals(listener, watch.getListener());
+			assertEquals(2L, watch.getSlowDeliveries());
+			assertEquals(1L, watch.getDroppedDeliveries());
+
+			slow.set(false);
+			Thread.sleep(250);
+			eventBus.post("recovered");
+			assertEquals(3, deliveries.get());
+			assertFalse(watch.isQuarantined());
+			assertEquals("released", notifications.get(notifications.size() - 1));
+
+			eventBus.unsubscribe(listener, String.class);
+			assertTrue(watchdog.getOffenders().isEmpty());
+		}
+	}
+
+	/**
+	 * Test method for verifying that the events of a quarantined listener are delivered on the
+	 * isolated executor
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted
+	 */
+	@Test
+	public void testIsolateQuarantine() throws Exception
+	{
+		BaseEventBus eventBus = new BaseEventBus("watchdog");
+		List<String> threads = new CopyOnWriteArrayList<>();
+		CountDownLatch isolated = new CountDownLatch(1);
+		eventBus.subscribe(payload -> {
+			threads.add(Thread.currentThread().getName());
+			if (threads.size() > 1)
+			{
+				isolated.countDown();
+			}
+			sleepQuietly(10);
+		}, Integer.class);
+		try (SlowListenerWatchdog watchdog = new SlowListenerWatchdog(Duration.ofMillis(1),
+			QuarantinePolicy.ISOLATE, 1, Duration.ofSeconds(10), null, SlowListenerHandler.NO_OP))
+		{
+			eventBus.setWatchdog(watchdog);
+			eventBus.post(1);
+			eventBus.post(2);
+			assertTrue(isolated.await(5, TimeUnit.SECONDS));
+			assertEquals(Thread.currentThread().getName(), threads.get(0));
+			assertNotEquals(Thread.currentThread().getName(), threads.get(1));
+		}
+	}
+
+	/**
+	 * Test method for verifying that an exception of a quarantined listener on the isolated
+	 * executor is passed to the uncaught exception handler of the isolated thread even if the
+	 * executor discards it
+	 *
+	 * @throws Exception
+	 *             is thrown if the test is interrupted
+	 */
+	@Test
+	public void testIsolatedFailureIsReported() throws Exception
+	{
+		BaseEventBus eventBus = new BaseEventBus("watchdog");
+		List<Throwable> failures = new CopyOnWriteArrayList<>();
+		CountDownLatch reported = new CountDownLatch(1);
+		eventBus.subscribe(payload -> {
+			if (payload == 2)
+			{
+				throw new IllegalStateException("isolated");
+			}
+			sleepQuietly(10);
+		}, Integer.class);
+		try (SlowListenerWatchdog watchdog = new SlowListenerWatchdog(Duration.ofMillis(1),
+			QuarantinePolicy.ISOLATE, 1, Duration.ofSeconds(10), runnable -> {
+				Thread thread = new Thread(() -> {
+					try
+					{
+						runnable.run();
+					}
+					catch (RuntimeException discarded)
+					{
+						// the executor swallows the exception
+					}
+				});
+				thread.setUncaughtExceptionHandler((failed, exception) -> {
+					failures.add(exception);
+					reported.countDown();
+				});
+				thread.start();
+			}, SlowListenerHandler.NO_OP))
+		{
+			eventBus.setWatchdog(watchdog);
+			eventBus.post(1);
+			eventBus.post(2);
+			assertTrue(reported.await(5, TimeUnit.SECONDS));
+			assertEquals("isolated", failures.get(0).getMessage());
+		}
+	}
+
+	/**
+	 * Sleeps the given number of milliseconds and restores the interrupt flag if the sleep is
+	 * interrupted
+	 *
+	 * @param millis
+	 *            the milliseconds to sleep
+	 */
+	private static void sleepQuietly(final long millis)
+	{
+		try
+		{
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException exception)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * A handler that records the names of its notifications
+	 */
+	static class RecordingHandler implements SlowListenerHandler
+	{
+
+		/** The names of the received notifications */
+		private final List<String> notifications;
+
+		/**
+		 * Instantiates a new {@code RecordingHandler}
+		 *
+		 * @param notifications
+		 *            the list that receives the names of the notifications
+		 */
+		RecordingHandler(final List<String> notifications)
+		{
+			this.notifications = notifications;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void onSlowDelivery(final ListenerWatch watch, final long nanos)
+		{
+			notifications.add("slow");
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void onQuarantined(final ListenerWatch watch)
+		{
+			notifications.add("quarantined");
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void onReleased(final ListenerWatch watch)
+		{
+			notifications.add("released");
+		}
+	}
+}